@@ -5,15 +5,13 @@ package applications;
 
 import dataStructures.PacketItem;
 import device.Device;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
 import networkModule.IpNetworkModule;
 import networkModule.L4.TransportLayer;
 import networkModule.L7.ApplicationLayer;
+import utils.MpscQueue;
 import utils.SmartRunnable;
 import utils.WorkerThread;
 
@@ -39,7 +37,7 @@ public abstract class Application implements SmartRunnable, Loggable {
     /**
      * buffer prichozich paketu ze site
      */
-    protected final List<PacketItem> buffer = Collections.synchronizedList(new LinkedList<PacketItem>());
+    protected final MpscQueue<PacketItem> buffer = new MpscQueue<>(1024);
     /**
      * Jestli aplikace prave bezi
      */
@@ -70,8 +68,12 @@ public abstract class Application implements SmartRunnable, Loggable {
         if (running) {
             Logger.log(this, Logger.DEBUG, LoggingCategory.GENERIC_APPLICATION,
                     getName() + "Prisel paket", packetItem.packet);
-            buffer.add(packetItem);
-            worker.wake();
+            if (buffer.offer(packetItem)) {
+                worker.wake();
+            } else {
+                Logger.log(this, Logger.INFO, LoggingCategory.GENERIC_APPLICATION,
+                        getName() + "Dropping packet: buffer of application is full.", packetItem.packet);
+            }
         } else {
             Logger.log(this, Logger.WARNING, LoggingCategory.GENERIC_APPLICATION,
                     getName() + "Received paket but application is not running..", packetItem.packet);
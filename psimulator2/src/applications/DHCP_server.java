@@ -44,7 +44,7 @@ public class DHCP_server extends Application {
 	@Override
 	public void doMyWork() {
 		if (!buffer.isEmpty()) {
-			handlePacket(buffer.remove(0));
+			handlePacket(buffer.poll());
 		}
 	}
 
@@ -19,6 +19,7 @@ import networkModule.L2.EthernetLayer;
 import networkModule.L3.NetworkInterface;
 import networkModule.SwitchNetworkModule;
 import psimulator2.Psimulator;
+import utils.Alarm;
 import utils.Wakeable;
 import static dataStructures.packets.DhcpPacket.DhcpType.*;
 import networkModule.L3.IPLayer;
@@ -56,6 +57,10 @@ public class DhcpClient extends Application implements Wakeable {
 	 */
 	int state = 0;
 	IpAddress serverIdentifier = null; // ukladam si server, ze kteryho mi poprve prisla OFFER a kterymu jsem poslal request
+	/**
+	 * Budik pro opakovani DISCOVER a cekani na ACK, rusi se pri ACK a pri ukonceni aplikace.
+	 */
+	private volatile Alarm.Timer timer;
 
 
 	public DhcpClient(Device device, ApplicationNotifiable command, NetworkInterface iface) {
@@ -83,7 +88,7 @@ public class DhcpClient extends Application implements Wakeable {
 		// metoda se vykonava ve dvou pripadech - bud bylo vlakno vzbuzeno budikem nebo prisel nejakej pozadavek, ten pozadavek ma prednost
 		if(!buffer.isEmpty()) {		// neco je v bufferu
 			while(!buffer.isEmpty()){
-				handleIncomingPacket(buffer.remove(0));
+				handleIncomingPacket(buffer.poll());
 			}
 
 		} else if (wakedByAlarm){ // probuzeno budikem
@@ -129,13 +134,15 @@ public class DhcpClient extends Application implements Wakeable {
 				serverIdentifier = recDhcp.serverIdentifier;
 				sendPacket(REQUEST, recDhcp.ipToAssign, recDhcp.serverIdentifier);	// posilam request
 				state = 2;
-				Psimulator.getPsimulator().budik.registerWake(this, request_wait_time*1000);	// nastavuju cekani na ACK
+				setTimer(request_wait_time*1000);	// nastavuju cekani na ACK
 			}
 			// jinak se v tomhle stavu nic nedela
 
 		} else if (state == 2){ // odeslan request, cekam na odpoved
 			command.printLine("DHCP"+recDhcp.type+" from "+recDhcp.serverIdentifier);	// vypisu co prislo:
 			if (recDhcp.type == ACK){
+				cancelTimer();	// na ACK uz se neceka
+				state = 3;
 				ipLayer.routingTable.flushRecords(iface);
 				ipLayer.changeIpAddressOnInterface(iface, recDhcp.ipToAssign);
 				ipLayer.routingTable.addRecord(new IPwithNetmask("0.0.0.0",0), recDhcp.router, iface);
@@ -155,7 +162,7 @@ public class DhcpClient extends Application implements Wakeable {
 		// sestavim paket:
 		DhcpPacket discover = new DhcpPacket(type, transaction_id, serverIdentier, ipToAssign, null,null, myMac);
 		UdpPacket udp = new UdpPacket(DHCP_server.client_port, DHCP_server.server_port, discover);
-		IpPacket ip = new IpPacket(new IpAddress("0.0.0.0"), new IpAddress("255.255.255.255"), ttl, udp);
+		IpPacket ip = new IpPacket(IpAddress.ANY, IpAddress.BROADCAST, ttl, udp);
 		// poslui paket:
 		ethLayer.sendPacket(ip, iface.ethernetInterface, MacAddress.broadcast());
 
@@ -171,13 +178,29 @@ public class DhcpClient extends Application implements Wakeable {
 		// nastavim budik pro vzbuzeni
 		int interval = ((int) Math.random()) * 5 + 3; // nahodne se generuje interval, kdy se bude znova posilat discover
 				// -> asi je to opravdu nahodne, ale ty cisla jsem si vymyslel
-		Psimulator.getPsimulator().budik.registerWake(this, interval*1000);
+		setTimer(interval*1000);
 		// vypisu a nastavim stav:
 		command.printLine("DHCPDISCOVER on "+iface.name+" to 255.255.255.255 port "+DHCP_server.server_port+" interval "+interval);
 		state = 1;
 		discoverCount++;
 	}
 
+	/**
+	 * Nastavi budik, predchozi budik se zrusi.
+	 * @param relTime v milisekundach
+	 */
+	private void setTimer(long relTime) {
+		cancelTimer();
+		timer = Psimulator.getPsimulator().budik.registerWake(this, relTime);
+	}
+
+	private void cancelTimer() {
+		if (timer != null) {
+			timer.cancel();
+			timer = null;
+		}
+	}
+
 
 
 
@@ -192,12 +215,12 @@ public class DhcpClient extends Application implements Wakeable {
 
 	@Override
 	protected void atExit() {
-		throw new UnsupportedOperationException("Not supported yet.");
+		cancelTimer();
 	}
 
 	@Override
 	protected void atKill() {
-		throw new UnsupportedOperationException("Not supported yet.");
+		cancelTimer();
 	}
 
 
@@ -18,6 +18,7 @@ import logging.Logger;
 import logging.LoggingCategory;
 import networkModule.L4.TransportLayer;
 import psimulator2.Psimulator;
+import utils.Alarm;
 import utils.Util;
 import utils.Wakeable;
 
@@ -56,6 +57,10 @@ public abstract class PingApplication extends TwoThreadApplication implements Wa
 	int lastReceived = 0;	// seq number of last received packet
 
 	private transient boolean zavolanoBudikem = false;
+	/**
+	 * Budik nastaveny po odeslani posledniho paketu.
+	 */
+	private volatile Alarm.Timer timeoutTimer;
 
 	public PingApplication(Device device, ApplicationNotifiable command) {
 		super("ping", device);
@@ -92,7 +97,7 @@ public abstract class PingApplication extends TwoThreadApplication implements Wa
 		IcmpPacket packet;
 
 		while (!buffer.isEmpty()) {
-			IpPacket p = buffer.remove(0).packet;
+			IpPacket p = buffer.poll().packet;
 
 			// zkouseni, jestli je ten paket spravnej:
 			if (! (p.data instanceof IcmpPacket)) {
@@ -135,6 +140,9 @@ public abstract class PingApplication extends TwoThreadApplication implements Wa
 			// reseni posledniho paketu:
 			if(lastReceived == count){
 				Logger.log(this, Logger.DEBUG, LoggingCategory.PING_APPLICATION, "Prisel mi posledni paket. Koncim.", packet);
+				if (timeoutTimer != null) {	// na timeout uz se cekat nemusi
+					timeoutTimer.cancel();
+				}
 				exit();
 			}
 		}
@@ -170,7 +178,7 @@ public abstract class PingApplication extends TwoThreadApplication implements Wa
 			if (seq != count) {	// po poslednim odeslanym paketu uz se neceka
 				Util.sleep(waitTime);	// cekani
 			} else {	// ale nastavi se budik:
-				Psimulator.getPsimulator().budik.registerWake(this, timeout);
+				timeoutTimer = Psimulator.getPsimulator().budik.registerWake(this, timeout);
 			}
 			i++;
 		}
@@ -11,10 +11,12 @@ import dataStructures.packets.IcmpPacket;
 import dataStructures.packets.IpPacket;
 import device.Device;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import logging.Logger;
 import logging.LoggingCategory;
 import networkModule.L4.TransportLayer;
 import psimulator2.Psimulator;
+import utils.Alarm;
 import utils.Util;
 import utils.Wakeable;
 
@@ -65,6 +67,12 @@ public abstract class TracerouteApplication extends TwoThreadApplication impleme
 	 */
 	protected Map<Integer, Double> timeForTTL = new HashMap<>();
 
+	/**
+	 * Key - TTL <br />
+	 * Value - alarm for printing line of given TTL, it is cancelled when the line is printed or the application ends.
+	 */
+	private final Map<Integer, Alarm.Timer> timeoutTimers = new ConcurrentHashMap<>();
+
 	protected Map<Integer, List<Record>> recordsNew;
 
 	protected int printedTTL = 0;
@@ -119,7 +127,7 @@ public abstract class TracerouteApplication extends TwoThreadApplication impleme
 		IcmpPacket packet;
 
 		while (!buffer.isEmpty()) {
-			IpPacket p = buffer.remove(0).packet;
+			IpPacket p = buffer.poll().packet;
 			double arrivalTime = (double) System.nanoTime() / 1_000_000;
 
 			// zkouseni, jestli je ten paket spravnej:
@@ -247,6 +255,7 @@ public abstract class TracerouteApplication extends TwoThreadApplication impleme
 			command.print("\n");
 
 			printedTTL = ttl;
+			cancelTimer(ttl);	// radek je vypsanej, na timeout uz se cekat nemusi
 			Logger.log(this, Logger.DEBUG, LoggingCategory.TRACEROUTE_APPLICATION, "Vypsan radek s ttl="+ttl, null);
 			if ( (targetReached && targetTTL == printedTTL) || (printedTTL == maxTTL) ) {
 				Logger.log(this, Logger.DEBUG, LoggingCategory.TRACEROUTE_APPLICATION, "volam metodu exit, protoze jsem dosahl cile.", null);
@@ -290,8 +299,9 @@ public abstract class TracerouteApplication extends TwoThreadApplication impleme
 
 			timeForTTL.put(ttl, (double)System.nanoTime()/1_000_000); // spravne pocitani casu
 
+			// vypsat hlasku o pripadnych nedoslych paketech - bude se vypisovat po celym radku!
+			timeoutTimers.put(ttl, Psimulator.getPsimulator().budik.registerWake(this, timeout));
 			ttl++;
-			Psimulator.getPsimulator().budik.registerWake(this, timeout); // vypsat hlasku o pripadnych nedoslych paketech - bude se vypisovat po celym radku!
 
 		}
 		Logger.log(this, Logger.DEBUG, LoggingCategory.TRACEROUTE_APPLICATION, "Konci metoda run. Opustena vlaknem "+Util.threadName(), null);
@@ -318,14 +328,28 @@ public abstract class TracerouteApplication extends TwoThreadApplication impleme
 
 	@Override
 	protected synchronized void atExit() {
-		//
+		cancelTimers();
 	}
 
 	@Override
 	protected void atKill(){
+		cancelTimers();
 		command.applicationFinished();
 	}
 
+	private void cancelTimer(int ttl) {
+		Alarm.Timer timer = timeoutTimers.remove(ttl);
+		if (timer != null) {
+			timer.cancel();
+		}
+	}
+
+	private void cancelTimers() {
+		for (Integer ttl : timeoutTimers.keySet()) {
+			cancelTimer(ttl);
+		}
+	}
+
 
 	@Override
 	protected void atStart() {
@@ -94,7 +94,7 @@ public class DhcpClient extends Application {
     @Override
     public void doMyWork() {
         if (!buffer.isEmpty()) {
-            handleIncomingPacket(buffer.remove(0));
+            handleIncomingPacket(buffer.poll());
         }
     }
 
@@ -26,6 +26,7 @@ import networkModule.L3.NetworkInterface;
 import networkModule.SwitchNetworkModule;
 import psimulator2.Psimulator;
 import shell.apps.CommandShell.CommandShell;
+import utils.Alarm;
 import utils.SmartRunnable;
 import utils.Wakeable;
 import utils.WorkerThread;
@@ -62,6 +63,14 @@ public class DhcpClientThread implements Wakeable, SmartRunnable {
     private CommandShell shell = null;
     private final DhcpClient dhcpManager;
     private final DhcpClientLeaseFile leaseFile;
+    /**
+     * Budik pro opakovani DISCOVER a REQUEST, rusi se, kdyz se ziska adresa.
+     */
+    private Alarm.Timer retryTimer;
+    /**
+     * Budik pro vyprseni leasu, rusi se pri novem leasu.
+     */
+    private Alarm.Timer leaseTimer;
 
     //public DhcpClient(Device device, ApplicationNotifiable command, NetworkInterface iface) {
     public DhcpClientThread(Device device, NetworkInterface iface) {
@@ -179,7 +188,7 @@ public class DhcpClientThread implements Wakeable, SmartRunnable {
             requestCount = 0;
             sendPacket(DhcpPacketType.REQUEST, null, serverIdentifier);	// posilam request
             state = State.REQUEST_SENT;
-            Psimulator.getPsimulator().budik.registerWake(this, request_wait_time * 1000);	// nastavuju cekani na ACK
+            setRetryTimer(request_wait_time * 1000);	// nastavuju cekani na ACK
         }
     }
 
@@ -286,11 +295,34 @@ public class DhcpClientThread implements Wakeable, SmartRunnable {
             return false;
         }
 
-        Psimulator.getPsimulator().budik.registerWake(this, waiting + 1);
+        if (leaseTimer != null) {	// predchozi lease uz se nehlida
+            leaseTimer.cancel();
+        }
+        leaseTimer = Psimulator.getPsimulator().budik.registerWake(this, waiting + 1);
         return true;
     }
 
+    /**
+     * Nastavi budik pro opakovani, predchozi budik pro opakovani se zrusi.
+     *
+     * @param relTime v milisekundach
+     */
+    private void setRetryTimer(long relTime) {
+        cancelRetryTimer();
+        retryTimer = Psimulator.getPsimulator().budik.registerWake(this, relTime);
+    }
+
+    private void cancelRetryTimer() {
+        if (retryTimer != null) {
+            retryTimer.cancel();
+            retryTimer = null;
+        }
+    }
+
     private void setNewIpAddress(IPwithNetmask newIpAddress) {
+        // adresa je ziskana, na opakovani se uz neceka
+        cancelRetryTimer();
+
         // vymazani starych informaci o routach a ip adrese
         ipLayer.routingTable.flushRecords(iface);
         ipLayer.changeIpAddressOnInterface(iface, null);
@@ -317,7 +349,7 @@ public class DhcpClientThread implements Wakeable, SmartRunnable {
         // sestavim paket:
         DhcpPacket discover = new DhcpPacket(type, transaction_id, serverIdentier, ipToAssign, null, myMac, null);
         UdpPacket udp = new UdpPacket(DhcpServer.CLIENT_PORT, DhcpServer.SERVER_PORT, discover);
-        IpPacket ip = new IpPacket(new IpAddress("0.0.0.0"), new IpAddress("255.255.255.255"), ttl, udp);
+        IpPacket ip = new IpPacket(IpAddress.ANY, IpAddress.BROADCAST, ttl, udp);
         // poslui paket:
         ethLayer.sendPacket(ip, iface.ethernetInterface, MacAddress.broadcast());
 
@@ -333,7 +365,7 @@ public class DhcpClientThread implements Wakeable, SmartRunnable {
         // nastavim budik pro vzbuzeni
         int interval = ((int) Math.random()) * 5 + 3; // nahodne se generuje interval, kdy se bude znova posilat discover
         // -> asi je to opravdu nahodne, ale ty cisla jsem si vymyslel
-        Psimulator.getPsimulator().budik.registerWake(this, interval * 1000);
+        setRetryTimer(interval * 1000);
         // vypisu a nastavim stav:
 
         if (shell != null) {
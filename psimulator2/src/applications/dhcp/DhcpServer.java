@@ -59,7 +59,7 @@ public class DhcpServer extends Application {
     @Override
     public void doMyWork() {
         while (!buffer.isEmpty()) {
-            handlePacket(buffer.remove(0));
+            handlePacket(buffer.poll());
         }
     }
 
@@ -139,7 +139,7 @@ public class DhcpServer extends Application {
         }
         
         UdpPacket replyUdp = new UdpPacket(SERVER_PORT, CLIENT_PORT, replyDhcp);
-        IpPacket replyIp = new IpPacket(serverAddress, new IpAddress("255.255.255.255"), ttl, replyUdp);
+        IpPacket replyIp = new IpPacket(serverAddress, IpAddress.BROADCAST, ttl, replyUdp);
         // nakonec to poslu pomoci ethernetovy vrstvy:
 
         ethLayer.sendPacket(replyIp, iface.ethernetInterface, recDhcp.clientMac);
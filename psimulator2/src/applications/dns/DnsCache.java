@@ -0,0 +1,174 @@
+/*
+ * created 18.10.2026
+ */
+package applications.dns;
+
+import dataStructures.ipAddresses.IpAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import utils.SimulationClock;
+
+/**
+ * Cache of DNS resolver of one device. Answers are kept for their TTL, names, which nameservers did not know, are kept
+ * for NEGATIVE_TTL, both in simulation time (SimulationClock). Resolvers asking for a name, which is just being resolved by another resolver, wait for its
+ * result instead of sending their own query.
+ *
+ * Thread safe, every resolver runs in its own thread.
+ */
+public class DnsCache {
+
+    /**
+     * How long is kept the information, that the name does not exist [s].
+     */
+    public static final int NEGATIVE_TTL = 10;
+    /**
+     * Max number of cached names, the least recently used ones are thrown away.
+     */
+    private static final int MAX_ENTRIES = 1024;
+    /**
+     * Returned by lookup, when the name is being resolved by another resolver. The result will be delivered to the
+     * asking resolver later.
+     */
+    public static final Entry PENDING = new Entry(null, 0);
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DnsCache.Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    /**
+     * Names being resolved, with resolvers waiting for them. Resolver, which resolves the name, is not in the list.
+     */
+    private final Map<String, List<DnsResolver>> inFlight = new HashMap<>();
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long coalesced;
+    private long expired;
+
+    /**
+     * Looks the name up in the cache. When the name is not there, the resolver either has to resolve the name and
+     * then call complete (null is returned), or it is registered as waiting for another resolver (PENDING is
+     * returned) and gets the result by DnsResolver.deliver.
+     *
+     * @param name domain name ending with dot
+     * @param resolver
+     * @return entry with address (null address means the name does not exist), PENDING or null
+     */
+    public synchronized Entry lookup(String name, DnsResolver resolver) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            if (entry.expires > SimulationClock.now()) {
+                if (entry.address == null) {
+                    negativeHits++;
+                } else {
+                    hits++;
+                }
+                return entry;
+            }
+            entries.remove(name);
+            expired++;
+        }
+
+        List<DnsResolver> waiting = inFlight.get(name);
+        if (waiting != null) {
+            waiting.add(resolver);
+            coalesced++;
+            return PENDING;
+        }
+
+        inFlight.put(name, new ArrayList<DnsResolver>(0));
+        misses++;
+        return null;
+    }
+
+    /**
+     * Stores result of resolving and delivers it to waiting resolvers.
+     *
+     * @param name
+     * @param address resolved address or null
+     * @param ttl TTL of the answer [s], used only for positive answers
+     * @param cacheable false, if null address does not mean, that the name does not exist (e.g. no nameserver
+     * answered)
+     */
+    public void complete(String name, IpAddress address, int ttl, boolean cacheable) {
+        List<DnsResolver> waiting;
+        synchronized (this) {
+            if (cacheable) {
+                long life = (address == null ? NEGATIVE_TTL : ttl) * 1_000_000_000L;
+                entries.put(name, new Entry(address, SimulationClock.now() + life));
+            }
+            waiting = inFlight.remove(name);
+        }
+
+        if (waiting != null) {
+            for (DnsResolver resolver : waiting) {
+                resolver.deliver(address);
+            }
+        }
+    }
+
+    /**
+     * Drops all cached names, resolving of names in flight goes on.
+     */
+    public synchronized void flush() {
+        entries.clear();
+    }
+
+    /**
+     * Returns statistics for resolvectl.
+     *
+     * @return
+     */
+    public synchronized List<String> getStatistics() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Current Cache Size: " + entries.size());
+        lines.add("Cache Hits: " + hits);
+        lines.add("Negative Cache Hits: " + negativeHits);
+        lines.add("Cache Misses: " + misses);
+        lines.add("Coalesced Lookups: " + coalesced);
+        lines.add("Expired Entries: " + expired);
+        lines.add("Lookups In Flight: " + inFlight.size());
+        return lines;
+    }
+
+    /**
+     * Returns cached names with their addresses and remaining TTL.
+     *
+     * @return
+     */
+    public synchronized List<String> dump() {
+        long now = SimulationClock.now();
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getValue().expires <= now) {
+                continue;	// vyprsely, smaze se az pri dalsim dotazu
+            }
+            long ttl = (e.getValue().expires - now) / 1_000_000_000L;
+            String data = e.getValue().address == null ? "NXDOMAIN" : "A " + e.getValue().address;
+            lines.add(e.getKey() + "\t" + ttl + "\tIN\t" + data);
+        }
+        return lines;
+    }
+
+    public static class Entry {
+
+        /**
+         * Resolved address, null means the name does not exist.
+         */
+        public final IpAddress address;
+        /**
+         * Simulation time of expiration [ns].
+         */
+        private final long expires;
+
+        private Entry(IpAddress address, long expires) {
+            this.address = address;
+            this.expires = expires;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.regex.Pattern;
 import logging.Logger;
 import logging.LoggingCategory;
 import psimulator2.Psimulator;
+import utils.Alarm;
 import utils.Wakeable;
 
 /**
@@ -37,6 +38,21 @@ public class DnsResolver extends Application implements Wakeable {
     private boolean wakedByAlarm = false;
     private List<IpAddress> nameServers;
     private int ttl = 16;
+    private final DnsCache cache;
+    /**
+     * True, if this resolver resolves the query for the cache and has to call complete.
+     */
+    private boolean cacheOwner = false;
+    /**
+     * True, if some nameserver answered, only then can be cached, that the name does not exist.
+     */
+    private boolean gotResponse = false;
+    private Alarm.Timer timeout;
+    /**
+     * Result delivered by another resolver (see DnsCache).
+     */
+    private IpAddress delivered;
+    private volatile boolean isDelivered = false;
 
     /**
      *
@@ -51,6 +67,7 @@ public class DnsResolver extends Application implements Wakeable {
         this.resolvConf = applicationLayer.getResolvFile();
         this.command = cmd;
         this.query = toResolve;
+        this.cache = applicationLayer.getDnsCache();
     }
 
     /**
@@ -82,11 +99,22 @@ public class DnsResolver extends Application implements Wakeable {
             return;
         }
         
+        DnsCache.Entry cached = cache.lookup(query, this);
+        if (cached == DnsCache.PENDING) {
+            return;	// stejny jmeno uz resolvuje jinej resolver, vysledek se doruci pres deliver
+        }
+        if (cached != null) {
+            answerResolved(cached.address);
+            return;
+        }
+        cacheOwner = true;
+
         nameServers = resolvConf.getNameServers();
 
         // dns server running on local machine
         if (transportLayer.isRunningApp(DnsServer.PORT)) {
             queryLocalDatabase();
+            setTimeout();	// kdyby lokalni server neodpovedel, zkusi se nameservery z resolv.conf
         } else {
             // try quering nameservers found in resolv.conf file
             queryAddress();
@@ -103,6 +131,34 @@ public class DnsResolver extends Application implements Wakeable {
         this.exit();
     }
 
+    /**
+     * Finishes resolving of the name, result is stored to the cache and delivered to waiting resolvers.
+     *
+     * @param res
+     * @param answerTtl TTL of the answer
+     */
+    private void finish(IpAddress res, int answerTtl) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        if (cacheOwner) {
+            cacheOwner = false;
+            cache.complete(query, res, answerTtl, res != null || gotResponse);
+        }
+        answerResolved(res);
+    }
+
+    /**
+     * Delivers result of the query resolved by another resolver. Called from thread of the other resolver.
+     *
+     * @param res
+     */
+    void deliver(IpAddress res) {
+        delivered = res;
+        isDelivered = true;
+        worker.wake();
+    }
+
     /**
      * Checks if parameter is a valid domain name
      *
@@ -127,12 +183,15 @@ public class DnsResolver extends Application implements Wakeable {
             sendPacket(nsAddress, new DnsQuestion(query));
             setTimeout();
         } else {
-            answerResolved(null);
+            finish(null, 0);
         }
     }
 
     private void setTimeout() {
-        Psimulator.getPsimulator().budik.registerWake(this, 1000);
+        if (timeout != null) {
+            timeout.cancel();	// stary timeout uz patri k dotazu, na kterej se neceka
+        }
+        timeout = Psimulator.getPsimulator().budik.registerWake(this, 1000);
     }
 
     private void handleIncomingPacket(PacketItem packetItem) {
@@ -141,7 +200,9 @@ public class DnsResolver extends Application implements Wakeable {
 
         if (dnsPacket == null || dnsPacket.answers == null) {
             queryAddress();
+            return;
         }
+        gotResponse = true;
 
         if (dnsPacket.answers.isEmpty()) {
             // received no information about auth. nameservers for given query
@@ -161,7 +222,7 @@ public class DnsResolver extends Application implements Wakeable {
             }
         } else {
             resAddress = IpAddress.correctAddress(dnsPacket.answers.get(0).aData);
-            answerResolved(resAddress);
+            finish(resAddress, dnsPacket.answers.get(0).ttl);
         }
     }
 
@@ -176,7 +237,7 @@ public class DnsResolver extends Application implements Wakeable {
         DnsQuestion question = new DnsQuestion(query);
         DnsPacket dns = new DnsPacket(DnsPacket.DnsPacketType.QUERY, 1, question);
         UdpPacket udp = new UdpPacket(this.port, DnsServer.PORT, dns);
-        IpPacket ip = new IpPacket(null, new IpAddress("127.0.0.1"), ttl, udp);
+        IpPacket ip = new IpPacket(null, IpAddress.LOOPBACK, ttl, udp);
         PacketItem item = new PacketItem(ip, null);
 
         transportLayer.forwardPacketToApplication(item, DnsServer.PORT);
@@ -207,12 +268,22 @@ public class DnsResolver extends Application implements Wakeable {
 
     @Override
     protected void atKill() {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        if (cacheOwner) {	// at necekaji resolvery se stejnym dotazem
+            cacheOwner = false;
+            cache.complete(query, null, 0, false);
+        }
     }
 
     @Override
     public void doMyWork() {
-        if (!buffer.isEmpty()) {
-            handleIncomingPacket(buffer.remove(0));
+        if (isDelivered) {
+            isDelivered = false;
+            answerResolved(delivered);
+        } else if (!buffer.isEmpty()) {
+            handleIncomingPacket(buffer.poll());
         } else if (wakedByAlarm) {
             queryAddress();
         } else {
@@ -6,9 +6,12 @@ import config.configFiles.NamedConfFile;
 import dataStructures.PacketItem;
 import device.Device;
 import filesystem.FileSystem;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import logging.Logger;
+import logging.LoggingCategory;
 
 /**
  *
@@ -17,18 +20,27 @@ import java.util.concurrent.Executors;
 public class DnsServer extends Application {
 
     public static final int PORT = 53;
+    /**
+     * Max number of threads answering queries. Answering is cheap, so more threads would not help.
+     */
+    private static final int THREADS = 2;
+    /**
+     * Max number of queries waiting for a thread. Further queries are dropped, as on an overloaded server.
+     */
+    private static final int QUEUE_SIZE = 256;
     protected FileSystem fs;
     protected NamedConfFile namedConf;
 
-    protected Map<String, ZoneInfo> zoneDatabase;
+    protected ZoneDatabase zoneDatabase;
     
-    private ExecutorService threadPool; 
+    private ThreadPoolExecutor threadPool; 
 
     public DnsServer(Device device) {
         super("dns_server", device);
         this.port = PORT;
         this.fs = device.getFilesystem();
         namedConf = new NamedConfFile(device.getFilesystem());
+        zoneDatabase = new ZoneDatabase(device.getFilesystem(), namedConf);
     }
 
     private void handleIncomingPacket(PacketItem packetItem) {
@@ -41,9 +53,14 @@ public class DnsServer extends Application {
             namedConf.createFile();
         }
 
-        zoneDatabase = namedConf.getZones();
-        
-        threadPool = Executors.newCachedThreadPool();
+        threadPool = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                Logger.log(DnsServer.this, Logger.INFO, LoggingCategory.GENERIC_APPLICATION, "DNS server is overloaded, query dropped.", null);
+            }
+        });
+        threadPool.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -58,7 +75,7 @@ public class DnsServer extends Application {
     @Override
     public void doMyWork() {
         while (!buffer.isEmpty()) {
-            handleIncomingPacket(buffer.remove(0));
+            handleIncomingPacket(buffer.poll());
         }
     }
 
@@ -1,7 +1,6 @@
 package applications.dns;
 
 import applications.dns.DnsServer.ZoneInfo;
-import config.configFiles.DnsZoneFile;
 import config.configFiles.NamedConfFile;
 import dataStructures.PacketItem;
 import dataStructures.ipAddresses.IpAddress;
@@ -54,7 +53,7 @@ public class DnsServerThread implements Runnable {
             return;
         }
 		
-        DnsQuery query = getZoneInfo(dnsPacket.question.qName);
+        DnsQuery query = server.zoneDatabase.findZone(dnsPacket.question.qName);
         if (query == null) {
             sendAnswer(DnsStatus.NAME_ERROR);
             return;
@@ -63,29 +62,11 @@ public class DnsServerThread implements Runnable {
         queryAnswer(query, dnsPacket);
     }
 
-    private DnsQuery getZoneInfo(String queryString) {
-        int dotIndex;
-        String[] res = {"", queryString};
-
-        while (true) {
-            if (server.zoneDatabase.containsKey(res[1])) {
-                DnsQuery resQuery = new DnsQuery(res[0], res[1], server.zoneDatabase.get(res[1]));
-                return resQuery;
-            }
-
-            dotIndex = res[1].indexOf(".");
-            if (dotIndex == -1) {
-                return null;
-            }
-
-            res[0] = res[1].substring(0, dotIndex);
-            res[1] = res[1].substring(dotIndex + 1);
-        }
-    }
-
     private void queryAnswer(DnsQuery query, DnsPacket packet) {
-        DnsZoneFile zoneFile = new DnsZoneFile(device.getFilesystem());
-        zoneFile.resolveQuery(query, packet);
+        DnsZone zone = server.zoneDatabase.getZone(query);
+        if (zone != null) {
+            zone.resolveQuery(packet);
+        }
         sendPacket(packet);
     }
 
@@ -99,7 +80,7 @@ public class DnsServerThread implements Runnable {
         packet.type = DnsPacket.DnsPacketType.ANSWER;
         UdpPacket udp = new UdpPacket(DnsServer.PORT, incUdpPacket.srcPort, packet);
       
-        if (incIpPacket.dst.equals(new IpAddress("127.0.0.1"))) {
+        if (incIpPacket.dst.equals(IpAddress.LOOPBACK)) {
             handleLocalQuery(udp);
         } else {
             appLayer.getIpLayer().sendPacket(udp, null, incIpPacket.src, incIpPacket.ttl - 1);
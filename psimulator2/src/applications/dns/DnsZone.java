@@ -0,0 +1,187 @@
+/*
+ * created 18.10.2026
+ */
+package applications.dns;
+
+import dataStructures.packets.dns.DnsAnswer;
+import dataStructures.packets.dns.DnsPacket;
+import dataStructures.packets.dns.DnsType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zone compiled from a zone file. A and NS records are kept in a trie of labels going from the root (reversed domain
+ * name), so the query is answered by one walk along the queried name without reading the file.
+ *
+ * Zonu plni jen DnsZoneFile pri parsovani, potom se uz nemeni a sdili ji vsechna vlakna serveru.
+ */
+public class DnsZone {
+
+    private final String name;
+    private final int levels;
+    private final Node root = new Node();
+    private int ttl = DnsAnswer.DEFAULT_TTL;
+
+    /**
+     *
+     * @param name zone name ending with dot, e.g. example.com.
+     */
+    public DnsZone(String name) {
+        this.name = name;
+        this.levels = name.split("\\.").length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets TTL of all answers from the zone ($TTL directive).
+     *
+     * @param ttl [s]
+     */
+    public void setTtl(int ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Adds record to the zone, used when parsing the zone file.
+     *
+     * @param domain absolute domain name of the record
+     * @param type only A and NS records are stored
+     * @param data address or name of nameserver
+     */
+    public void addRecord(String domain, DnsType type, String data) {
+        String[] labels = domain.split("\\.");
+        Node node = root;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            node = node.getOrCreateChild(labels[i]);
+        }
+
+        if (type == DnsType.A) {
+            node.addresses = add(node.addresses, data);
+        } else if (type == DnsType.NS) {
+            node.nameServers = add(node.nameServers, data);
+        }
+    }
+
+    /**
+     * Fills answer, authority and additional sections of the packet. Addresses of queried name go to the answer
+     * section, nameservers of the closest enclosing domain, which have an address in this zone, go to the authority
+     * section and their addresses to the additional section.
+     *
+     * @param packet
+     * @return
+     */
+    public DnsPacket resolveQuery(DnsPacket packet) {
+        String qName = packet.question.qName;
+        String[] labels = qName.split("\\.");
+
+        Node node = root;
+        Node delegation = null;
+        int delegationIndex = -1;
+        for (int i = labels.length - 1; i >= 0 && node != null; i--) {
+            node = node.children == null ? null : node.children.get(labels[i]);
+            if (node != null && labels.length - i >= levels && hasGlue(node, qName)) {
+                delegation = node;
+                delegationIndex = i;
+            }
+        }
+
+        if (node != null && node.addresses != null) {
+            for (String address : node.addresses) {
+                if (!packet.containsData(address, packet.answers)) {
+                    packet.answers.add(answer(qName, DnsType.A, address));
+                }
+            }
+        }
+
+        if (delegation != null) {
+            String domain = suffix(labels, delegationIndex);
+            for (String host : delegation.nameServers) {
+                Node hostNode = find(host);
+                if (host.equals(qName) || hostNode == null || hostNode.addresses == null) {
+                    continue;
+                }
+                if (!packet.containsData(host, packet.authority)) {
+                    packet.authority.add(answer(domain, DnsType.NS, host));
+                }
+                for (String address : hostNode.addresses) {
+                    packet.additional.add(answer(host, DnsType.A, address));
+                }
+            }
+        }
+
+        return packet;
+    }
+
+    /**
+     * Returns true, if some of nameservers of the node has an address in this zone.
+     */
+    private boolean hasGlue(Node node, String qName) {
+        if (node.nameServers == null) {
+            return false;
+        }
+        for (String host : node.nameServers) {
+            Node hostNode = find(host);
+            if (!host.equals(qName) && hostNode != null && hostNode.addresses != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DnsAnswer answer(String domain, DnsType type, String data) {
+        DnsAnswer answer = new DnsAnswer(domain, type, data);
+        answer.ttl = ttl;
+        return answer;
+    }
+
+    private Node find(String domain) {
+        String[] labels = domain.split("\\.");
+        Node node = root;
+        for (int i = labels.length - 1; i >= 0 && node != null; i--) {
+            node = node.children == null ? null : node.children.get(labels[i]);
+        }
+        return node;
+    }
+
+    private static String suffix(String[] labels, int from) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < labels.length; i++) {
+            sb.append(labels[i]).append('.');
+        }
+        return sb.toString();
+    }
+
+    private static List<String> add(List<String> list, String data) {
+        if (list == null) {
+            list = new ArrayList<>(2);
+        }
+        if (!list.contains(data)) {
+            list.add(data);
+        }
+        return list;
+    }
+
+    private static class Node {
+
+        Map<String, Node> children;
+        List<String> addresses;
+        List<String> nameServers;
+
+        Node getOrCreateChild(String label) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            Node child = children.get(label);
+            if (child == null) {
+                child = new Node();
+                children.put(label, child);
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * created 18.10.2026
+ */
+package applications.dns;
+
+import applications.dns.DnsServer.ZoneInfo;
+import applications.dns.DnsServerThread.DnsQuery;
+import config.configFiles.DnsZoneFile;
+import config.configFiles.NamedConfFile;
+import filesystem.FileSystem;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zones of DNS server. named.conf and zone files are parsed once into DnsZone objects, they are parsed again only when
+ * they change in device filesystem (see CachingFileSystem), so the server does not need to be restarted after editing
+ * them.
+ *
+ * Thread safe.
+ */
+public class ZoneDatabase {
+
+    private final FileSystem fs;
+    private final NamedConfFile namedConf;
+    /**
+     * Zone files by zone name and file path. Zaznamy zon, ktery z named.conf zmizely, se mazou pri jeho zmene.
+     */
+    private final ConcurrentHashMap<String, DnsZoneFile> zoneFiles = new ConcurrentHashMap<>();
+    private volatile Map<String, ZoneInfo> lastZones;
+
+    public ZoneDatabase(FileSystem fs, NamedConfFile namedConf) {
+        this.fs = fs;
+        this.namedConf = namedConf;
+    }
+
+    /**
+     * Finds zone, which the queried name belongs to.
+     *
+     * @param queryString domain name ending with dot
+     * @return null if this server has no such zone
+     */
+    public DnsQuery findZone(String queryString) {
+        Map<String, ZoneInfo> zones = getZones();
+
+        int dotIndex;
+        String[] res = {"", queryString};
+
+        while (true) {
+            ZoneInfo info = zones.get(res[1]);
+            if (info != null) {
+                return new DnsQuery(res[0], res[1], info);
+            }
+
+            dotIndex = res[1].indexOf(".");
+            if (dotIndex == -1) {
+                return null;
+            }
+
+            res[0] = res[1].substring(0, dotIndex);
+            res[1] = res[1].substring(dotIndex + 1);
+        }
+    }
+
+    /**
+     * Returns compiled zone for the query.
+     *
+     * @param query
+     * @return null if zone file does not exist
+     */
+    public DnsZone getZone(DnsQuery query) {
+        if (query.info.file == null) {
+            return null;
+        }
+        String key = query.zone + " " + query.info.file;
+        DnsZoneFile zoneFile = zoneFiles.get(key);
+        if (zoneFile == null) {
+            zoneFile = new DnsZoneFile(fs, query.info.file, query.zone);
+            DnsZoneFile previous = zoneFiles.putIfAbsent(key, zoneFile);
+            if (previous != null) {
+                zoneFile = previous;
+            }
+        }
+        return zoneFile.getZone();
+    }
+
+    private Map<String, ZoneInfo> getZones() {
+        Map<String, ZoneInfo> zones = namedConf.getZones();
+        if (zones != lastZones) {	// named.conf se zmenil
+            lastZones = zones;
+            for (Iterator<String> it = zoneFiles.keySet().iterator(); it.hasNext();) {
+                String key = it.next();
+                String zone = key.substring(0, key.indexOf(' '));
+                ZoneInfo info = zones.get(zone);
+                if (info == null || !key.equals(zone + " " + info.file)) {
+                    it.remove();
+                }
+            }
+        }
+        return zones;
+    }
+}
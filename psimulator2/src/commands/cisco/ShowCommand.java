@@ -7,7 +7,10 @@ import commands.AbstractCommandParser;
 import commands.completer.Completer;
 import commands.completer.Node;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import networkModule.L2.EthernetInterface;
+import networkModule.L2.MacTable;
 import networkModule.L3.ArpCache.ArpRecord;
 import networkModule.L3.ArpCache.Target;
 import networkModule.L3.CiscoIPLayer;
@@ -59,9 +62,11 @@ public class ShowCommand extends CiscoCommand {
 		user.addCommand("show ip nat translations");
 		user.addCommand("show ip interface brief");
 		user.addCommand("show arp");
+		user.addCommand("show mac address-table");
 		privileged.addCommand("show ip nat translations");
 		privileged.addCommand("show ip interface brief");
 		privileged.addCommand("show arp");
+		privileged.addCommand("show mac address-table");
 
 		privileged.addCommand("show running-config");
 
@@ -86,6 +91,7 @@ public class ShowCommand extends CiscoCommand {
 	enum State {
 
 		ARP,
+		MAC,
 		RUN,
 		ROUTE,
 		NAT,
@@ -99,6 +105,9 @@ public class ShowCommand extends CiscoCommand {
 			case ARP:
 				arp();
 				break;
+			case MAC:
+				macAddressTable();
+				break;
 			case RUN:
 				runningConfig();
 				break;
@@ -128,6 +137,7 @@ public class ShowCommand extends CiscoCommand {
 		// show ip interface
 		// show ip interface brief
 		// show arp
+		// show mac address-table
 
 		String dalsi = nextWord(); // druhe slovo
 		if (dalsi.isEmpty()) {
@@ -140,6 +150,7 @@ public class ShowCommand extends CiscoCommand {
 			s += psimulator2.Psimulator.getNameOfProgram() + ": in real cisco there is just first word for completion (not the whole command)\n\n";
 			s += "  show ip route                   IP routing table\n";
 			s += "  show ip nat translations        Translation entries\n";
+			s += "  show mac address-table          MAC forwarding table\n";
 			if (ciscoState == CommandShell.CISCO_PRIVILEGED_MODE) {
 				s += "  show running-config             Current operating configuration\n";
 			}
@@ -157,6 +168,17 @@ public class ShowCommand extends CiscoCommand {
 			return true;
 		}
 
+		if (dalsi.startsWith("m")) {
+			if (!isCommand("mac", dalsi, 1)) {
+				return false;
+			}
+			if (!isCommand("address-table", nextWord(), 1)) {
+				return false;
+			}
+			showState = State.MAC;
+			return true;
+		}
+
 		if (dalsi.startsWith("r")) {
 			if (ciscoState == CommandShell.CISCO_USER_MODE) {
 				invalidInputDetected();
@@ -310,6 +332,31 @@ public class ShowCommand extends CiscoCommand {
 		printWithDelay(s, 50);
 	}
 
+	/**
+	 * show mac address-table
+	 */
+	private void macAddressTable() {
+		String s = "";
+		int count = 0;
+		s += "          Mac Address Table\n";
+		s += "-------------------------------------------\n\n";
+		s += "Vlan    Mac Address       Type        Ports\n";
+		s += "----    -----------       --------    -----\n";
+
+		for (EthernetInterface ethIface : getNetMod().ethernetLayer.getIfaces()) {
+			for (MacTable.Entry entry : ethIface.getSwitchingTable().getEntries()) {
+				s += Util.zarovnej("   1", 8);
+				s += Util.zarovnej(entry.mac.getCiscoRepresentation(), 18);
+				s += Util.zarovnej("DYNAMIC", 12);
+				s += ethIface.name + "\n";
+				count++;
+			}
+		}
+		s += "Total Mac Addresses for this criterion: " + count + "\n";
+
+		printWithDelay(s, 50);
+	}
+
 	/**
 	 * show ip interface
 	 */
@@ -388,8 +435,9 @@ public class ShowCommand extends CiscoCommand {
 
 		NatTable table = ipLayer.getNatTable();
 		table.deleteOldDynamicRecords();
+		List<Record> dynamicRules = table.getDynamicRules();
 
-		if (table.getDynamicRules().isEmpty()) {
+		if (dynamicRules.isEmpty()) {
 			s += "\n\n";
 			printWithDelay(s, 50);
 			return;
@@ -399,7 +447,7 @@ public class ShowCommand extends CiscoCommand {
 		s += Util.zarovnej("Outside local", 20) + Util.zarovnej("Outside global", 20);
 		s += "\n";
 
-		for (Record zaznam : table.getDynamicRules()) {
+		for (Record zaznam : dynamicRules) {
 			s += Util.zarovnej("icmp " + zaznam.out.getAddressWithPort(), 24)
 					+ Util.zarovnej(zaznam.in.getAddressWithPort(), 20)
 					+ Util.zarovnej(zaznam.target.toString(), 20)
@@ -58,6 +58,7 @@ public class Help extends AbstractCommand {
         printLine("editor        jednoduchy textovy editor");
         printLine("service       implementovane sluzby: networking, dhcp-server, dns-server");
         printLine("dhclient");
+        printLine("resolvectl    statistiky a obsah cache DNS resolveru: statistics, show-cache, flush-caches");
         printLine("");
     }
 
@@ -87,6 +88,7 @@ public class Help extends AbstractCommand {
         printLine("editor        simple text editor");
         printLine("service       implemented services: networking, dhcp-server, dns-server");
         printLine("dhclient");        
+        printLine("resolvectl    DNS resolver cache: statistics, show-cache, flush-caches");
         printLine("");
     }
 
@@ -83,6 +83,7 @@ public class LinuxCommandParser extends AbstractCommandParser implements Loggabl
 		commands.put("rnetconn", Rnetconn.class);
 		commands.put("service", Service.class);
 		commands.put("dhclient", Dhclient.class);
+		commands.put("resolvectl", Resolvectl.class);
                 commands.put("dig", Dig.class);
 
 		// prace s filesystemem:
@@ -0,0 +1,39 @@
+/*
+ * created 18.10.2026
+ */
+package commands.linux;
+
+import applications.dns.DnsCache;
+import commands.AbstractCommandParser;
+
+/**
+ * Linuxovej prikaz resolvectl, umi jen vypsat statistiky a obsah cache DNS resolveru a cache vymazat.
+ */
+public class Resolvectl extends LinuxCommand {
+
+    public Resolvectl(AbstractCommandParser parser) {
+        super(parser);
+    }
+
+    @Override
+    public void run() {
+        DnsCache cache = getNetMod().applicationLayer.getDnsCache();
+        String command = dalsiSlovo();
+
+        if (command.equals("") || command.equals("statistics")) {
+            printService("Cache");
+            for (String line : cache.getStatistics()) {
+                printLine("  " + line);
+            }
+        } else if (command.equals("show-cache")) {
+            for (String line : cache.dump()) {
+                printLine(line);
+            }
+        } else if (command.equals("flush-caches")) {
+            cache.flush();
+        } else {
+            printLine("Unknown operation " + command);
+            printLine("Usage: resolvectl {statistics|show-cache|flush-caches}");
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package config.configFiles;
 
 import device.Device;
+import filesystem.CachingFileSystem;
 import filesystem.FileSystem;
 import filesystem.dataStructures.jobs.OutputFileJob;
+import filesystem.dataStructures.jobs.ParseFileJob;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 
@@ -35,6 +37,20 @@ public abstract class AbstractLinuxFile {
         }
     }
 
+    /**
+     * Returns parsed view of the file. When the filesystem is CachingFileSystem, the file is parsed only when it
+     * changed, so the job should be one instance per file object and the returned view must not be modified.
+     *
+     * @param job parser of the file
+     * @return parsed view or null, if the file does not exist or cannot be parsed
+     */
+    protected <T> T getParsed(ParseFileJob<T> job) {
+        if (fileSystem instanceof CachingFileSystem) {
+            return ((CachingFileSystem) fileSystem).getParsed(filePath, job);
+        }
+        return CachingFileSystem.parse(fileSystem, filePath, job);
+    }
+
     /**
      *
      * @return String representing the file path
@@ -1,39 +1,136 @@
 package config.configFiles;
 
-import applications.dns.DnsServerThread.DnsQuery;
-import config.configFiles.FileJobs.QueryZoneFileJob;
-import dataStructures.packets.dns.DnsPacket;
+import applications.dns.DnsResolver;
+import applications.dns.DnsZone;
+import dataStructures.ipAddresses.IpAddress;
+import dataStructures.packets.dns.DnsType;
 import filesystem.FileSystem;
-import filesystem.exceptions.FileNotFoundException;
+import filesystem.dataStructures.jobs.ParseFileJob;
+import java.io.InputStream;
+import java.util.Scanner;
 import logging.Logger;
 import logging.LoggingCategory;
 
 /**
+ * Zone file of DNS server. The file is compiled into DnsZone, which is parsed again only when the file changes.
  *
  * @author Michal Horacek
  */
 public class DnsZoneFile extends AbstractLinuxFile {
 
-    public DnsZoneFile(FileSystem fs) {
+    private final String zoneName;
+
+    private final ParseFileJob<DnsZone> parser = new ParseFileJob<DnsZone>() {
+        @Override
+        public DnsZone parse(InputStream input) throws Exception {
+            ZoneParser zoneParser = new ZoneParser();
+            Scanner sc = new Scanner(input);
+
+            while (sc.hasNextLine()) {
+                zoneParser.parseLine(sc.nextLine().trim());
+            }
+
+            return zoneParser.zone;
+        }
+    };
+
+    /**
+     *
+     * @param fs
+     * @param filePath path to the zone file
+     * @param zoneName name of the zone from named.conf, it is the default origin
+     */
+    public DnsZoneFile(FileSystem fs, String filePath, String zoneName) {
         super(fs);
+        this.filePath = filePath;
+        this.zoneName = zoneName;
     }
 
     /**
-     * Parses zone file and tries to find given query
-     * 
-     * @param query 
-     * @param packet 
-     * @return
+     * Returns compiled zone.
+     *
+     * @return null if zone file does not exist
      */
-    public DnsPacket resolveQuery(DnsQuery query, DnsPacket packet) {
-        try {
-            fileSystem.runInputFileJob(query.info.file, new QueryZoneFileJob(packet, query));
-        } catch (FileNotFoundException | NullPointerException ex) {
-            Logger.log("DnsZoneFile", Logger.INFO, LoggingCategory.GENERIC_APPLICATION, 
-                    "zone file does not exist: " + query.info.file);
-            return packet;
+    public DnsZone getZone() {
+        DnsZone zone = getParsed(parser);
+        if (zone == null) {
+            Logger.log("DnsZoneFile", Logger.INFO, LoggingCategory.GENERIC_APPLICATION,
+                    "zone file does not exist: " + filePath);
         }
+        return zone;
+    }
+
+    /**
+     * State of parsing of one zone file.
+     */
+    private class ZoneParser {
 
-        return packet;
+        private final DnsZone zone = new DnsZone(zoneName);
+        private String origin = zoneName;
+        private String label = zoneName;
+
+        private void parseLine(String line) {
+            // comment line
+            if (line.startsWith(";")) {
+                return;
+            }
+
+            String[] words = line.split("\\s+");
+
+            if (words.length == 2) {
+                handleDirectiveLine(words);
+            // possible if line contains blank substitution
+            } else if (words.length == 3) {
+                handleLine(words);
+            } else if (words.length == 4) {
+                if (words[0].equals("@")) {
+                    words[0] = origin;
+                } else if (!words[0].endsWith(".")) {
+                    words[0] = words[0] + "." + origin;
+                }
+
+                label = words[0];
+                handleLine(words);
+            }
+        }
+
+        private void handleDirectiveLine(String[] words) {
+            // $ORIGIN example.com.
+            if (words[0].equals("$ORIGIN")
+                    && DnsResolver.isValidDomainName(words[1])) {
+                origin = words[1];
+            // $TTL 3600
+            } else if (words[0].equals("$TTL")) {
+                try {
+                    zone.setTtl(Math.max(0, Integer.parseInt(words[1])));
+                } catch (NumberFormatException ex) {
+                    // spatne TTL se ignoruje
+                }
+            }
+        }
+
+        private void handleLine(String[] words) {
+            int ansIndex = words.length - 1;
+
+            switch (words[words.length - 2]) {
+                case "A":
+                    if (IpAddress.correctAddress(words[ansIndex]) != null) {
+                        zone.addRecord(label, DnsType.A, words[ansIndex]);
+                    }
+                    break;
+                case "NS":
+                    String nameServer = words[ansIndex].endsWith(".") ? words[ansIndex] : words[ansIndex] + ".";
+                    if (DnsResolver.isValidDomainName(nameServer)) {
+                        zone.addRecord(label, DnsType.NS, nameServer);
+                    }
+                    break;
+                case "MX":
+                case "TXT":
+                case "CNAME":
+                case "PTR":
+                default:
+                // to be implemented
+            }
+        }
     }
 }
@@ -3,16 +3,15 @@ package config.configFiles;
 import dataStructures.ipAddresses.IpAddress;
 import device.Device;
 import filesystem.FileSystem;
-import filesystem.dataStructures.jobs.InputFileJob;
 import filesystem.dataStructures.jobs.OutputFileJob;
-import filesystem.exceptions.FileNotFoundException;
+import filesystem.dataStructures.jobs.ParseFileJob;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Scanner;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import logging.LoggingCategory;
 
 /**
  *
@@ -38,32 +37,38 @@ public class HostsFile extends AbstractLinuxFile {
         });
     }
 
+    /**
+     * Parses the file into lines split to words.
+     */
+    private final ParseFileJob<List<String[]>> parser = new ParseFileJob<List<String[]>>() {
+        @Override
+        public List<String[]> parse(InputStream input) throws Exception {
+            List<String[]> lines = new ArrayList<>();
+            Scanner sc = new Scanner(input);
+            while (sc.hasNextLine()) {
+                lines.add(sc.nextLine().trim().split("\\s+"));
+            }
+            return Collections.unmodifiableList(lines);
+        }
+    };
+
     public IpAddress resolveAddress(final String toResolve) {
-        final IpAddress[] res = {null};
-        try {
-            fileSystem.runInputFileJob(filePath, new InputFileJob() {
-                @Override
-                public int workOnFile(InputStream input) throws Exception {
-                    Scanner sc = new Scanner(input);
-                    while (sc.hasNextLine()) {
-                        res[0] = parseLine(sc.nextLine().trim(), toResolve);
-                        if (res[0] != null) {
-                            return 0;
-                        }
-                    }
-                    return 1;
-                }
-            });
-        } catch (FileNotFoundException ex) {
-            Logger.getLogger(ResolvConfFile.class.getName()).log(Level.INFO, null, ex);
+        List<String[]> lines = getParsed(parser);
+        if (lines == null) {
+            return null;
         }
 
-        return res[0];
+        for (String[] words : lines) {
+            IpAddress res = parseLine(words, toResolve);
+            if (res != null) {
+                return res;
+            }
+        }
+        return null;
     }
 
-    private IpAddress parseLine(String line, String toResolve) {
+    private IpAddress parseLine(String[] words, String toResolve) {
         IpAddress res = null;
-        String[] words = line.split("\\s+");
         
         if (words.length > 1) {
             for (int i = 1; i < words.length; i++) {
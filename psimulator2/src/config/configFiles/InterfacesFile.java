@@ -3,9 +3,8 @@ package config.configFiles;
 import dataStructures.configurations.InterfaceConfiguration;
 import dataStructures.ipAddresses.IpAddress;
 import dataStructures.ipAddresses.IpNetmask;
-import filesystem.dataStructures.jobs.InputFileJob;
 import filesystem.dataStructures.jobs.OutputFileJob;
-import filesystem.exceptions.FileNotFoundException;
+import filesystem.dataStructures.jobs.ParseFileJob;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
@@ -67,81 +66,86 @@ public class InterfacesFile extends AbstractLinuxFile  {
     }
 
     /**
-     * Method used to parse the networking configuration file
-     *
-     * @return Parsed configurations
+     * Parser of the networking configuration file, its result is cached until the file changes.
      */
-    public ArrayList<InterfaceConfiguration> getConfig() {
-        final ArrayList<InterfaceConfiguration> ifaces = new ArrayList<>();
-        try {
-            fileSystem.runInputFileJob(filePath, new InputFileJob() {
-                @Override
-                public int workOnFile(InputStream input) {
-                    InterfaceConfiguration iface = new InterfaceConfiguration();
-                    Scanner sc = new Scanner(input);
-                    String line;
-                    String[] words;
-
-                    while (sc.hasNextLine()) {
-                        line = sc.nextLine().trim();
-
-                        // Radek je komentar - ignoruji
-                        if (line.startsWith("#")) {
-                            continue;
-                        }
-
-                        words = line.split("\\s+");
-                        if (words.length == 0) {
-                            continue;
-                        } else if (words.length == 4 && words[0].equalsIgnoreCase("iface")) {
-
-                            // Parsovani druheho nebo dalsiho rozhrani. Nacitani konfigurace predchoziho rozhrani
-                            // je dokonceno, takze se nejprve ulozi. Teprve potom se zacina parsovat soucasne zozhrani.
-                            if (iface.ifaceName != null) {
-                                ifaces.add(iface);
-                                iface = new InterfaceConfiguration();
-                            }
-
-                            // Pokud se jedna o dalsi zaznam k uz nactenemu rozhrani, preskoci se
-                            if (!isDuplicateInterface(words[1], ifaces)) {
-                                iface.ifaceName = words[1];
-                                iface.inetType = words[2];
-                                iface.type = words[3];
-                            }
-                        } /*
-                         * else if (words.lenghth == 3 && words[0].equalsIgnoreCsae("iface")) {
-                         *   if (iface.ifaceName != null) {
-                         *     ifaces.add(iface);
-                         *     iface = new InterfaceConfiguration();
-                         *   }
-                         * 
-                         *   iface.ifaceName = words[1];
-                         *   iface.type      = words[2];
-                         * }
-                         */ else if (words.length == 2 && iface.ifaceName != null) {
-                            if (words[0].equalsIgnoreCase("address")) {
-                                iface.address = IpAddress.correctAddress(words[1]);
-                            } else if (words[0].equalsIgnoreCase("netmask")) {
-                                iface.mask = IpNetmask.correctNetmask(words[1]);
-                            } else if (words[0].equalsIgnoreCase("broadcast")) {
-                                iface.broadcast = IpAddress.correctAddress(words[1]);
-                            } else if (words[0].equalsIgnoreCase("gateway")) {
-                                iface.gateway = IpAddress.correctAddress(words[1]);
-                            }
-                        }
-                    }
+    private final ParseFileJob<ArrayList<InterfaceConfiguration>> parser = new ParseFileJob<ArrayList<InterfaceConfiguration>>() {
+        @Override
+        public ArrayList<InterfaceConfiguration> parse(InputStream input) {
+            ArrayList<InterfaceConfiguration> ifaces = new ArrayList<>();
+            InterfaceConfiguration iface = new InterfaceConfiguration();
+            Scanner sc = new Scanner(input);
+            String line;
+            String[] words;
+
+            while (sc.hasNextLine()) {
+                line = sc.nextLine().trim();
+
+                // Radek je komentar - ignoruji
+                if (line.startsWith("#")) {
+                    continue;
+                }
+
+                words = line.split("\\s+");
+                if (words.length == 0) {
+                    continue;
+                } else if (words.length == 4 && words[0].equalsIgnoreCase("iface")) {
+
+                    // Parsovani druheho nebo dalsiho rozhrani. Nacitani konfigurace predchoziho rozhrani
+                    // je dokonceno, takze se nejprve ulozi. Teprve potom se zacina parsovat soucasne zozhrani.
                     if (iface.ifaceName != null) {
                         ifaces.add(iface);
+                        iface = new InterfaceConfiguration();
                     }
 
-                    return 0;
+                    // Pokud se jedna o dalsi zaznam k uz nactenemu rozhrani, preskoci se
+                    if (!isDuplicateInterface(words[1], ifaces)) {
+                        iface.ifaceName = words[1];
+                        iface.inetType = words[2];
+                        iface.type = words[3];
+                    }
+                } /*
+                 * else if (words.lenghth == 3 && words[0].equalsIgnoreCsae("iface")) {
+                 *   if (iface.ifaceName != null) {
+                 *     ifaces.add(iface);
+                 *     iface = new InterfaceConfiguration();
+                 *   }
+                 * 
+                 *   iface.ifaceName = words[1];
+                 *   iface.type      = words[2];
+                 * }
+                 */ else if (words.length == 2 && iface.ifaceName != null) {
+                    if (words[0].equalsIgnoreCase("address")) {
+                        iface.address = IpAddress.correctAddress(words[1]);
+                    } else if (words[0].equalsIgnoreCase("netmask")) {
+                        iface.mask = IpNetmask.correctNetmask(words[1]);
+                    } else if (words[0].equalsIgnoreCase("broadcast")) {
+                        iface.broadcast = IpAddress.correctAddress(words[1]);
+                    } else if (words[0].equalsIgnoreCase("gateway")) {
+                        iface.gateway = IpAddress.correctAddress(words[1]);
+                    }
                 }
-            });
-        } catch (FileNotFoundException e) {
+            }
+            if (iface.ifaceName != null) {
+                ifaces.add(iface);
+            }
+
+            return ifaces;
+        }
+    };
+
+    /**
+     * Method used to parse the networking configuration file
+     *
+     * @return Parsed configurations
+     */
+    public ArrayList<InterfaceConfiguration> getConfig() {
+        ArrayList<InterfaceConfiguration> parsed = getParsed(parser);
+        if (parsed == null) {
             Logger.log("IfaceFile", Logger.WARNING, LoggingCategory.FILE_SYSTEM,
                     "IfaceFile does not exist");
+            return new ArrayList<>();
         }
 
-        return ifaces;
+        return new ArrayList<>(parsed);	// kopie, cachovany seznam se nesmi menit
     }
 }
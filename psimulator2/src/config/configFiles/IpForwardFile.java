@@ -1,14 +1,11 @@
 package config.configFiles;
 
 import filesystem.FileSystem;
-import filesystem.dataStructures.jobs.InputFileJob;
 import filesystem.dataStructures.jobs.OutputFileJob;
-import filesystem.exceptions.FileNotFoundException;
+import filesystem.dataStructures.jobs.ParseFileJob;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Scanner;
 import logging.Logger;
 import logging.LoggingCategory;
@@ -37,44 +34,41 @@ public class IpForwardFile extends AbstractLinuxFile {
         });        
     }
     
-    public boolean ip_forward() {
-        
-        if (!fileSystem.exists(filePath)) {
-            createFile();
+    /**
+     * Parses 1. line of the file, everything except 0 means forwarding is on.
+     */
+    private final ParseFileJob<Boolean> parser = new ParseFileJob<Boolean>() {
+        @Override
+        public Boolean parse(InputStream input) throws Exception {
+            Scanner sc = new Scanner(input);
+            if (!sc.hasNextLine()) {
+                return true;
+            }
+            try {
+                return Integer.parseInt(sc.nextLine()) != 0;
+            } catch (NumberFormatException ex) {
+                return true;
+            }
         }
-        
-        // vycteni 1. radku:
-        final List<String> firstLine = new ArrayList<>(); // neprisel jsem na to, jak jinak to z ty vnitrni fce vytahnout
-        try {
-            fileSystem.runInputFileJob(this.filePath, new InputFileJob() {
-                @Override
-                public int workOnFile(InputStream input) throws Exception {
+    };
 
-                    Scanner sc = new Scanner(input);
-
-                    if (sc.hasNextLine()) {
-                        firstLine.add(sc.nextLine());
-                    }
+    /**
+     * Called for every forwarded packet, the file is parsed only when it changed (see CachingFileSystem).
+     *
+     * @return
+     */
+    public boolean ip_forward() {
 
-                    return 0;
-                }
-            });
-        } catch (FileNotFoundException ex) {
-            Logger.log("IpForwardFile", Logger.WARNING, LoggingCategory.NET, "ip_forward file not found!");
-            return true;
+        Boolean forward = getParsed(parser);
+        if (forward == null) { // soubor neexistuje
+            createFile();
+            forward = getParsed(parser);
         }
 
-        // samotny nastaveni:
-        try {
-            int number = Integer.parseInt(firstLine.get(0));
-            if (number == 0) {
-                return false;
-            }
-        } catch (NumberFormatException ex) {
+        if (forward == null) {
+            Logger.log("IpForwardFile", Logger.WARNING, LoggingCategory.NET, "ip_forward file not found!");
             return true;
         }
-
-
-        return true;
+        return forward;
     }
 }
@@ -4,8 +4,9 @@ import applications.dns.DnsServer.ZoneInfo;
 import device.Device;
 import filesystem.FileSystem;
 import filesystem.dataStructures.jobs.InputFileJob;
-import filesystem.exceptions.FileNotFoundException;
+import filesystem.dataStructures.jobs.ParseFileJob;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
@@ -23,12 +24,25 @@ public class NamedConfFile extends AbstractLinuxFile {
         this.filePath = "/etc/named/named.conf";
     }
 
+    private final ParseFileJob<Map<String, ZoneInfo>> parser = new ParseFileJob<Map<String, ZoneInfo>>() {
+        @Override
+        public Map<String, ZoneInfo> parse(InputStream input) throws Exception {
+            Map<String, ZoneInfo> zones = new HashMap<>();
+            new GetZonesFileJob(zones).workOnFile(input);
+            return Collections.unmodifiableMap(zones);
+        }
+    };
+
+    /**
+     * Returns zones by their names. The map is parsed again only when the file changes, so the same instance is
+     * returned until then. It must not be modified.
+     *
+     * @return
+     */
     public Map<String, ZoneInfo> getZones() {
-        Map<String, ZoneInfo> zones = new HashMap<>();
-        try {
-            fileSystem.runInputFileJob(filePath, new GetZonesFileJob(zones));
-        } catch (FileNotFoundException ex) {
-            return zones;
+        Map<String, ZoneInfo> zones = getParsed(parser);
+        if (zones == null) {
+            return Collections.emptyMap();
         }
 
         return zones;
@@ -3,12 +3,12 @@ package config.configFiles;
 import dataStructures.ipAddresses.IpAddress;
 import device.Device;
 import filesystem.FileSystem;
-import filesystem.dataStructures.jobs.InputFileJob;
 import filesystem.dataStructures.jobs.OutputFileJob;
-import filesystem.exceptions.FileNotFoundException;
+import filesystem.dataStructures.jobs.ParseFileJob;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Scanner;
@@ -51,33 +51,35 @@ public class ResolvConfFile extends AbstractLinuxFile {
         });
     }
 
+    private final ParseFileJob<List<IpAddress>> parser = new ParseFileJob<List<IpAddress>>() {
+        @Override
+        public List<IpAddress> parse(InputStream input) throws Exception {
+            List<IpAddress> nameServers = new LinkedList<>();
+            Scanner sc = new Scanner(input);
+            while (sc.hasNextLine()) {
+                String[] words = sc.nextLine().trim().split("\\s+");
+                if (words.length == 2 && words[0].equals("nameserver")) {
+                    IpAddress ip = IpAddress.correctAddress(words[1]);
+                    if (ip != null) {
+                        nameServers.add(ip);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(nameServers);
+        }
+    };
+
     /**
      * Gets the list of nameservers found in the /etc/resolv.conf file
      * 
-     * @return List of IpAddresses representing nameservers
+     * @return List of IpAddresses representing nameservers, caller can modify it
      */
     public List<IpAddress> getNameServers() {
         final List<IpAddress> nameServers = new LinkedList<>();
 
-        try {
-            fileSystem.runInputFileJob(filePath, new InputFileJob() {
-                @Override
-                public int workOnFile(InputStream input) throws Exception {
-                    Scanner sc = new Scanner(input);
-                    while (sc.hasNextLine()) {
-                        String[] words = sc.nextLine().trim().split("\\s+");
-                        if (words.length == 2 && words[0].equals("nameserver")) {
-                            IpAddress ip = IpAddress.correctAddress(words[1]);
-                            if (ip != null) {
-                                nameServers.add(ip);
-                            }
-                        }
-                    }
-                    return 0;
-                }
-            });
-        } catch (FileNotFoundException ex) {
-            return nameServers;
+        List<IpAddress> parsed = getParsed(parser);
+        if (parsed != null) {
+            nameServers.addAll(parsed);
         }
 
         return nameServers;
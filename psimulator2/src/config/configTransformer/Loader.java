@@ -12,6 +12,7 @@ import dataStructures.ipAddresses.IpAddress;
 import dataStructures.ipAddresses.IpNetmask;
 import device.Device;
 import filesystem.ArchiveFileSystem;
+import filesystem.CachingFileSystem;
 import filesystem.FileSystem;
 import config.configFiles.InterfacesFile;
 import filesystem.dataStructures.jobs.OutputFileJob;
@@ -19,6 +20,11 @@ import java.io.File;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
@@ -64,11 +70,21 @@ public class Loader implements Loggable {
 	 */
 	private Set<String> names = new HashSet<>();
 	/**
-	 * Cisco potrebuje mit natahane kabely na to, aby mohl nacist nastaveni routovaci tabulky.
+	 * Cisco potrebuje mit natahane kabely na to, aby mohl nacist nastaveni routovaci tabulky. Plni se z vic vlaken.
 	 */
-	private Map<CiscoIPLayer, RoutingTableConfig> ciscoSettings = new HashMap<>();
+	private Map<CiscoIPLayer, RoutingTableConfig> ciscoSettings = Collections.synchronizedMap(new HashMap<CiscoIPLayer, RoutingTableConfig>());
+	/**
+	 * Indexy pro zapojovani kabelu: pocitace podle configID a simulatorovy switchporty podle configID rozhrani.
+	 */
+	private final Map<Integer, Device> devicesById = new HashMap<>();
+	private final Map<Integer, Switchport> switchportsById = new HashMap<>();
+	/**
+	 * Number of threads, which build devices, can be set by system property psimulator2.loaderThreads.
+	 */
+	private final int threads = Integer.getInteger("psimulator2.loaderThreads", Runtime.getRuntime().availableProcessors());
 	private String configFilename;
 	private String projectName;
+	private File filesystemDir;
 
 	public Loader(NetworkModel networkModel, String configFileName) {
 		this.networkModel = networkModel;
@@ -82,39 +98,100 @@ public class Loader implements Loggable {
 	 */
 	public void loadFromModel() {
 
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+		long start = System.nanoTime();
+		long devicesTime = 0, modulesTime = 0, cablesTime = 0, ciscoTime = 0;
+
 		try {	// chytaji se tady vsechny vyjimky vyhozeny z konfigurace
 
+			// 1) pocitace a jejich switchporty se vytvari postupne - konstruktor pridava telnetovy porty, ktery maji
+			// zustat ve stejnym poradi:
+			List<HwComponentModel> models = new ArrayList<>();
 			for (HwComponentModel device : networkModel.getHwComponents()) {
 				registerID(device.getId());
 				if (device.getHwType() == shared.Components.HwTypeEnum.REAL_PC) {
 					continue;
 				}
 
-				s.devices.add(createDevice(device));
+				Device pc = createDevice(device);
+				s.devices.add(pc);
+				models.add(device);
 			}
+			indexSwitchports();
+			devicesTime = lap(start);
 
 			if (s.devices.isEmpty()) {
 				Logger.log(this, Logger.ERROR, LoggingCategory.NETWORK_MODEL_LOAD_SAVE, "No device was found in configuration file! Exiting. ", null);
 			}
 
+			// 2) filesystemy a sitovy moduly jsou na sobe nezavisly, stavi se paralelne:
+			long phase = System.nanoTime();
+			prepareFilesystemDir();
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int i = 0; i < models.size(); i++) {
+				final HwComponentModel model = models.get(i);
+				final Device pc = s.devices.get(i);
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						buildDevice(model, pc);
+						return null;
+					}
+				});
+			}
+			runAll(executor, tasks);
+			modulesTime = lap(phase);
+
+			phase = System.nanoTime();
 			if (s.devices.get(0).physicalModule instanceof PhysicMod) {
 				connectCables();
 			} else {
 				connectCablesV2();
 			}
+			cablesTime = lap(phase);
 
-			updateRoutingTableForCisco();
+			phase = System.nanoTime();
+			updateRoutingTableForCisco(executor);
+			ciscoTime = lap(phase);
 
 		} catch (Exception ex) {
 			Logger.log(this, Logger.INFO, LoggingCategory.NETWORK_MODEL_LOAD_SAVE, "XML configuration file is corrupted: ", ex);
 			Logger.log(this, Logger.ERROR, LoggingCategory.NETWORK_MODEL_LOAD_SAVE, "XML configuration file is corrupted. Exiting. " + ex.toString(), null);
+		} finally {
+			executor.shutdown();
 		}
 
 		Logger.log(this, Logger.IMPORTANT, LoggingCategory.NETWORK_MODEL_LOAD_SAVE, "Configuration succesfully loaded from: "+Psimulator.getPsimulator().lastConfigFile, null);
+		Logger.log(this, Logger.IMPORTANT, LoggingCategory.NETWORK_MODEL_LOAD_SAVE, String.format(
+				"Startup took %d ms: devices %d ms, filesystems and network modules %d ms (%d threads), cables %d ms, cisco routing %d ms.",
+				lap(start), devicesTime, modulesTime, Math.max(threads, 1), cablesTime, ciscoTime), null);
+	}
+
+	/**
+	 * Returns milliseconds since given System.nanoTime().
+	 */
+	private static long lap(long since) {
+		return (System.nanoTime() - since) / 1_000_000;
+	}
+
+	/**
+	 * Runs all tasks and waits for them. Exception thrown by some task is thrown again.
+	 */
+	private void runAll(ExecutorService executor, List<Callable<Void>> tasks) throws InterruptedException {
+		for (Future<Void> f : executor.invokeAll(tasks)) {
+			try {
+				f.get();
+			} catch (ExecutionException ex) {
+				if (ex.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) ex.getCause();
+				}
+				throw new LoaderException(ex.getCause().toString());
+			}
+		}
 	}
 
 	/**
-	 * Metoda na vytvoreni jednoho pocitace (device).
+	 * Metoda na vytvoreni jednoho pocitace (device) s fysickym modulem. Zbytek nastavi buildDevice.
 	 *
 	 * @param model
 	 * @return
@@ -124,9 +201,7 @@ public class Loader implements Loggable {
 		// vytvoreni samotnyho pocitace:
 		Device pc = new Device(model.getId(), model.getName(), convertType(model.getHwType()));
 //		System.out.printf("device: id: %s name: %s, type: %s \n", model.getId(), model.getDeviceName(), model.getHwType());
-
-		// setup filesystem (je to uz tady, aby s nim mohl zachazet sitovy modul (napr. pro ip_forward)):
-		pc.setFilesystem(setupFilesystem(model));
+		devicesById.put(pc.configID, pc);
 
 		// vytvoreni fysickyho modulu:
 		AbstractPhysicalModule pm = pc.physicalModule;
@@ -141,6 +216,20 @@ public class Loader implements Loggable {
 			cislovaniSwitchportu++;
 		}
 
+		return pc;
+	}
+
+	/**
+	 * Nastavi pocitaci filesystem a sitovej modul. Pocitace jsou na sobe nezavisly, vola se z vic vlaken najednou.
+	 *
+	 * @param model
+	 * @param pc
+	 */
+	private void buildDevice(HwComponentModel model, Device pc) {
+
+		// setup filesystem (je to uz tady, aby s nim mohl zachazet sitovy modul (napr. pro ip_forward)):
+		pc.setFilesystem(setupFilesystem(model));
+
 		// nastaveni sitovyho modulu
 		NetworkModule nm = createNetworkModule(model, pc);
 		pc.setNetworkModule(nm);
@@ -149,20 +238,23 @@ public class Loader implements Loggable {
 			IpNetworkModule ipNetMod = (IpNetworkModule)nm;
 			ipNetMod.applicationLayer.startServices();
 		}
-				
-		return pc;
 	}
 
-	private FileSystem setupFilesystem(HwComponentModel model){
-		String pathSeparator = System.getProperty("file.separator");
-
-		File filesystemDir = new File(projectName+"-DATA");
+	/**
+	 * Vytvori adresar pro filesystemy vsech pocitacu, jednou pred jejich paralelnim vytvarenim.
+	 */
+	private void prepareFilesystemDir() {
+		filesystemDir = new File(projectName+"-DATA");
 
 		if(!filesystemDir.isDirectory() && 	!filesystemDir.mkdirs())  // if does not exist and was not sucessfully created
 			Logger.log(Logger.ERROR, LoggingCategory.FILE_SYSTEM, "Cannot find nor create filesystem directory. Fatal error");
+	}
+
+	private FileSystem setupFilesystem(HwComponentModel model){
+		String pathSeparator = System.getProperty("file.separator");
 
 		String pathFileSystem = filesystemDir.getAbsolutePath() + pathSeparator + model.getIDAsString() + model.getName().replaceAll("\\W", "") + "." + ArchiveFileSystem.getFileSystemExtension();
-		return new ArchiveFileSystem(pathFileSystem);
+		return new CachingFileSystem(new ArchiveFileSystem(pathFileSystem));	// konfiguracni soubory se ctou i pri kazdym routovanym paketu
 	}
 
 	/**
@@ -452,6 +544,19 @@ public class Loader implements Loggable {
 		}
 	}
 
+	/**
+	 * Naplni index switchportu podle configID rozhrani.
+	 */
+	private void indexSwitchports() {
+		for (Device device : s.devices) {
+			for (Switchport swp : device.physicalModule.getSwitchports().values()) {
+				if (swp instanceof SimulatorSwitchport || swp instanceof SimulatorSwitchportV2) {
+					switchportsById.put(swp.configID, swp);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Najde switchport, ktery odpovida zadanemu zarizeni a rozhrani.
 	 *
@@ -460,14 +565,11 @@ public class Loader implements Loggable {
 	 * @return
 	 */
 	private Switchport findSwitchportFor(HwComponentModel component1, EthInterfaceModel interface1) {
-		for (Device device : s.devices) {
-			if (device.configID == component1.getId()) {
-				for (Switchport swp : device.physicalModule.getSwitchports().values()) {
-					if ((swp instanceof SimulatorSwitchport || swp instanceof SimulatorSwitchportV2) && swp.configID == interface1.getId()) {
-						return swp;
-					}
-				}
-			}
+		Device device = devicesById.get(component1.getId());
+		Switchport swp = switchportsById.get(interface1.getId());
+		if (device != null && swp != null
+				&& device.physicalModule.getSwitchports().get(swp.number) == swp) {	// switchport patri tomu pocitaci a nebyl nahrazen realnym
+			return swp;
 		}
 
 		throw new LoaderException(String.format("Could not find Device with id=%d a for Switchport with id=%d", component1.getId(), interface1.getId()));
@@ -493,26 +595,38 @@ public class Loader implements Loggable {
 	}
 
 	/**
-	 * Updates cisco routing table.
+	 * Updates cisco routing tables, every router in its own task.
 	 */
-	private void updateRoutingTableForCisco() {
-		for(CiscoIPLayer layer : ciscoSettings.keySet()) {
-			CiscoWrapperRT wrapper = layer.wrapper;
+	private void updateRoutingTableForCisco(ExecutorService executor) throws InterruptedException {
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (final Map.Entry<CiscoIPLayer, RoutingTableConfig> e : ciscoSettings.entrySet()) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					updateRoutingTableForCisco(e.getKey(), e.getValue());
+					return null;
+				}
+			});
+		}
+		runAll(executor, tasks);
+	}
 
-			wrapper.update(); // nasype IP z rozhrani
+	private void updateRoutingTableForCisco(CiscoIPLayer layer, RoutingTableConfig config) {
+		CiscoWrapperRT wrapper = layer.wrapper;
 
-			if (ciscoSettings.get(layer) != null) {
-				for (Record record : ciscoSettings.get(layer).getRecords()) { //pro vsechny zaznamy
-					IPwithNetmask adresat = new IPwithNetmask(record.getDestination(), 32, false);
-					if (record.getGateway() != null) {
-						IpAddress brana = new IpAddress(record.getGateway());
-						wrapper.addRecord(adresat, brana);
-					} else {
-						NetworkInterface iface = layer.getNetworkInteface(record.getInterfaceName());
-						wrapper.addRecord(adresat, iface);
-					}
+		wrapper.update(); // nasype IP z rozhrani
+
+		if (config != null) {
+			for (Record record : config.getRecords()) { //pro vsechny zaznamy
+				IPwithNetmask adresat = new IPwithNetmask(record.getDestination(), 32, false);
+				if (record.getGateway() != null) {
+					IpAddress brana = new IpAddress(record.getGateway());
+					wrapper.addRecord(adresat, brana);
+				} else {
+					NetworkInterface iface = layer.getNetworkInteface(record.getInterfaceName());
+					wrapper.addRecord(adresat, iface);
 				}
 			}
-        }
+		}
 	}
 }
@@ -4,19 +4,27 @@
  */
 package dataStructures;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 import logging.Logger;
 import logging.LoggingCategory;
 import utils.Util;
 
 /**
- * Implementation of mac address. Vnitrni representace je pomoci integeru, protoze s bytama byl problem se znainkem.
+ * Implementation of mac address. Vnitrni representace je pomoci longu (dolnich 48 bitu), porovnavani a hashovani je
+ * tak jedna operace a adresa muze byt klicem primitivnich map (toLong).
  *
  * @author neiss
  */
 public class MacAddress {
 
-	private final byte[] representation;
+	private static final long MASK = 0xFFFFFFFFFFFFL;
+	/**
+	 * Shared instances of constant addresses.
+	 */
+	public static final MacAddress BROADCAST = new MacAddress(MASK);
+	public static final MacAddress ZERO = new MacAddress(0L);
+
+	private final long bits;
 
 	/**
 	 * Vyjimka pro tvoreni mac adresy.
@@ -35,7 +43,7 @@ public class MacAddress {
 	 * @param address
 	 */
 	public MacAddress(String address) {
-		this.representation = stringToBytes(address, address.charAt(2));
+		this.bits = bytesToLong(stringToBytes(address, address.charAt(2)));
 	}
 
 	/**
@@ -45,7 +53,7 @@ public class MacAddress {
 	 * @param delimiter
 	 */
 	public MacAddress(String address, char delimiter) {
-		this.representation = stringToBytes(address, delimiter);
+		this.bits = bytesToLong(stringToBytes(address, delimiter));
 	}
 
 	/**
@@ -56,7 +64,40 @@ public class MacAddress {
 	 * @param representation
 	 */
 	public MacAddress(byte[] representation) {
-		this.representation = Arrays.copyOf(representation, 6);
+		this.bits = bytesToLong(representation);
+	}
+
+	private MacAddress(long bits) {
+		this.bits = bits & MASK;
+	}
+
+	/**
+	 * Returns mac address with given 48 bits, constant addresses are shared.
+	 *
+	 * @param bits
+	 * @return
+	 */
+	public static MacAddress valueOf(long bits) {
+		bits &= MASK;
+		if (bits == MASK) {
+			return BROADCAST;
+		}
+		if (bits == 0) {
+			return ZERO;
+		}
+		return new MacAddress(bits);
+	}
+
+	/**
+	 * Reads mac address (6 bytes) from the buffer at its current position.
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	public static MacAddress readFrom(ByteBuffer buffer) {
+		long high = buffer.getShort() & 0xFFFFL;
+		long low = buffer.getInt() & 0xFFFFFFFFL;
+		return valueOf((high << 32) | low);
 	}
 
 
@@ -70,7 +111,7 @@ public class MacAddress {
 	public String toString() {
 		String vratit = "";
 		for (int i = 0; i < 6; i++) {
-			vratit += byteToString(representation[i]);
+			vratit += byteToString(getByte(i));
 			vratit += ":";
 		}
 		return vratit.substring(0, vratit.length() - 1);//aby se odmazala ta posledni dvojtecka
@@ -83,7 +124,7 @@ public class MacAddress {
 	public String getCiscoRepresentation() {
 		String vratit = "";
 		for (int i = 0; i < 6; i++) {
-			vratit += byteToString(representation[i]);
+			vratit += byteToString(getByte(i));
 			if (i % 2 == 1) {
 				vratit += ".";
 			}
@@ -96,7 +137,28 @@ public class MacAddress {
 	 * @return
 	 */
 	public byte [] getByteArray(){
-		return Arrays.copyOf(representation, 6);
+		byte[] vratit = new byte[6];
+		for (int i = 0; i < 6; i++) {
+			vratit[i] = getByte(i);
+		}
+		return vratit;
+	}
+
+	/**
+	 * Returns the address as 48 bits in long, first byte of the address is the most significant.
+	 * @return
+	 */
+	public long toLong() {
+		return bits;
+	}
+
+	/**
+	 * Writes the address (6 bytes) to the buffer at its current position, without creating a copy.
+	 * @param buffer
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		buffer.putShort((short) (bits >>> 32));
+		buffer.putInt((int) bits);
 	}
 
 	@Override
@@ -108,17 +170,12 @@ public class MacAddress {
 			return false;
 		}
 		final MacAddress other = (MacAddress) obj;
-		if (!Arrays.equals(this.representation, other.representation)) {
-			return false;
-		}
-		return true;
+		return this.bits == other.bits;
 	}
 
 	@Override
 	public int hashCode() {
-		int hash = 5;
-		hash = 23 * hash + Arrays.hashCode(this.representation);
-		return hash;
+		return (int) (bits ^ (bits >>> 32));
 	}
 
 	/**
@@ -128,28 +185,18 @@ public class MacAddress {
 	 * @return
 	 */
 	public boolean isLessOrEqualThan(MacAddress other) {
-		return isByteLessThan(other, 0);
-	}
-
-	private boolean isByteLessThan(MacAddress other, int cisloBytu) {
-		if (representation[cisloBytu] < other.representation[cisloBytu]) {
-			return true;
-		} else if (representation[cisloBytu] > other.representation[cisloBytu]) {
-			return false;
-		} else if (cisloBytu < 5) {
-			return isByteLessThan(other, cisloBytu + 1);
-		} else {
-			return true;
-		}
+		// byty se puvodne porovnavaly se znaminkem, prevraceni nejvyssiho bitu kazdyho bytu dava stejny poradi
+		return (bits ^ 0x808080808080L) <= (other.bits ^ 0x808080808080L);
 	}
 
-// staticky metody ----------------------------------------------------------------------------------------
-
 	/**
-	 * cashovana mac adresa
+	 * Returns i-th byte of the address (0 is the first).
 	 */
-	private static MacAddress broadcast;
+	private byte getByte(int i) {
+		return (byte) (bits >>> (8 * (5 - i)));
+	}
 
+// staticky metody ----------------------------------------------------------------------------------------
 
 	/**
 	 * Returns true, if given mac address is broadcast
@@ -158,23 +205,11 @@ public class MacAddress {
 	 * @return
 	 */
 	public static boolean isBroadcast(MacAddress mac) {
-		for (int i = 0; i < 6; i++) {
-			if (mac.representation[i] != (byte) 0xff) {
-				return false;
-			}
-		}
-		return true;
+		return mac.bits == MASK;
 	}
 
 	public static MacAddress broadcast() {
-		if (broadcast == null) {
-			byte[] pole = new byte[6];
-			for (int i = 0; i < 6; i++) {
-				pole[i] = (byte) 255;
-			}
-			broadcast = new MacAddress(pole);
-		}
-		return broadcast;
+		return BROADCAST;
 	}
 
 	public static MacAddress getRandomMac() {
@@ -192,6 +227,20 @@ public class MacAddress {
 	}
 
 // privatni staticky metody -------------------------------------------------------------------------------
+	/**
+	 * Prevede prvnich 6 bytu pole na long, kratsi pole se doplni nulami.
+	 */
+	private static long bytesToLong(byte[] array) {
+		long vratit = 0;
+		for (int i = 0; i < 6; i++) {
+			vratit <<= 8;
+			if (i < array.length) {
+				vratit |= array[i] & 0xFF;
+			}
+		}
+		return vratit;
+	}
+
 	private static byte[] stringToBytes(String adr, char delimiter) {
 		byte[] vratit = new byte[6];
 		String[] pole = adr.split("\\" + delimiter);
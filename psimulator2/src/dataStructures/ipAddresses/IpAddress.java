@@ -18,6 +18,14 @@ public class IpAddress {
      */
     protected int bits;
 
+    /**
+     * Shared instances of constant addresses, packets are often sent to them, so there is no need to parse them
+     * again and again. Bits are set only in constructors, so the instances are not changed.
+     */
+    public static final IpAddress BROADCAST = createIpFromBits(0xFFFFFFFF);
+    public static final IpAddress LOOPBACK = createIpFromBits(0x7F000001);
+    public static final IpAddress ANY = createIpFromBits(0);
+
 
 // konstruktory: -----------------------------------------------------------------------------------------------
 
@@ -91,13 +99,7 @@ public class IpAddress {
      * @author Stanislav Řehák
      */
     public long getLongRepresentation() {
-        long l = 0;
-        String[] pole = toString().split("\\.");
-        l += Long.valueOf(pole[0]) * 256 * 256 * 256;
-        l += Long.valueOf(pole[1]) * 256 * 256;
-        l += Long.valueOf(pole[2]) * 256;
-        l += Long.valueOf(pole[3]);
-        return l;
+        return bits & 0xFFFFFFFFL;
     }
 
 	/**
@@ -106,12 +108,7 @@ public class IpAddress {
 	 * @return
 	 */
 	public byte[] getByteArray() {
-		int[] poleInt = bitsToArray(bits);
-		byte[] vratit = new byte[4];
-		for (int i = 0; i < 4; i++) {
-			vratit[i] = (byte) poleInt[i];
-		}
-		return vratit;
+		return new byte[]{(byte) (bits >>> 24), (byte) (bits >>> 16), (byte) (bits >>> 8), (byte) bits};
 	}
 
 	/**
@@ -119,11 +116,7 @@ public class IpAddress {
 	 * @return
 	 */
 	public boolean isLocalSubnet127() {
-		int[] pole = bitsToArray(bits);
-		if (pole[0] == 127) {
-			return true;
-		}
-		return false;
+		return (bits >>> 24) == 127;
 	}
 
 
@@ -206,6 +199,25 @@ public class IpAddress {
         return vratit;
     }
 
+    /**
+     * Like createIpFromBits, but constant addresses (BROADCAST, LOOPBACK, ANY) are returned as shared instances.
+     * Vhodne pro adresy ctene z paketu.
+     * @param r
+     * @return
+     */
+    public static IpAddress valueOf(int r) {
+        switch (r) {
+            case 0xFFFFFFFF:
+                return BROADCAST;
+            case 0x7F000001:
+                return LOOPBACK;
+            case 0:
+                return ANY;
+            default:
+                return createIpFromBits(r);
+        }
+    }
+
 
     /**
      * Ze stringu ve tvaru 1.2.3.4 vrati int vnitrni representace.
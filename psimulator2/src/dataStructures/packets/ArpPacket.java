@@ -73,7 +73,7 @@ public class ArpPacket extends L3Packet {
 		this.senderIpAddress = senderIpAddress;
 		this.senderMacAddress = senderMacAddress;
 		this.targetIpAddress = targetIpAddress;
-		this.targetMacAddress = new MacAddress("00:00:00:00:00:00");
+		this.targetMacAddress = MacAddress.ZERO;
 		this.operation = ArpOperation.ARP_REQUEST;
 		countSize();
 	}
@@ -89,8 +89,8 @@ public class ArpPacket extends L3Packet {
 		super(null);
 		this.senderIpAddress = senderIpAddress;
 		this.senderMacAddress = senderMacAddress;
-		this.targetIpAddress = new IpAddress("0.0.0.0"); // asi k nicemu
-		this.targetMacAddress = new MacAddress("00:00:00:00:00:00");
+		this.targetIpAddress = IpAddress.ANY; // asi k nicemu
+		this.targetMacAddress = MacAddress.ZERO;
 		this.operation = ArpOperation.ARP_REQUEST;
 		countSize();
 	}
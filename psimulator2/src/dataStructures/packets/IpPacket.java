@@ -13,6 +13,9 @@ import utils.Util;
 /**
  * Represents IPv4 packet.
  *
+ * Paket je nemenny. Pri preposilani a natovani se nekopiruje: novy paket (withTtl, withSource, withDestination) sdili
+ * s puvodnim data vyssi vrstvy i spocitanou velikost a lisi se jen v polozkach hlavicky.
+ *
  * @author Stanislav Rehak <rehaksta@fit.cvut.cz>
  */
 public class IpPacket extends L3Packet {
@@ -29,6 +32,53 @@ public class IpPacket extends L3Packet {
 		countSize();
 	}
 
+	/**
+	 * Creates packet with the same data as the original one, only fields of header differ.
+	 */
+	private IpPacket(IpPacket original, IpAddress src, IpAddress dst, int ttl, L4Packet data) {
+		super(data);
+		this.src = src;
+		this.dst = dst;
+		this.ttl = ttl;
+		if (data == original.data) {
+			this.size = original.size;
+		} else {
+			countSize();
+		}
+	}
+
+	/**
+	 * Returns packet with given TTL, everything else is shared with this packet.
+	 *
+	 * @param ttl
+	 * @return
+	 */
+	public IpPacket withTtl(int ttl) {
+		return new IpPacket(this, src, dst, ttl, data);
+	}
+
+	/**
+	 * Returns packet with different source address and data (e.g. with translated port), used by NAT.
+	 *
+	 * @param src
+	 * @param data
+	 * @return
+	 */
+	public IpPacket withSource(IpAddress src, L4Packet data) {
+		return new IpPacket(this, src, dst, ttl, data);
+	}
+
+	/**
+	 * Returns packet with different destination address and data (e.g. with translated port), used by NAT.
+	 *
+	 * @param dst
+	 * @param data
+	 * @return
+	 */
+	public IpPacket withDestination(IpAddress dst, L4Packet data) {
+		return new IpPacket(this, src, dst, ttl, data);
+	}
+
 	@Override
 	public L3PacketType getType() {
 		return L3PacketType.IPv4;
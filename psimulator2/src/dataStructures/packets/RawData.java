@@ -0,0 +1,43 @@
+/*
+ * created 18.10.2026
+ */
+package dataStructures.packets;
+
+import shared.SimulatorEvents.SerializedComponents.PacketType;
+
+/**
+ * Data of UDP packet, which came from real network and are not understood by the simulator, only the bytes are kept.
+ * They are sent back to real network unchanged.
+ */
+public class RawData implements PacketData {
+
+	private final byte[] bytes;
+
+	public RawData(byte[] bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Returns the bytes, they must not be changed.
+	 *
+	 * @return
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public int getSize() {
+		return bytes.length;
+	}
+
+	@Override
+	public String getEventDesc() {
+		return "=== data === \nsize: " + bytes.length;
+	}
+
+	@Override
+	public PacketType getPacketEventType() {
+		return PacketType.GENERIC;
+	}
+}
@@ -24,6 +24,15 @@ public class UdpPacket extends TcpUdpPacket {
 		size = headerLength + (data != null ? data.getSize() : 0);
 	}
 
+	/**
+	 * Copy with different ports, data and size are shared with the original.
+	 */
+	private UdpPacket(UdpPacket original, int srcPort, int dstPort) {
+		super(srcPort, dstPort);
+		this.data = original.data;
+		this.size = original.size;
+	}
+
 	public PacketData getData() {
 		return data;
 	}
@@ -40,12 +49,12 @@ public class UdpPacket extends TcpUdpPacket {
 
 	@Override
 	public L4Packet getCopyWithDifferentSrcPort(int port) {
-		return new UdpPacket(port, dstPort, data);
+		return new UdpPacket(this, port, dstPort);
 	}
 
 	@Override
 	public L4Packet getCopyWithDifferentDstPort(int port) {
-		return new UdpPacket(srcPort, port, data);
+		return new UdpPacket(this, srcPort, port);
 	}
 
 
@@ -11,10 +11,19 @@ import dataStructures.ipAddresses.IpAddress;
  * @author Michal Horacek
  */
 public class DnsAnswer {
+	/**
+	 * TTL of answers from zones without $TTL directive [s].
+	 */
+	public static final int DEFAULT_TTL = 60;
+
 	public String aName;
 	public DnsType aType;
 	public String aClass;
 	public String aData;
+	/**
+	 * How long can resolvers cache the answer [s].
+	 */
+	public int ttl = DEFAULT_TTL;
 	
 	public DnsAnswer(String name, DnsType type, String addr) {
 		this.aName = name;
@@ -27,6 +27,7 @@ import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import logging.Logger;
 import logging.LoggingCategory;
 
@@ -38,11 +39,22 @@ public class ArchiveFileSystem implements FileSystem {
 
 	String pathToFileSystem;
 	TPath archive;
+	private volatile boolean created = false;
+	/**
+	 * Operations hold read lock, unmounting holds write lock.
+	 */
+	private final ReentrantReadWriteLock mountLock = new ReentrantReadWriteLock();
 
 	public static String getFileSystemExtension() {
 		return "fsm";
 	}
 
+	/**
+	 * The archive is not touched here, it is created (if needed) and mounted on the first access. Mounted archives are
+	 * synced and unmounted after some idle time by MountManager.
+	 *
+	 * @param pathToFileSystem
+	 */
 	public ArchiveFileSystem(String pathToFileSystem) {
 
 
@@ -56,82 +68,155 @@ public class ArchiveFileSystem implements FileSystem {
 
 		archive = new TPath(pathToFileSystem);
 
-		TFile archiveFile = archive.toFile();
+		try {
+			this.pathToFileSystem = archive.toFile().getCanonicalPath();
+		} catch (IOException ex) {
+			Logger.log(Logger.ERROR, LoggingCategory.FILE_SYSTEM, "Fatal error, cannot resolve canonical path to filesystem archive");
+		}
+	}
 
-		if (!archiveFile.exists() && !archiveFile.mkdirs()) // if archive doesnt exist and cannot create empty one
-		{
-			System.err.println("mkdir failed");
+	/**
+	 * Creates the archive, if it does not exist yet. Called on the first access only.
+	 */
+	private void ensureCreated() {
+		if (created) {
+			return;
 		}
+		synchronized (this) {
+			if (created) {
+				return;
+			}
+			TFile archiveFile = archive.toFile();
+
+			if (!archiveFile.exists() && !archiveFile.mkdirs()) // if archive doesnt exist and cannot create empty one
+			{
+				System.err.println("mkdir failed");
+			}
 
 
-		if (!archiveFile.isArchive() || !archiveFile.isDirectory()) {
-			System.err.println("file: " + pathToFileSystem + " is not compatible archive ");
+			if (!archiveFile.isArchive() || !archiveFile.isDirectory()) {
+				System.err.println("file: " + pathToFileSystem + " is not compatible archive ");
+			}
+			created = true;
+		}
+	}
+
+	/**
+	 * Has to be called before every access to the archive, the archive stays mounted until matching release().
+	 */
+	private void use() {
+		mountLock.readLock().lock();
+		MountManager.INSTANCE.touch(this);
+		ensureCreated();
+	}
+
+	private void release() {
+		mountLock.readLock().unlock();
+	}
+
+	/**
+	 * Syncs and unmounts the archive, if nobody works with it just now. Called by MountManager.
+	 *
+	 * @return false if the archive is used and was not unmounted
+	 */
+	boolean unmountIfUnused() {
+		if (!mountLock.writeLock().tryLock()) {
+			return false;
 		}
 		try {
-			this.pathToFileSystem = archiveFile.getCanonicalPath();
-		} catch (IOException ex) {
-			Logger.log(Logger.ERROR, LoggingCategory.FILE_SYSTEM, "Fatal error, cannot resolve canonical path to filesystem archive");
+			doUmount();
+			return true;
+		} finally {
+			mountLock.writeLock().unlock();
 		}
 	}
 
 	@Override
 	public boolean rm_r(String path) throws FileNotFoundException {
-		TFile file = getRelativeTFile(path);
+		use();
+		try {
+			TFile file = getRelativeTFile(path);
 
-		if (file == null) {
-			return false;
-		}
+			if (file == null) {
+				return false;
+			}
 
-		if (!file.exists()) {
-			throw new FileNotFoundException();
-		}
+			if (!file.exists()) {
+				throw new FileNotFoundException();
+			}
 
-		try {
-			file.rm_r();
-		} catch (IOException ex) {
-			return false;
-		}
+			try {
+				file.rm_r();
+			} catch (IOException ex) {
+				return false;
+			}
 
-		return true;
+			return true;
+		} finally {
+			release();
+		}
 	}
 
 	@Override
 	public boolean isFile(String path) {
-		TFile file = getRelativeTFile(path);
+		use();
+		try {
+			TFile file = getRelativeTFile(path);
 
-		return file.isFile();
+			return file.isFile();
+		} finally {
+			release();
+		}
 	}
 
 	@Override
 	public boolean isDir(String path) {
+		use();
+		try {
+			TFile file = getRelativeTFile(path);
 
-		TFile file = getRelativeTFile(path);
+			if (file == null) {
+				return false;
+			}
 
-		if (file == null) {
-			return false;
-		}
+			if (!file.exists()) {
+				return false;
+			}
 
-		if (!file.exists()) {
-			return false;
+			return file.isDirectory();
+		} finally {
+			release();
 		}
-
-		return file.isDirectory();
 	}
 
 	@Override
 	public boolean exists(String path) {
+		use();
+		try {
+			TFile file = getRelativeTFile(path);
 
-		TFile file = getRelativeTFile(path);
+			if (file == null) {
+				return false;
+			}
 
-		if (file == null) {
-			return false;
+			return file.exists();
+		} finally {
+			release();
 		}
-
-		return file.exists();
 	}
 
 	@Override
 	public void umount() {
+		mountLock.writeLock().lock();
+		try {
+			doUmount();
+			MountManager.INSTANCE.forget(this);
+		} finally {
+			mountLock.writeLock().unlock();
+		}
+	}
+
+	private void doUmount() {
 		try {
 			TVFS.umount(archive.toFile());
 		} catch (FsSyncException ex) {
@@ -142,119 +227,128 @@ public class ArchiveFileSystem implements FileSystem {
 
 	@Override
 	public NodesWrapper listDir(String path) throws FileNotFoundException {
+		use();
+		try {
+			TFile dir = getRelativeTFile(path);
+
+			if (dir.isFile()) {
+				List<Node> singleFile = new LinkedList<>();
+				File file = new File();
+				file.setName(dir.getName());
+				singleFile.add(file);
+				return new NodesWrapper(singleFile);
+			}
 
-		TFile dir = getRelativeTFile(path);
-
-		if (dir.isFile()) {
-			List<Node> singleFile = new LinkedList<>();
-			File file = new File();
-			file.setName(dir.getName());
-			singleFile.add(file);
-			return new NodesWrapper(singleFile);
-		}
-
-		if (!dir.isDirectory()) // path is not directory
-		{
-			throw new FileNotFoundException();
-		}
+			if (!dir.isDirectory()) // path is not directory
+			{
+				throw new FileNotFoundException();
+			}
 
 
-		TFile[] files = dir.listFiles();
-		LinkedList<Node> ret = new LinkedList<>();
+			TFile[] files = dir.listFiles();
+			LinkedList<Node> ret = new LinkedList<>();
 
 
-		for (int i = 0; i < files.length; i++) {
-			TFile tFile = files[i];
+			for (int i = 0; i < files.length; i++) {
+				TFile tFile = files[i];
 
-			if (tFile.isDirectory()) {
-				Directory add = new Directory();
-				add.setName(tFile.getName());
-				ret.add(add);
-			} else {
-				File add = new File();
-				add.setName(tFile.getName());
-				ret.add(add);
+				if (tFile.isDirectory()) {
+					Directory add = new Directory();
+					add.setName(tFile.getName());
+					ret.add(add);
+				} else {
+					File add = new File();
+					add.setName(tFile.getName());
+					ret.add(add);
+				}
 			}
-		}
-
-		return new NodesWrapper(ret);
-
 
+			return new NodesWrapper(ret);
+		} finally {
+			release();
+		}
 	}
 	
 	@Override
 	public int runInputFileJob(String path, InputFileJob job) throws FileNotFoundException {
-
-		while (Thread.interrupted()) {  // clear threat interrupted status
-		}
-
-		InputStream input = null;
-
+		use();
 		try {
+			while (Thread.interrupted()) {  // clear threat interrupted status
+			}
 
-			TFile file = getRelativeTFile(path);
+			InputStream input = null;
 
-			if (!file.exists()) {
-				return -1;
-			}
+			try {
 
-			TPath pat = new TPath(file);
+				TFile file = getRelativeTFile(path);
 
-			input = Files.newInputStream(pat);
-			job.workOnFile(input);
-			return 0;
-		} catch (FsEntryNotFoundException ex) {
-			throw new FileNotFoundException();
-		} catch (Exception ex) {
-			Logger.log(Logger.WARNING, LoggingCategory.FILE_SYSTEM, "Exception occured when running inputFileJob: " + ex.toString());
-		} finally {
+				if (!file.exists()) {
+					return -1;
+				}
 
-			try {
-				input.close();
+				TPath pat = new TPath(file);
+
+				input = Files.newInputStream(pat);
+				job.workOnFile(input);
+				return 0;
+			} catch (FsEntryNotFoundException ex) {
+				throw new FileNotFoundException();
 			} catch (Exception ex) {
-			}
-		}
+				Logger.log(Logger.WARNING, LoggingCategory.FILE_SYSTEM, "Exception occured when running inputFileJob: " + ex.toString());
+			} finally {
 
-		return -1;
+				try {
+					input.close();
+				} catch (Exception ex) {
+				}
+			}
 
+			return -1;
+		} finally {
+			release();
+		}
 	}
 	
 	@Override
 	public int runOutputFileJob(String path, OutputFileJob job, boolean append) {
+		use();
+		try {
+			while (Thread.interrupted()) {  // clear threat interrupted status
+			}
 
-		while (Thread.interrupted()) {  // clear threat interrupted status
-		}
-
-		OutputStream output = null;
+			OutputStream output = null;
 
-		try {
-			TFile file = getRelativeTFile(path);
+			try {
+				TFile file = getRelativeTFile(path);
 
-//			if (!file.exists()) {
-//				return -1;
-//			}
+	//			if (!file.exists()) {
+	//				return -1;
+	//			}
 
-			TPath pat = new TPath(file);
+				TPath pat = new TPath(file);
 
-			if (append) {
-				output = Files.newOutputStream(pat, APPEND, CREATE);
-			}
-			else {
-				output = Files.newOutputStream(pat);
-			}
+				if (append) {
+					output = Files.newOutputStream(pat, APPEND, CREATE);
+				}
+				else {
+					output = Files.newOutputStream(pat);
+				}
 			
-			job.workOnFile(output);
-			return 0;
-		} catch (Exception ex) {
-			Logger.log(Logger.WARNING, LoggingCategory.FILE_SYSTEM, "Exception occured when running outputFileJob: " + ex.toString());
-		} finally {
-			try {
-				output.close();
+				job.workOnFile(output);
+				return 0;
 			} catch (Exception ex) {
+				Logger.log(Logger.WARNING, LoggingCategory.FILE_SYSTEM, "Exception occured when running outputFileJob: " + ex.toString());
+			} finally {
+				try {
+					output.close();
+				} catch (Exception ex) {
+				}
 			}
-		}
 
-		return -1;		
+			return -1;		
+		} finally {
+			release();
+		}
 	}
 	
 	@Override
@@ -271,23 +365,26 @@ public class ArchiveFileSystem implements FileSystem {
 	 */
 	@Override
 	public boolean createNewFile(String path) throws FileNotFoundException {
-
-		if (path.endsWith("/")) {
-			return false;
-		}
+		use();
 		try {
+			if (path.endsWith("/")) {
+				return false;
+			}
+			try {
 
-			TFile file = getRelativeTFile(path);
+				TFile file = getRelativeTFile(path);
 
-			if (file.getParentFile() == null || !file.getParentFile().isDirectory()) {
-				throw new FileNotFoundException();
-			}
+				if (file.getParentFile() == null || !file.getParentFile().isDirectory()) {
+					throw new FileNotFoundException();
+				}
 
-			return file.createNewFile();
-		} catch (IOException ex) {
-			return false;
+				return file.createNewFile();
+			} catch (IOException ex) {
+				return false;
+			}
+		} finally {
+			release();
 		}
-
 	}
 
 	/**
@@ -333,101 +430,114 @@ public class ArchiveFileSystem implements FileSystem {
 
 	@Override
 	public boolean createNewDir(String path) throws FileNotFoundException {
+		use();
+		try {
+			if (path.endsWith("/")) {
+				return false;
+			}
 
-		if (path.endsWith("/")) {
-			return false;
-		}
+			TFile file = getRelativeTFile(path);
 
-		TFile file = getRelativeTFile(path);
+			if (file.getParentFile() == null || !file.getParentFile().isDirectory()) {
+				throw new FileNotFoundException();
+			}
 
-		if (file.getParentFile() == null || !file.getParentFile().isDirectory()) {
-			throw new FileNotFoundException();
+			return file.mkdirs();
+		} finally {
+			release();
 		}
-
-		return file.mkdirs();
 	}
 
 	@Override
 	public boolean cp_r(String source, String target) throws FileSystemException {
-		TFile sourceFile = getRelativeTFile(source);
+		use();
+		try {
+			TFile sourceFile = getRelativeTFile(source);
 
-		if (sourceFile == null) {
-			return false;
-		}
+			if (sourceFile == null) {
+				return false;
+			}
 
-		if (!sourceFile.exists()) {
-			throw new FileNotFoundException();
-		}
+			if (!sourceFile.exists()) {
+				throw new FileNotFoundException();
+			}
 
-		TFile targetFile = getRelativeTFile(target);
+			TFile targetFile = getRelativeTFile(target);
 		
-		if(targetFile==null)
-			return false;
+			if(targetFile==null)
+				return false;
 		
-		if (targetFile.exists() && sourceFile.isDirectory()) {
-			throw new AlreadyExistsException();
-		}
+			if (targetFile.exists() && sourceFile.isDirectory()) {
+				throw new AlreadyExistsException();
+			}
 		
-		if (targetFile.exists() && sourceFile.isFile()) {
+			if (targetFile.exists() && sourceFile.isFile()) {
 			
-			if(!targetFile.isDirectory())  
-				throw new AlreadyExistsException();
+				if(!targetFile.isDirectory())  
+					throw new AlreadyExistsException();
 			
-			targetFile = getRelativeTFile(target+ "/" + sourceFile.getName());
-			System.out.println(targetFile.getAbsolutePath());
-		}
+				targetFile = getRelativeTFile(target+ "/" + sourceFile.getName());
+				System.out.println(targetFile.getAbsolutePath());
+			}
 		
-		try {
-			sourceFile.cp_r(targetFile);
-		} catch (IOException ex) {
+			try {
+				sourceFile.cp_r(targetFile);
+			} catch (IOException ex) {
 			
-			throw new FileNotFoundException();
-		}
+				throw new FileNotFoundException();
+			}
 
-		return true;
-	
+			return true;
+		} finally {
+			release();
+		}
 	}
 
 	@Override
 	public boolean mv(String source, String target) throws FileSystemException {
-		TFile sourceFile = getRelativeTFile(source);
+		use();
+		try {
+			TFile sourceFile = getRelativeTFile(source);
 
-		if (sourceFile == null) {
-			return false;
-		}
+			if (sourceFile == null) {
+				return false;
+			}
 
-		if (!sourceFile.exists()) {
-			throw new FileNotFoundException();
-		}
+			if (!sourceFile.exists()) {
+				throw new FileNotFoundException();
+			}
 
-		TFile targetFile = getRelativeTFile(target);
+			TFile targetFile = getRelativeTFile(target);
 		
-		if(targetFile==null)
-			return false;
+			if(targetFile==null)
+				return false;
 		
-		if (targetFile.exists() && sourceFile.isDirectory()) {
-			throw new AlreadyExistsException();
-		}
+			if (targetFile.exists() && sourceFile.isDirectory()) {
+				throw new AlreadyExistsException();
+			}
 		
-		if (targetFile.exists() && sourceFile.isFile()) {
+			if (targetFile.exists() && sourceFile.isFile()) {
 			
-			if(!targetFile.isDirectory())  
-				throw new AlreadyExistsException();
+				if(!targetFile.isDirectory())  
+					throw new AlreadyExistsException();
 			
-			targetFile = getRelativeTFile(target+ "/" + sourceFile.getName());
-			System.out.println(targetFile.getAbsolutePath());
-		}
+				targetFile = getRelativeTFile(target+ "/" + sourceFile.getName());
+				System.out.println(targetFile.getAbsolutePath());
+			}
 		
 		
-		try {
+			try {
 
 			
-			sourceFile.mv(targetFile);
-		} catch (IOException ex) {
+				sourceFile.mv(targetFile);
+			} catch (IOException ex) {
 			
-			throw new FileNotFoundException();
-		}
+				throw new FileNotFoundException();
+			}
 
-		return true;
+			return true;
+		} finally {
+			release();
+		}
 	}
 }
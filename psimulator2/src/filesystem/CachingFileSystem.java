@@ -0,0 +1,235 @@
+/*
+ * created 18.10.2026
+ */
+package filesystem;
+
+import filesystem.dataStructures.NodesWrapper;
+import filesystem.dataStructures.jobs.InputFileJob;
+import filesystem.dataStructures.jobs.OutputFileJob;
+import filesystem.dataStructures.jobs.ParseFileJob;
+import filesystem.exceptions.FileNotFoundException;
+import filesystem.exceptions.FileSystemException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorator of FileSystem, which keeps parsed views of files in memory (see getParsed). Every operation is passed to
+ * the underlying filesystem, operations which change files (runOutputFileJob, createNewFile, mv, cp_r, rm_r) drop
+ * cached views of affected paths, so next getParsed reads the file again.
+ *
+ * Zmeny archivu mimo tenhle objekt se neprojevi, ale na archiv zarizeni nikdo jinej nesaha.
+ *
+ * Thread safe.
+ */
+public class CachingFileSystem implements FileSystem {
+
+	private final FileSystem fs;
+	/**
+	 * Parsed views by normalized path.
+	 */
+	private final Map<String, Entry> cache = new HashMap<>();
+	/**
+	 * Normalized paths of paths given to getParsed, normalizace archivu je drahy parsovani cesty. Cesty sem davaj jen
+	 * konfiguracni soubory, takze to neroste.
+	 */
+	private final Map<String, String> normalized = new ConcurrentHashMap<>();
+	/**
+	 * Incremented on every invalidation, view parsed during a change is not stored.
+	 */
+	private long generation = 0;
+
+	public CachingFileSystem(FileSystem fs) {
+		this.fs = fs;
+	}
+
+	/**
+	 * Returns parsed view of the file. The file is read and parsed by the job only when it has changed since the last
+	 * call with the same job.
+	 *
+	 * @param <T>
+	 * @param path
+	 * @param job
+	 * @return parsed view or null, if the file does not exist or cannot be parsed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getParsed(String path, ParseFileJob<T> job) {
+		String key = normalized.get(path);
+		if (key == null) {
+			key = fs.normalize(path);
+			normalized.put(path, key);
+		}
+
+		long gen;
+		synchronized (this) {
+			Entry entry = cache.get(key);
+			if (entry != null && entry.job == job) {
+				return (T) entry.value;
+			}
+			gen = generation;
+		}
+
+		T value = parse(fs, path, job);
+
+		synchronized (this) {
+			if (gen == generation) {
+				cache.put(key, new Entry(job, value));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Reads and parses the file without any cache.
+	 *
+	 * @param <T>
+	 * @param fs
+	 * @param path
+	 * @param job
+	 * @return parsed view or null, if the file does not exist or cannot be parsed
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T parse(FileSystem fs, String path, final ParseFileJob<T> job) {
+		final Object[] res = {null};
+		try {
+			fs.runInputFileJob(path, new InputFileJob() {
+				@Override
+				public int workOnFile(InputStream input) throws Exception {
+					res[0] = job.parse(input);
+					return 0;
+				}
+			});
+		} catch (FileNotFoundException ex) {
+			return null;
+		}
+		return (T) res[0];
+	}
+
+	/**
+	 * Drops cached views of the path and of all paths under it.
+	 *
+	 * @param path
+	 */
+	public synchronized void invalidate(String path) {
+		generation++;
+		if (cache.isEmpty()) {
+			return;
+		}
+		String key = fs.normalize(path);
+		String dir = key.endsWith("/") ? key : key + "/";
+		for (Iterator<String> it = cache.keySet().iterator(); it.hasNext();) {
+			String cached = it.next();
+			if (cached.equals(key) || cached.startsWith(dir)) {
+				it.remove();
+			}
+		}
+	}
+
+	@Override
+	public boolean rm_r(String path) throws FileNotFoundException {
+		try {
+			return fs.rm_r(path);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public boolean cp_r(String source, String target) throws FileSystemException {
+		try {
+			return fs.cp_r(source, target);
+		} finally {
+			invalidate(target);
+		}
+	}
+
+	@Override
+	public boolean mv(String source, String target) throws FileSystemException {
+		try {
+			return fs.mv(source, target);
+		} finally {
+			invalidate(source);
+			invalidate(target);
+		}
+	}
+
+	@Override
+	public boolean isFile(String path) {
+		return fs.isFile(path);
+	}
+
+	@Override
+	public boolean isDir(String path) {
+		return fs.isDir(path);
+	}
+
+	@Override
+	public boolean exists(String path) {
+		return fs.exists(path);
+	}
+
+	@Override
+	public String normalize(String path) {
+		return fs.normalize(path);
+	}
+
+	@Override
+	public NodesWrapper listDir(String path) throws FileNotFoundException {
+		return fs.listDir(path);
+	}
+
+	@Override
+	public boolean createNewFile(String path) throws FileNotFoundException {
+		try {
+			return fs.createNewFile(path);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public boolean createNewDir(String path) throws FileNotFoundException {
+		return fs.createNewDir(path);
+	}
+
+	@Override
+	public int runInputFileJob(String path, InputFileJob job) throws FileNotFoundException {
+		return fs.runInputFileJob(path, job);
+	}
+
+	@Override
+	public int runOutputFileJob(String path, OutputFileJob job) {
+		return runOutputFileJob(path, job, false);
+	}
+
+	@Override
+	public int runOutputFileJob(String path, OutputFileJob job, boolean append) {
+		try {
+			return fs.runOutputFileJob(path, job, append);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void umount() {
+		synchronized (this) {
+			generation++;
+			cache.clear();
+		}
+		fs.umount();
+	}
+
+	private static class Entry {
+
+		final ParseFileJob<?> job;
+		final Object value;
+
+		Entry(ParseFileJob<?> job, Object value) {
+			this.job = job;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * created 18.10.2026
+ */
+package filesystem;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of mounted archive filesystems. TrueZIP mounts an archive on first access, this class unmounts archives
+ * which were not used for idle time and keeps at most maxMounted archives mounted (the least recently used are
+ * unmounted first). Unmounting runs in its own daemon thread, so no device waits for syncing of other archive.
+ *
+ * Idle time and limit can be set by system properties psimulator2.fsIdleTimeout (seconds, default 300) and
+ * psimulator2.fsMaxMounted (default 64).
+ */
+final class MountManager {
+
+	static final MountManager INSTANCE = new MountManager(Long.getLong("psimulator2.fsIdleTimeout", 300) * 1000,
+			Integer.getInteger("psimulator2.fsMaxMounted", 64));
+
+	private final long idleTimeout;
+	private final int maxMounted;
+	/**
+	 * Mounted filesystems and times of their last use (ms), in order from the least recently used.
+	 */
+	private final LinkedHashMap<ArchiveFileSystem, Long> mounted = new LinkedHashMap<>(16, 0.75f, true);
+	private ScheduledExecutorService unmounter;
+
+	MountManager(long idleTimeout, int maxMounted) {
+		this.idleTimeout = Math.max(idleTimeout, 1000);
+		this.maxMounted = Math.max(maxMounted, 1);
+	}
+
+	/**
+	 * Records use of the filesystem. When there are too many mounted filesystems, the least recently used ones are
+	 * unmounted in background.
+	 *
+	 * @param fs
+	 */
+	synchronized void touch(ArchiveFileSystem fs) {
+		mounted.put(fs, System.currentTimeMillis());
+		startUnmounter();
+		if (mounted.size() <= maxMounted) {
+			return;
+		}
+		final List<ArchiveFileSystem> victims = new ArrayList<>();
+		Iterator<ArchiveFileSystem> it = mounted.keySet().iterator();
+		while (mounted.size() - victims.size() > maxMounted && it.hasNext()) {
+			ArchiveFileSystem victim = it.next();
+			if (victim != fs) {
+				victims.add(victim);
+			}
+		}
+		for (ArchiveFileSystem victim : victims) {
+			mounted.remove(victim);
+		}
+		unmounter.execute(new Runnable() {
+			@Override
+			public void run() {
+				unmount(victims);
+			}
+		});
+	}
+
+	/**
+	 * Forgets the filesystem, it was unmounted explicitly.
+	 *
+	 * @param fs
+	 */
+	synchronized void forget(ArchiveFileSystem fs) {
+		mounted.remove(fs);
+	}
+
+	/**
+	 * Returns number of filesystems, which are mounted now.
+	 *
+	 * @return
+	 */
+	synchronized int getMountedCount() {
+		return mounted.size();
+	}
+
+	private void startUnmounter() {
+		if (unmounter != null) {
+			return;
+		}
+		unmounter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "FilesystemUnmounter");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		long period = Math.max(idleTimeout / 2, 1000);
+		unmounter.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				unmount(takeIdle());
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized List<ArchiveFileSystem> takeIdle() {
+		List<ArchiveFileSystem> idle = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		for (Iterator<Map.Entry<ArchiveFileSystem, Long>> it = mounted.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<ArchiveFileSystem, Long> e = it.next();
+			if (now - e.getValue() < idleTimeout) {
+				break;	// dal uz jsou jen pozdeji pouzity
+			}
+			idle.add(e.getKey());
+			it.remove();
+		}
+		return idle;
+	}
+
+	/**
+	 * Unmounts given filesystems. Filesystem, which is just used, is kept mounted and registered again.
+	 */
+	private void unmount(List<ArchiveFileSystem> list) {
+		for (ArchiveFileSystem fs : list) {
+			if (!fs.unmountIfUnused()) {
+				synchronized (this) {
+					if (!mounted.containsKey(fs)) {
+						mounted.put(fs, System.currentTimeMillis());
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,23 @@
+/*
+ * created 18.10.2026
+ */
+package filesystem.dataStructures.jobs;
+
+import java.io.InputStream;
+
+/**
+ * Job, which parses whole file into an object. The object can be cached by CachingFileSystem until the file changes,
+ * so it must not be modified by callers.
+ *
+ * @param <T> type of parsed view
+ */
+public interface ParseFileJob<T> {
+
+	/**
+	 *
+	 * @param input autoclosed inputstream, no need to close it
+	 * @return parsed content of the file
+	 * @throws Exception
+	 */
+	public T parse(InputStream input) throws Exception;
+}
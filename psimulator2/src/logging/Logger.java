@@ -3,8 +3,8 @@
  */
 package logging;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import psimulator2.Psimulator;
 
 /**
@@ -13,7 +13,10 @@ import psimulator2.Psimulator;
  */
 public class Logger {
 
-	private static final List<LoggerListener> listeners = new LinkedList<>();
+	/**
+	 * Listenery se pridavaji jen pri startu, ale ctou se z vlaken vsech vrstev, proto CopyOnWrite.
+	 */
+	private static final List<LoggerListener> listeners = new CopyOnWriteArrayList<>();
 
 	/**
 	 * 1: Zavazna chyba. Vypise na hlavni serverovou konzoli (normalni println) a ukonci program.
@@ -61,6 +64,9 @@ public class Logger {
 	 * @param object zalogovany objekt, napr. EthernetPacket ci IpPacket ..
 	 */
 	public static void log(Loggable caller, int logLevel, LoggingCategory category, String message, Object object) {
+		if (!isLoggable(category, logLevel)) {
+			return;
+		}
 		for (LoggerListener listener : listeners) {
 			listener.listen(caller, logLevel, category, message, object);
 		}
@@ -80,6 +86,9 @@ public class Logger {
 	 * @param message logovana zprava
 	 */
 	public static void log(String name, int logLevel, LoggingCategory category, String message) {
+		if (!isLoggable(category, logLevel)) {
+			return;
+		}
 		for (LoggerListener listener : listeners) {
 			listener.listen(name, logLevel, category, message);
 		}
@@ -97,6 +106,9 @@ public class Logger {
 	 * @param message logovana zprava
 	 */
 	public static void log(int logLevel, LoggingCategory category, String message) {
+		if (!isLoggable(category, logLevel)) {
+			return;
+		}
 		String name = new Exception().getStackTrace()[1].getClassName();
 
 		for (LoggerListener listener : listeners) {
@@ -108,6 +120,80 @@ public class Logger {
 		}
 	}
 
+	/**
+	 * Zalogovat zpravu ze sablony. Sablona se vyplni (misto kazdyho {} se dosadi dalsi argument) az kdyz nejakej
+	 * listener o zpravu stoji, takze pro vypnuty kategorie se zadnej String nestavi. Pouzivat na castejch mistech
+	 * (posilani paketu) misto skladani zpravy pres +.
+	 *
+	 * @param caller odkaz na volajiciho
+	 * @param logLevel vlozit pres logging.Logger.
+	 * @param category ze ktere tridy je logovana zprava
+	 * @param template sablona zpravy, napr. "Prijal jsem paket na switchportu {}."
+	 * @param object zalogovany objekt, napr. EthernetPacket ci IpPacket ..
+	 * @param arg1 argument za prvni {}
+	 */
+	public static void logf(Loggable caller, int logLevel, LoggingCategory category, String template, Object object, Object arg1) {
+		if (isLoggable(category, logLevel)) {
+			log(caller, logLevel, category, format(template, arg1, null, null), object);
+		}
+	}
+
+	/**
+	 * Jako {@link #logf(Loggable, int, LoggingCategory, String, Object, Object)}, jen se dvema argumenty.
+	 */
+	public static void logf(Loggable caller, int logLevel, LoggingCategory category, String template, Object object, Object arg1, Object arg2) {
+		if (isLoggable(category, logLevel)) {
+			log(caller, logLevel, category, format(template, arg1, arg2, null), object);
+		}
+	}
+
+	/**
+	 * Jako {@link #logf(Loggable, int, LoggingCategory, String, Object, Object)}, jen se tremi argumenty.
+	 */
+	public static void logf(Loggable caller, int logLevel, LoggingCategory category, String template, Object object, Object arg1, Object arg2, Object arg3) {
+		if (isLoggable(category, logLevel)) {
+			log(caller, logLevel, category, format(template, arg1, arg2, arg3), object);
+		}
+	}
+
+	/**
+	 * Returns true iff some listener wants message of given category and level. Message and logged objects should
+	 * be built only after this check (logf methods do it themselves).
+	 *
+	 * @param category
+	 * @param logLevel
+	 * @return
+	 */
+	public static boolean isLoggable(LoggingCategory category, int logLevel) {
+		if (logLevel == ERROR) {	// chyba vzdycky ukoncuje program, takze se musi projit
+			return true;
+		}
+		for (LoggerListener listener : listeners) {
+			if (listener.isInterested(category, logLevel)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Vyplni sablonu: misto {} postupne dosazuje argumenty. Prebytecny {} necha, jak jsou.
+	 */
+	private static String format(String template, Object arg1, Object arg2, Object arg3) {
+		StringBuilder sb = new StringBuilder(template.length() + 32);
+		int from = 0;
+		int argIndex = 0;
+		int pos;
+		while (argIndex < 3 && (pos = template.indexOf("{}", from)) != -1) {
+			sb.append(template, from, pos);
+			sb.append(argIndex == 0 ? arg1 : (argIndex == 1 ? arg2 : arg3));
+			argIndex++;
+			from = pos + 2;
+		}
+		sb.append(template, from, template.length());
+		return sb.toString();
+	}
+
 	/**
 	 * Returns String representation of int logLevel.
 	 *
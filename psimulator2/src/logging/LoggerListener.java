@@ -13,4 +13,14 @@ public interface LoggerListener {
 	public void listen(Loggable caller, int logLevel, LoggingCategory category, String message, Object object);
 	public void listen(String name, int logLevel, LoggingCategory category, String message);
 
+	/**
+	 * Returns true iff this listener does something with messages of given category and level. Logger asks all
+	 * listeners before it builds the message, so it must be fast.
+	 *
+	 * @param category
+	 * @param logLevel
+	 * @return
+	 */
+	public boolean isInterested(LoggingCategory category, int logLevel);
+
 }
@@ -74,6 +74,12 @@ public class SystemListener implements LoggerListener {
 		}
 	}
 
+	@Override
+	public boolean isInterested(LoggingCategory category, int logLevel) {
+		Integer level = configuration.get(category);
+		return level == null || logLevel <= level;	// neznamou kategorii radsi pustim dal, listen() na ni zarve
+	}
+
 	@Override
 	public void listen(String name, int logLevel, LoggingCategory category, String message) {
 		try {
@@ -1,94 +1,447 @@
 package logging.networkEvents;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import logging.Logger;
 import logging.LoggingCategory;
 import shared.NetworkObject;
+import shared.SimulatorEvents.BinaryEventEncoder;
+import shared.SimulatorEvents.EventStreamRequest;
+import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
 import telnetd.pridaneTridy.TelnetProperties;
 
 /**
+ * Connection of one GUI client to the EventServer.
+ *
+ * Objects to be sent are put into bounded outbound buffer of the session by EventsListener, this never blocks. The
+ * selector thread of EventServer takes them out, encodes them and writes them to the non-blocking channel, when the
+ * client is able to read. When the buffer is full, the OverflowPolicy of the session decides what happens, so one slow
+ * client cannot stop the others. With COALESCE policy waiting events are indexed by their link, so the event to be
+ * replaced is found without scanning the buffer; replaced entries are only marked as removed and skipped later.
+ *
+ * Metody onReadable, onWritable, start a checkNegotiationTimeout vola jen vlakno selektoru.
  *
  * @author Martin Lukáš <lukasma1@fit.cvut.cz>
  */
 public class ClientSession {
 
+	/**
+	 * How long to hold events back while waiting for EventStreamRequest of the client. Older clients do not send it,
+	 * TelnetConfig is sent to them straight away, so they do not time out.
+	 */
+	private static final long negotiationTimeout = 2000;
+	/**
+	 * Max number of objects encoded at once.
+	 */
+	private static final int writeBatchSize = 256;
+
 	/**
 	 * socket reference
 	 */
-	private Socket socket;
+	private final SocketChannel channel;
+	private final EventServer server;
+	private final String clientName;
 	/**
 	 * flag if quiting
 	 */
-	private boolean done = false;
+	private volatile boolean done = false;
+	/**
+	 * False while the session waits for EventStreamRequest, only TelnetConfig is sent till then, nothing from the
+	 * buffer.
+	 */
+	private boolean negotiated = false;
+	private long negotiationDeadline;
+	/**
+	 * Bytes read from client during negotiation.
+	 */
+	private final ByteArrayOutputStream inbound = new ByteArrayOutputStream();
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+
+	/**
+	 * Stream, which encodes objects into sink, the same format as before, when it was written directly to socket.
+	 */
 	private ObjectOutputStream outputStream;
+	private final ByteArrayOutputStream sink = new ByteArrayOutputStream(8192);
+	/**
+	 * Encoded bytes which were not written to the channel yet.
+	 */
+	private ByteBuffer pending = ByteBuffer.allocate(0);
+	/**
+	 * Encoder of binary event stream, null if the client uses Java serialization.
+	 */
+	private BinaryEventEncoder encoder;
+
+	/**
+	 * Outbound ring buffer, guarded by itself. Can contain entries marked as removed.
+	 */
+	private final ArrayDeque<Entry> buffer;
+	/**
+	 * Number of entries in buffer, which are not removed, guarded by buffer.
+	 */
+	private int queued = 0;
+	/**
+	 * Waiting events by their link in order of enqueueing, used only with COALESCE policy, guarded by buffer.
+	 */
+	private final Map<LinkKey, ArrayDeque<Entry>> byLink = new HashMap<>();
+	private final int capacity;
+	private final OverflowPolicy policy;
+	/**
+	 * Jestli uz je session zaregistrovana u serveru k zapisu, guarded by buffer.
+	 */
+	private boolean writeRequested = false;
+	private final List<NetworkObject> writeBatch = new ArrayList<>(writeBatchSize);
+
+	// metriky:
+	private final long connectedAt = System.currentTimeMillis();
+	private long enqueued = 0;
+	private long dropped = 0;
+	private long coalesced = 0;
+	private volatile long sentObjects = 0;
+	private volatile long sentBytes = 0;
+	private volatile long lastSendTime = 0;
+	private int maxQueued = 0;
 	/**
 	 * reference used for self removing from the list
 	 *
 	 */
 	private List listReference;
 
-	public ClientSession(Socket socket) {
-		this.socket = socket;
+	/**
+	 * Constructor.
+	 *
+	 * @param channel accepted channel
+	 * @param server
+	 * @param capacity max number of objects waiting for sending
+	 * @param policy
+	 */
+	public ClientSession(SocketChannel channel, EventServer server, int capacity, OverflowPolicy policy) {
+		this.channel = channel;
+		this.server = server;
+		this.capacity = capacity;
+		this.policy = policy;
+		this.buffer = new ArrayDeque<>(Math.min(capacity, 1024));
+		Socket socket = channel.socket();
+		this.clientName = socket.getInetAddress() == null ? "unknown" : socket.getInetAddress().getHostName() + ":" + socket.getPort();
 	}
 
-	public void initCommunication() {
+	/**
+	 * Writes stream header and TelnetConfig and starts waiting for EventStreamRequest.
+	 *
+	 * @throws IOException
+	 */
+	void start() throws IOException {
+		outputStream = new ObjectOutputStream(sink);
+		outputStream.writeObject(TelnetProperties.getTelnetConfig());	// telnet config vzdycky jako objekt, hned
+		outputStream.reset();
+		outputStream.flush();
+		addToPending();
+		negotiationDeadline = System.currentTimeMillis() + negotiationTimeout;
+	}
 
-		if (this.outputStream == null) {
+	/**
+	 * transmission object throught connected socket and initialized outputstream
+	 *
+	 * @param object
+	 */
+	public void send(NetworkObject object) {
+		send(Collections.singletonList(object));
+	}
 
-			if (this.socket == null || this.socket.isClosed() || !this.socket.isConnected()) {
-				Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "Starting ClientSession without properly connected socket. Stopping ClientSessionThread!!!");
-				return;
+	/**
+	 * Puts objects into outbound buffer. Never blocks, when the buffer is full, OverflowPolicy is applied.
+	 *
+	 * @param objects
+	 */
+	public void send(List<? extends NetworkObject> objects) {
+
+		if (done) {
+			return;
+		}
+
+		boolean overflow = false;
+		boolean wake = false;
+		long now = System.currentTimeMillis();
+		synchronized (buffer) {
+			for (NetworkObject object : objects) {
+				if (queued >= capacity && !makeRoom(object)) {
+					overflow = true;
+					break;
+				}
+				add(new Entry(object, now));
+				enqueued++;
 			}
-			try {
-				this.outputStream = new ObjectOutputStream(socket.getOutputStream());
-				this.outputStream.flush();
-				this.send(TelnetProperties.getTelnetConfig());
-			} catch (IOException ex) {
-				Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "IOException occured when creating clientSession outputStream");
+			maxQueued = Math.max(maxQueued, queued);
+			if (!writeRequested && queued > 0) {
+				writeRequested = true;
+				wake = true;
 			}
-
 		}
 
+		if (overflow) {
+			Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "Client " + clientName + " does not read events, disconnecting it.");
+			closeSession();
+		} else if (wake) {
+			server.requestWrite(this);
+		}
 	}
 
 	/**
-	 * transmission object throught connected socket and initialized outputstream
+	 * Removes one object from full buffer according to the policy. Must be called with lock of the buffer.
 	 *
-	 * @param object
+	 * @return false, if the session has to be disconnected
 	 */
-	public void send(NetworkObject object) {
+	private boolean makeRoom(NetworkObject incoming) {
+		if (policy == OverflowPolicy.DISCONNECT) {
+			return false;
+		}
+		if (policy == OverflowPolicy.COALESCE && incoming instanceof SimulatorEvent) {
+			ArrayDeque<Entry> sameLink = byLink.get(new LinkKey((SimulatorEvent) incoming));
+			if (sameLink != null) {
+				remove(sameLink.peek());
+				coalesced++;
+				return true;
+			}
+		}
+		// zahazuje se nejstarsi udalost, ostatni objekty (TelnetConfig) se nezahazujou:
+		for (Entry entry : buffer) {
+			if (!entry.removed && entry.object instanceof SimulatorEvent) {
+				remove(entry);
+				dropped++;
+				return true;
+			}
+		}
+		return false;
+	}
 
-		if (done) {
+	/**
+	 * Adds entry to the end of buffer. Must be called with lock of the buffer.
+	 */
+	private void add(Entry entry) {
+		buffer.add(entry);
+		queued++;
+		if (policy == OverflowPolicy.COALESCE && entry.object instanceof SimulatorEvent) {
+			LinkKey key = new LinkKey((SimulatorEvent) entry.object);
+			ArrayDeque<Entry> sameLink = byLink.get(key);
+			if (sameLink == null) {
+				sameLink = new ArrayDeque<>();
+				byLink.put(key, sameLink);
+			}
+			sameLink.add(entry);
+		}
+	}
+
+	/**
+	 * Marks entry as removed, it stays in buffer till it is polled or the buffer is compacted. Must be called with
+	 * lock of the buffer.
+	 */
+	private void remove(Entry entry) {
+		entry.removed = true;
+		queued--;
+		unindex(entry);
+		if (buffer.size() > 2 * capacity) {	// odebranych je moc, vyhodi se
+			for (Iterator<Entry> it = buffer.iterator(); it.hasNext();) {
+				if (it.next().removed) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns the first entry, which is not removed, null if there is no such entry. Must be called with
+	 * lock of the buffer.
+	 */
+	private Entry poll() {
+		Entry entry;
+		while ((entry = buffer.poll()) != null) {
+			if (!entry.removed) {
+				queued--;
+				unindex(entry);
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes entry from index of links. Both polled and removed entries are the oldest of their link.
+	 */
+	private void unindex(Entry entry) {
+		if (policy != OverflowPolicy.COALESCE || !(entry.object instanceof SimulatorEvent)) {
 			return;
 		}
+		LinkKey key = new LinkKey((SimulatorEvent) entry.object);
+		ArrayDeque<Entry> sameLink = byLink.get(key);
+		sameLink.remove(entry);
+		if (sameLink.isEmpty()) {
+			byLink.remove(key);
+		}
+	}
 
+	/**
+	 * Reads from the channel. During negotiation looks for EventStreamRequest, later only detects closing of the
+	 * connection.
+	 *
+	 * @throws IOException
+	 */
+	void onReadable() throws IOException {
+		readBuffer.clear();
+		int read = channel.read(readBuffer);
+		if (read < 0) {
+			closeSession();
+			return;
+		}
+		if (negotiated) {
+			return;	// klient uz nic posilat nema, zahazuje se
+		}
+		inbound.write(readBuffer.array(), 0, read);
 		try {
-			this.outputStream.writeObject(object);  //serialize && send 
-			this.outputStream.flush();
-		} catch (IOException ex) {
+			Object request = new ObjectInputStream(new ByteArrayInputStream(inbound.toByteArray())).readObject();
+			finishNegotiation(request instanceof EventStreamRequest
+					&& ((EventStreamRequest) request).getVersion() == BinaryEventEncoder.VERSION);
+		} catch (EOFException ex) {
+			// objekt jeste neprisel cely, ceka se dal
+		} catch (IOException | ClassNotFoundException ex) {
+			finishNegotiation(false);
+		}
+	}
+
+	/**
+	 * Ends negotiation with Java serialization, if the client did not send EventStreamRequest in time. Older client
+	 * already has TelnetConfig then, only its events were waiting.
+	 *
+	 * @param now
+	 * @throws IOException
+	 */
+	void checkNegotiationTimeout(long now) throws IOException {
+		if (!negotiated && now >= negotiationDeadline) {
+			Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "Client did not ask for binary event stream, using serialization.");
+			finishNegotiation(false);
+		}
+	}
+
+	boolean isNegotiated() {
+		return negotiated;
+	}
+
+	private void finishNegotiation(boolean binary) throws IOException {
+		negotiated = true;
+		inbound.reset();
+		if (binary) {
+			encoder = new BinaryEventEncoder();
+			outputStream.writeObject(new EventStreamRequest());	// od ted jsou udalosti v binarnich ramcich
+			outputStream.reset();
+			outputStream.flush();
+			addToPending();
+			Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "Client uses binary event stream.");
+		}
+		synchronized (buffer) {
+			writeRequested = true;
+		}
+		server.requestWrite(this);
+	}
+
+	/**
+	 * Writes as much as the channel takes.
+	 *
+	 * @return true, if there is still something to write and the session has to wait for next OP_WRITE
+	 * @throws IOException
+	 */
+	boolean onWritable() throws IOException {
+		while (true) {
+			if (pending.hasRemaining()) {
+				int written = channel.write(pending);
+				sentBytes += written;
+				if (pending.hasRemaining()) {
+					return true;	// klient nestiha, pokracuje se pri dalsim OP_WRITE
+				}
+				lastSendTime = System.currentTimeMillis();
+			}
+
+			if (!negotiated) {
+				return false;
+			}
 
-			if (done) {  // if everything is closed properly....
-				return;
+			synchronized (buffer) {
+				Entry entry;
+				while (writeBatch.size() < writeBatchSize && (entry = poll()) != null) {
+					writeBatch.add(entry.object);
+				}
+				if (writeBatch.isEmpty()) {
+					writeRequested = false;
+					return false;
+				}
 			}
+			encode(writeBatch);
+			sentObjects += writeBatch.size();
+			writeBatch.clear();
+		}
+	}
 
-			Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "Unexpected IOException occured when writing object into ObjectOutputStream");
-			this.closeSession();
+	private void encode(List<NetworkObject> objects) throws IOException {
+		if (encoder != null) {
+			encoder.write(objects, outputStream);
+		} else {
+			for (NetworkObject object : objects) {
+				outputStream.writeObject(object);  //serialize
+			}
+			outputStream.reset();	// jinak si stream pamatuje vsechny poslany objekty
+		}
+		outputStream.flush();
+		addToPending();
+	}
+
+	/**
+	 * Moves bytes from sink to pending buffer.
+	 */
+	private void addToPending() {
+		if (sink.size() == 0) {
+			return;
+		}
+		byte[] data = sink.toByteArray();
+		sink.reset();
+		if (!pending.hasRemaining()) {
+			pending = ByteBuffer.wrap(data);
+		} else {
+			ByteBuffer joined = ByteBuffer.allocate(pending.remaining() + data.length);
+			joined.put(pending).put(data).flip();
+			pending = joined;
 		}
 	}
 
+	SocketChannel getChannel() {
+		return channel;
+	}
+
 	public void closeSession() {
 	//	this.listReference.remove(this);   // auto-remove when is not active, this line may causing concuret modification exception
-		this.done = true;
-		if (this.socket == null || this.socket.isClosed()) // nothing to close
-		{
+		if (done) {
 			return;
 		}
+		this.done = true;
+		synchronized (buffer) {
+			buffer.clear();
+			byLink.clear();
+			queued = 0;
+		}
+		Logger.log(Logger.INFO, LoggingCategory.EVENTS_SERVER, "Closing client session: " + getMetrics());
 
 		try {
-			socket.close();
+			channel.close();
 		} catch (IOException ex) {
 			Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "Unexpected IOException occured when closing client session thread. Socket may not be closed properly");
 		}
@@ -108,4 +461,120 @@ public class ClientSession {
 	public boolean isActive() {
 		return !this.done;
 	}
+
+// metriky: ----------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns number of objects waiting in the outbound buffer.
+	 *
+	 * @return
+	 */
+	public int getQueued() {
+		synchronized (buffer) {
+			return queued;
+		}
+	}
+
+	/**
+	 * Returns age of the oldest waiting object in ms, 0 if nothing is waiting.
+	 *
+	 * @return
+	 */
+	public long getLagMillis() {
+		synchronized (buffer) {
+			for (Entry entry : buffer) {
+				if (!entry.removed) {
+					return System.currentTimeMillis() - entry.time;
+				}
+			}
+			return 0;
+		}
+	}
+
+	public long getDropped() {
+		synchronized (buffer) {
+			return dropped;
+		}
+	}
+
+	public long getCoalesced() {
+		synchronized (buffer) {
+			return coalesced;
+		}
+	}
+
+	public long getSentObjects() {
+		return sentObjects;
+	}
+
+	public long getSentBytes() {
+		return sentBytes;
+	}
+
+	/**
+	 * Returns all metrics of the session as one line.
+	 *
+	 * @return
+	 */
+	public String getMetrics() {
+		synchronized (buffer) {
+			return clientName + " connected " + (System.currentTimeMillis() - connectedAt) / 1000 + " s, format: "
+					+ (encoder != null ? "binary" : "serialization") + ", policy: " + policy
+					+ ", enqueued: " + enqueued + ", sent: " + sentObjects + " (" + sentBytes + " B)"
+					+ ", queued: " + queued + " (max " + maxQueued + "), lag: " + getLagMillis() + " ms"
+					+ ", dropped: " + dropped + ", coalesced: " + coalesced
+					+ ", last send: " + (lastSendTime == 0 ? "never" : (System.currentTimeMillis() - lastSendTime) + " ms ago");
+		}
+	}
+
+	/**
+	 * Polozka bufferu.
+	 */
+	private static class Entry {
+
+		final NetworkObject object;
+		/**
+		 * Time of enqueueing.
+		 */
+		final long time;
+		/**
+		 * True if the entry was thrown away by overflow policy, guarded by buffer.
+		 */
+		boolean removed = false;
+
+		Entry(NetworkObject object, long time) {
+			this.object = object;
+			this.time = time;
+		}
+	}
+
+	/**
+	 * Link of event (source, destination and cable), key of coalescing.
+	 */
+	private static final class LinkKey {
+
+		final int source;
+		final int destination;
+		final int cable;
+
+		LinkKey(SimulatorEvent event) {
+			this.source = event.getSourcceId();
+			this.destination = event.getDestId();
+			this.cable = event.getCableId();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LinkKey)) {
+				return false;
+			}
+			LinkKey other = (LinkKey) obj;
+			return source == other.source && destination == other.destination && cable == other.cable;
+		}
+
+		@Override
+		public int hashCode() {
+			return (source * 31 + destination) * 31 + cable;
+		}
+	}
 }
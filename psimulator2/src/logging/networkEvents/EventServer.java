@@ -1,25 +1,56 @@
 package logging.networkEvents;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import logging.Logger;
 import logging.LoggingCategory;
 
 /**
  * server socket thread --- connection listener
  *
+ * Runs one selector for accepting clients and for writing to all of them, so no client can block the others. Every
+ * client has its own bounded buffer (see ClientSession), its size and overflow policy can be set by system properties
+ * psimulator2.eventClientBuffer (number of objects, default 8192) and psimulator2.eventOverflowPolicy (DROP_OLDEST,
+ * COALESCE or DISCONNECT, default DROP_OLDEST).
+ *
  * @author Martin Lukáš <lukasma1@fit.cvut.cz>
  */
 public class EventServer implements Runnable {
 
 	private int port;
 	private EventsListener listener;
-	private boolean quit = false;
-	private ServerSocket serverSocket;
+	private volatile boolean quit = false;
+	private ServerSocketChannel serverChannel;
+	private volatile Selector selector;
+	private final int clientBufferSize;
+	private final OverflowPolicy overflowPolicy;
+	/**
+	 * Sessions, which have something to write. Interest ops can be changed only in selector thread, so other threads
+	 * put sessions here and wake the selector.
+	 */
+	private final Queue<ClientSession> writeRequests = new ConcurrentLinkedQueue<>();
+	/**
+	 * Sessions waiting for EventStreamRequest, used only by selector thread.
+	 */
+	private final List<ClientSession> negotiating = new ArrayList<>();
 
 	public EventServer(int port) {
+		this(port, Integer.getInteger("psimulator2.eventClientBuffer", 8192), parsePolicy(System.getProperty("psimulator2.eventOverflowPolicy")));
+	}
+
+	public EventServer(int port, int clientBufferSize, OverflowPolicy overflowPolicy) {
 		this.port = port;
+		this.clientBufferSize = clientBufferSize;
+		this.overflowPolicy = overflowPolicy;
 		this.listener = new EventsListener();
 
 		// now is the right time to start EventListener thread
@@ -35,7 +66,11 @@ public class EventServer implements Runnable {
 	public void run() {
 		Thread.currentThread().setName("EventServer");
 		try {
-			serverSocket = new ServerSocket(port);
+			selector = Selector.open();
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.socket().bind(new InetSocketAddress(port));
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 		} catch (IOException ex) {
 			Logger.log(Logger.ERROR, LoggingCategory.EVENTS_SERVER, "IOException occured when creating server socket");
 			return;
@@ -43,36 +78,165 @@ public class EventServer implements Runnable {
 
 		Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "EventServer server socket successfully created.");
 
-
-
 		while (!quit) {
-			Socket clientSocket;
 			try {
-				clientSocket = serverSocket.accept();
-				Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "Client with hostname " + clientSocket.getInetAddress().getHostName() + " connected");
+				selector.select(500);	// timeout kvuli vyprseni vyjednavani
 			} catch (IOException ex) {
-				if (!quit) {
-					Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "IOException occured when creating client socket. No other client socket will be created");
+				Logger.log(Logger.ERROR, LoggingCategory.EVENTS_SERVER, "IOException occured in selector, no other client will be served");
+				break;
+			}
+
+			processWriteRequests();
+
+			for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+				SelectionKey key = it.next();
+				it.remove();
+				if (!key.isValid()) {
+					continue;
 				}
+				if (key.isAcceptable()) {
+					accept();
+				} else {
+					handleClient(key);
+				}
+			}
+
+			checkNegotiations();
+		}
+
+		close();
+	}
+
+	/**
+	 * Closes sessions of all clients and the selector, called by selector thread when it ends.
+	 */
+	private void close() {
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() instanceof ClientSession) {
+				((ClientSession) key.attachment()).closeSession();
+			}
+		}
+		try {
+			selector.close();
+		} catch (IOException ex) {
+			Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "IOException occured when closing selector");
+		}
+	}
+
+	private void accept() {
+		SocketChannel channel;
+		try {
+			channel = serverChannel.accept();
+			if (channel == null) {
 				return;
 			}
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "Client with hostname " + channel.socket().getInetAddress().getHostName() + " connected");
+		} catch (IOException ex) {
+			if (!quit) {
+				Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "IOException occured when creating client socket.");
+			}
+			return;
+		}
+
+		ClientSession clientSession = new ClientSession(channel, this, clientBufferSize, overflowPolicy);
+		try {
+			clientSession.start();
+			channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, clientSession);
+		} catch (IOException ex) {
+			Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "IOException occured when creating clientSession outputStream");
+			clientSession.closeSession();
+			return;
+		}
+		negotiating.add(clientSession);
 
-			ClientSession clientSession = new ClientSession(clientSocket);
-			clientSession.initCommunication();
+		this.listener.addClientSession(clientSession);
+	}
 
-			this.listener.addClientSession(clientSession);
+	private void handleClient(SelectionKey key) {
+		ClientSession session = (ClientSession) key.attachment();
+		try {
+			if (key.isReadable()) {
+				session.onReadable();
+			}
+			if (key.isValid() && key.isWritable()) {
+				if (!session.onWritable()) {
+					key.interestOps(SelectionKey.OP_READ);
+				}
+			}
+		} catch (IOException ex) {
+			if (session.isActive()) {
+				Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "Unexpected IOException occured when writing to client, closing session");
+				session.closeSession();
+			}
+		}
+	}
 
+	private void processWriteRequests() {
+		ClientSession session;
+		while ((session = writeRequests.poll()) != null) {
+			SelectionKey key = session.getChannel().keyFor(selector);
+			if (key != null && key.isValid()) {
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
 		}
+	}
 
+	private void checkNegotiations() {
+		long now = System.currentTimeMillis();
+		for (Iterator<ClientSession> it = negotiating.iterator(); it.hasNext();) {
+			ClientSession session = it.next();
+			try {
+				session.checkNegotiationTimeout(now);
+			} catch (IOException ex) {
+				session.closeSession();
+			}
+			if (session.isNegotiated() || !session.isActive()) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Asks selector thread to write data of the session. Can be called from any thread.
+	 *
+	 * @param session
+	 */
+	void requestWrite(ClientSession session) {
+		writeRequests.add(session);
+		Selector s = selector;
+		if (s != null) {
+			s.wakeup();
+		}
 	}
 
+	/**
+	 * Stops the server. Selector thread closes the selector and sessions of clients, when it wakes up.
+	 */
 	public void stop() {
 		this.quit = true;
 		try {
-			this.serverSocket.close();
+			if (selector != null) {
+				selector.wakeup();
+			}
+			if (this.serverChannel != null) {
+				this.serverChannel.close();
+			}
 		} catch (IOException ex) {
 			Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "IOException occured when closing server socket");
 		}
 
 	}
+
+	private static OverflowPolicy parsePolicy(String name) {
+		if (name != null) {
+			try {
+				return OverflowPolicy.valueOf(name.trim().toUpperCase());
+			} catch (IllegalArgumentException ex) {
+				Logger.log(Logger.WARNING, LoggingCategory.EVENTS_SERVER, "Unknown overflow policy " + name + ", using DROP_OLDEST.");
+			}
+		}
+		return OverflowPolicy.DROP_OLDEST;
+	}
 }
@@ -1,5 +1,6 @@
 package logging.networkEvents;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -13,6 +14,7 @@ import shared.NetworkObject;
 
 /**
  * EventsListener is running in own thread, because broadcasting events over network is time consuming operation.
+ * Sessions only put the objects into their buffers, writing to sockets is done by selector of EventServer.
  *
  * @author Martin Lukáš <lukasma1@fit.cvut.cz>
  */
@@ -25,6 +27,14 @@ public class EventsListener implements Runnable {
 	 */
 	private LinkedBlockingQueue<NetworkObject> objectsToBroadCast = new LinkedBlockingQueue<>();
 	private PacketTranslator packetTranslator;
+	/**
+	 * Max number of objects sent to clients at once.
+	 */
+	private static final int batchSize = 256;
+	/**
+	 * How long (in ms) to wait for more objects after the first one of the batch has come.
+	 */
+	private static final long batchWindow = 20;
 
 	public EventsListener() {
 		this.packetTranslator = new PacketTranslator(objectsToBroadCast);
@@ -52,6 +62,8 @@ public class EventsListener implements Runnable {
 	public void run() {
 		Thread.currentThread().setName("EventsListener");
 
+		List<NetworkObject> batch = new ArrayList<>(batchSize);
+
 		while (!done) {
 
 			NetworkObject ntwObject = null;
@@ -68,19 +80,47 @@ public class EventsListener implements Runnable {
 				continue;
 			}
 
-			Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "Object for broadcasting recieved. Broadcasting ... ");
+			batch.add(ntwObject);
+			fillBatch(batch);
+
+			Logger.log(Logger.DEBUG, LoggingCategory.EVENTS_SERVER, "Objects for broadcasting recieved. Broadcasting ... ");
 
 			synchronized (this.clientSessions) {
 				for (Iterator<ClientSession> it = clientSessions.iterator(); it.hasNext();) {
 					ClientSession clientSession = it.next();
 					if (clientSession.isActive()) {
-						clientSession.send(ntwObject);
+						clientSession.send(batch);
 					} else {
 						it.remove();
 					}
 				}
 			}
+			batch.clear();
+
+		}
 
+	}
+
+	/**
+	 * Adds objects from the queue to the batch, until the batch is full or batchWindow has passed.
+	 */
+	private void fillBatch(List<NetworkObject> batch) {
+		long deadline = System.currentTimeMillis() + batchWindow;
+		while (batch.size() < batchSize) {
+			objectsToBroadCast.drainTo(batch, batchSize - batch.size());
+			long remaining = deadline - System.currentTimeMillis();
+			if (batch.size() >= batchSize || remaining <= 0) {
+				return;
+			}
+			try {
+				NetworkObject next = objectsToBroadCast.poll(remaining, TimeUnit.MILLISECONDS);
+				if (next == null) {
+					return;
+				}
+				batch.add(next);
+			} catch (InterruptedException ex) {
+				return;
+			}
 		}
 
 	}
@@ -0,0 +1,24 @@
+/*
+ * created 18.10.2026
+ */
+package logging.networkEvents;
+
+/**
+ * What to do, when outbound buffer of a client is full (the client does not read fast enough).
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * The oldest waiting event is thrown away.
+	 */
+	DROP_OLDEST,
+	/**
+	 * Waiting event of the same link (source, destination and cable) is thrown away, so the client gets at least the
+	 * newest state of every link. If there is no such event, the oldest one is thrown away.
+	 */
+	COALESCE,
+	/**
+	 * The client is disconnected.
+	 */
+	DISCONNECT;
+}
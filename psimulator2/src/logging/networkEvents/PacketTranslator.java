@@ -145,6 +145,11 @@ public class PacketTranslator implements Runnable, LoggerListener, Loggable {
 	public void listen(String name, int logLevel, LoggingCategory category, String message) {  // NO USE FOR THIS METHOD
 	}
 
+	@Override
+	public boolean isInterested(LoggingCategory category, int logLevel) {
+		return category == LoggingCategory.CABEL_SENDING || category == LoggingCategory.PACKET_DROP;
+	}
+
 	public void stop() {
 		this.quit = true;
 		Logger.log(Logger.INFO, LoggingCategory.EVENTS_SERVER, "Stopping PacketTranslator");
@@ -5,19 +5,23 @@ package networkModule.L2;
 
 import dataStructures.packets.EthernetPacket;
 import dataStructures.MacAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
+import utils.IntMap;
 
 /**
  * Representace ethernetovyho interface (sitovy karty) se switchovaci tabulkou. Spolecny pro switch i router. Ma jmeno,
  * mac adresu, muze mit vic switchportu, ma ethernetovou switchovaci tabulku.
  *
  * TODO: Zjistit, jak dlouho je platnej zaznam ve switchovaci tabulce, zatim nastaveno na 20 s.
- * Switchovaci tabulka nic nedela, kdyz ma interface jen jeden switchport (kvuli zrychleni).
+ * Switchovaci tabulka nic nedela, kdyz ma interface jen jeden switchport (kvuli zrychleni). Zapisuje do ni jen worker
+ * ethernetovy vrstvy, cist ji muzou i prikazy (viz MacTable).
  *
  * @author neiss
  */
@@ -25,12 +29,20 @@ public class EthernetInterface implements Loggable {
 
 	public final String name;
 	protected MacAddress mac;
-	private final Map<MacAddress, SwitchTableItem> switchingTable = new HashMap<>();
+	private final MacTable switchingTable = new MacTable(switchTableTimeout, MacTable.DEFAULT_CAPACITY);
 	/**
 	 * Seznam prirazenejch switchportu. Je dulezity, aby to bylo private, pridavat se musi jen v metode
 	 * addSwitchportSettings, aby se v tom SwitchportSettings nastavilo assignedInterface.
 	 */
 	private final Map<Integer, SwitchportSettings> switchports = new HashMap<>();
+	/**
+	 * Cisla switchportu, na ktery se posila broadcast (zapnuty a pripojeny), pro kazdej prichozi switchport zvlast
+	 * (klic NO_INCOMING pro pakety od vyssi vrstvy). Prepocitava se jen po zmene propojeni (viz
+	 * AbstractPhysicalModule.getLinkVersion()) nebo switchportu, pouziva ho jen worker ethernetovy vrstvy.
+	 */
+	private final IntMap<int[]> floodSets = new IntMap<>();
+	private int floodSetsVersion = -1;
+	private static final int NO_INCOMING = Integer.MIN_VALUE;
 	/**
 	 * Je-li povoleno switchovani, napr. u routeru defualtne zakazano.
 	 */
@@ -81,6 +93,7 @@ public class EthernetInterface implements Loggable {
 	public void addSwitchportSettings(SwitchportSettings s) {
 		s.assignedInterface = this;
 		switchports.put(s.switchportNumber, s);
+		floodSetsVersion = -1;
 	}
 
 
@@ -92,10 +105,7 @@ public class EthernetInterface implements Loggable {
 		if (switchports.size() == 1) {
 			// nic se nedela
 		} else {
-			if (switchingTable.containsKey(mac)) {	// kontrola staryho zaznamu
-				switchingTable.remove(mac);
-			}
-			switchingTable.put(mac, new SwitchTableItem(swportSett, System.currentTimeMillis()));
+			switchingTable.learn(mac, swportSett, System.currentTimeMillis());
 		}
 	}
 
@@ -109,12 +119,7 @@ public class EthernetInterface implements Loggable {
 		if (switchports.size() == 1) {
 			return switchports.get(0);
 		} else {
-			SwitchTableItem item = switchingTable.get(mac);
-			if (item == null || item.isOutdated()) {
-				return null;
-			} else {
-				return item.swportSett;
-			}
+			return switchingTable.lookup(mac, System.currentTimeMillis());
 		}
 	}
 
@@ -124,11 +129,36 @@ public class EthernetInterface implements Loggable {
 	 * @param incoming switchport, na nejz paket prisel, tam uz se znova neposila
 	 */
 	void transmitPacketOnAllSwitchports(EthernetPacket p, SwitchportSettings incoming) {
-		for (SwitchportSettings switchport : switchports.values()) {
-			if (switchport.isUp && switchport != incoming && etherLayer.physicMod.isSwitchportConnected(switchport.switchportNumber)) {
-				etherLayer.getNetMod().getPhysicMod().sendPacket(p, switchport.switchportNumber);
+		int[] ports = getFloodSet(incoming == null ? NO_INCOMING : incoming.switchportNumber);
+		if (ports.length > 0) {
+			etherLayer.physicMod.sendPacket(p, ports);
+		}
+	}
+
+	/**
+	 * Vrati cisla switchportu, na ktery se ma poslat broadcast prichozi na zadanej switchport.
+	 */
+	private int[] getFloodSet(int incoming) {
+		int version = etherLayer.physicMod.getLinkVersion();
+		if (version != floodSetsVersion) {
+			floodSets.clear();
+			floodSetsVersion = version;
+		}
+		int[] ports = floodSets.get(incoming);
+		if (ports == null) {
+			List<Integer> list = new ArrayList<>();
+			for (SwitchportSettings switchport : switchports.values()) {
+				if (switchport.isUp && switchport.switchportNumber != incoming && etherLayer.physicMod.isSwitchportConnected(switchport.switchportNumber)) {
+					list.add(switchport.switchportNumber);
+				}
+			}
+			ports = new int[list.size()];
+			for (int i = 0; i < ports.length; i++) {
+				ports[i] = list.get(i);
 			}
+			floodSets.put(incoming, ports);
 		}
+		return ports;
 	}
 
 
@@ -169,30 +199,12 @@ public class EthernetInterface implements Loggable {
 		return mac;
 	}
 
-
-// Polozka switchovaci tabulky: ----------------------------------------------------------------------------------
-
-
-	private class SwitchTableItem {
-
-		public SwitchportSettings swportSett;
-
-		/**
-		 * Systemovej cas (v ms), kdy byl zaznam pridan. Slouzi jako casove razitko pro vyprseni zaznamu.
-		 */
-		public long time;
-
-		public SwitchTableItem(SwitchportSettings swportSett, long time) {
-			this.swportSett = swportSett;
-			this.time = time;
-		}
-
-		public boolean isOutdated(){
-			if(System.currentTimeMillis() > time+switchTableTimeout*1000){
-				return true;
-			}
-			return false;
-		}
-
+	/**
+	 * Returns switching table of this interface, its entries can be read from any thread.
+	 *
+	 * @return
+	 */
+	public MacTable getSwitchingTable() {
+		return switchingTable;
 	}
 }
@@ -3,6 +3,7 @@
  */
 package networkModule.L2;
 
+import dataStructures.DropItem;
 import dataStructures.packets.EthernetPacket;
 import dataStructures.packets.L3Packet;
 import dataStructures.MacAddress;
@@ -13,6 +14,7 @@ import networkModule.NetworkModule;
 import networkModule.IpNetworkModule;
 import physicalModule.AbstractPhysicalModule;
 import physicalModule.PhysicMod;
+import utils.MpscQueue;
 import utils.SmartRunnable;
 import utils.Util;
 import utils.WorkerThread;
@@ -26,8 +28,21 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 	protected final List<EthernetInterface> ifaces = new ArrayList<>();
 	protected final WorkerThread worker;
 	protected final Map<Integer, SwitchportSettings> switchports = new HashMap<>();
-	private final List<SendItem> sendBuffer = Collections.synchronizedList(new LinkedList<SendItem>());
-	private final List<ReceiveItem> receiveBuffer = Collections.synchronizedList(new LinkedList<ReceiveItem>());
+	/**
+	 * Max number of packets in one buffer.
+	 */
+	private static final int bufferCapacity = 4096;
+	/**
+	 * Max number of packets taken from one buffer at once.
+	 */
+	private static final int batchSize = 64;
+	private final MpscQueue<SendItem> sendBuffer = new MpscQueue<>(bufferCapacity);
+	private final MpscQueue<ReceiveItem> receiveBuffer = new MpscQueue<>(bufferCapacity);
+	/**
+	 * Pomocny seznamy pro vybirani z bufferu, pouziva je jen worker.
+	 */
+	private final List<SendItem> sendBatch = new ArrayList<>(batchSize);
+	private final List<ReceiveItem> receiveBatch = new ArrayList<>(batchSize);
 	public final AbstractPhysicalModule physicMod;	// zkratka na fysickej modul
 
 
@@ -71,7 +86,7 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 	public void addAllSwitchportsToGivenInterface(EthernetInterface iface) {
 		for (SwitchportSettings swport : switchports.values()) {
 			iface.addSwitchportSettings(swport);
-			etherDebug("Pridavam na interface "+iface.name+" switchport c. "+ swport.switchportNumber, null);
+			etherDebug("Pridavam na interface {} switchport c. {}", null, iface.name, swport.switchportNumber);
 		}
 	}
 
@@ -82,12 +97,20 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 // Verejny metody pro sitovou komunikaci: ----------------------------------------------------------------------------------------------------
 
 	public void receivePacket(EthernetPacket packet, int switchportNumber) {
-		receiveBuffer.add(new ReceiveItem(packet, switchportNumber));
+		if (!receiveBuffer.offer(new ReceiveItem(packet, switchportNumber))) {
+			linkInfo("Dropping packet: receive buffer of ethernet layer is full.", packet);
+			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, netMod.getDevice().configID));
+			return;
+		}
 		worker.wake();
 	}
 
 	public void sendPacket(L3Packet packet, EthernetInterface iface, MacAddress target) {
-		sendBuffer.add(new SendItem(packet, iface, target));
+		if (!sendBuffer.offer(new SendItem(packet, iface, target))) {
+			linkInfo("Dropping packet: send buffer of ethernet layer is full.", packet);
+			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, netMod.getDevice().configID));
+			return;
+		}
 		worker.wake();
 	}
 
@@ -97,14 +120,17 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 	@Override
 	public void doMyWork() {
 		while ( ! (sendBuffer.isEmpty() && receiveBuffer.isEmpty())) {
-			if (!sendBuffer.isEmpty()) {
-				SendItem it = sendBuffer.remove(0);
+			sendBuffer.drainTo(sendBatch, batchSize);
+			for (SendItem it : sendBatch) {
 				handleSendPacket(it.packet, it.iface, it.target);
 			}
-			if (!receiveBuffer.isEmpty()) {
-				ReceiveItem it = receiveBuffer.remove(0);
+			sendBatch.clear();
+
+			receiveBuffer.drainTo(receiveBatch, batchSize);
+			for (ReceiveItem it : receiveBatch) {
 				handleReceivePacket(it.packet, it.switchportNumber);
 			}
+			receiveBatch.clear();
 		}
 	}
 
@@ -113,6 +139,15 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 		return Util.zarovnej(netMod.getDevice().getName(), Util.deviceNameAlign)+" EthLayer";
 	}
 
+	/**
+	 * Returns ethernet interfaces of this layer.
+	 *
+	 * @return
+	 */
+	public List<EthernetInterface> getIfaces() {
+		return Collections.unmodifiableList(ifaces);
+	}
+
 	public SwitchportSettings getSwitchport(int i){
 		return switchports.get(i);
 	}
@@ -139,10 +174,10 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 		EthernetPacket p = new EthernetPacket(iface.getMac(), target, packet.getType(), packet);
 
 		if (target.equals(MacAddress.broadcast())) {
-			linkInfo("Odesilam novej broadcast paket od vyssi vrstvy na rozhrani "+iface.name+" na vsechny switchporty. ", p);
+			linkInfo("Odesilam novej broadcast paket od vyssi vrstvy na rozhrani {} na vsechny switchporty. ", p, iface.name);
 			iface.transmitPacketOnAllSwitchports(p, null);
 		} else {
-			linkInfo("Jdu odeslat novej paket na rozhrani "+iface.name+". ", p);
+			linkInfo("Jdu odeslat novej paket na rozhrani {}. ", p, iface.name);
 			transmitPacket(iface, p, null);
 		}
 	}
@@ -165,7 +200,7 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 		//kontrola, bylo-li nalezeno rozhrani:
 		EthernetInterface iface = swport.assignedInterface;
 		if (iface == null) {
-			Logger.log(this, Logger.WARNING, LoggingCategory.ETHERNET_LAYER, "Nenalezeno interface ke switchportu c. "+ switchportNumber+", prusvih!", packet);
+			Logger.logf(this, Logger.WARNING, LoggingCategory.ETHERNET_LAYER, "Nenalezeno interface ke switchportu c. {}, prusvih!", packet, switchportNumber);
 			return;
 		}
 
@@ -176,22 +211,22 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 
 		//samotny vyrizovani paketu:
 		if (packet.dst.equals(iface.getMac())) {	//pokud je paket pro me
-			linkInfo("Prijal jsem paket pro me na switchportu "+ switchportNumber+" na rozhrani "+iface.name+". ", packet);
+			linkInfo("Prijal jsem paket pro me na switchportu {} na rozhrani {}. ", packet, switchportNumber, iface.name);
 			handlePacketForMe(packet, iface, swport);
 		} else if (packet.dst.equals(MacAddress.broadcast())) { //paket je broadcastovej
 			handlePacketForMe(packet, iface, swport);
 			if (iface.switchingEnabled) {
-				linkInfo("Prijal jsem broadcast paket na switchportu "+ switchportNumber+" na rozhrani "+iface.name+". Jdu ho dal preposlat. ", packet);
+				linkInfo("Prijal jsem broadcast paket na switchportu {} na rozhrani {}. Jdu ho dal preposlat. ", packet, switchportNumber, iface.name);
 				iface.transmitPacketOnAllSwitchports(packet,swport);	// interface to odesle na vsechny porty
 			} else {
-				linkInfo("Prijal jsem broadcast paket na switchportu "+ switchportNumber+" na rozhrani "+iface.name+". Nepreposilam ho, protoze nemam povoleny switchovani. ", packet);
+				linkInfo("Prijal jsem broadcast paket na switchportu {} na rozhrani {}. Nepreposilam ho, protoze nemam povoleny switchovani. ", packet, switchportNumber, iface.name);
 			}
 		} else { //paket neni pro me, musim ho odeslat dal
 			if (iface.switchingEnabled) { //odesila se, kdyz je to dovoleny
-				linkInfo("Prijal jsem paket na switchportu "+ switchportNumber+" na rozhrani "+iface.name+", kterej neni pro me. Jdu ho preposlat. ", packet);
+				linkInfo("Prijal jsem paket na switchportu {} na rozhrani {}, kterej neni pro me. Jdu ho preposlat. ", packet, switchportNumber, iface.name);
 				transmitPacket(iface, packet, swport);
 			} else {
-				linkInfo("Prijal jsem paket na switchportu "+ switchportNumber+" na rozhrani "+iface.name+", kterej neni pro me. Nemam ale povoleny switchovani, tak ho zahazuju. ", packet);
+				linkInfo("Prijal jsem paket na switchportu {} na rozhrani {}, kterej neni pro me. Nemam ale povoleny switchovani, tak ho zahazuju. ", packet, switchportNumber, iface.name);
 			}
 		}
 
@@ -208,7 +243,7 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 		SwitchportSettings swport = iface.getSwitchport(packet.dst);	// kam se to ma poslat.
 
 		if (packet.dst.equals(MacAddress.broadcast())) {	// je to broadcast, odesila se to vsude
-			linkDebug("Jdu odeslat paket na interface " + iface.name + " na vsechny switchporty, protoze je to broadcast. ", packet);
+			linkDebug("Jdu odeslat paket na interface {} na vsechny switchporty, protoze je to broadcast. ", packet, iface.name);
 			iface.transmitPacketOnAllSwitchports(packet, incoming);	// interface to odesle na vsechny porty
 
 		} else if (swport == null) { // switchport nenalezen
@@ -216,7 +251,7 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 			iface.transmitPacketOnAllSwitchports(packet, incoming);	// interface to odesle na vsechny porty
 
 		} else {	// switchport nalezen, posilam to na nej
-			linkDebug("Jdu odeslat paket na interface " + iface.name + " na switchport " + swport.switchportNumber + ". ", packet);
+			linkDebug("Jdu odeslat paket na interface {} na switchport {}. ", packet, iface.name, swport.switchportNumber);
 			netMod.getPhysicMod().sendPacket(packet, swport.switchportNumber); //odeslu to po tom najitym switchportu
 		}
 	}
@@ -243,12 +278,28 @@ public class EthernetLayer extends Layer implements SmartRunnable, Loggable {
 		Logger.log(this, Logger.DEBUG, LoggingCategory.LINK, message, obj);
 	}
 
+	private void linkDebug(String template, Object obj, Object arg1) {
+		Logger.logf(this, Logger.DEBUG, LoggingCategory.LINK, template, obj, arg1);
+	}
+
+	private void linkDebug(String template, Object obj, Object arg1, Object arg2) {
+		Logger.logf(this, Logger.DEBUG, LoggingCategory.LINK, template, obj, arg1, arg2);
+	}
+
 	private void linkInfo(String message,Object obj){
 		Logger.log(this, Logger.INFO, LoggingCategory.LINK, message, obj);
 	}
 
-	private void etherDebug(String message,Object obj){
-		Logger.log(this, Logger.DEBUG, LoggingCategory.LINK, message, obj);
+	private void linkInfo(String template, Object obj, Object arg1) {
+		Logger.logf(this, Logger.INFO, LoggingCategory.LINK, template, obj, arg1);
+	}
+
+	private void linkInfo(String template, Object obj, Object arg1, Object arg2) {
+		Logger.logf(this, Logger.INFO, LoggingCategory.LINK, template, obj, arg1, arg2);
+	}
+
+	private void etherDebug(String template, Object obj, Object arg1, Object arg2) {
+		Logger.logf(this, Logger.DEBUG, LoggingCategory.LINK, template, obj, arg1, arg2);
 	}
 
 
@@ -0,0 +1,322 @@
+/*
+ * created 18.10.2026
+ */
+package networkModule.L2;
+
+import dataStructures.MacAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MAC learning (switchovaci) table of one ethernet interface.
+ *
+ * Only the worker of the ethernet layer writes to the table (learn), anybody can read it (lookup, getEntries) without
+ * locking. The table is open addressing over AtomicReferenceArray and every entry carries its mac address, so a reader
+ * sees either old or new content of a slot, never half of it. When the table grows, new array is built and published,
+ * readers still working with the old one see consistent older state.
+ *
+ * Zaznam se pri opakovanym uceni jen obnovi na miste (port a cas), nic se nealokuje. Stary zaznamy se mazou hromadne
+ * casovym kolem po sekundach: zaznam je v prihradce sekundy, kdy by mel vyprset, a kdyz ta sekunda prijde, zkontroluje
+ * se, jestli mezitim nebyl obnoven (pak se jen presune do pozdejsi prihradky). Kdyz je tabulka plna, vyhodi se zaznam,
+ * kterej by mel vyprset nejdriv.
+ */
+public class MacTable {
+
+	/**
+	 * Max number of entries of one table, can be set by system property psimulator2.macTableSize.
+	 */
+	public static final int DEFAULT_CAPACITY = Integer.getInteger("psimulator2.macTableSize", 8192);
+	/**
+	 * Free slot left after removed entry, needed for linear probing.
+	 */
+	private static final Entry TOMBSTONE = new Entry(MacAddress.ZERO, null, 0);
+
+	private final int capacity;
+	private final long timeoutMs;
+	private final int timeoutSec;
+	private volatile AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<>(16);
+	private volatile int size = 0;
+	/**
+	 * Number of slots, which are not null (entries and tombstones). Writer only.
+	 */
+	private int used = 0;
+	/**
+	 * Casovy kolo, prihradka i obsahuje zaznamy, ktery maji vyprset v sekundach s, kde s % wheel.size() == i. Writer
+	 * only.
+	 */
+	private final List<List<Entry>> wheel;
+	private List<Entry> spareBucket = new ArrayList<>();
+	/**
+	 * Last second processed by the wheel, -1 before the first learning.
+	 */
+	private long wheelSecond = -1;
+
+	/**
+	 * One record of the table. Mac address is fixed, switchport and time are updated in place.
+	 */
+	public static class Entry {
+
+		public final MacAddress mac;
+		private volatile SwitchportSettings swport;
+		/**
+		 * Time (in ms) of last frame with this source address.
+		 */
+		private volatile long lastSeen;
+		/**
+		 * False after the entry was removed from the table. Writer only.
+		 */
+		private boolean inTable = true;
+
+		private Entry(MacAddress mac, SwitchportSettings swport, long lastSeen) {
+			this.mac = mac;
+			this.swport = swport;
+			this.lastSeen = lastSeen;
+		}
+
+		public SwitchportSettings getSwitchport() {
+			return swport;
+		}
+
+		public long getLastSeen() {
+			return lastSeen;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param timeout validity of entries in seconds
+	 * @param capacity max number of entries
+	 */
+	public MacTable(int timeout, int capacity) {
+		this.timeoutSec = Math.max(timeout, 1);
+		this.timeoutMs = timeoutSec * 1000L;
+		this.capacity = Math.max(capacity, 1);
+		this.wheel = new ArrayList<>(timeoutSec + 1);
+		for (int i = 0; i <= timeoutSec; i++) {
+			wheel.add(new ArrayList<Entry>());
+		}
+	}
+
+// zapisovani, jen worker ethernetovy vrstvy: ---------------------------------------------------------------------
+
+	/**
+	 * Learns, that the mac address is behind given switchport. Only the worker of the ethernet layer can call it.
+	 *
+	 * @param mac
+	 * @param swport
+	 * @param now current time in ms
+	 */
+	public void learn(MacAddress mac, SwitchportSettings swport, long now) {
+		long second = now / 1000;
+		age(second, now);
+
+		Entry e = find(slots, mac.toLong());
+		if (e != null) {	// obnoveni na miste
+			e.swport = swport;
+			e.lastSeen = now;
+			return;
+		}
+
+		if (size >= capacity) {
+			evictOne();
+		}
+		e = new Entry(mac, swport, now);
+		insert(e);
+		schedule(e, second + timeoutSec);
+	}
+
+	/**
+	 * Removes expired entries from buckets of the wheel up to the given second.
+	 */
+	private void age(long second, long now) {
+		if (wheelSecond < 0) {
+			wheelSecond = second;
+			return;
+		}
+		long steps = Math.min(second - wheelSecond, wheel.size());	// dal nez jednou dokola nema smysl
+		for (long s = second - steps + 1; s <= second; s++) {
+			int index = (int) (s % wheel.size());
+			List<Entry> bucket = wheel.get(index);
+			wheel.set(index, spareBucket);
+			for (Entry e : bucket) {
+				if (!e.inTable) {
+					continue;
+				}
+				if (isOutdated(e, now)) {
+					remove(e);
+				} else {	// mezitim obnoven
+					schedule(e, Math.max(e.lastSeen / 1000 + timeoutSec, second + 1));
+				}
+			}
+			bucket.clear();
+			spareBucket = bucket;
+		}
+		if (second > wheelSecond) {
+			wheelSecond = second;
+		}
+	}
+
+	private void schedule(Entry e, long second) {
+		wheel.get((int) (second % wheel.size())).add(e);
+	}
+
+	/**
+	 * Removes the entry, which should expire first.
+	 */
+	private void evictOne() {
+		for (int i = 1; i <= wheel.size(); i++) {
+			List<Entry> bucket = wheel.get((int) ((wheelSecond + i) % wheel.size()));
+			int oldest = -1;
+			for (int j = 0; j < bucket.size(); j++) {
+				if (oldest < 0 || bucket.get(j).lastSeen < bucket.get(oldest).lastSeen) {
+					oldest = j;
+				}
+			}
+			if (oldest >= 0) {
+				Entry e = bucket.get(oldest);
+				bucket.set(oldest, bucket.get(bucket.size() - 1));
+				bucket.remove(bucket.size() - 1);
+				remove(e);
+				return;
+			}
+		}
+	}
+
+	private void insert(Entry e) {
+		if ((used + 1) * 2 > slots.length()) {
+			rehash();
+		}
+		AtomicReferenceArray<Entry> t = slots;
+		int mask = t.length() - 1;
+		for (int i = hash(e.mac.toLong()) & mask;; i = (i + 1) & mask) {
+			Entry old = t.get(i);
+			if (old == null || old == TOMBSTONE) {
+				if (old == null) {
+					used++;
+				}
+				t.set(i, e);
+				size++;
+				return;
+			}
+		}
+	}
+
+	private void remove(Entry e) {
+		AtomicReferenceArray<Entry> t = slots;
+		int mask = t.length() - 1;
+		for (int i = hash(e.mac.toLong()) & mask;; i = (i + 1) & mask) {
+			Entry old = t.get(i);
+			if (old == null) {
+				return;
+			}
+			if (old == e) {
+				t.set(i, TOMBSTONE);
+				e.inTable = false;
+				size--;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Builds new array without tombstones, bigger if needed, and publishes it.
+	 */
+	private void rehash() {
+		int length = 16;
+		while (length < (size + 1) * 4) {
+			length <<= 1;
+		}
+		AtomicReferenceArray<Entry> old = slots;
+		AtomicReferenceArray<Entry> t = new AtomicReferenceArray<>(length);
+		int mask = length - 1;
+		for (int j = 0; j < old.length(); j++) {
+			Entry e = old.get(j);
+			if (e == null || e == TOMBSTONE) {
+				continue;
+			}
+			int i = hash(e.mac.toLong()) & mask;
+			while (t.get(i) != null) {
+				i = (i + 1) & mask;
+			}
+			t.set(i, e);
+		}
+		used = size;
+		slots = t;
+	}
+
+// cteni, muze kdokoliv: ------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns switchport, behind which the mac address is, or null if the address is unknown or its entry expired.
+	 *
+	 * @param mac
+	 * @param now current time in ms
+	 * @return
+	 */
+	public SwitchportSettings lookup(MacAddress mac, long now) {
+		Entry e = find(slots, mac.toLong());
+		if (e == null || isOutdated(e, now)) {
+			return null;
+		}
+		return e.swport;
+	}
+
+	/**
+	 * Returns valid entries of the table. Can be called from any thread, e.g. by show commands.
+	 *
+	 * @return
+	 */
+	public List<Entry> getEntries() {
+		AtomicReferenceArray<Entry> t = slots;
+		long now = System.currentTimeMillis();
+		List<Entry> list = new ArrayList<>(size);
+		for (int i = 0; i < t.length(); i++) {
+			Entry e = t.get(i);
+			if (e != null && e != TOMBSTONE && !isOutdated(e, now)) {
+				list.add(e);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns number of entries including expired ones, which were not removed yet.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	private boolean isOutdated(Entry e, long now) {
+		return now > e.lastSeen + timeoutMs;
+	}
+
+	private static Entry find(AtomicReferenceArray<Entry> t, long key) {
+		int mask = t.length() - 1;
+		for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+			Entry e = t.get(i);
+			if (e == null) {
+				return null;
+			}
+			if (e != TOMBSTONE && e.mac.toLong() == key) {
+				return e;
+			}
+		}
+	}
+
+	/**
+	 * Spreads bits of the key, mac addresses of one vendor differ only in low bits.
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		int x = (int) (h ^ (h >>> 32));
+		return x ^ (x >>> 16);
+	}
+}
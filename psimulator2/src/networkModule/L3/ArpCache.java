@@ -11,6 +11,7 @@ import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
 import networkModule.L2.EthernetInterface;
+import utils.IntMap;
 
 /**
  * Represents ARP cache table.
@@ -26,11 +27,12 @@ public class ArpCache implements Loggable {
 	 */
 	private int validRecordTime = 20_000;
 	/**
-	 * HashMap of records. <br/>
-	 * Key - Target <br />
-	 * Value - ArpRecord
+	 * Records of each interface. <br/>
+	 * Key - interface <br />
+	 * Value - map: IP address as int (IpAddress.getBits()) -> ArpRecord <br />
+	 * Lookups allocate nothing. Guarded by this.
 	 */
-	private final Map<Target, ArpRecord> cache = Collections.synchronizedMap(new HashMap<Target, ArpRecord>());
+	private final Map<EthernetInterface, IntMap<ArpRecord>> cache = new IdentityHashMap<>();
 
 	public ArpCache(Device device) {
 		this.device = device;
@@ -88,12 +90,19 @@ public class ArpCache implements Loggable {
 	}
 
 	/**
-	 * For platform formatted output only.
+	 * For platform formatted output only. Returns copy of the cache.
 	 *
 	 * @return
 	 */
-	public Map<Target, ArpRecord> getCache() {
-		return cache;
+	public synchronized Map<Target, ArpRecord> getCache() {
+		Map<Target, ArpRecord> copy = new HashMap<>();
+		for (Map.Entry<EthernetInterface, IntMap<ArpRecord>> e : cache.entrySet()) {
+			IntMap<ArpRecord> records = e.getValue();
+			for (int ip : records.keys()) {
+				copy.put(new Target(IpAddress.createIpFromBits(ip), e.getKey()), records.get(ip));
+			}
+		}
+		return copy;
 	}
 
 	/**
@@ -104,9 +113,7 @@ public class ArpCache implements Loggable {
 	 * @return
 	 */
 	public MacAddress getMacAdress(IpAddress ip, EthernetInterface iface) {
-		Target t = new Target(ip, iface);
-
-		ArpRecord record = getRecord(t);
+		ArpRecord record = getRecord(ip, iface);
 		if (record == null) {
 			return null;
 		}
@@ -122,9 +129,15 @@ public class ArpCache implements Loggable {
 	 */
 	public void updateArpCache(IpAddress ip, MacAddress mac, EthernetInterface iface) {
 		ArpRecord record = new ArpRecord(mac);
-		Target target = new Target(ip, iface);
 		Logger.log(this, Logger.INFO, LoggingCategory.ARP_CACHE, "Updating ARP cache: IP: " + ip.toString() + " MAC: " + mac + " Interface: " + iface.name, null);
-		cache.put(target, record);
+		synchronized (this) {
+			IntMap<ArpRecord> records = cache.get(iface);
+			if (records == null) {
+				records = new IntMap<>();
+				cache.put(iface, records);
+			}
+			records.put(ip.getBits(), record);
+		}
 	}
 
 	/**
@@ -132,11 +145,15 @@ public class ArpCache implements Loggable {
 	 * and returns null, if timeout is off. Return null if there is no record with given IpAddress.
 	 *
 	 * @param ip
+	 * @param iface
 	 * @return
 	 */
-	private ArpRecord getRecord(Target t) {
-		ArpRecord record = cache.get(t);
-
+	private synchronized ArpRecord getRecord(IpAddress ip, EthernetInterface iface) {
+		IntMap<ArpRecord> records = cache.get(iface);
+		if (records == null) {
+			return null;
+		}
+		ArpRecord record = records.get(ip.getBits());
 		if (record == null) {
 			return null;
 		}
@@ -147,8 +164,8 @@ public class ArpCache implements Loggable {
 			// cisco default is 14400s, here it has to be much smaller,
 			// because when someone change his IP address a his neighbour begins to send packets to him, he should ask again
 			// with ARP req
-			Logger.log(this, Logger.INFO, LoggingCategory.ARP_CACHE, "Deleting old record for IP: " + t.address + " and MAC: " + record.mac + " out of date = " + (time - validRecordTime) + " ms.", null);
-			cache.remove(t);
+			Logger.log(this, Logger.INFO, LoggingCategory.ARP_CACHE, "Deleting old record for IP: " + ip + " and MAC: " + record.mac + " out of date = " + (time - validRecordTime) + " ms.", null);
+			records.remove(ip.getBits());
 			return null;
 		}
 
@@ -158,23 +175,19 @@ public class ArpCache implements Loggable {
 	/**
 	 * Removes timed out records.
 	 */
-	public void checkArpRecords() {
+	public synchronized void checkArpRecords() {
 		ArpRecord record;
 		long now = System.currentTimeMillis();
-		List<Target> delete = new ArrayList<>();
 
-		synchronized (cache) {
-			for (Target t : cache.keySet()) {
-				record = cache.get(t);
+		for (IntMap<ArpRecord> records : cache.values()) {
+			for (int ip : records.keys()) {
+				record = records.get(ip);
 
 				if (now - record.timeStamp > validRecordTime) {
-					Logger.log(this, Logger.INFO, LoggingCategory.ARP_CACHE, "Deleting old record for IP: " + t.address + " and MAC: " + record.mac + " out of date = " + (now - validRecordTime) + " ms.", null);
-					delete.add(t);
+					Logger.log(this, Logger.INFO, LoggingCategory.ARP_CACHE, "Deleting old record for IP: " + IpAddress.createIpFromBits(ip) + " and MAC: " + record.mac + " out of date = " + (now - validRecordTime) + " ms.", null);
+					records.remove(ip);
 				}
 			}
-			for (Target target : delete) {
-				cache.remove(target);
-			}
 		}
 	}
 
@@ -182,13 +195,10 @@ public class ArpCache implements Loggable {
 	public String toString() {
 		String s = "";
 		MacAddress mac;
-		synchronized (cache) {
-			Set<Target> set = cache.keySet();
-			for (Target t : set) {
-				mac = getMacAdress(t.address, t.iface);
-				if (mac != null) {
-					s += t + "\t" + mac + "\n";
-				}
+		for (Target t : getCache().keySet()) {
+			mac = getMacAdress(t.address, t.iface);
+			if (mac != null) {
+				s += t + "\t" + mac + "\n";
 			}
 		}
 		return s;
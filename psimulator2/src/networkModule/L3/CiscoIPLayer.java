@@ -49,7 +49,7 @@ public class CiscoIPLayer extends IPLayer {
 
 					// poslat ARP reply
 					ArpPacket arpPacket = new ArpPacket(packet.targetIpAddress, iface.getMac(), packet.senderIpAddress, packet.senderMacAddress);
-					Logger.log(this, Logger.INFO, LoggingCategory.ARP, "Reacting on ARP request: sending REPLY to " + packet.senderIpAddress, arpPacket);
+					Logger.logf(this, Logger.INFO, LoggingCategory.ARP, "Reacting on ARP request: sending REPLY to {}", arpPacket, packet.senderIpAddress);
 					netMod.ethernetLayer.sendPacket(arpPacket, iface, packet.senderMacAddress);
 				} else {
 					Logger.log(this, Logger.DEBUG, LoggingCategory.ARP, "ARP request received, but I am not a target - doing nothing.", packet);
@@ -143,7 +143,7 @@ public class CiscoIPLayer extends IPLayer {
 		// zaroutuj
 		Record record = routingTable.findRoute(packet.dst);
 		if (record == null) {
-			Logger.log(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: IP packet received, but packet is unroutable - no record for "+packet.dst+". Will send Destination Host Unreachable.", packet);
+			Logger.logf(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: IP packet received, but packet is unroutable - no record for {}. Will send Destination Host Unreachable.", packet, packet.dst);
 			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, getNetMod().getDevice().configID));
 			getIcmpHandler().sendHostUnreachable(packet.src, packet); // cisco na skolnich routerech odesi DHU a nebo DNU jako linux
 			return;
@@ -151,9 +151,9 @@ public class CiscoIPLayer extends IPLayer {
 
 		// vytvor novy paket a zmensi TTL (kdyz je packet.src null, tak to znamena, ze je odeslan z toho sitoveho device
 		//		a tedy IP adresa se musi vyplnit dle iface, ze ktereho to poleze ven
-		IpPacket p = new IpPacket(packet.src, packet.dst, packet.ttl - 1, packet.data);
+		IpPacket p = packet.withTtl(packet.ttl - 1);
 
-		Logger.log(this, Logger.INFO, LoggingCategory.NET, "IP packet received from interface: "+(ifaceIn == null ? "null" : ifaceIn.name), packet);
+		Logger.logf(this, Logger.INFO, LoggingCategory.NET, "IP packet received from interface: {}", packet, ifaceIn == null ? "null" : ifaceIn.name);
 		processPacket(p, record, ifaceIn);
 	}
 
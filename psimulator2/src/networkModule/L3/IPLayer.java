@@ -22,6 +22,8 @@ import networkModule.L3.RoutingTable.Record;
 import networkModule.L3.nat.NatTable;
 import networkModule.L4.IcmpHandler;
 import psimulator2.Psimulator;
+import utils.IntMap;
+import utils.MpscQueue;
 import utils.SmartRunnable;
 import utils.Util;
 import utils.Wakeable;
@@ -43,14 +45,27 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * Packet filter. Controls NetworkAddressTranslation, packet dropping, ..
 	 */
 	protected final PacketFilter packetFilter = new PacketFilter(this);
+	/**
+	 * Max number of packets in receive and send buffer.
+	 */
+	private static final int bufferCapacity = 4096;
+	/**
+	 * Max number of packets taken from one buffer at once.
+	 */
+	private static final int batchSize = 64;
 	/**
 	 * Buffer for incomming packets from L2.
 	 */
-	private final List<ReceiveItem> receiveBuffer = Collections.synchronizedList(new LinkedList<ReceiveItem>());
+	private final MpscQueue<ReceiveItem> receiveBuffer = new MpscQueue<>(bufferCapacity);
 	/**
 	 * Buffer for packets to by sent from L4.
 	 */
-	private final List<SendItem> sendBuffer = Collections.synchronizedList(new LinkedList<SendItem>());
+	private final MpscQueue<SendItem> sendBuffer = new MpscQueue<>(bufferCapacity);
+	/**
+	 * Batches taken from buffers, used only by worker.
+	 */
+	private final List<ReceiveItem> receiveBatch = new ArrayList<>(batchSize);
+	private final List<SendItem> sendBatch = new ArrayList<>(batchSize);
 	/**
 	 * Buffer for packet without MAC address nexthop. ARP request was sent and packets are waiting for the reply.
 	 */
@@ -74,6 +89,12 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * Value - interface
 	 */
 	private final Map<String, NetworkInterface> networkIfaces = new HashMap<>();
+	/**
+	 * Index of local addresses: bits of IP address -> interfaces with this address (vetsinou jedno, ale nikdo nebrani
+	 * nastavit stejnou adresu vic rozhranim). The map is never changed, new one is built on every change of address,
+	 * because addresses change rarely and are checked for every packet from the worker thread.
+	 */
+	private volatile IntMap<NetworkInterface[]> localAddresses = new IntMap<>();
 	/**
 	 * Waiting time [ms] for ARP requests.
 	 */
@@ -125,7 +146,11 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * @param iface
 	 */
 	public void receivePacket(L3Packet packet, EthernetInterface iface) {
-		receiveBuffer.add(new ReceiveItem(packet, iface));
+		if (!receiveBuffer.offer(new ReceiveItem(packet, iface))) {
+			Logger.log(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: receive buffer of IP layer is full.", packet);
+			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, getNetMod().getDevice().configID));
+			return;
+		}
 		worker.wake();
 	}
 
@@ -151,7 +176,7 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 				Logger.log(this, Logger.INFO, LoggingCategory.IP_LAYER, "UNKNOWN L3 type, dropping packet: ", packet);
 
 			default:
-				Logger.log(this, Logger.WARNING, LoggingCategory.IP_LAYER, "Unsupported L3 type packet: " + packet.getType()+", dropping packet: ", packet);
+				Logger.logf(this, Logger.WARNING, LoggingCategory.IP_LAYER, "Unsupported L3 type packet: {}, dropping packet: ", packet, packet.getType());
 				Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, getNetMod().getDevice().configID));
 
 		}
@@ -169,7 +194,7 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * Process storeBuffer which is for packets without known MAC nextHop.
 	 */
 	private void handleStoreBuffer() {
-		Logger.log(this, Logger.DEBUG, LoggingCategory.IP_LAYER, "handleStoreBuffer(), size: "+storeBuffer.size(), null);
+		Logger.logf(this, Logger.DEBUG, LoggingCategory.IP_LAYER, "handleStoreBuffer(), size: {}", null, storeBuffer.size());
 
 		long now = System.currentTimeMillis();
 
@@ -195,7 +220,7 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 				serve.add(m);
 			}
 
-			Logger.log(this, Logger.DEBUG, LoggingCategory.ARP, "This record has not timedout nor ARP answer has come. age: " + (now - m.timeStamp) + ", will delete: " + arpTTL+ " nextHop="+m.nextHop, m.packet);
+			Logger.logf(this, Logger.DEBUG, LoggingCategory.ARP, "This record has not timedout nor ARP answer has come. age: {}, will delete: {} nextHop={}", m.packet, now - m.timeStamp, arpTTL, m.nextHop);
 		}
 
 		storeBuffer.removeAll(old);
@@ -239,7 +264,7 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 		}
 
 		if (packet.dst.isLocalSubnet127()) { // http://tools.ietf.org/html/rfc1700 Internal host loopback address.  Should never appear outside a host.
-			Logger.log(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: attempt to send packet out with destination "+packet.dst+" which is local!", packet);
+			Logger.logf(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: attempt to send packet out with destination {} which is local!", packet, packet.dst);
 			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, getNetMod().getDevice().configID));
 		}
 
@@ -263,8 +288,8 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 		if (nextHopMac == null) { // posli ARP request a dej do fronty
 			ArpPacket arpPacket = new ArpPacket(record.iface.ipAddress.getIp(), record.iface.getMacAddress(), nextHopIp);
 
-			Logger.log(this, Logger.INFO, LoggingCategory.ARP, "Cannot send packet to address: " + packet.dst + ", because nextHop MAC address is unknown. Sending ARP request via interface: "
-					+ record.iface.name, arpPacket);
+			Logger.logf(this, Logger.INFO, LoggingCategory.ARP, "Cannot send packet to address: {}, because nextHop MAC address is unknown. Sending ARP request via interface: {}",
+					arpPacket, packet.dst, record.iface.name);
 			netMod.ethernetLayer.sendPacket(arpPacket, record.iface.ethernetInterface, MacAddress.broadcast());
 
 			storeBuffer.add(new StoreItem(packet, record.iface.ethernetInterface, nextHopIp));
@@ -286,8 +311,7 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * @param dst destination address
 	 */
 	public void sendPacket(L4Packet packet, IpAddress src, IpAddress dst) {
-		sendBuffer.add(new SendItem(packet, src, dst, this.ttl));
-		worker.wake();
+		addToSendBuffer(new SendItem(packet, src, dst, this.ttl));
 	}
 
 	/**
@@ -299,7 +323,15 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * @param ttl Time To Live value
 	 */
 	public void sendPacket(L4Packet packet, IpAddress src, IpAddress dst, int ttl) {
-		sendBuffer.add(new SendItem(packet, null, dst, ttl));
+		addToSendBuffer(new SendItem(packet, null, dst, ttl));
+	}
+
+	private void addToSendBuffer(SendItem item) {
+		if (!sendBuffer.offer(item)) {
+			Logger.log(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: send buffer of IP layer is full.", item.packet);
+			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(item.packet, getNetMod().getDevice().configID));
+			return;
+		}
 		worker.wake();
 	}
 
@@ -318,17 +350,22 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 //		Logger.log(this, Logger.DEBUG, LoggingCategory.IP_LAYER, "doMyWork()", null);
 
 		// prochazet jednotlivy buffery a vyrizovat jednotlivy pakety
-		while (!sendBuffer.isEmpty() || !receiveBuffer.isEmpty() || !storeBuffer.isEmpty()) {
-			if (!receiveBuffer.isEmpty()) {
+		// storeBuffer se tu hlida jen spolu s shouldHandleStoreBuffer, jinak by se pri cekani na ARP zbytecne tocilo dokola
+		while (!sendBuffer.isEmpty() || !receiveBuffer.isEmpty() || (shouldHandleStoreBuffer && !storeBuffer.isEmpty())) {
+			if (receiveBuffer.drainTo(receiveBatch, batchSize) > 0) {
 				Logger.log(this, Logger.DEBUG, LoggingCategory.IP_LAYER, "doMyWork() receiveBuffer", null);
-				ReceiveItem m = receiveBuffer.remove(0);
-				handleReceivePacket(m.packet, m.iface);
+				for (ReceiveItem m : receiveBatch) {
+					handleReceivePacket(m.packet, m.iface);
+				}
+				receiveBatch.clear();
 			}
 
-			if (!sendBuffer.isEmpty()) {
+			if (sendBuffer.drainTo(sendBatch, batchSize) > 0) {
 				Logger.log(this, Logger.DEBUG, LoggingCategory.IP_LAYER, "doMyWork() sendBuffer", null);
-				SendItem m = sendBuffer.remove(0);
-				handleSendPacket(m.packet, m.src, m.dst, m.ttl); // bude se obsluhovat platform-specific
+				for (SendItem m : sendBatch) {
+					handleSendPacket(m.packet, m.src, m.dst, m.ttl); // bude se obsluhovat platform-specific
+				}
+				sendBatch.clear();
 			}
 
 			if (shouldHandleStoreBuffer && !storeBuffer.isEmpty()) { // ten boolean tam je proto, aby se to neprochazelo v kazdym cyklu
@@ -348,6 +385,29 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 */
 	public void changeIpAddressOnInterface(NetworkInterface iface, IPwithNetmask ipAddress) {
 		iface.ipAddress = ipAddress;
+		rebuildAddressIndex();
+	}
+
+	/**
+	 * Builds new index of local addresses from addresses on interfaces.
+	 */
+	private synchronized void rebuildAddressIndex() {
+		IntMap<NetworkInterface[]> index = new IntMap<>(networkIfaces.size());
+		for (NetworkInterface iface : networkIfaces.values()) {
+			if (iface.ipAddress == null || iface.ipAddress.getIp() == null) {
+				continue;
+			}
+			int bits = iface.ipAddress.getIp().getBits();
+			NetworkInterface[] ifaces = index.get(bits);
+			if (ifaces == null) {
+				ifaces = new NetworkInterface[]{iface};
+			} else {
+				ifaces = Arrays.copyOf(ifaces, ifaces.length + 1);
+				ifaces[ifaces.length - 1] = iface;
+			}
+			index.put(bits, ifaces);
+		}
+		localAddresses = index;
 	}
 
 	/**
@@ -364,6 +424,7 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 */
 	public void addNetworkInterface(NetworkInterface iface) {
 		networkIfaces.put(iface.name, iface);
+		rebuildAddressIndex();
 	}
 
 	/**
@@ -373,9 +434,12 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * @return
 	 */
 	protected boolean isItMyIpAddress(IpAddress targetIpAddress) {
-		for (NetworkInterface iface : networkIfaces.values()) {
-			if (iface.ipAddress != null && iface.ipAddress.getIp().equals(targetIpAddress) && iface.isUp) {
-				return true;
+		NetworkInterface[] ifaces = localAddresses.get(targetIpAddress.getBits());
+		if (ifaces != null) {
+			for (NetworkInterface iface : ifaces) {
+				if (iface.isUp) {	// isUp se meni primo v prikazech, proto se nekontroluje v indexu
+					return true;
+				}
 			}
 		}
 		return false;
@@ -484,12 +548,11 @@ public abstract class IPLayer implements SmartRunnable, Loggable, Wakeable {
 	 * @return
 	 */
 	protected EthernetInterface findInterfaceForIpAddress(IpAddress dst) {
-		for (NetworkInterface iface : getNetworkIfaces()) {
-			if (iface.getIpAddress() != null && iface.getIpAddress().getIp() != null && iface.getIpAddress().getIp().equals(dst)) {
-				return iface.ethernetInterface;
-			}
+		NetworkInterface[] ifaces = localAddresses.get(dst.getBits());
+		if (ifaces == null) {
+			return null;
 		}
-		return null;
+		return ifaces[0].ethernetInterface;
 	}
 
 	@Override
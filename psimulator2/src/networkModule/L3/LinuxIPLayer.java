@@ -48,7 +48,7 @@ public class LinuxIPLayer extends IPLayer {
                 // jsem ja target? Ano -> poslat ARP reply
                 if (isItMyIpAddress(packet.targetIpAddress)) { //poslat ARP reply
                     ArpPacket arpPacket = new ArpPacket(packet.targetIpAddress, iface.getMac(), packet.senderIpAddress, packet.senderMacAddress);
-                    Logger.log(this, Logger.INFO, LoggingCategory.ARP, "Reacting on ARP request: sending REPLY to " + packet.senderIpAddress, arpPacket);
+                    Logger.logf(this, Logger.INFO, LoggingCategory.ARP, "Reacting on ARP request: sending REPLY to {}", arpPacket, packet.senderIpAddress);
                     netMod.ethernetLayer.sendPacket(arpPacket, iface, packet.senderMacAddress);
                 } else {
                     Logger.log(this, Logger.DEBUG, LoggingCategory.ARP, "ARP request received, but I am not a target - doing nothing.", packet);
@@ -108,7 +108,7 @@ public class LinuxIPLayer extends IPLayer {
         //if (ifaceIn != null && ifaceIn.getIpAddress() != null && 
         if (ifaceIn != null
                 && //			(ifaceIn.getIpAddress().getBroadcast().equals(packet.dst) || 
-                packet.dst.equals(new IpAddress("255.255.255.255"))) {
+                packet.dst.equals(IpAddress.BROADCAST)) {
             Logger.log(this, Logger.INFO, LoggingCategory.NET, "Received IP packet which was sent as broadcast for this interface.", packet);
             netMod.transportLayer.receivePacket(new PacketItem(packet, ifaceIn));
             return;
@@ -143,7 +143,7 @@ public class LinuxIPLayer extends IPLayer {
         // zaroutuj
         RoutingTable.Record record = routingTable.findRoute(packet.dst);
         if (record == null) {
-            Logger.log(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: IP packet received, but packet is unroutable - no record for " + packet.dst + ". Will send Destination Network Unreachable.", packet);
+            Logger.logf(this, Logger.INFO, LoggingCategory.NET, "Dropping packet: IP packet received, but packet is unroutable - no record for {}. Will send Destination Network Unreachable.", packet, packet.dst);
             Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, getNetMod().getDevice().configID));
             getIcmpHandler().sendNetworkUnreachable(packet.src, packet);
             return;
@@ -151,8 +151,8 @@ public class LinuxIPLayer extends IPLayer {
 
         // vytvor novy paket a zmensi TTL (kdyz je packet.src null, tak to znamena, ze je odeslan z toho sitoveho device
         //		a tedy IP adresa se musi vyplnit dle iface, ze ktereho to poleze ven
-        IpPacket p = new IpPacket(packet.src, packet.dst, packet.ttl - 1, packet.data);
-        Logger.log(this, Logger.INFO, LoggingCategory.NET, "IP packet received from interface: " + (ifaceIn == null ? "null" : ifaceIn.name), packet);
+        IpPacket p = packet.withTtl(packet.ttl - 1);
+        Logger.logf(this, Logger.INFO, LoggingCategory.NET, "IP packet received from interface: {}", packet, ifaceIn == null ? "null" : ifaceIn.name);
         processPacket(p, record, ifaceIn);
     }
 }
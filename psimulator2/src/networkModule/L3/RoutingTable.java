@@ -6,6 +6,7 @@ package networkModule.L3;
 
 import dataStructures.ipAddresses.IPwithNetmask;
 import dataStructures.ipAddresses.IpAddress;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import logging.Loggable;
@@ -21,7 +22,11 @@ import logging.LoggingCategory;
 public class RoutingTable implements Loggable{
 
 
-	private List<Record> records = new LinkedList<>();
+	private List<Record> records = new ArrayList<>();
+	/**
+	 * Index zaznamu pro hledani nejdelsiho prefixu, obsahuje presne ty zaznamy jako records a ve stejnym poradi.
+	 */
+	private final RoutingTrie trie = new RoutingTrie();
 
 	/**
      * Special pro cisco, nevim, co to dela.
@@ -36,16 +41,14 @@ public class RoutingTable implements Loggable{
 	 * poslat, jestli se to odesle. Pozor: vrati prvni odpovidajici zaznam! Pozor: routuje jen nad nahozenejma
 	 * rozhranima!
 	 *
+	 * Zaznamy jsou serazeny od nejdelsi masky, takze prvni odpovidajici zaznam je ten s nejdelsim prefixem - proto se
+	 * hleda v trii a ne pruchodem seznamu.
+	 *
 	 * @param cil IP, na kterou je paket posilan
 	 * @return null - nenasel se zadnej zaznam, kterej by se pro tuhle adresu hodil
 	 */
-	public Record findRoute(IpAddress cil) {
-		for (Record z : records) {
-			if ( z.adresat.isInMyNetwork(cil) && z.iface.isUp) {
-				return z; //vraci prvni odpovidajici iface
-			}
-		}
-		return null;
+	public synchronized Record findRoute(IpAddress cil) {
+		return trie.findRoute(cil.getBits());
 	}
 
 	/**
@@ -118,16 +121,17 @@ public class RoutingTable implements Loggable{
      * @param rozhr muze byt null
      * @return true - zaznam smazan<br /> false - zaznam nenalezen - nic nesmazano
      */
-    public boolean deleteRecord(IPwithNetmask adresat, IpAddress brana, NetworkInterface rozhr){
-        Record z;
-        for(int i=0;i<records.size();i++){
-            z=records.get(i);
+    public synchronized boolean deleteRecord(IPwithNetmask adresat, IpAddress brana, NetworkInterface rozhr){
+        List<Record> kandidati = trie.getRecords(adresat); // zaznamy se stejnym cislem site ve spravnym poradi
+        if (kandidati == null) {
+            return false;
+        }
+        for(Record z : kandidati){
             if(z.adresat.equals(adresat)){ //adresati se rovnaj -> adept na smazani
                 if( ( brana == null ) || ( z.brana!=null && z.brana.equals(brana) ) ){//zkracene vyhodnocovani
                             //-> brana nezadana nebo zadana a stejna existuje u zaznamu -> adept na smazani
                     if( rozhr==null || (rozhr!=null && rozhr==z.iface)){  //rozhrani nezadano, nebo zadano a
-                        records.remove(i);                                     //odpovida -> smazat
-                        return true;
+                        return deleteRecord(z);                                //odpovida -> smazat
                     }
                 }
             }
@@ -135,8 +139,12 @@ public class RoutingTable implements Loggable{
         return false;
     }
 
-    public boolean deleteRecord(Record z){
-        return records.remove(z);
+    public synchronized boolean deleteRecord(Record z){
+        if (records.remove(z)) {
+            trie.remove(z);
+            return true;
+        }
+        return false;
     }
 
 	/**
@@ -145,7 +153,7 @@ public class RoutingTable implements Loggable{
      * @param rozhr
      * @return pocet smazanych iface (spis pro ladeni, jinej efekt to asi nema)
      */
-    public int flushRecords(NetworkInterface rozhr){
+    public synchronized int flushRecords(NetworkInterface rozhr){
         int p = 0; //pocet smazanych zaznamu
         List <Record>smazat = new LinkedList(); //dela se to pres pomocnej seznam, protoze jinak hazela
                                                 // java vyjimku ConcurrentModificationException
@@ -157,6 +165,7 @@ public class RoutingTable implements Loggable{
         }
         for(Record z:smazat){
             records.remove(z);
+            trie.remove(z);
         }
         return p;
     }
@@ -165,8 +174,9 @@ public class RoutingTable implements Loggable{
 	 * Smaze uplne vsechny zaznamy v routovaci tabulce.
 	 * Odpovida smazVsechnyZaznamy ve stary verzi simulatoru.
 	 */
-	public void flushAllRecords() {
-		records = new LinkedList<>();
+	public synchronized void flushAllRecords() {
+		records = new ArrayList<>();
+		trie.clear();
     }
 
     @Deprecated
@@ -203,8 +213,12 @@ public class RoutingTable implements Loggable{
 	 *
 	 * @return null, kdyz se zadnej zaznam nenajde
 	 */
-	public Record existRecordWithSameAdresat(IPwithNetmask adresat) {
-		for (Record z : records) {
+	public synchronized Record existRecordWithSameAdresat(IPwithNetmask adresat) {
+		List<Record> kandidati = trie.getRecords(adresat);
+		if (kandidati == null) {
+			return null;
+		}
+		for (Record z : kandidati) {
 			if (z.adresat.equals(adresat)) {   // adresati se rovnaji
 				return z;
 			}
@@ -221,13 +235,14 @@ public class RoutingTable implements Loggable{
      * @param rozhr
      * @author Stanislav Řehák
      */
-    public void addRecordWithoutControl(IPwithNetmask adresat, IpAddress brana, NetworkInterface rozhr) {
+    public synchronized void addRecordWithoutControl(IPwithNetmask adresat, IpAddress brana, NetworkInterface rozhr) {
 		if (!adresat.isNetworkNumber()) {
 			throw new RuntimeException("Chyba v konfiguracnim souboru, adresat " + adresat.toString()
 					+ " v routovaci tabulce neni cislem site. ");
 		}
         Record z = new Record(adresat,brana,rozhr);
         records.add(najdiSpravnouPosici(z), z);
+        trie.add(z);
     }
 
 	@Override
@@ -249,6 +264,7 @@ public class RoutingTable implements Loggable{
         if(existujeStejnyZaznam(z))return 1;
         int i=najdiSpravnouPosici(z);
         records.add(i,z);
+        trie.add(z);
         return 0;
     }
 
@@ -259,7 +275,11 @@ public class RoutingTable implements Loggable{
      * @return
      */
     private boolean existujeStejnyZaznam(Record zazn){
-        for(Record z:records){
+        List<Record> kandidati = trie.getRecords(zazn.adresat);
+        if (kandidati == null) {
+            return false;
+        }
+        for(Record z:kandidati){
             if( z.adresat.equals(zazn.adresat) ){   // adresati se rovnaji
                 if ( z.brana==null && zazn.brana==null){ //obe brany jsou null
                     if( z.iface==zazn.iface){
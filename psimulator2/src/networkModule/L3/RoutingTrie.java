@@ -0,0 +1,223 @@
+/*
+ * created 18.10.2026
+ */
+
+package networkModule.L3;
+
+import dataStructures.ipAddresses.IPwithNetmask;
+import java.util.ArrayList;
+import java.util.List;
+import networkModule.L3.RoutingTable.Record;
+
+/**
+ * Index of routing table records: path-compressed binary trie over bits of network number. Every node holds records
+ * with the same network number and mask in the same order as they are in the routing table, so the longest prefix
+ * match answers findRoute in at most 32 steps regardless of table size.
+ *
+ * Neni synchronizovanej, synchronizaci resi RoutingTable.
+ */
+class RoutingTrie {
+
+	private Node root = new Node(0, 0);
+
+	/**
+	 * Adds record to its node. Records with nonzero mask are added at the beginning of the node, records with zero
+	 * mask at the end - it is the same order as in RoutingTable.
+	 *
+	 * @param r
+	 */
+	void add(Record r) {
+		int length = r.adresat.getMask().getNumberOfBits();
+		int prefix = r.adresat.getIp().getBits() & mask(length);
+		Node node = root;
+
+		while (true) {
+			if (node.length == length) {
+				node.addRecord(r, length != 0);
+				return;
+			}
+
+			int bit = bit(prefix, node.length);
+			Node child = node.getChild(bit);
+			if (child == null) {	// tudy jeste nic nevede, vytvori se list
+				Node leaf = new Node(prefix, length);
+				leaf.addRecord(r, length != 0);
+				node.setChild(bit, leaf);
+				return;
+			}
+
+			int common = Math.min(Math.min(child.length, length), Integer.numberOfLeadingZeros(child.prefix ^ prefix));
+			if (common == child.length) {	// prefix ditete je cely spolecnej, jde se dal
+				node = child;
+				continue;
+			}
+
+			// je potreba hranu rozdelit novym uzlem:
+			Node middle = new Node(prefix & mask(common), common);
+			node.setChild(bit, middle);
+			middle.setChild(bit(child.prefix, common), child);
+			if (common == length) {
+				middle.addRecord(r, length != 0);
+			} else {
+				Node leaf = new Node(prefix, length);
+				leaf.addRecord(r, length != 0);
+				middle.setChild(bit(prefix, common), leaf);
+			}
+			return;
+		}
+	}
+
+	/**
+	 * Removes the record (compared by reference).
+	 *
+	 * @param r
+	 */
+	void remove(Record r) {
+		int length = r.adresat.getMask().getNumberOfBits();
+		int prefix = r.adresat.getIp().getBits() & mask(length);
+		root = remove(root, prefix, length, r);
+	}
+
+	/**
+	 * Returns records with the same network number and mask as given adresat (the adresat itself can differ in host
+	 * part) in the order of routing table. Do not modify returned list.
+	 *
+	 * @param adresat
+	 * @return null, if there is no such record
+	 */
+	List<Record> getRecords(IPwithNetmask adresat) {
+		int length = adresat.getMask().getNumberOfBits();
+		int prefix = adresat.getIp().getBits() & mask(length);
+		Node node = root;
+		while (node != null && node.length < length) {
+			node = node.getChild(bit(prefix, node.length));
+		}
+		if (node == null || node.length != length || node.prefix != prefix) {
+			return null;
+		}
+		return node.records;
+	}
+
+	/**
+	 * Longest prefix match. Returns first record in routing table order, which matches the address and whose
+	 * interface is up.
+	 *
+	 * @param address
+	 * @return null, if no record was found
+	 */
+	Record findRoute(int address) {
+		return findRoute(root, address);
+	}
+
+	void clear() {
+		root = new Node(0, 0);
+	}
+
+// privatni metody: ---------------------------------------------------------------------------------------------------
+
+	private Record findRoute(Node node, int address) {
+		if (node == null || ((address ^ node.prefix) & mask(node.length)) != 0) {
+			return null;
+		}
+		if (node.length < 32) {	// nejdriv se zkousi delsi prefix
+			Record r = findRoute(node.getChild(bit(address, node.length)), address);
+			if (r != null) {
+				return r;
+			}
+		}
+		if (node.records != null) {
+			for (Record r : node.records) {
+				if (r.iface.isUp) {
+					return r;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes record from subtree and returns node, which should be on the place of given node afterwards.
+	 */
+	private Node remove(Node node, int prefix, int length, Record r) {
+		if (node == null || node.length > length || ((prefix ^ node.prefix) & mask(node.length)) != 0) {
+			return node;	// zaznam tu neni
+		}
+		if (node.length == length) {
+			if (node.records != null) {
+				node.records.remove(r);
+				if (node.records.isEmpty()) {
+					node.records = null;
+				}
+			}
+		} else {
+			int bit = bit(prefix, node.length);
+			node.setChild(bit, remove(node.getChild(bit), prefix, length, r));
+		}
+
+		// zbytecny uzly se zrusi (koren zustava vzdycky):
+		if (node == root || node.records != null) {
+			return node;
+		}
+		if (node.zero == null) {
+			return node.one;
+		}
+		if (node.one == null) {
+			return node.zero;
+		}
+		return node;
+	}
+
+	/**
+	 * Returns mask with given number of ones.
+	 */
+	private static int mask(int length) {
+		return length == 0 ? 0 : -1 << (32 - length);
+	}
+
+	/**
+	 * Returns bit on given position, 0 is the most significant bit.
+	 */
+	private static int bit(int value, int position) {
+		return (value >>> (31 - position)) & 1;
+	}
+
+	private static class Node {
+
+		final int prefix;
+		final int length;
+		Node zero;
+		Node one;
+		/**
+		 * Records of this node, null if there are none.
+		 */
+		List<Record> records;
+
+		Node(int prefix, int length) {
+			this.prefix = prefix;
+			this.length = length;
+		}
+
+		Node getChild(int bit) {
+			return bit == 0 ? zero : one;
+		}
+
+		void setChild(int bit, Node child) {
+			if (bit == 0) {
+				zero = child;
+			} else {
+				one = child;
+			}
+		}
+
+		void addRecord(Record r, boolean atBeginning) {
+			if (records == null) {
+				records = new ArrayList<>(2);
+			}
+			if (atBeginning) {
+				records.add(0, r);
+			} else {
+				records.add(r);
+			}
+		}
+	}
+}
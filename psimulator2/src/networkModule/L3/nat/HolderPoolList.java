@@ -212,7 +212,7 @@ public class HolderPoolList {
      * @return
      */
     private boolean isPoolInUse(String jmeno) {
-		for (Record zaznam : natTable.table) {
+		for (Record zaznam : natTable.getDynamicRecords()) {
 			List<Pool> pseznam = getPoolForIP(zaznam.out.address);
 			if (pseznam == null) {
 				continue;
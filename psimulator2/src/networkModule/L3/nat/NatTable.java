@@ -28,9 +28,15 @@ public class NatTable implements Loggable {
 	private final IPLayer ipLayer;
 
 	/**
-	 * Dynamic records.
+	 * Dynamic records indexed by inside (address, port, protocol). Poradi iterace je podle posledniho pouziti (access
+	 * order), takze nejstarsi zaznamy jsou vzdycky na zacatku a expirace nemusi prochazet celou tabulku.
+	 * I get meni poradi, proto se k obema indexum pristupuje jen v synchronized metodach (prikazy bezi v jinym vlakne).
 	 */
-	List<Record> table = new ArrayList<>();
+	private final LinkedHashMap<InnerRecord, Record> byInside = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * Dynamic records indexed by outside (translated) address, port and protocol, used by backward translation.
+	 */
+	private final Map<InnerRecord, Record> byOutside = new HashMap<>();
 	/**
 	 * Static rules.
 	 */
@@ -67,8 +73,9 @@ public class NatTable implements Loggable {
 	/**
 	 * V teto prvotni implementaci nebudou vubec reseny kolize s portama aplikaci.
 	 * TODO: generovat porty v zavislosti k IP adresam, takto se mohou brzy vycerpat..
+	 * Fronta misto HashSetu: iterator().next() nad mnoha smazanyma portama prochazel prazdny buckety.
 	 */
-	private Set<Integer> freePorts = new HashSet<>(numberOfPorts);
+	private final Deque<Integer> freePorts = new ArrayDeque<>(numberOfPorts);
 
     public NatTable(IPLayer ipLayer) {
         this.ipLayer = ipLayer;
@@ -84,11 +91,35 @@ public class NatTable implements Loggable {
 	//--------------------------------------------- getters and setters ---------------------------------------------
 
 	/**
-	 * Returns NetworkAddressTranslation table.
+	 * Returns NetworkAddressTranslation table sorted by outside address and port. Returned list is a copy.
 	 * @return
 	 */
-	public List<Record> getDynamicRules() {
-		return table;
+	public synchronized List<Record> getDynamicRules() {
+		List<Record> sorted = new ArrayList<>(byInside.values());
+		Collections.sort(sorted, new Comparator<Record>() {
+			@Override
+			public int compare(Record a, Record b) {
+				int c = Long.compare(a.out.address.getLongRepresentation(), b.out.address.getLongRepresentation());
+				return c != 0 ? c : Integer.compare(a.out.port, b.out.port);
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * Returns copy of dynamic records in no particular order.
+	 * @return
+	 */
+	synchronized List<Record> getDynamicRecords() {
+		return new ArrayList<>(byInside.values());
+	}
+
+	/**
+	 * Sets how long dynamic records live without being used [ms].
+	 * @param natRecordLife
+	 */
+	synchronized void setNatRecordLife(long natRecordLife) {
+		this.natRecordLife = natRecordLife;
 	}
 
 	/**
@@ -243,12 +274,15 @@ public class NatTable implements Loggable {
 	 */
 	private IpPacket staticTranslation(IpPacket packet, IpAddress srcTranslated) {
 		logNatOperation(packet, true, true);
-		IpPacket p = new IpPacket(srcTranslated, packet.dst, packet.ttl, packet.data); // port se tu nemeni (je v packet.data)
+		IpPacket p = packet.withSource(srcTranslated, packet.data); // port se tu nemeni (je v packet.data)
 		logNatOperation(p, true, false);
 		return p;
 	}
 
 	private void logNatOperation(IpPacket packet, boolean natting, boolean before) {
+		if (!Logger.isLoggable(LoggingCategory.NetworkAddressTranslation, Logger.INFO)) {
+			return;	// String.format je drahej, tak at se nevola zbytecne
+		}
 		String op;
 		if (natting) {
 			op = "Forward translation ";
@@ -273,7 +307,7 @@ public class NatTable implements Loggable {
 	* @param packet
 	* @return
 	*/
-	private IpPacket dynamicTranslation(IpPacket packet) {
+	private synchronized IpPacket dynamicTranslation(IpPacket packet) {
 		deleteOldDynamicRecords();
 
 		InnerRecord tempRecord = generateInnerRecordForSrc(packet);
@@ -286,18 +320,17 @@ public class NatTable implements Loggable {
 			return packet;
 		}
 
-		// projdu aktualni dynamicke zaznamy a jestli uz tam je takovy preklad, tak mu prodlouzim zivot a necham se prelozit
-		for (Record record : table) {
-			if (record.in.equals(tempRecord)) {
-				logNatOperation(packet, true, true);
+		// jestli uz je takovy preklad v tabulce, tak mu prodlouzim zivot a necham se prelozit
+		Record record = byInside.get(tempRecord);	// get presune zaznam na konec poradi
+		if (record != null) {
+			logNatOperation(packet, true, true);
 
-				L4Packet dataNew = packet.data.getCopyWithDifferentSrcPort(record.out.port); // zmena portu zde
+			L4Packet dataNew = packet.data.getCopyWithDifferentSrcPort(record.out.port); // zmena portu zde
 
-				IpPacket p = new IpPacket(record.out.address, packet.dst, packet.ttl, dataNew);
-				logNatOperation(p, true, false);
-				record.touch();
-				return p;
-			}
+			IpPacket p = packet.withSource(record.out.address, dataNew);
+			logNatOperation(p, true, false);
+			record.touch();
+			return p;
 		}
 
 		// nenasel se stary, tak vygenerujeme novy
@@ -305,20 +338,18 @@ public class NatTable implements Loggable {
 		Pool pool = lPool.getPool(access);
         IpAddress srcIpNew = lPool.getIpFromPool(pool);
 
-		Integer srcPortNew;
-		try {
-			srcPortNew = freePorts.iterator().next();
-		} catch (NoSuchElementException e) {
+		Integer srcPortNew = freePorts.poll(); // port je obsazen
+		if (srcPortNew == null) {
 			Logger.log(this, Logger.WARNING, LoggingCategory.NetworkAddressTranslation, "There is no free port available for translation! Returning unchanged packet.", packet);
 			return packet;
 		}
-		freePorts.remove(srcPortNew); // port je obsazen
 
 		InnerRecord newDynamic = new InnerRecord(srcIpNew, srcPortNew, tempRecord.protocol);
 		Record r = new Record(tempRecord, newDynamic, packet.dst);
 
 		Logger.log(this, Logger.DEBUG, LoggingCategory.NetworkAddressTranslation, "New dynamic record created: ", r);
-		table.add(r);
+		byInside.put(tempRecord, r);
+		byOutside.put(newDynamic, r);
 
 		return getTranslatedPacket(packet, srcIpNew, srcPortNew);
 	}
@@ -336,7 +367,7 @@ public class NatTable implements Loggable {
 
 		logNatOperation(packet, true, true);
 
-		IpPacket translated = new IpPacket(srcIpNew, packet.dst, packet.ttl, data);
+		IpPacket translated = packet.withSource(srcIpNew, data);
 
 		logNatOperation(translated, true, false);
 		return translated;
@@ -382,11 +413,11 @@ public class NatTable implements Loggable {
 		if (outside.name.equals(in.name)) {
 			return doBackwardTranslation(packet);
 		}
-		Logger.log(this, Logger.DEBUG, LoggingCategory.NetworkAddressTranslation, "No NAT translation: incomming iface is: "+in.name+", but outside is: "+outside.name, packet);
+		Logger.logf(this, Logger.DEBUG, LoggingCategory.NetworkAddressTranslation, "No NAT translation: incomming iface is: {}, but outside is: {}", packet, in.name, outside.name);
 		return packet;
 	}
 
-	private IpPacket doBackwardTranslation(IpPacket packet) {
+	private synchronized IpPacket doBackwardTranslation(IpPacket packet) {
 		deleteOldDynamicRecords();
 
 		// 1) projit staticka pravidla, pokud tam bude sedet packet.dst s record.out.address, tak se vytvori novy a vrati se
@@ -394,26 +425,24 @@ public class NatTable implements Loggable {
 			if (rule.out.equals(packet.dst)) {
 				logNatOperation(packet, false, true);
 
-				IpPacket translated = new IpPacket(packet.src, rule.in, packet.ttl, packet.data); // port se tu nemeni (je v packet.data)
+				IpPacket translated = packet.withDestination(rule.in, packet.data); // port se tu nemeni (je v packet.data)
 
 				logNatOperation(translated, false, false);
 				return translated;
 			}
 		}
 
-		// 2) projit dynamicka pravidla, tam musi sedet IP+port // TODO: NatTable: pridat protokol
-		for (Record record : table) {
-			if (record.out.address.equals(packet.dst) && record.out.port == packet.data.getPortDst()) {
-
-				logNatOperation(packet, false, true);
+		// 2) dynamicka pravidla, tam musi sedet IP+port+protokol
+		Record record = byOutside.get(new InnerRecord(packet.dst, packet.data.getPortDst(), packet.data.getType()));
+		if (record != null) {
+			logNatOperation(packet, false, true);
 
-				L4Packet dataNew = packet.data.getCopyWithDifferentDstPort(record.in.port); // zmena portu zde
-				IpPacket translated = new IpPacket(packet.src, record.in.address, packet.ttl, dataNew);
+			L4Packet dataNew = packet.data.getCopyWithDifferentDstPort(record.in.port); // zmena portu zde
+			IpPacket translated = packet.withDestination(record.in.address, dataNew);
 
-				logNatOperation(translated, false, false);
+			logNatOperation(translated, false, false);
 
-				return translated;
-			}
+			return translated;
 		}
 
 		Logger.log(this, Logger.DEBUG, LoggingCategory.NetworkAddressTranslation, "No NAT backward translation: no record available for operation.", packet);
@@ -428,23 +457,6 @@ public class NatTable implements Loggable {
      * @param out
      * @return index noveho zaznamu
      */
-    private int getIndexForDynamicTable(IpAddress out) {
-        int index = 0;
-        for (Record zaznam : table) {
-            if (out.getLongRepresentation() < zaznam.out.address.getLongRepresentation()) {
-                break;
-            }
-            index++;
-        }
-        return index;
-    }
-
-	/**
-     * Vrati pozici pro pridani do tabulky.
-     * Radi se to dle out adresy vzestupne.
-     * @param out
-     * @return index noveho zaznamu
-     */
     private int getIndexForStaticTable(IpAddress out) {
         int index = 0;
         for (StaticRule rule : staticRules) {
@@ -457,19 +469,20 @@ public class NatTable implements Loggable {
     }
 
     /**
-     * Smaze stare (starsi nez natRecordLife [s]) dynamicke zaznamy v tabulce.
+     * Smaze stare (starsi nez natRecordLife [ms]) dynamicke zaznamy v tabulce.
+     * Zaznamy jsou v byInside serazeny podle posledniho pouziti, takze se prochazi jen od zacatku, dokud jsou stare.
      */
-    public void deleteOldDynamicRecords() {
+    public synchronized void deleteOldDynamicRecords() {
         long now = System.currentTimeMillis();
-        List<Record> delete = new ArrayList<>();
-        for (Record record : table) {
-			if (now - record.getTimestamp() > natRecordLife) {
-				freePorts.add(record.out.port);
-				delete.add(record);
+		for (Iterator<Record> it = byInside.values().iterator(); it.hasNext();) {
+			Record record = it.next();
+			if (now - record.getTimestamp() <= natRecordLife) {
+				break;
 			}
+			it.remove();
+			byOutside.remove(record.out);
+			freePorts.add(record.out.port);
 		}
-
-		table.removeAll(delete);
     }
 
 	//--------------------------------------------- functions for static rules ---------------------------------------------
@@ -578,7 +591,7 @@ public class NatTable implements Loggable {
         deleteOldDynamicRecords();
         String s = "";
 
-        for (Record zaznam : table) {
+        for (Record zaznam : getDynamicRules()) {
 			s += zaznam.in.getAddressWithPort() + "\t" + zaznam.out.getAddressWithPort() + "\n";
 		}
         return s;
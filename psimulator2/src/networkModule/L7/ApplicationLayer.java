@@ -1,6 +1,7 @@
 package networkModule.L7;
 
 import applications.dhcp.DhcpClient;
+import applications.dns.DnsCache;
 import config.configFiles.HostsFile;
 import config.configFiles.InterfacesFile;
 import config.configFiles.ResolvConfFile;
@@ -24,6 +25,7 @@ public class ApplicationLayer implements Loggable {
     private final InterfacesFile ifaceFile;
     private final ResolvConfFile resolvFile;
     private final HostsFile hostsFile;
+    private final DnsCache dnsCache = new DnsCache();
 
     public ApplicationLayer(IpNetworkModule netMod) {
         this.netMod = netMod;
@@ -52,6 +54,10 @@ public class ApplicationLayer implements Loggable {
     public ResolvConfFile getResolvFile() {
         return this.resolvFile;
     }
+
+    public DnsCache getDnsCache() {
+        return this.dnsCache;
+    }
     
     public DhcpClient getDhcpManager() {
         return this.dhcpManager;
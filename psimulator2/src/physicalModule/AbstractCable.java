@@ -55,6 +55,18 @@ public abstract class AbstractCable implements Loggable{
 		}
 	}
 
+	/**
+	 * Lets physical modules on both ends know, that connection of their switchports changed.
+	 */
+	protected void notifyLinkChange() {
+		if (firstCon != null) {
+			firstCon.physicalModule.linkChanged();
+		}
+		if (secondCon != null) {
+			secondCon.physicalModule.linkChanged();
+		}
+	}
+
 	public void setFirstDeviceId(Integer id) {
 		this.idFirstDevice = id;
 	}
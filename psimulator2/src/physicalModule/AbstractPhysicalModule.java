@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
@@ -25,6 +26,11 @@ public abstract class AbstractPhysicalModule implements Loggable {
 	 * List of interfaces.
 	 */
 	protected Map<Integer, Switchport> switchports = new HashMap<>();
+	/**
+	 * Zvysuje se pri kazdy zmene propojeni switchportu (kabel, realny rozhrani), podle toho si sitovy modul
+	 * prepocitava, kam posilat broadcasty.
+	 */
+	private final AtomicInteger linkVersion = new AtomicInteger();
 	/**
 	 * Odkaz na PC.
 	 */
@@ -63,6 +69,15 @@ public abstract class AbstractPhysicalModule implements Loggable {
 	 */
 	public abstract void sendPacket(L2Packet packet, int switchportNumber);
 
+	/**
+	 * Sends the packet to all given switchports at once (flooding). Switchports are expected to exist and to be
+	 * connected, nothing is checked or logged per switchport.
+	 *
+	 * @param packet to send via physical module
+	 * @param switchportNumbers
+	 */
+	public abstract void sendPacket(L2Packet packet, int[] switchportNumbers);
+
 	// ruzny dulezity gettry rozhrani k ostatnim vrstvam (fasada): -----------------------------------------
 
 	/**
@@ -86,6 +101,21 @@ public abstract class AbstractPhysicalModule implements Loggable {
 		return switchports;
 	}
 
+	/**
+	 * Returns number, which changes every time some switchport of this module is connected or disconnected.
+	 * @return
+	 */
+	public int getLinkVersion() {
+		return linkVersion.get();
+	}
+
+	/**
+	 * Called when some switchport was connected or disconnected.
+	 */
+	void linkChanged() {
+		linkVersion.incrementAndGet();
+	}
+
 	public boolean isSwitchportConnected (int switchportNumber){
 		Switchport swport = switchports.get(switchportNumber);
 		if(swport==null) {
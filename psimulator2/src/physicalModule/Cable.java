@@ -46,6 +46,7 @@ public class Cable extends AbstractCable implements SmartRunnable, Loggable {
 	public void setFirstSwitchport(SimulatorSwitchport swport) {
 		swport.cable = this;
 		this.firstCon = swport;
+		notifyLinkChange();
 	}
 
 	/*
@@ -57,6 +58,7 @@ public class Cable extends AbstractCable implements SmartRunnable, Loggable {
 	public void setSecondSwitchport(SimulatorSwitchport swport) {
 		swport.cable = this;
 		this.secondCon = swport;
+		notifyLinkChange();
 	}
 
 	@Override
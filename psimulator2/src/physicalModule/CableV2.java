@@ -8,9 +8,12 @@ import dataStructures.CableItem;
 import dataStructures.packets.L2Packet;
 import logging.Logger;
 import logging.LoggingCategory;
+import psimulator2.Psimulator;
 
 /**
- * Represents simple cable which only forwards packets to the other side.
+ * Represents simple cable which only forwards packets to the other side. Packets are not delivered by the sending
+ * thread, the delivery is scheduled in the discrete-event engine (Psimulator.scheduler) at the time when the packet
+ * reaches the other end of cable.
  *
  *
  * @author Stanislav Rehak <rehaksta@fit.cvut.cz>
@@ -26,6 +29,10 @@ public class CableV2 extends AbstractCable {
 	 * 8 / (100 * 1024^2 ) = 0.000 000 076 [s] = 76 [ns]
 	 */
 	public int sendingSpeed;
+	/**
+	 * Propagation delay of the cable in [ns], 500 ns is approximately 100 m of copper cable.
+	 */
+	public int propagationDelay = 500;
 
 	public CableV2(int configID) {
 		super(configID);
@@ -33,13 +40,27 @@ public class CableV2 extends AbstractCable {
 	}
 
 	/**
-	 * Transmits packet to the other end of cable.
+	 * Returns time in [ns] needed to put the packet on the wire.
+	 *
+	 * @param packet
+	 * @return
+	 */
+	public long getSerializationDelay(L2Packet packet) {
+		return (long) packet.getSize() * sendingSpeed;
+	}
+
+	/**
+	 * Transmits packet to the other end of cable. Does not block, the packet is delivered at time sentAt +
+	 * propagationDelay of simulation clock.
+	 *
 	 * @param packet data to send
+	 * @param src
 	 * @param dest destination
+	 * @param sentAt simulation time, when the last bit of packet leaves the sending switchport
 	 */
-	public void transmit(L2Packet packet, AbstractSimulatorSwitchport src, AbstractSimulatorSwitchport dest) {
+	public void transmit(L2Packet packet, AbstractSimulatorSwitchport src, AbstractSimulatorSwitchport dest, long sentAt) {
 		Logger.log(this, Logger.INFO, LoggingCategory.CABEL_SENDING, "Sending packet through cabel..", new CableItem(packet, src.deviceID, dest.deviceID, configID));
-		dest.receivePacket(packet);
+		Psimulator.getPsimulator().scheduler.schedule(sentAt + propagationDelay, new Delivery(packet, dest));
 	}
 
 	/*
@@ -51,6 +72,7 @@ public class CableV2 extends AbstractCable {
 	public void setFirstSwitchport(SimulatorSwitchportV2 swport) {
 		swport.cable = this;
 		this.firstCon = swport;
+		notifyLinkChange();
 	}
 
 	/*
@@ -62,10 +84,30 @@ public class CableV2 extends AbstractCable {
 	public void setSecondSwitchport(SimulatorSwitchportV2 swport) {
 		swport.cable = this;
 		this.secondCon = swport;
+		notifyLinkChange();
 	}
 
 	@Override
 	public String getDescription() {
 		return "CableV2: 1_ID=" + getFirstIdDevice() + " " + "2_ID=" + getSecondIdDevice();
 	}
+
+	/**
+	 * Doruceni paketu na druhy konec kabelu, spousti ho planovac.
+	 */
+	private static class Delivery implements Runnable {
+
+		private final L2Packet packet;
+		private final AbstractSimulatorSwitchport dest;
+
+		Delivery(L2Packet packet, AbstractSimulatorSwitchport dest) {
+			this.packet = packet;
+			this.dest = dest;
+		}
+
+		@Override
+		public void run() {
+			dest.receivePacket(packet);
+		}
+	}
 }
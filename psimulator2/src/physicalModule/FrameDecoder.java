@@ -0,0 +1,186 @@
+/*
+ * created 18.10.2026
+ */
+package physicalModule;
+
+import dataStructures.MacAddress;
+import dataStructures.ipAddresses.IpAddress;
+import dataStructures.packets.ArpPacket;
+import dataStructures.packets.EthernetPacket;
+import dataStructures.packets.IcmpPacket;
+import dataStructures.packets.IpPacket;
+import dataStructures.packets.L2Packet;
+import dataStructures.packets.L3Packet;
+import dataStructures.packets.L4Packet;
+import dataStructures.packets.RawData;
+import dataStructures.packets.UdpPacket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads real frames from byte buffer into simulator packets, counterpart of FrameEncoder. Headers are read straight
+ * from the buffer given by pcap, only the parts needed by simulator packets (addresses, payload) are copied.
+ *
+ * Jednotlivy metody vraceji null, kdyz paket neumi prelozit, duvod je v lastError.
+ */
+class FrameDecoder {
+
+	private static final int ETHERTYPE_ARP = 0x0806;
+	private static final int ETHERTYPE_IP = 0x0800;
+	private static final int PROTOCOL_ICMP = 1;
+	private static final int PROTOCOL_UDP = 0x11;
+
+	/**
+	 * Reason, why the last frame was not translated.
+	 */
+	String lastError;
+
+	/**
+	 * Translates the frame from position to limit of the buffer. Position of the buffer is changed.
+	 *
+	 * @param buffer
+	 * @return null if the frame cannot be translated
+	 */
+	L2Packet decode(ByteBuffer buffer) {
+		lastError = null;
+		try {
+			if (buffer.remaining() < FrameEncoder.ETHERNET_HEADER) {
+				lastError = "Packet with unknown header on link layer catched and dropped.";
+				return null;
+			}
+			MacAddress dst = readMac(buffer);
+			MacAddress src = readMac(buffer);
+			int ethertype = buffer.getShort() & 0xFFFF;
+
+			L3Packet data;
+			if (ethertype == ETHERTYPE_ARP) {
+				data = decodeArp(buffer);
+			} else if (ethertype == ETHERTYPE_IP) {
+				data = decodeIp(buffer);
+			} else {
+				lastError = "Chytil jsem paket s neznamou hlavickou na sitovy vrstve.";
+				return null;
+			}
+
+			if (data == null) {
+				return null;
+			}
+			return new EthernetPacket(src, dst, data.getType(), data);	// typ se dava podle skutecnosti, ne podle toho, co bylo zadano v puvodnim paketu
+
+		} catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+			lastError = "Truncated packet catched and dropped.";
+			return null;
+		}
+	}
+
+	private ArpPacket decodeArp(ByteBuffer buffer) {
+		int start = buffer.position();
+		int operation = buffer.getShort(start + 6) & 0xFFFF;
+		buffer.position(start + 8);
+		MacAddress senderMac = readMac(buffer);
+		IpAddress senderIp = IpAddress.valueOf(buffer.getInt());
+		MacAddress targetMac = readMac(buffer);
+		IpAddress targetIp = IpAddress.valueOf(buffer.getInt());
+
+		if (operation == 2) {	// reply
+			return new ArpPacket(senderIp, senderMac, targetIp, targetMac);
+		} else {
+			return new ArpPacket(senderIp, senderMac, targetIp);
+		}
+	}
+
+	private IpPacket decodeIp(ByteBuffer buffer) {
+		int start = buffer.position();
+		int headerLength = (buffer.get(start) & 0x0F) * 4;
+		int end = ipEnd(buffer, start);
+		int ttl = buffer.get(start + 8) & 0xFF;
+		int protocol = buffer.get(start + 9) & 0xFF;
+		IpAddress src = IpAddress.valueOf(buffer.getInt(start + 12));
+		IpAddress dst = IpAddress.valueOf(buffer.getInt(start + 16));
+
+		L4Packet data;
+		if (protocol == PROTOCOL_ICMP) {
+			data = decodeIcmp(buffer, start + headerLength, end);
+		} else if (protocol == PROTOCOL_UDP) {
+			data = decodeUdp(buffer, start + headerLength, end);
+		} else {
+			lastError = "Packet with unknown transport layer header catched and dropped.";
+			return null;
+		}
+		if (data == null) {
+			return null;
+		}
+		return new IpPacket(src, dst, ttl, data);
+	}
+
+	/**
+	 * Translates ICMP packet between given indexes of the buffer.
+	 */
+	private IcmpPacket decodeIcmp(ByteBuffer buffer, int start, int end) {
+		int type = buffer.get(start) & 0xFF;
+		int code = buffer.get(start + 1) & 0xFF;
+
+		try {
+			if (type == IcmpPacket.Type.REPLY.getIntValue() || type == IcmpPacket.Type.REQUEST.getIntValue()) {
+				int id = buffer.getShort(start + 4) & 0xFFFF;
+				int seq = buffer.getShort(start + 6) & 0xFFFF;
+				return new IcmpPacket(type, code, id, seq, copy(buffer, start + FrameEncoder.ICMP_HEADER, end));
+			}
+
+			// neni to request ani reply, v datech je hlavicka puvodniho paketu:
+			int inner = start + FrameEncoder.ICMP_HEADER;
+			if (inner >= end || (buffer.get(inner + 9) & 0xFF) != PROTOCOL_ICMP) {
+				lastError = "Packet with unknown transport layer header catched and dropped.";
+				return null;
+			}
+			int innerIcmp = inner + (buffer.get(inner) & 0x0F) * 4;
+			int innerEnd = Math.min(end, ipEnd(buffer, inner));
+			int id = buffer.getShort(innerIcmp + 4) & 0xFFFF;
+			int seq = buffer.getShort(innerIcmp + 6) & 0xFFFF;
+			return new IcmpPacket(type, code, id, seq, copy(buffer, Math.min(innerIcmp + FrameEncoder.ICMP_HEADER, innerEnd), innerEnd));
+		} catch (Exception ex) {	// neznamy typ nebo kod
+			lastError = ex.getMessage();
+			return null;
+		}
+	}
+
+	/**
+	 * Translates UDP packet between given indexes of the buffer, its data are kept as bytes. Checksum is not checked,
+	 * the same as by IP and ICMP.
+	 */
+	private UdpPacket decodeUdp(ByteBuffer buffer, int start, int end) {
+		int srcPort = buffer.getShort(start) & 0xFFFF;
+		int dstPort = buffer.getShort(start + 2) & 0xFFFF;
+		int length = buffer.getShort(start + 4) & 0xFFFF;
+		if (length < FrameEncoder.UDP_HEADER) {
+			lastError = "UDP packet with wrong length catched and dropped.";
+			return null;
+		}
+		int udpEnd = Math.min(end, start + length);
+		return new UdpPacket(srcPort, dstPort, new RawData(copy(buffer, start + FrameEncoder.UDP_HEADER, udpEnd)));
+	}
+
+	/**
+	 * Returns index after the end of IP packet beginning at start: by total length from header, but at most limit of
+	 * the buffer (ethernet padding and cut packets).
+	 */
+	private static int ipEnd(ByteBuffer buffer, int start) {
+		int totalLength = buffer.getShort(start + 2) & 0xFFFF;
+		return Math.min(buffer.limit(), start + totalLength);
+	}
+
+	private static MacAddress readMac(ByteBuffer buffer) {
+		return MacAddress.readFrom(buffer);
+	}
+
+	private static byte[] copy(ByteBuffer buffer, int from, int to) {
+		if (to <= from) {
+			return new byte[0];
+		}
+		byte[] data = new byte[to - from];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = buffer.get(from + i);
+		}
+		return data;
+	}
+}
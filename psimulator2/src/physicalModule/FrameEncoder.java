@@ -0,0 +1,246 @@
+/*
+ * created 18.10.2026
+ */
+package physicalModule;
+
+import dataStructures.packets.ArpPacket;
+import dataStructures.packets.EthernetPacket;
+import dataStructures.packets.IcmpPacket;
+import dataStructures.packets.IpPacket;
+import dataStructures.packets.L2Packet;
+import dataStructures.packets.L3Packet;
+import dataStructures.packets.L4Packet;
+import dataStructures.packets.PacketData;
+import dataStructures.packets.RawData;
+import dataStructures.packets.UdpPacket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import static dataStructures.packets.ArpPacket.ArpOperation.*;
+import static dataStructures.packets.L3Packet.L3PacketType.*;
+
+/**
+ * Writes simulator packets as real frames into byte buffer: Ethernet II, ARP, IPv4, ICMP and UDP headers are written
+ * straight to the buffer and checksums are counted over the written bytes, no intermediate arrays are created. UDP is
+ * translated only with data from real network (RawData), simulated DHCP and DNS packets have no real form here; these
+ * and other transport protocols (TCP) are not translated at all rather than sent as IP header without its payload.
+ *
+ * Ma stav (identifikace IP paketu), pouziva ho jen worker PacketSenderu.
+ */
+class FrameEncoder {
+
+	static final int ETHERNET_HEADER = 14;
+	static final int ARP_LENGTH = 28;
+	static final int IP_HEADER = 20;
+	static final int ICMP_HEADER = 8;
+	static final int UDP_HEADER = 8;
+
+	/**
+	 * Identification of the next IP packet, it is only counted.
+	 */
+	private int ipIdentification = ThreadLocalRandom.current().nextInt(0x10000);
+
+	/**
+	 * Returns size of the frame for given packet.
+	 *
+	 * @param packet
+	 * @return -1 if the packet cannot be translated
+	 */
+	int frameSize(L2Packet packet) {
+		if (packet.getType() != L2Packet.L2PacketType.ethernetII) {
+			return -1;
+		}
+		L3Packet data = ((EthernetPacket) packet).data;
+		if (data == null) {
+			return -1;
+		}
+		if (data.getType() == ARP) {
+			return ETHERNET_HEADER + ARP_LENGTH;
+		}
+		if (data.getType() == IPv4) {
+			int transport = transportSize(((IpPacket) data).data);
+			return transport < 0 ? -1 : ETHERNET_HEADER + IP_HEADER + transport;
+		}
+		return -1;
+	}
+
+	/**
+	 * Writes the frame into buffer from its position. Buffer has to have at least frameSize(packet) bytes remaining.
+	 *
+	 * @param packet
+	 * @param buffer
+	 * @return false if the packet cannot be translated
+	 */
+	boolean encode(L2Packet packet, ByteBuffer buffer) {
+		if (frameSize(packet) < 0) {
+			return false;
+		}
+		EthernetPacket p = (EthernetPacket) packet;
+		p.dst.writeTo(buffer);
+		p.src.writeTo(buffer);
+		if (p.data.getType() == ARP) {
+			buffer.putShort((short) 0x0806);
+			encodeArp((ArpPacket) p.data, buffer);
+		} else {
+			buffer.putShort((short) 0x0800);
+			encodeIp((IpPacket) p.data, buffer);
+		}
+		return true;
+	}
+
+	private void encodeArp(ArpPacket p, ByteBuffer buffer) {
+		buffer.putShort((short) 1);	// hardware type (ethernet)
+		buffer.putShort((short) 0x0800);	// protocol type (IP)
+		buffer.put((byte) 6);	// velikost mac adresy
+		buffer.put((byte) 4);	// velikost IP adresy
+		buffer.putShort((short) (p.operation == ARP_REQUEST ? 1 : 2));
+		p.senderMacAddress.writeTo(buffer);
+		buffer.putInt(p.senderIpAddress.getBits());
+		p.targetMacAddress.writeTo(buffer);
+		buffer.putInt(p.targetIpAddress.getBits());
+	}
+
+	private void encodeIp(IpPacket p, ByteBuffer buffer) {
+		int start = buffer.position();
+		buffer.put((byte) 0x45);	// verze (4) a dylka hlavicky (20)
+		buffer.put((byte) 0);	// TOS
+		buffer.putShort((short) (IP_HEADER + transportSize(p.data)));
+		buffer.putShort((short) ipIdentification);
+		ipIdentification = (ipIdentification + 1) & 0xFFFF;
+		buffer.putShort((short) 0x4000);	// pro jistotu davam don't fragment, i kdyz ICMP ho nema, tcp ale ano
+		buffer.put((byte) p.ttl);
+		buffer.put(protocolNumber(p.data));
+		buffer.putShort((short) 0);	// checksum se doplni
+		buffer.putInt(p.src.getBits());
+		buffer.putInt(p.dst.getBits());
+		buffer.putShort(start + 10, checksum(buffer, start, start + IP_HEADER));
+
+		if (p.data.getType() == L4Packet.L4PacketType.ICMP) {
+			encodeIcmp((IcmpPacket) p.data, buffer);
+		} else {
+			encodeUdp(p, (UdpPacket) p.data, buffer);
+		}
+	}
+
+	private void encodeIcmp(IcmpPacket p, ByteBuffer buffer) {
+		int start = buffer.position();
+		buffer.put((byte) p.type.getIntValue());
+		buffer.put((byte) p.code.getIntValue());
+		buffer.putShort((short) 0);	// checksum se doplni
+		if (isEcho(p)) {
+			buffer.putShort((short) p.id);
+			buffer.putShort((short) p.seq);
+			// zapisuje se presne getPayloadSize() bytu, s tou velikosti pocita frameSize
+			int size = p.getPayloadSize();
+			int written = 0;
+			if (p.payload != null) {
+				written = Math.min(p.payload.length, size);
+				buffer.put(p.payload, 0, written);
+			}
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = written; i < size; i++) {
+				buffer.put((byte) random.nextInt());
+			}
+		} else {
+			buffer.putInt(0);	// zbytek hlavicky je u ostatnich typu nepouzitej
+		}
+		buffer.putShort(start + 2, checksum(buffer, start, buffer.position()));
+	}
+
+	private void encodeUdp(IpPacket ip, UdpPacket p, ByteBuffer buffer) {
+		int start = buffer.position();
+		int length = transportSize(p);
+		buffer.putShort((short) p.srcPort);
+		buffer.putShort((short) p.dstPort);
+		buffer.putShort((short) length);
+		buffer.putShort((short) 0);	// checksum se doplni
+		if (p.getData() != null) {
+			buffer.put(((RawData) p.getData()).getBytes());
+		}
+		// pseudohlavicka: adresy, protokol a dylka UDP
+		long pseudoHeader = (ip.src.getBits() >>> 16) + (ip.src.getBits() & 0xFFFF)
+				+ (ip.dst.getBits() >>> 16) + (ip.dst.getBits() & 0xFFFF) + 0x11 + length;
+		short checksum = fold(pseudoHeader + sum(buffer, start, buffer.position()));
+		buffer.putShort(start + 6, checksum == 0 ? (short) 0xFFFF : checksum);	// nula by znamenala, ze checksum neni
+	}
+
+	private static boolean isEcho(IcmpPacket p) {
+		return p.type == IcmpPacket.Type.REPLY || p.type == IcmpPacket.Type.REQUEST;
+	}
+
+	/**
+	 * Returns number of bytes, which are written for the packet of transport layer.
+	 *
+	 * @return -1 if the packet cannot be translated
+	 */
+	private static int transportSize(L4Packet data) {
+		if (data == null) {
+			return -1;
+		}
+		if (data.getType() == L4Packet.L4PacketType.ICMP) {
+			IcmpPacket p = (IcmpPacket) data;
+			return ICMP_HEADER + (isEcho(p) ? p.getPayloadSize() : 0);
+		}
+		if (data.getType() == L4Packet.L4PacketType.UDP) {
+			PacketData payload = ((UdpPacket) data).getData();
+			if (payload == null) {
+				return UDP_HEADER;
+			}
+			return payload instanceof RawData ? UDP_HEADER + payload.getSize() : -1;
+		}
+		return -1;
+	}
+
+	private static byte protocolNumber(L4Packet data) {
+		if (data == null) {
+			return (byte) 0x8D;	// neprirazeny cislo - tohle by stejne nemelo nastat
+		}
+		switch (data.getType()) {
+			case ICMP:
+				return 1;
+			case TCP:
+				return 6;
+			case UDP:
+				return 0x11;
+			default:
+				return (byte) 0x8D;
+		}
+	}
+
+	/**
+	 * Counts internet checksum of bytes from index from (inclusive) to index to (exclusive) of the buffer. Does not
+	 * change position of the buffer.
+	 *
+	 * @param buffer
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	static short checksum(ByteBuffer buffer, int from, int to) {
+		return fold(sum(buffer, from, to));
+	}
+
+	/**
+	 * Sums 16 bit words of the buffer from index from (inclusive) to index to (exclusive), odd byte is padded by zero.
+	 */
+	private static long sum(ByteBuffer buffer, int from, int to) {
+		long sum = 0;
+		int i = from;
+		for (; i + 1 < to; i += 2) {
+			sum += buffer.getShort(i) & 0xFFFF;
+		}
+		if (i < to) {	// lichej pocet bajtu
+			sum += (buffer.get(i) & 0xFF) << 8;
+		}
+		return sum;
+	}
+
+	/**
+	 * Folds the sum into 16 bits and returns its complement.
+	 */
+	private static short fold(long sum) {
+		while ((sum >>> 16) != 0) {
+			sum = (sum & 0xFFFF) + (sum >>> 16);
+		}
+		return (short) ~sum;
+	}
+}
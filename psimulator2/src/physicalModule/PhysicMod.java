@@ -85,6 +85,16 @@ public class PhysicMod extends AbstractPhysicalModule implements SmartRunnable,
 		worker.wake();
 	}
 
+	@Override
+	public void sendPacket(L2Packet packet, int[] switchportNumbers) {
+		synchronized (sendBuffer) {
+			for (int number : switchportNumbers) {
+				sendBuffer.add(new BufferItem(packet, switchports.get(number)));
+			}
+		}
+		worker.wake();
+	}
+
 // Samotna prace a ruzny dulezity gettry rozhrani k ostatnim vrstvam (fasada): ----------------------------------------
 
 	@Override
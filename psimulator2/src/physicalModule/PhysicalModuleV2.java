@@ -44,6 +44,13 @@ public class PhysicalModuleV2 extends AbstractPhysicalModule {
 		swport.sendPacket(packet);
 	}
 
+	@Override
+	public void sendPacket(L2Packet packet, int[] switchportNumbers) {
+		for (int number : switchportNumbers) {
+			switchports.get(number).sendPacket(packet);
+		}
+	}
+
 	@Override
 	public String getDescription() {
 		return device.getName() + ": "+getClass().getSimpleName();
@@ -58,6 +58,7 @@ public class RealSwitchport extends Switchport implements Loggable {
 		// kdyz je spojeni otevreno, spoustim obsluhu:
 		catcher = new PacketCatcher(pcap, this);
 		sender = new PacketSender(pcap, this);
+		physicalModule.linkChanged();
 		return 0;
 	}
 
@@ -66,6 +67,7 @@ public class RealSwitchport extends Switchport implements Loggable {
 			pcap.close();
 			sender.stop();
 			pcap = null;
+			physicalModule.linkChanged();
 			log(Logger.IMPORTANT, "Real switchport untied.", null);
 		} else {
 			log(Logger.WARNING, "Attempting to disconnect untied switchport.", null);
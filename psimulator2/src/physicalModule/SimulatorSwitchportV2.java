@@ -5,15 +5,15 @@ package physicalModule;
 
 import dataStructures.DropItem;
 import dataStructures.packets.L2Packet;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
+import utils.MpscQueue;
+import utils.SimulationClock;
 import utils.SmartRunnable;
-import utils.Util;
 import utils.WorkerThread;
 
 /**
@@ -28,9 +28,13 @@ public class SimulatorSwitchportV2 extends AbstractSimulatorSwitchport implement
 	 * Processing time in [ns] for sending 1 packet.
 	 */
 	int processingDelay = 100;
+	/**
+	 * Simulation time, when the last packet sent from this switchport leaves it. The next packet cannot start to be
+	 * sent sooner. Pouziva jen worker.
+	 */
+	private long transmitterFreeAt = 0;
 
 	protected final WorkerThread worker;
-	private final Loggable object;
 	/**
 	 * Current size of buffer in bytes.
 	 */
@@ -48,72 +52,27 @@ public class SimulatorSwitchportV2 extends AbstractSimulatorSwitchport implement
 	private Stats sendStats = new Stats();
 	private Stats receiveStats = new Stats();
 
+	/**
+	 * Max number of packets taken from one buffer at once.
+	 */
+	private static final int batchSize = 64;
+	/**
+	 * Max number of packets in one buffer. Capacity in bytes is checked in addToBuffer(), this is only limit for very
+	 * small packets.
+	 */
+	private static final int packetCapacity = 4096;
 	/**
 	 * Storage for packets to be received.
 	 */
-	private final List<L2Packet> receiveBuffer = Collections.synchronizedList(new LinkedList<L2Packet>() {
-
-		@Override
-		public boolean add(L2Packet packet) {
-			int packetSize = packet.getSize();
-
-			if (sizeReceive.get() + packetSize > capacity) { // run out of capacity
-				Logger.log(object, Logger.INFO, LoggingCategory.PHYSICAL, "Dropping packet: Queue is full.", packet.toStringWithData());
-				Logger.log(object, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, physicalModule.device.configID));
-				receiveStats.droppedPackets.getAndIncrement();
-
-				if (hasIpNetworkModule) {
-					handleSourceQuench(packet);
-				}
-			} else {
-				sizeReceive.addAndGet(packetSize);
-				receiveStats.processedBytes.addAndGet(packetSize);
-				receiveStats.processedPackets.getAndIncrement();
-			}
-
-			return super.add(packet);
-		}
-
-		@Override
-		public L2Packet remove(int index) {
-			L2Packet packet = super.remove(index);
-			sizeReceive.set(sizeReceive.get() - packet.getSize());
-			return packet;
-		}
-	});
+	private final MpscQueue<L2Packet> receiveBuffer = new MpscQueue<>(packetCapacity);
 	/**
 	 * Storage for packets to be sent.
 	 */
-	private final List<L2Packet> sendBuffer = Collections.synchronizedList(new LinkedList<L2Packet>() {
-
-		@Override
-		public boolean add(L2Packet packet) {
-			int packetSize = packet.getSize();
-
-			if (sizeSend.get() + packetSize > capacity) { // run out of capacity
-				Logger.log(object, Logger.INFO, LoggingCategory.PHYSICAL, "Dropping packet: Queue is full.", packet.toStringWithData());
-				Logger.log(object, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, physicalModule.device.configID));
-				sendStats.droppedPackets.getAndIncrement();
-
-				if (hasIpNetworkModule) {
-					handleSourceQuench(packet);
-				}
-			} else {
-				sizeSend.addAndGet(packetSize);
-				sendStats.processedBytes.addAndGet(packetSize);
-				sendStats.processedPackets.getAndIncrement();
-			}
-
-			return super.add(packet);
-		}
-
-		@Override
-		public L2Packet remove(int index) {
-			L2Packet packet = super.remove(index);
-			sizeSend.set(sizeSend.get() - packet.getSize());
-			return packet;
-		}
-	});
+	private final MpscQueue<L2Packet> sendBuffer = new MpscQueue<>(packetCapacity);
+	/**
+	 * Batch taken from buffer, used only by worker.
+	 */
+	private final List<L2Packet> batch = new ArrayList<>(batchSize);
 
 	// konstruktory a buildeni pri startu: --------------------------------------------------------------------------------
 
@@ -127,56 +86,121 @@ public class SimulatorSwitchportV2 extends AbstractSimulatorSwitchport implement
 	public SimulatorSwitchportV2(AbstractPhysicalModule physicMod, int number, int configID) {
 		super(physicMod, number, configID);
 		this.worker = new WorkerThread(this);
-
-		object = this; // for add methods in buffers
 	}
 
 	// konstruktory a buildeni pri startu: --------------------------------------------------------------------------------
 
 	@Override
 	protected void sendPacketFurther(L2Packet packet) {
-		sendBuffer.add(packet);
-		worker.wake();
+		if (addToBuffer(sendBuffer, sizeSend, sendStats, packet)) {
+			worker.wake();
+		}
 	}
 
 	@Override
 	protected void receivePacketFurther(L2Packet packet) {
-		receiveBuffer.add(packet);
-		worker.wake();
+		if (addToBuffer(receiveBuffer, sizeReceive, receiveStats, packet)) {
+			worker.wake();
+		}
+	}
+
+	/**
+	 * Adds packet to the buffer, if there is enough space (in bytes) in it. Otherwise drops the packet and sends
+	 * source quench.
+	 *
+	 * @param buffer
+	 * @param size current size of the buffer in bytes
+	 * @param stats
+	 * @param packet
+	 * @return true, if packet was added
+	 */
+	private boolean addToBuffer(MpscQueue<L2Packet> buffer, AtomicInteger size, Stats stats, L2Packet packet) {
+		int packetSize = packet.getSize();
+
+		// rezervace mista v bufferu:
+		boolean reserved = false;
+		while (true) {
+			int current = size.get();
+			if (current + packetSize > capacity) { // run out of capacity
+				break;
+			}
+			if (size.compareAndSet(current, current + packetSize)) {
+				reserved = true;
+				break;
+			}
+		}
+
+		if (reserved && buffer.offer(packet)) {
+			stats.processedBytes.addAndGet(packetSize);
+			stats.processedPackets.getAndIncrement();
+			return true;
+		}
+
+		if (reserved) { // misto v bajtech bylo, ale dosly sloty ve fronte
+			size.addAndGet(-packetSize);
+		}
+		dropPacket("Dropping packet: Queue is full.", packet, stats);
+
+		if (hasIpNetworkModule) {
+			handleSourceQuench(packet);
+		}
+		return false;
 	}
 
 	@Override
 	public void doMyWork() {
 		while (!sendBuffer.isEmpty() || !receiveBuffer.isEmpty()) {
-			if (!receiveBuffer.isEmpty()) {
-				L2Packet packet = receiveBuffer.remove(0);
+			receiveBuffer.drainTo(batch, batchSize);
+			for (L2Packet packet : batch) {
+				sizeReceive.addAndGet(-packet.getSize());
 				physicalModule.receivePacket(packet, this);
 			}
+			batch.clear();
 
-			if (!sendBuffer.isEmpty()) {
-				L2Packet packet = sendBuffer.remove(0);
+			sendBuffer.drainTo(batch, batchSize);
+			for (L2Packet packet : batch) {
+				sizeSend.addAndGet(-packet.getSize());
 
 				if (cable == null) {
-					Logger.log(this, Logger.INFO, LoggingCategory.PHYSICAL, "Dropping packet: No cable is attached.", packet.toStringWithData());
-					Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, physicalModule.device.configID));
-					sendStats.droppedPackets.getAndIncrement();
+					dropPacket("Dropping packet: No cable is attached.", packet, sendStats);
 				} else {
 					AbstractSimulatorSwitchport dest = cable.getTheOtherSwitchport(this);
 					if (dest == null) {
-						Logger.log(this, Logger.INFO, LoggingCategory.PHYSICAL, "Dropping packet: No switchport in cable on the other side.", packet.toStringWithData());
-						Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, physicalModule.device.configID));
-						sendStats.droppedPackets.getAndIncrement();
+						dropPacket("Dropping packet: No switchport in cable on the other side.", packet, sendStats);
 					} else {
-						makeDelay(packet);
-						cable.transmit(packet, this, dest);
+						cable.transmit(packet, this, dest, nextSendingTime(packet));
 					}
 				}
 			}
+			batch.clear();
 		}
 	}
 
-	private void makeDelay(L2Packet packet) {
-		Util.sleepNano(packet.getSize() * cable.sendingSpeed + processingDelay);
+	/**
+	 * Zaloguje zahozeni paketu a zapocita ho do statistik. Vypis paketu i s daty se stavi, jen kdyz se opravdu
+	 * vypisuje.
+	 */
+	private void dropPacket(String message, L2Packet packet, Stats stats) {
+		if (Logger.isLoggable(LoggingCategory.PHYSICAL, Logger.INFO)) {
+			Logger.log(this, Logger.INFO, LoggingCategory.PHYSICAL, message, packet.toStringWithData());
+		}
+		if (Logger.isLoggable(LoggingCategory.PACKET_DROP, Logger.INFO)) {
+			Logger.log(this, Logger.INFO, LoggingCategory.PACKET_DROP, "Logging dropped packet.", new DropItem(packet, physicalModule.device.configID));
+		}
+		stats.droppedPackets.getAndIncrement();
+	}
+
+	/**
+	 * Computes the time, when the packet leaves this switchport: packets are sent one after another, every one is
+	 * delayed by processing and serialization delay. Nothing sleeps, the time is only counted.
+	 *
+	 * @param packet
+	 * @return simulation time in [ns]
+	 */
+	private long nextSendingTime(L2Packet packet) {
+		long start = Math.max(SimulationClock.now(), transmitterFreeAt);
+		transmitterFreeAt = start + processingDelay + cable.getSerializationDelay(packet);
+		return transmitterFreeAt;
 	}
 
 	/**
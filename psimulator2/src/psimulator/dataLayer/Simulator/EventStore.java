@@ -0,0 +1,486 @@
+/*
+ * created 18.10.2026
+ */
+package psimulator.dataLayer.Simulator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import psimulator.dataLayer.SimulatorEvents.SimulatorEventWithDetails;
+import shared.Components.EthInterfaceModel;
+import shared.Components.HwComponentModel;
+import shared.SimulatorEvents.SerializedComponents.EventType;
+import shared.SimulatorEvents.SerializedComponents.PacketType;
+import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
+
+/**
+ * Append-only store of simulator events behind EventTableModel.
+ *
+ * Events are stored by columns in chunks of CHUNK_SIZE events (time stamps, ids and types in primitive arrays), so
+ * long recordings do not need several objects per event. Details resolved when the event was added (names of
+ * components, components and interfaces) are kept in a table of values of the generation, columns hold only their
+ * indexes, so the events keep recorded names even when components are renamed or deleted later.
+ * SimulatorEventWithDetails is created again when the event is read, recently read events are cached.
+ *
+ * Writers are synchronized, readers do not lock. Size is volatile and it is written after data of the event, so a
+ * reader, which reads the size first, sees all events below it. Deleting of all events replaces whole generation of
+ * the store, snapshots taken before still see events of the old generation.
+ *
+ * When there are more than maxMemoryChunks full chunks in memory, the oldest ones are written to temporary file and
+ * read back (softly referenced) when needed. The limit can be set by system property psimulator2.eventMemoryChunks,
+ * default 0 keeps all events in memory.
+ */
+public class EventStore {
+
+    static final int CHUNK_SIZE = 4096;
+    private static final int CACHE_SIZE = 256;
+    private static final PacketType[] PACKET_TYPES = PacketType.values();
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    //
+    private final int maxMemoryChunks;
+    private volatile Generation generation = new Generation();
+
+    public EventStore() {
+        this(Integer.getInteger("psimulator2.eventMemoryChunks", 0));
+    }
+
+    /**
+     * @param maxMemoryChunks max number of full chunks in memory, 0 for no limit
+     */
+    public EventStore(int maxMemoryChunks) {
+        this.maxMemoryChunks = Math.max(maxMemoryChunks, 0);
+    }
+
+    /**
+     * Events of the store from creation or the last clear.
+     */
+    private static final class Generation {
+
+        volatile Chunk[] chunks = new Chunk[16];
+        volatile int size = 0;
+        final CachedEvent[] cache = new CachedEvent[CACHE_SIZE];
+        /**
+         * Names, components and interfaces of events, published like chunks (before size).
+         */
+        volatile Object[] values = new Object[16];
+        // writer only:
+        int valueCount = 0;
+        final HashMap<Object, Integer> valueIndexes = new HashMap<>();
+        int fullInMemory = 0;
+        int firstInMemory = 0;
+        SpillFile spillFile;
+        boolean spillFailed = false;
+    }
+
+    private static final class Chunk {
+
+        /**
+         * Data of the chunk, null when they were written to spill file.
+         */
+        volatile Columns columns = new Columns();
+        long fileOffset;
+        int fileLength;
+        /**
+         * Data read back from spill file, guarded by the chunk.
+         */
+        SoftReference<Columns> loaded;
+    }
+
+    private static final class Columns {
+
+        final long[] timeStamps = new long[CHUNK_SIZE];
+        final int[] sourceIds = new int[CHUNK_SIZE];
+        final int[] destIds = new int[CHUNK_SIZE];
+        final int[] cableIds = new int[CHUNK_SIZE];
+        final byte[] packetTypes = new byte[CHUNK_SIZE];
+        final byte[] eventTypes = new byte[CHUNK_SIZE];
+        final String[] detailsTexts = new String[CHUNK_SIZE];
+        // indexes to values of generation, -1 for null
+        final int[] fromNames = new int[CHUNK_SIZE];
+        final int[] toNames = new int[CHUNK_SIZE];
+        final int[] components1 = new int[CHUNK_SIZE];
+        final int[] components2 = new int[CHUNK_SIZE];
+        final int[] eths1 = new int[CHUNK_SIZE];
+        final int[] eths2 = new int[CHUNK_SIZE];
+    }
+
+    private static final class CachedEvent {
+
+        final int index;
+        final SimulatorEventWithDetails event;
+
+        CachedEvent(int index, SimulatorEventWithDetails event) {
+            this.index = index;
+            this.event = event;
+        }
+    }
+
+    /**
+     * Events stored at the time of taking the snapshot. New events and clearing of the store do not change it.
+     */
+    public final class Snapshot {
+
+        private final Generation snapshotGeneration;
+        private final int snapshotSize;
+
+        private Snapshot(Generation snapshotGeneration) {
+            this.snapshotGeneration = snapshotGeneration;
+            this.snapshotSize = snapshotGeneration.size;
+        }
+
+        public int size() {
+            return snapshotSize;
+        }
+
+        /**
+         * Returns event with details at index i, null if i is out of the snapshot or if the event cannot be read.
+         *
+         * @param i
+         * @return
+         */
+        public SimulatorEventWithDetails get(int i) {
+            if (i < 0 || i >= snapshotSize) {
+                return null;
+            }
+            return getEventWithDetails(snapshotGeneration, i);
+        }
+
+        /**
+         * Returns new SimulatorEvent with data of the event at index i, null if i is out of the snapshot or if the
+         * event cannot be read.
+         *
+         * @param i
+         * @return
+         */
+        public SimulatorEvent getSimulatorEvent(int i) {
+            if (i < 0 || i >= snapshotSize) {
+                return null;
+            }
+            return readSimulatorEvent(snapshotGeneration, i);
+        }
+    }
+
+// cteni, bez zamykani: -------------------------------------------------------------------------------------------
+    public int size() {
+        return generation.size;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(generation);
+    }
+
+    /**
+     * Returns event with details at index i, null if there is no such event.
+     *
+     * @param i
+     * @return
+     */
+    public SimulatorEventWithDetails get(int i) {
+        Generation g = generation;
+        if (i < 0 || i >= g.size) {
+            return null;
+        }
+        return getEventWithDetails(g, i);
+    }
+
+    /**
+     * Returns copies of all events as SimulatorEvents, e.g. for saving.
+     *
+     * @return
+     */
+    public List<SimulatorEvent> getSimulatorEventsCopy() {
+        Snapshot snapshot = snapshot();
+        List<SimulatorEvent> copy = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            SimulatorEvent simulatorEvent = snapshot.getSimulatorEvent(i);
+            if (simulatorEvent != null) {
+                copy.add(simulatorEvent);
+            }
+        }
+        return copy;
+    }
+
+    private SimulatorEventWithDetails getEventWithDetails(Generation g, int i) {
+        int slot = i % CACHE_SIZE;
+        CachedEvent cached = g.cache[slot];
+        if (cached != null && cached.index == i) {
+            return cached.event;
+        }
+        Columns c = getColumns(g, g.chunks[i / CHUNK_SIZE]);
+        if (c == null) {
+            return null;
+        }
+        int j = i % CHUNK_SIZE;
+        Object[] values = g.values;
+        SimulatorEventWithDetails event = new SimulatorEventWithDetails(readSimulatorEvent(c, j),
+                (String) value(values, c.fromNames[j]), (String) value(values, c.toNames[j]),
+                (HwComponentModel) value(values, c.components1[j]), (HwComponentModel) value(values, c.components2[j]),
+                (EthInterfaceModel) value(values, c.eths1[j]), (EthInterfaceModel) value(values, c.eths2[j]));
+        g.cache[slot] = new CachedEvent(i, event);
+        return event;
+    }
+
+    private static Object value(Object[] values, int index) {
+        return index < 0 ? null : values[index];
+    }
+
+    private static SimulatorEvent readSimulatorEvent(Generation g, int i) {
+        Columns c = getColumns(g, g.chunks[i / CHUNK_SIZE]);
+        if (c == null) {
+            return null;
+        }
+        return readSimulatorEvent(c, i % CHUNK_SIZE);
+    }
+
+    private static SimulatorEvent readSimulatorEvent(Columns c, int j) {
+        return new SimulatorEvent(c.timeStamps[j], c.sourceIds[j], c.destIds[j], c.cableIds[j],
+                c.packetTypes[j] < 0 ? null : PACKET_TYPES[c.packetTypes[j]], c.detailsTexts[j],
+                c.eventTypes[j] < 0 ? null : EVENT_TYPES[c.eventTypes[j]]);
+    }
+
+    private static Columns getColumns(Generation g, Chunk chunk) {
+        Columns c = chunk.columns;
+        if (c != null) {
+            return c;
+        }
+        synchronized (chunk) {
+            c = chunk.loaded == null ? null : chunk.loaded.get();
+            if (c == null) {
+                try {
+                    c = g.spillFile.read(chunk.fileOffset, chunk.fileLength);
+                } catch (IOException ex) {
+                    return null;	// soubor uz byl smazan (clear) nebo se neda cist
+                }
+                chunk.loaded = new SoftReference<>(c);
+            }
+            return c;
+        }
+    }
+
+// zapisovani: ----------------------------------------------------------------------------------------------------
+    /**
+     * Appends the event to the end of the store.
+     *
+     * @param event
+     */
+    public synchronized void add(SimulatorEventWithDetails event) {
+        append(generation, event);
+    }
+
+    /**
+     * Appends the events to the end of the store.
+     *
+     * @param events
+     */
+    public synchronized void addAll(List<SimulatorEventWithDetails> events) {
+        Generation g = generation;
+        for (SimulatorEventWithDetails event : events) {
+            append(g, event);
+        }
+    }
+
+    /**
+     * Removes all events and deletes spill file.
+     */
+    public synchronized void clear() {
+        Generation old = generation;
+        generation = new Generation();
+        if (old.spillFile != null) {
+            old.spillFile.delete();
+        }
+    }
+
+    private void append(Generation g, SimulatorEventWithDetails event) {
+        SimulatorEvent simulatorEvent = event.getSimulatorEvent();
+        int n = g.size;
+        int chunkIndex = n / CHUNK_SIZE;
+        int j = n % CHUNK_SIZE;
+
+        Chunk[] chunks = g.chunks;
+        if (j == 0) {
+            if (chunkIndex == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                g.chunks = chunks;
+            }
+            chunks[chunkIndex] = new Chunk();
+        }
+
+        Columns c = chunks[chunkIndex].columns;
+        c.timeStamps[j] = simulatorEvent.getTimeStamp();
+        c.sourceIds[j] = simulatorEvent.getSourcceId();
+        c.destIds[j] = simulatorEvent.getDestId();
+        c.cableIds[j] = simulatorEvent.getCableId();
+        c.packetTypes[j] = (byte) (simulatorEvent.getPacketType() == null ? -1 : simulatorEvent.getPacketType().ordinal());
+        c.eventTypes[j] = (byte) (simulatorEvent.getEventType() == null ? -1 : simulatorEvent.getEventType().ordinal());
+        c.detailsTexts[j] = simulatorEvent.getDetailsText();
+        c.fromNames[j] = valueIndex(g, event.getFrom());
+        c.toNames[j] = valueIndex(g, event.getTo());
+        c.components1[j] = valueIndex(g, event.getComponent1());
+        c.components2[j] = valueIndex(g, event.getComponent2());
+        c.eths1[j] = valueIndex(g, event.getEth1());
+        c.eths2[j] = valueIndex(g, event.getEth2());
+
+        g.size = n + 1;	// zverejneni udalosti ctenarum
+
+        if (j == CHUNK_SIZE - 1) {
+            g.fullInMemory++;
+            spillOldChunks(g);
+        }
+    }
+
+    /**
+     * Returns index of value in values of generation, new values are added.
+     */
+    private static int valueIndex(Generation g, Object value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer index = g.valueIndexes.get(value);
+        if (index != null) {
+            return index;
+        }
+        Object[] values = g.values;
+        if (g.valueCount == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[g.valueCount] = value;
+        g.values = values;
+        g.valueIndexes.put(value, g.valueCount);
+        return g.valueCount++;
+    }
+
+    /**
+     * Writes the oldest full chunks to spill file, while there are too many of them in memory.
+     */
+    private void spillOldChunks(Generation g) {
+        while (maxMemoryChunks > 0 && !g.spillFailed && g.fullInMemory > maxMemoryChunks) {
+            Chunk chunk = g.chunks[g.firstInMemory];
+            try {
+                if (g.spillFile == null) {
+                    g.spillFile = new SpillFile();
+                }
+                chunk.fileLength = g.spillFile.write(chunk.columns);
+                chunk.fileOffset = g.spillFile.lastOffset;
+            } catch (IOException ex) {
+                Logger.getLogger(EventStore.class.getName()).log(Level.WARNING, "Simulator events cannot be written to temporary file, keeping them in memory.", ex);
+                g.spillFailed = true;
+                return;
+            }
+            chunk.columns = null;	// az po nastaveni offsetu, ctenari ho pak uvidi
+            g.firstInMemory++;
+            g.fullInMemory--;
+        }
+    }
+
+    /**
+     * Temporary file with spilled chunks, deleted on clear or on exit.
+     */
+    private static final class SpillFile {
+
+        private final File file;
+        private final RandomAccessFile raf;
+        private long end = 0;
+        long lastOffset;
+        private boolean deleted = false;
+
+        SpillFile() throws IOException {
+            file = File.createTempFile("psimulator-events", ".tmp");
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+        }
+
+        /**
+         * Appends the columns to the end of file.
+         *
+         * @return number of written bytes
+         */
+        synchronized int write(Columns c) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHUNK_SIZE * 56);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int j = 0; j < CHUNK_SIZE; j++) {
+                out.writeLong(c.timeStamps[j]);
+                out.writeInt(c.sourceIds[j]);
+                out.writeInt(c.destIds[j]);
+                out.writeInt(c.cableIds[j]);
+                out.writeByte(c.packetTypes[j]);
+                out.writeByte(c.eventTypes[j]);
+                if (c.detailsTexts[j] == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] text = c.detailsTexts[j].getBytes(UTF8);
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+                out.writeInt(c.fromNames[j]);
+                out.writeInt(c.toNames[j]);
+                out.writeInt(c.components1[j]);
+                out.writeInt(c.components2[j]);
+                out.writeInt(c.eths1[j]);
+                out.writeInt(c.eths2[j]);
+            }
+            out.flush();
+
+            raf.seek(end);
+            raf.write(bytes.toByteArray());
+            lastOffset = end;
+            end += bytes.size();
+            return bytes.size();
+        }
+
+        synchronized Columns read(long offset, int length) throws IOException {
+            if (deleted) {
+                throw new IOException("Spill file was deleted.");
+            }
+            byte[] data = new byte[length];
+            raf.seek(offset);
+            raf.readFully(data);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            Columns c = new Columns();
+            for (int j = 0; j < CHUNK_SIZE; j++) {
+                c.timeStamps[j] = in.readLong();
+                c.sourceIds[j] = in.readInt();
+                c.destIds[j] = in.readInt();
+                c.cableIds[j] = in.readInt();
+                c.packetTypes[j] = in.readByte();
+                c.eventTypes[j] = in.readByte();
+                int textLength = in.readInt();
+                if (textLength >= 0) {
+                    byte[] text = new byte[textLength];
+                    in.readFully(text);
+                    c.detailsTexts[j] = new String(text, UTF8);
+                }
+                c.fromNames[j] = in.readInt();
+                c.toNames[j] = in.readInt();
+                c.components1[j] = in.readInt();
+                c.components2[j] = in.readInt();
+                c.eths1[j] = in.readInt();
+                c.eths2[j] = in.readInt();
+            }
+            return c;
+        }
+
+        synchronized void delete() {
+            deleted = true;
+            try {
+                raf.close();
+            } catch (IOException ex) {
+                // nothing to do
+            }
+            file.delete();
+        }
+    }
+}
@@ -1,19 +1,45 @@
 package psimulator.dataLayer.Simulator;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.awt.Color;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.table.AbstractTableModel;
 import psimulator.dataLayer.SimulatorEvents.SimulatorEventWithDetails;
+import shared.SimulatorEvents.SerializedComponents.PacketType;
+import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
 
 /**
+ * Table model of simulator events. Events are kept in EventStore, table is
+ * notified about new events at most once per NOTIFY_DELAY ms. Positions in
+ * the list can be ahead of rows the table knows about, so publishPendingRows
+ * has to be called before the position is shown in the table.
  *
  * @author Martin Švihlík <svihlma1 at fit.cvut.cz>
  */
 public class EventTableModel extends AbstractTableModel {
 
 	private static final long serialVersionUID = 1529886210107627921L;
-	private List<SimulatorEventWithDetails> eventList;
+    /**
+     * Classes of columns, see SimulatorEventWithDetails.getValueAt.
+     */
+    private static final Class<?>[] COLUMN_CLASSES = {Long.class, String.class, String.class, PacketType.class, Color.class};
+    /**
+     * Delay of notification of table about new events (one frame), events
+     * added meanwhile are announced together.
+     */
+    private static final int NOTIFY_DELAY = 16;
+    //
+    private final EventStore eventStore;
+    /**
+     * Number of rows the table knows about. Used only in event dispatch thread.
+     */
+    private int tableRowCount = 0;
+    private final AtomicBoolean notifyPending = new AtomicBoolean(false);
+    private final Timer notifyTimer;
     /**
      * Flag set to true when all events deleted. 
      */
@@ -32,7 +58,17 @@ public class EventTableModel extends AbstractTableModel {
     private final Object lock = new Object();
 
     public EventTableModel() {
-        eventList = Collections.synchronizedList(new ArrayList<SimulatorEventWithDetails>());
+        eventStore = new EventStore();
+
+        notifyTimer = new Timer(NOTIFY_DELAY, new ActionListener() {
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                notifyPending.set(false);
+                updateTable(false);
+            }
+        });
+        notifyTimer.setRepeats(false);
 
         isInTheList = false;
         currentPositionInList = 0;
@@ -56,15 +92,27 @@ public class EventTableModel extends AbstractTableModel {
         }
     }
 
+    /**
+     * Gets number of rows the table was notified about, use getEventCount
+     * outside of the table.
+     * @return
+     */
     @Override
     public int getRowCount() {
-        return eventList.size();
-    
+        return tableRowCount;
+    }
+
+    /**
+     * Gets number of all events.
+     * @return
+     */
+    public int getEventCount() {
+        return eventStore.size();
     }
 
     @Override
     public int getColumnCount() {
-        return 5;
+        return COLUMN_CLASSES.length;
     }
 
     /**
@@ -75,9 +123,11 @@ public class EventTableModel extends AbstractTableModel {
      */
     @Override
     public Object getValueAt(int i, int i1) {
-        synchronized (lock) {
-            return eventList.get(i).getValueAt(i1);
+        SimulatorEventWithDetails event = eventStore.get(i);
+        if (event == null) {
+            return null;
         }
+        return event.getValueAt(i1);
     }
 
     /**
@@ -87,9 +137,7 @@ public class EventTableModel extends AbstractTableModel {
      */
     @Override
     public Class getColumnClass(int c) {
-        synchronized (lock) {
-            return getValueAt(0, c).getClass();
-        }
+        return COLUMN_CLASSES[c];
     }
 
     /**
@@ -102,7 +150,7 @@ public class EventTableModel extends AbstractTableModel {
             if (position < 0) {
                 currentPositionInList = 0;
                 isInTheList = false;
-            } else if(position <= eventList.size() - 1){
+            } else if(position <= eventStore.size() - 1){
                 currentPositionInList = position;
                 isInTheList = true;
             }
@@ -115,7 +163,7 @@ public class EventTableModel extends AbstractTableModel {
      */
     public boolean canMoveToNextEvent(){
          synchronized (lock) {
-             if(currentPositionInList < eventList.size() - 1){
+             if(currentPositionInList < eventStore.size() - 1){
                  return true;
              }else{
                  return false;
@@ -129,13 +177,13 @@ public class EventTableModel extends AbstractTableModel {
     public void moveToNextEvent() {
         synchronized (lock) {
             // next when not in the list (start playing)
-            if(isInTheList == false && currentPositionInList == 0 && eventList.size() > 0){
+            if(isInTheList == false && currentPositionInList == 0 && eventStore.size() > 0){
                 currentPositionInList = 0;
                 isInTheList = true;
                 return;
             }
-            // classical next 
-            if (currentPositionInList < eventList.size() - 1) {
+            // classical next
+            if (currentPositionInList < eventStore.size() - 1) {
                 currentPositionInList++;
                 isInTheList = true;
             }
@@ -147,13 +195,7 @@ public class EventTableModel extends AbstractTableModel {
      * @return 
      */
     public SimulatorEventWithDetails getNextEvent(){
-        synchronized (lock) {
-            if(eventList.size() > 0 && currentPositionInList < eventList.size() - 1){
-                return eventList.get(currentPositionInList+1);
-            }else{
-                return null;
-            }
-        }
+        return eventStore.get(currentPositionInList + 1);
     }
 
     /**
@@ -173,7 +215,7 @@ public class EventTableModel extends AbstractTableModel {
      */
     public void moveToFirstEvent() {
         synchronized (lock) {
-            if (eventList.size() > 0) {
+            if (eventStore.size() > 0) {
                 currentPositionInList = 0;
                 isInTheList = true;
             }
@@ -185,8 +227,8 @@ public class EventTableModel extends AbstractTableModel {
      */
     public void moveToLastEvent() {
         synchronized (lock) {
-            if (eventList.size() > 0) {
-                currentPositionInList = eventList.size() - 1;
+            if (eventStore.size() > 0) {
+                currentPositionInList = eventStore.size() - 1;
                 isInTheList = true;
             }
         }
@@ -198,26 +240,28 @@ public class EventTableModel extends AbstractTableModel {
      * @return 
      */
     public SimulatorEventWithDetails moveToLastEventAndReturn(){
+        EventStore.Snapshot snapshot = eventStore.snapshot();
         synchronized (lock) {
-            if (eventList.size() > 0) {
-                currentPositionInList = eventList.size() - 1;
+            if (snapshot.size() > 0) {
+                currentPositionInList = snapshot.size() - 1;
                 isInTheList = true;
-                return eventList.get(currentPositionInList);
+                return snapshot.get(currentPositionInList);
             }
             return null;
         }
     }
 
     /**
-     * Adds simulator event.
+     * Adds simulator event. Table is notified later together with other
+     * events added meanwhile.
      * @param simulatorEvent 
      */
     public void addSimulatorEvent(SimulatorEventWithDetails simulatorEvent) {
-        synchronized (lock) {
-            eventList.add(simulatorEvent);
-            timeReset = false;
+        eventStore.add(simulatorEvent);
+        timeReset = false;
 
-            this.fireTableRowsInserted(eventList.size() - 1, eventList.size() - 1);
+        if (notifyPending.compareAndSet(false, true)) {
+            notifyTimer.restart();
         }
     }
 
@@ -228,14 +272,13 @@ public class EventTableModel extends AbstractTableModel {
         synchronized (lock) {
             timeReset = true;
 
-            int listSize = eventList.size();
-            eventList.clear();
+            eventStore.clear();
 
             currentPositionInList = 0;
             isInTheList = false;
-
-            this.fireTableRowsDeleted(0, listSize);
         }
+
+        resetTable();
     }
 
     /**
@@ -244,13 +287,7 @@ public class EventTableModel extends AbstractTableModel {
      * @return 
      */
     public SimulatorEventWithDetails getSimulatorEvent(int i) {
-        synchronized (lock) {
-            if(eventList.size()>i){
-                return eventList.get(i);
-            }else{
-                return null;
-            }
-        }
+        return eventStore.get(i);
     }
 
     /**
@@ -258,9 +295,7 @@ public class EventTableModel extends AbstractTableModel {
      * @return 
      */
     public boolean hasEvents() {
-        synchronized (lock) {
-            return !eventList.isEmpty();
-        }
+        return eventStore.size() > 0;
     }
 
     /**
@@ -268,32 +303,77 @@ public class EventTableModel extends AbstractTableModel {
      * @return 
      */
     public boolean isTimeReset() {
+        return timeReset;
+    }
+
+    /**
+     * Gets snapshot of events, it does not change when new events come.
+     * @return
+     */
+    public EventStore.Snapshot getEventsSnapshot() {
+        return eventStore.snapshot();
+    }
+
+    /**
+     * Gets copy of all events without details.
+     * @return
+     */
+    public List<SimulatorEvent> getSimulatorEventsCopy() {
+        return eventStore.getSimulatorEventsCopy();
+    }
+
+    /**
+     * Replaces all events with given events.
+     * @param simulatorEvents
+     */
+    public void setEventList(List<SimulatorEventWithDetails> simulatorEvents) {
         synchronized (lock) {
-            return timeReset;
+            eventStore.clear();
+            eventStore.addAll(simulatorEvents);
         }
+
+        resetTable();
     }
 
     /**
-     * Gets copy of event list. Simualtor events are not copied deeply.
-     * @return 
+     * Notifies table about all events added so far, so that every position
+     * in the list is a row of the table. Called in event dispatch thread.
      */
-    public List<SimulatorEventWithDetails> getEventListCopy() {
-        synchronized (lock) {
-            List<SimulatorEventWithDetails> copy = new ArrayList<>(eventList);
-            return copy;
+    public void publishPendingRows() {
+        updateTable(false);
+    }
+
+    /**
+     * Notifies table that all rows changed.
+     */
+    private void resetTable() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            updateTable(true);
+        } else {
+            SwingUtilities.invokeLater(new Runnable() {
+
+                @Override
+                public void run() {
+                    updateTable(true);
+                }
+            });
         }
     }
 
     /**
-     * Sets event list.
-     * @param eventList 
+     * Notifies table about events added since the last notification. Called
+     * in event dispatch thread.
+     * @param reset true if events were replaced
      */
-    public void setEventList(List<SimulatorEventWithDetails> eventList) {
-        synchronized (lock) {
-            // set event list
-            this.eventList = eventList;
-            // fire event
-            this.fireTableRowsInserted(0, eventList.size());
+    private void updateTable(boolean reset) {
+        int size = eventStore.size();
+        if (reset) {
+            tableRowCount = size;
+            this.fireTableDataChanged();
+        } else if (size > tableRowCount) {
+            int first = tableRowCount;
+            tableRowCount = size;
+            this.fireTableRowsInserted(first, size - 1);
         }
     }
 }
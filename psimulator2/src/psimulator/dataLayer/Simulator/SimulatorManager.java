@@ -3,6 +3,7 @@ package psimulator.dataLayer.Simulator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.SwingUtilities;
 
@@ -47,6 +48,11 @@ public class SimulatorManager extends Observable implements SimulatorManagerInte
     //private volatile int currentPositionInList = 0;
     //
     private EventTableModel eventTableModel;
+    /**
+     * True if observers will be notified about new packet, packets received
+     * meanwhile do not need another notification.
+     */
+    private final AtomicBoolean newPacketPending = new AtomicBoolean(false);
 
     public SimulatorManager(DataLayerFacade dataLayerFacade) {
         this.dataLayerFacade = dataLayerFacade;
@@ -315,7 +321,7 @@ public class SimulatorManager extends Observable implements SimulatorManagerInte
 
     @Override
     public void setPlayingActivated() {
-        if (eventTableModel.getRowCount() <= 0) {
+        if (eventTableModel.getEventCount() <= 0) {
             // if nothing to play - stop playing (the toggle button is deselected )
             setPlayingStopped();
             return;
@@ -364,10 +370,16 @@ public class SimulatorManager extends Observable implements SimulatorManagerInte
     }
 
     private void setNewPacketRecieved() {
+        if (!newPacketPending.compareAndSet(false, true)) {
+            // observers were not notified about previous packet yet
+            return;
+        }
+
         SwingUtilities.invokeLater(new Runnable() {
 
             @Override
             public void run() {
+                newPacketPending.set(false);
                 // notify all observers
                 setChanged();
                 notifyObservers(ObserverUpdateEventType.SIMULATOR_NEW_PACKET);
@@ -533,7 +545,7 @@ public class SimulatorManager extends Observable implements SimulatorManagerInte
      */
     @Override
     public int getListSize() {
-        return eventTableModel.getRowCount();
+        return eventTableModel.getEventCount();
     }
 
     /**
@@ -586,16 +598,19 @@ public class SimulatorManager extends Observable implements SimulatorManagerInte
 
     @Override
     public boolean hasAllEventsItsComponentsInModel() {
-        return checkSimulatorEvents(eventTableModel.getEventListCopy());
+        EventStore.Snapshot snapshot = eventTableModel.getEventsSnapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            SimulatorEvent simulatorEvent = snapshot.getSimulatorEvent(i);
+            if (simulatorEvent == null || !checkSimulatorEvent(simulatorEvent)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public SimulatorEventsWrapper getSimulatorEventsCopy() {
-        List<SimulatorEvent> simulatorEvents = new ArrayList<>();
-
-        for (SimulatorEventWithDetails eventWithDetails : eventTableModel.getEventListCopy()) {
-            simulatorEvents.add(eventWithDetails.getSimulatorEvent());
-        }
+        List<SimulatorEvent> simulatorEvents = eventTableModel.getSimulatorEventsCopy();
 
         SimulatorEventsWrapper simulatorEventsWrapper = new SimulatorEventsWrapper(simulatorEvents);
 
@@ -653,25 +668,23 @@ public class SimulatorManager extends Observable implements SimulatorManagerInte
     }
 
     /**
-     * Checks if all simulator events has hw components and cables in
+     * Checks if simulator event has hw components and cable in
      * NetworkModel
      *
-     * @param simulatorEventsWithDetails
+     * @param simulatorEvent
      * @return true if OK, flase if ERROR
      */
-    private boolean checkSimulatorEvents(List<SimulatorEventWithDetails> simulatorEventsWithDetails) {
-        for (SimulatorEventWithDetails eventWithDetails : simulatorEventsWithDetails) {
-            if (dataLayerFacade.getNetworkFacade().getHwComponentModelById(eventWithDetails.getSourcceId()) == null) {
+    private boolean checkSimulatorEvent(SimulatorEvent simulatorEvent) {
+        if (dataLayerFacade.getNetworkFacade().getHwComponentModelById(simulatorEvent.getSourcceId()) == null) {
+            return false;
+        }
+        
+        if(simulatorEvent.getEventType() != EventType.LOST_IN_DEVICE){
+            if (dataLayerFacade.getNetworkFacade().getHwComponentModelById(simulatorEvent.getDestId()) == null) {
                 return false;
             }
-            
-            if(eventWithDetails.getEventType() != EventType.LOST_IN_DEVICE){
-                if (dataLayerFacade.getNetworkFacade().getHwComponentModelById(eventWithDetails.getDestId()) == null) {
-                    return false;
-                }
-                if (dataLayerFacade.getNetworkFacade().getCableModelById(eventWithDetails.getCableId()) == null) {
-                    return false;
-                }
+            if (dataLayerFacade.getNetworkFacade().getCableModelById(simulatorEvent.getCableId()) == null) {
+                return false;
             }
         }
         return true;
@@ -122,6 +122,22 @@ public class SimulatorEventWithDetails {
         return simulatorEvent.getDetailsText();
     }
 
+    /**
+     * Gets name of source component when the event was created.
+     * @return 
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets name of destination component when the event was created.
+     * @return 
+     */
+    public String getTo() {
+        return to;
+    }
+
     public HwComponentModel getComponent1() {
         return component1;
     }
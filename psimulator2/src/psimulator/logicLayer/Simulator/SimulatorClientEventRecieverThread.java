@@ -6,6 +6,8 @@ import java.io.ObjectOutputStream;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Random;
@@ -19,6 +21,8 @@ import psimulator.dataLayer.Simulator.SimulatorManagerInterface;
 import psimulator.userInterface.UserInterfaceOuterFacade;
 import psimulator.userInterface.SimulatorEditor.UserInterfaceMainPanelState;
 import shared.NetworkObject;
+import shared.SimulatorEvents.BinaryEventDecoder;
+import shared.SimulatorEvents.EventStreamRequest;
 import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
 import shared.telnetConfig.TelnetConfig;
 
@@ -45,6 +49,14 @@ public class SimulatorClientEventRecieverThread implements Runnable, Observer {
     private Socket clientSocket;
     private ObjectInputStream inputStream;
     private ObjectOutputStream outputStream;
+    /**
+     * Decoder of binary event stream, null when server sends serialized objects.
+     */
+    private BinaryEventDecoder decoder;
+    /**
+     * Events decoded from last frame, which were not yet processed.
+     */
+    private Deque<NetworkObject> pendingObjects = new ArrayDeque<>();
 
     public SimulatorClientEventRecieverThread(DataLayerFacade dataLayer, UserInterfaceOuterFacade userInterfaceOuterFacade) {
     	this.dataLayer = dataLayer;
@@ -215,6 +227,8 @@ public class SimulatorClientEventRecieverThread implements Runnable, Observer {
 
         // have to create output stream first, if output not created, than input cant be created
         outputStream = new ObjectOutputStream(clientSocket.getOutputStream());
+        // ask for binary event stream, older server just ignores it
+        outputStream.writeObject(new EventStreamRequest());
         // have to flush
         outputStream.flush();
 
@@ -261,6 +275,8 @@ public class SimulatorClientEventRecieverThread implements Runnable, Observer {
         inputStream = null;
         outputStream = null;
         clientSocket = null;
+        decoder = null;
+        pendingObjects.clear();
     }
 
     private boolean recieveTableWithTelnetPorts() {
@@ -269,7 +285,15 @@ public class SimulatorClientEventRecieverThread implements Runnable, Observer {
 
         try {
             while (true) {
-                TelnetConfig telnetConfig = (TelnetConfig) inputStream.readObject();
+                Object object = inputStream.readObject();
+
+                // server confirmed binary event stream before telnet config (former version of server)
+                if (object instanceof EventStreamRequest) {
+                    decoder = new BinaryEventDecoder();
+                    continue;
+                }
+
+                TelnetConfig telnetConfig = (TelnetConfig) object;
 
                 // if read timeouted
                 if (telnetConfig == null) {
@@ -307,7 +331,20 @@ public class SimulatorClientEventRecieverThread implements Runnable, Observer {
         }
 
         try {        	
-            NetworkObject networkObject = (NetworkObject) inputStream.readObject();
+            NetworkObject networkObject;
+            if (decoder != null) {
+                networkObject = readFromBinaryStream();
+                if (!(networkObject instanceof SimulatorEvent)) {   // nothing came or it is not an event
+                    return null;
+                }
+            } else {
+                networkObject = (NetworkObject) inputStream.readObject();
+                // server confirmed binary event stream, next events come in frames
+                if (networkObject instanceof EventStreamRequest) {
+                    decoder = new BinaryEventDecoder();
+                    return null;
+                }
+            }
 
             SimulatorEvent simulatorEvent = (SimulatorEvent) networkObject;
 
@@ -331,6 +368,25 @@ public class SimulatorClientEventRecieverThread implements Runnable, Observer {
         }
     }
 
+    /**
+     * Returns next object from binary event stream, reads new frame when all objects from the last one were taken.
+     *
+     * @return null if no frame came before socket timeout
+     */
+    private NetworkObject readFromBinaryStream() throws IOException, ClassNotFoundException {
+        if (pendingObjects.isEmpty()) {
+            int length = decoder.readFrameLength(inputStream);  // may time out, nothing is read then
+            int timeout = clientSocket.getSoTimeout();
+            clientSocket.setSoTimeout(0);   // frame is already on the way, timeout inside it would break the stream
+            try {
+                pendingObjects.addAll(decoder.readFrame(inputStream, length));
+            } finally {
+                clientSocket.setSoTimeout(timeout);
+            }
+        }
+        return pendingObjects.poll();
+    }
+
     private void doConnect() {
         doConnect = false;
 
@@ -0,0 +1,186 @@
+/*
+ * created 18.10.2026
+ */
+package psimulator.userInterface.SimulatorEditor.AnimationPanel;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import psimulator.dataLayer.DataLayerFacade;
+import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AbstractAnimation;
+import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AnimationLostInCable;
+import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AnimationLostInDevice;
+import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AnimationSuccessful;
+import shared.SimulatorEvents.SerializedComponents.EventType;
+import shared.SimulatorEvents.SerializedComponents.PacketType;
+
+/**
+ * Runs animations of packets for AnimationPanel.
+ *
+ * Running animations are kept in array of slots allocated for the maximal
+ * number of animations, finished animations are returned to pools and used
+ * again for next packets. Whole engine is moved by one tick of timing source,
+ * animations have no own timers.
+ *
+ * Packets of the same type going the same way (same source, destination and
+ * event type) within coalesce window are shown by one animation with count
+ * of packets. When the maximal number of animations is reached, new packet
+ * joins running animation going the same way regardless of the window, or it
+ * is not animated at all.
+ *
+ * Maximal number of animations and coalesce window (in ms) can be set by
+ * system properties psimulator2.maxAnimations (default 500) and
+ * psimulator2.animationCoalesceWindow (default 100).
+ *
+ * Animations are created by simulator player thread and moved and painted in
+ * event dispatch thread, all public methods are synchronized.
+ */
+class AnimationEngine {
+
+    private static final int MAX_ANIMATIONS = Math.max(Integer.getInteger("psimulator2.maxAnimations", 500), 1);
+    private static final long COALESCE_WINDOW_NANOS = Math.max(Long.getLong("psimulator2.animationCoalesceWindow", 100), 0) * 1000000L;
+    //
+    private final AnimationPanel animationPanel;
+    private final DataLayerFacade dataLayer;
+    //
+    private final AbstractAnimation[] slots = new AbstractAnimation[MAX_ANIMATIONS];
+    private int size = 0;
+    // finished animations ready to use
+    private final EnumMap<EventType, ArrayDeque<AbstractAnimation>> pools = new EnumMap<>(EventType.class);
+    // the last started animation for each direction (source and destination)
+    private final HashMap<Long, AbstractAnimation> lastByDirection = new HashMap<>();
+
+    AnimationEngine(AnimationPanel animationPanel, DataLayerFacade dataLayer) {
+        this.animationPanel = animationPanel;
+        this.dataLayer = dataLayer;
+
+        for (EventType eventType : EventType.values()) {
+            pools.put(eventType, new ArrayDeque<AbstractAnimation>());
+        }
+    }
+
+    /**
+     * Starts animation of packet or adds the packet to running animation.
+     *
+     * @param packetType
+     * @param timeInMiliseconds
+     * @param idSource
+     * @param idDestination
+     * @param src start point in default zoom
+     * @param dest end point in default zoom
+     * @param eventType
+     */
+    synchronized void add(PacketType packetType, int timeInMiliseconds, int idSource, int idDestination,
+            Point src, Point dest, EventType eventType) {
+        long now = System.nanoTime();
+        Long direction = ((long) idSource << 32) | (idDestination & 0xFFFFFFFFL);
+
+        AbstractAnimation last = lastByDirection.get(direction);
+        if (last != null && last.isVisible() && last.isSameKind(packetType, idSource, idDestination, eventType)
+                && (now - last.getStartNanos() <= COALESCE_WINDOW_NANOS || size >= MAX_ANIMATIONS)) {
+            last.addPacket();
+            return;
+        }
+
+        if (size >= MAX_ANIMATIONS) {
+            // too many animations, packet is not animated
+            return;
+        }
+
+        AbstractAnimation animation = pools.get(eventType).poll();
+        if (animation == null) {
+            animation = createAnimation(eventType);
+        }
+        animation.start(packetType, idSource, idDestination, src, dest, timeInMiliseconds, eventType, now);
+
+        slots[size++] = animation;
+        lastByDirection.put(direction, animation);
+    }
+
+    /**
+     * Moves all animations and repaints areas where they moved. Finished
+     * animations are returned to pool.
+     *
+     * @param nanoTime
+     */
+    synchronized void tick(long nanoTime) {
+        int i = 0;
+        while (i < size) {
+            AbstractAnimation animation = slots[i];
+            if (animation.tick(nanoTime)) {
+                // last animation takes place of finished one
+                size--;
+                slots[i] = slots[size];
+                slots[size] = null;
+                release(animation);
+            } else {
+                animationPanel.repaintArea(animation.takeDirtyBounds());
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Paints animations which intersect the clip.
+     *
+     * @param g2
+     * @param clip can be null
+     */
+    synchronized void paint(Graphics2D g2, Rectangle clip) {
+        for (int i = 0; i < size; i++) {
+            AbstractAnimation animation = slots[i];
+            // paint only animations in repainted area
+            if (clip != null && !clip.intersects(animationPanel.grow(animation.getBounds()))) {
+                continue;
+            }
+            animation.paintComponent(g2);
+            animation.paintCount(g2);
+        }
+    }
+
+    /**
+     * Stops all animations.
+     */
+    synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            release(slots[i]);
+            slots[i] = null;
+        }
+        size = 0;
+        lastByDirection.clear();
+    }
+
+    /**
+     * Returns number of running animations.
+     *
+     * @return
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void release(AbstractAnimation animation) {
+        // clear the last painted image of animation
+        Rectangle bounds = animation.getPaintedBounds();
+        if (bounds != null) {
+            animationPanel.repaintArea(new Rectangle(bounds));
+        }
+        animation.stop();
+        pools.get(animation.getEventType()).add(animation);
+    }
+
+    private AbstractAnimation createAnimation(EventType eventType) {
+        switch (eventType) {
+            case SUCCESSFULLY_TRANSMITTED:
+                return new AnimationSuccessful(animationPanel, dataLayer);
+            case LOST_IN_CABLE:
+                return new AnimationLostInCable(animationPanel, dataLayer);
+            case LOST_IN_DEVICE:
+            default:
+                return new AnimationLostInDevice(animationPanel, dataLayer);
+        }
+    }
+}
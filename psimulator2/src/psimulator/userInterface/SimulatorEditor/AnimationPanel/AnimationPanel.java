@@ -2,11 +2,8 @@ package psimulator.userInterface.SimulatorEditor.AnimationPanel;
 
 import java.awt.*;
 //import java.awt.geom.GeneralPath;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
-import java.util.concurrent.CopyOnWriteArrayList;
 import org.jdesktop.core.animation.timing.TimingSource;
 import org.jdesktop.core.animation.timing.TimingSource.PostTickListener;
 import psimulator.dataLayer.DataLayerFacade;
@@ -14,10 +11,6 @@ import psimulator.dataLayer.Enums.ObserverUpdateEventType;
 import shared.SimulatorEvents.SerializedComponents.PacketType;
 import psimulator.dataLayer.Singletons.TimerKeeperSingleton;
 import psimulator.userInterface.MainWindowInnerInterface;
-import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AbstractAnimation;
-import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AnimationLostInCable;
-import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AnimationLostInDevice;
-import psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations.AnimationSuccessful;
 import psimulator.userInterface.SimulatorEditor.DrawPanel.Components.CableGraphic;
 import psimulator.userInterface.SimulatorEditor.DrawPanel.DrawPanelOuterInterface;
 import psimulator.userInterface.SimulatorEditor.DrawPanel.Enums.PacketImageType;
@@ -33,13 +26,15 @@ public class AnimationPanel extends AnimationPanelOuterInterface implements Anim
     //
 
 	private static final long serialVersionUID = -387961393096199688L;
+    // margin around repainted areas of animations, for antialiasing
+    private static final int DIRTY_MARGIN = 2;
 	//private static final TimingSource f_repaintTimer = new SwingTimerTimingSource();
     private PostTickListener postTickListener;
     //
     private DataLayerFacade dataLayer;
     private Graph graph;
     //
-    private List<AbstractAnimation> animations;
+    private AnimationEngine animations;
     //
 
     public AnimationPanel(MainWindowInnerInterface mainWindow, UserInterfaceMainPanelInnerInterface editorPanel,
@@ -54,17 +49,18 @@ public class AnimationPanel extends AnimationPanelOuterInterface implements Anim
         // set opacity
         this.setOpaque(false);
 
-        // CopyOnWrite is good for:
-        //  - reads hugely outnumber writes (paint component every 15ms)
-        //  - the array is small (or writes are very infrequent)
-        animations = new CopyOnWriteArrayList<>();
+        // pooled animations moved by ticks of timing source
+        animations = new AnimationEngine(this, dataLayer);
 
         // create post tick listener
         postTickListener = new TimingSource.PostTickListener() {
 
             @Override
             public void timingSourcePostTick(TimingSource source, long nanoTime) {
-                repaint();
+                // moves animations and repaints only areas where they moved (old and new
+                // position of each packet image), graph under them is copied from picture
+                // in draw panel
+                animations.tick(nanoTime);
             }
         };
 
@@ -84,11 +80,7 @@ public class AnimationPanel extends AnimationPanelOuterInterface implements Anim
 
         Graphics2D g2 = (Graphics2D) g;
 
-        Iterator<AbstractAnimation> it = animations.iterator();
-        while (it.hasNext()) {
-            AbstractAnimation animation = it.next();
-            animation.paintComponent(g2);
-        }
+        animations.paint(g2, g2.getClipBounds());
 
         Toolkit.getDefaultToolkit().sync();
         g.dispose();
@@ -118,6 +110,20 @@ public class AnimationPanel extends AnimationPanelOuterInterface implements Anim
         }
     }
 
+    /**
+     * Repaints area of animation, with margin for antialiasing.
+     *
+     * @param rectangle area in actual zoom, it is changed
+     */
+    void repaintArea(Rectangle rectangle) {
+        repaint(grow(rectangle));
+    }
+
+    Rectangle grow(Rectangle rectangle) {
+        rectangle.grow(DIRTY_MARGIN, DIRTY_MARGIN);
+        return rectangle;
+    }
+
     private void connectToTimer() {
         TimerKeeperSingleton.getInstance().getTimingSource().addPostTickListener(postTickListener);
         //System.out.println("Connected to timer");
@@ -133,25 +139,9 @@ public class AnimationPanel extends AnimationPanelOuterInterface implements Anim
      * Removes all animations from list
      */
     private void removeAllAnimations() {
-        Iterator<AbstractAnimation> it = animations.iterator();
-        while (it.hasNext()) {
-            AbstractAnimation animation = it.next(); // convert X and Yto actual using zoom manager 
-            animation.stopAnimator();
-        }
-
         animations.clear();
     }
 
-    /**
-     * Removes concrete animation from animations list
-     *
-     * @param animation
-     */
-    @Override
-    public void removeAnimation(AbstractAnimation animation) {
-        animations.remove(animation);
-    }
-
     /**
      * Gets current packet image type
      * @return 
@@ -221,26 +211,8 @@ public class AnimationPanel extends AnimationPanelOuterInterface implements Anim
                 break;
          }
 
-        // create animation
-        AbstractAnimation animation;
-        switch(eventType){
-            case SUCCESSFULLY_TRANSMITTED:
-                animation = new AnimationSuccessful(this, dataLayer, packetType, src, dest, 
-                        timeInMiliseconds, eventType);
-                break;
-            case LOST_IN_CABLE:
-                animation = new AnimationLostInCable(this, dataLayer, packetType, src, dest, 
-                        timeInMiliseconds, eventType);
-                break;
-            case LOST_IN_DEVICE:
-            default:
-                animation = new AnimationLostInDevice(this, dataLayer, packetType, src, dest, 
-                        timeInMiliseconds, eventType);
-                break;
-        }
-        
-        // add animation to animations list
-        animations.add(animation);
+        // start animation from pool or add packet to running animation
+        animations.add(packetType, timeInMiliseconds, idSource, idDestination, src, dest, eventType);
     }
 
     /**
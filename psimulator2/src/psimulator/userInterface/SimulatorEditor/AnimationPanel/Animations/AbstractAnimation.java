@@ -1,11 +1,13 @@
 package psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations;
 
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
-import java.util.concurrent.TimeUnit;
-import org.jdesktop.core.animation.timing.Animator;
-import org.jdesktop.core.animation.timing.TimingTarget;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import psimulator.dataLayer.DataLayerFacade;
 import psimulator.dataLayer.Singletons.ImageFactory.ImageFactorySingleton;
 import psimulator.dataLayer.Singletons.ZoomManagerSingleton;
@@ -14,12 +16,13 @@ import shared.SimulatorEvents.SerializedComponents.EventType;
 import shared.SimulatorEvents.SerializedComponents.PacketType;
 
 /**
+ * Animation of one packet. Animations are reused, so the constructor only
+ * connects animation to the panel and every run is set up by start method.
+ * Time of animation is driven by AnimationEngine.
  *
  * @author Martin Švihlík <svihlma1 at fit.cvut.cz>
  */
-public abstract class AbstractAnimation implements TimingTarget{
-    //
-    protected Animator animator;
+public abstract class AbstractAnimation {
     //
     protected AnimationPanelInnerInterface animationPanelInnerInterface;
     protected DataLayerFacade dataLayer;
@@ -40,18 +43,43 @@ public abstract class AbstractAnimation implements TimingTarget{
     protected EventType eventType;
     //
     protected double fraction;
-    
+    //
+    private Rectangle paintedBounds;
+    //
+    private int idSource;
+    private int idDestination;
+    private long startNanos;
+    private long durationNanos;
+    // number of packets shown by this animation
+    private int count;
+
     public AbstractAnimation(final AnimationPanelInnerInterface animationPanelInnerInterface,
-            DataLayerFacade dataLayer,
-            PacketType packetType, Point defaultZoomSource, Point defaultZoomDest,
-            int durationInMilliseconds,
-            EventType eventType) {
+            DataLayerFacade dataLayer) {
 
         this.dataLayer = dataLayer;
         this.animationPanelInnerInterface = animationPanelInnerInterface;
+    }
+
+    /**
+     * Sets up animation for new packet.
+     *
+     * @param packetType
+     * @param idSource
+     * @param idDestination
+     * @param defaultZoomSource
+     * @param defaultZoomDest
+     * @param durationInMilliseconds
+     * @param eventType
+     * @param nanoTime start time
+     */
+    public void start(PacketType packetType, int idSource, int idDestination,
+            Point defaultZoomSource, Point defaultZoomDest,
+            int durationInMilliseconds, EventType eventType, long nanoTime) {
         //
         this.packetType = packetType;
         this.eventType = eventType;
+        this.idSource = idSource;
+        this.idDestination = idDestination;
 
         // get image
         image = ImageFactorySingleton.getInstance().getPacketImage(packetType, animationPanelInnerInterface.getPacketImageType(),
@@ -65,23 +93,72 @@ public abstract class AbstractAnimation implements TimingTarget{
         defaultZoomEndX = defaultZoomDest.x;
         defaultZoomEndY = defaultZoomDest.y;
 
-        // create animator      
-        animator = new Animator.Builder().setDuration(durationInMilliseconds, TimeUnit.MILLISECONDS).
-                setStartDirection(Animator.Direction.FORWARD).
-                addTarget((TimingTarget) this).build();
+        startNanos = nanoTime;
+        durationNanos = Math.max(durationInMilliseconds, 1) * 1000000L;
+        count = 1;
+        paintedBounds = null;
 
-        animator.start();
+        fraction = 0.0;
+        move(0.0);
+        visible = true;
     }
-    
-    
-        /**
+
+    /**
+     * Moves animation to given time.
+     *
+     * @param nanoTime
+     * @return true if animation is finished
+     */
+    public boolean tick(long nanoTime) {
+        double elapsed = (double) (nanoTime - startNanos) / durationNanos;
+        this.fraction = Math.min(Math.max(elapsed, 0.0), 1.0);
+        move(fraction);
+        return elapsed >= 1.0;
+    }
+
+    /**
      * Stops the animation
      */
-    public void stopAnimator() {
-        animator.stop();
+    public void stop() {
+        visible = false;
+        paintedBounds = null;
+    }
+
+    /**
+     * Adds packet to this animation, more packets are shown by count.
+     */
+    public void addPacket() {
+        count++;
     }
-    
-    
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Finds if animation shows packet of the same kind going the same way.
+     *
+     * @param packetType
+     * @param idSource
+     * @param idDestination
+     * @param eventType
+     * @return
+     */
+    public boolean isSameKind(PacketType packetType, int idSource, int idDestination, EventType eventType) {
+        return this.packetType == packetType && this.idSource == idSource
+                && this.idDestination == idDestination && this.eventType == eventType;
+    }
+
+    /**
+     * Gets start time of animation in nanoseconds.
+     *
+     * @return
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+
     /**
      * Returns image of animation in actual zoom sizes
      *
@@ -110,8 +187,93 @@ public abstract class AbstractAnimation implements TimingTarget{
     public int getY() {
         return (int) ZoomManagerSingleton.getInstance().doScaleToActual(defaultZoomStartY + defautlZoomHeightDifference - (ZoomManagerSingleton.getInstance().getPackageIconWidthDefaultZoom() / 2.0));
     }
-    
-    
+
+    /**
+     * Gets bounds of animated image (and count of packets) in actual zoom.
+     *
+     * @return
+     */
+    public Rectangle getBounds() {
+        Image img = getImage();
+        Rectangle bounds = new Rectangle(getX(), getY(), img.getWidth(null), img.getHeight(null));
+        if (count > 1) {
+            bounds.add(getCountBounds(bounds));
+        }
+        return bounds;
+    }
+
+    /**
+     * Gets area which has to be repainted after move of animation - old and
+     * new bounds of animated image in actual zoom. New bounds are remembered
+     * for the next call.
+     *
+     * @return
+     */
+    public Rectangle takeDirtyBounds() {
+        Rectangle bounds = getBounds();
+        Rectangle dirty = paintedBounds == null ? new Rectangle(bounds) : bounds.union(paintedBounds);
+        paintedBounds = bounds;
+        return dirty;
+    }
+
+    /**
+     * Gets bounds of animated image from the last call of takeDirtyBounds,
+     * null if not called yet.
+     *
+     * @return
+     */
+    public Rectangle getPaintedBounds() {
+        return paintedBounds;
+    }
+
+    /**
+     * Paints number of packets in the upper right corner of image, if there
+     * is more than one packet.
+     *
+     * @param g2
+     */
+    public void paintCount(Graphics2D g2) {
+        if (count <= 1) {
+            return;
+        }
+
+        Image img = getImage();
+        Rectangle badge = getCountBounds(new Rectangle(getX(), getY(), img.getWidth(null), img.getHeight(null)));
+
+        Font tmpFont = g2.getFont();
+        Color tmpColor = g2.getColor();
+
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+
+        g2.setColor(Color.RED);
+        g2.fillRoundRect(badge.x, badge.y, badge.width, badge.height, badge.height, badge.height);
+
+        g2.setFont(tmpFont.deriveFont(Font.BOLD, badge.height * 0.75f));
+        FontMetrics metrics = g2.getFontMetrics();
+        String text = getCountText();
+        g2.setColor(Color.WHITE);
+        g2.drawString(text, badge.x + (badge.width - metrics.stringWidth(text)) / 2,
+                badge.y + (badge.height - metrics.getHeight()) / 2 + metrics.getAscent());
+
+        g2.setFont(tmpFont);
+        g2.setColor(tmpColor);
+    }
+
+    private String getCountText() {
+        return count > 99 ? "99+" : String.valueOf(count);
+    }
+
+    /**
+     * Gets bounds of count of packets for image with given bounds.
+     */
+    private Rectangle getCountBounds(Rectangle imageBounds) {
+        int height = Math.max(imageBounds.height / 2, 8);
+        int width = height + (getCountText().length() - 1) * height / 2;
+        return new Rectangle(imageBounds.x + imageBounds.width - width / 2, imageBounds.y - height / 2, width, height);
+    }
+
+
     /**
      * Finds if visible
      *
@@ -135,43 +297,14 @@ public abstract class AbstractAnimation implements TimingTarget{
     public EventType getEventType() {
         return eventType;
     }
-    
-    
-    // ---------- TimingTarget implementation ------------------- //
-    @Override
-    public void begin(Animator source) {
-        // nothing to do
-    }
-
-    @Override
-    public void end(Animator source) {
-        // at the end of animation remove itself from animation pane
-        animationPanelInnerInterface.removeAnimation(this);
-    }
-
-    @Override
-    public void repeat(Animator source) {
-        // nothing to do
-    }
 
-    @Override
-    public void reverse(Animator source) {
-        // nothing to do
-    }
-
-    @Override
-    public void timingEvent(Animator source, double fraction) {
-        this.fraction = fraction;
-        move(fraction);
-    }
-    
     /**
      * Moves image coordinates according to elapsed fraction of time.
      *
      * @param fraction
      */
     protected abstract void move(double fraction);
-    
+
     public abstract void paintComponent(Graphics2D g2);
 
 }
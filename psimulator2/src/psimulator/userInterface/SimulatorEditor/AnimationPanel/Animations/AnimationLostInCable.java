@@ -4,8 +4,6 @@ import java.awt.*;
 import java.awt.geom.GeneralPath;
 import psimulator.dataLayer.DataLayerFacade;
 import psimulator.userInterface.SimulatorEditor.AnimationPanel.AnimationPanelInnerInterface;
-import shared.SimulatorEvents.SerializedComponents.EventType;
-import shared.SimulatorEvents.SerializedComponents.PacketType;
 
 /**
  *
@@ -14,13 +12,9 @@ import shared.SimulatorEvents.SerializedComponents.PacketType;
 public class AnimationLostInCable extends AbstractAnimation {
 
     public AnimationLostInCable(AnimationPanelInnerInterface animationPanelInnerInterface,
-            DataLayerFacade dataLayer, PacketType packetType,
-            Point defaultZoomSource, Point defaultZoomDest,
-            int durationInMilliseconds, EventType eventType) {
+            DataLayerFacade dataLayer) {
 
-        super(animationPanelInnerInterface, dataLayer, packetType,
-                defaultZoomSource, defaultZoomDest,
-                durationInMilliseconds, eventType);
+        super(animationPanelInnerInterface, dataLayer);
     }
 
     @Override
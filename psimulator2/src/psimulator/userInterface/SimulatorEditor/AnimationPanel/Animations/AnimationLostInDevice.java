@@ -1,11 +1,8 @@
 package psimulator.userInterface.SimulatorEditor.AnimationPanel.Animations;
 
 //import java.awt.Graphics2D;
-import java.awt.Point;
 import psimulator.dataLayer.DataLayerFacade;
 import psimulator.userInterface.SimulatorEditor.AnimationPanel.AnimationPanelInnerInterface;
-import shared.SimulatorEvents.SerializedComponents.EventType;
-import shared.SimulatorEvents.SerializedComponents.PacketType;
 
 /**
  *
@@ -14,13 +11,9 @@ import shared.SimulatorEvents.SerializedComponents.PacketType;
 public class AnimationLostInDevice extends AnimationLostInCable {
 
     public AnimationLostInDevice(AnimationPanelInnerInterface animationPanelInnerInterface,
-            DataLayerFacade dataLayer, PacketType packetType,
-            Point defaultZoomSource, Point defaultZoomDest,
-            int durationInMilliseconds, EventType eventType) {
+            DataLayerFacade dataLayer) {
 
-        super(animationPanelInnerInterface, dataLayer, packetType,
-                defaultZoomSource, defaultZoomDest,
-                durationInMilliseconds, eventType);
+        super(animationPanelInnerInterface, dataLayer);
     }
     
     /*
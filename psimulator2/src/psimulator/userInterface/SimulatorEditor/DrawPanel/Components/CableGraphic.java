@@ -251,6 +251,33 @@ public class CableGraphic extends AbstractComponentGraphic {
     }
 
 
+    /**
+     * Returns how far (in actual zoom) can labels of this cable reach from its line and end components.
+     *
+     * @return
+     */
+    public int getLabelsExtent() {
+        int extent = getLabelsExtent(eth1TextImages);
+        extent = Math.max(extent, getLabelsExtent(eth2TextImages));
+        if (paintDelay && delayImage != null) {
+            extent = Math.max(extent, Math.max(delayImage.getWidth(), delayImage.getHeight()));
+        }
+        return extent;
+    }
+
+    private int getLabelsExtent(List<BufferedImage> images) {
+        if (images == null) {
+            return 0;
+        }
+        int width = 0;
+        int height = 0;
+        for (BufferedImage image : images) {
+            width = Math.max(width, image.getWidth());
+            height += image.getHeight();
+        }
+        return Math.max(width, height);
+    }
+
     private void setWhatToPaint() {
         if (dataLayer.getLevelOfDetails() == LevelOfDetailsMode.AUTO) {
             switch (ZoomManagerSingleton.getInstance().getCurrentLevelOfDetails()) {
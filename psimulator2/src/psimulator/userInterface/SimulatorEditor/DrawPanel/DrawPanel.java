@@ -2,6 +2,7 @@ package psimulator.userInterface.SimulatorEditor.DrawPanel;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
 import java.util.EnumMap;
 import java.util.Observable;
 import java.util.Observer;
@@ -53,6 +54,11 @@ public final class DrawPanel extends DrawPanelOuterInterface implements
     // variables for marking components with transparent rectangle
     private boolean rectangleInProgress = false;
     private Rectangle rectangle;
+    // picture of graph in visible part of this panel, animation panel repaints only packets and
+    // the graph is copied from this picture until it is invalidated
+    private BufferedImage graphLayer;
+    private Rectangle graphLayerBounds;
+    private boolean graphLayerValid;
     //
     private DataLayerFacade dataLayer;
     private EnumMap<DrawPanelAction, AbstractAction> actions;
@@ -108,7 +114,7 @@ public final class DrawPanel extends DrawPanelOuterInterface implements
         }
 
         if (graph != null) {
-            graph.paint(g2);
+            paintGraphLayer(g2);
         }
 
 
@@ -136,6 +142,80 @@ public final class DrawPanel extends DrawPanelOuterInterface implements
         g2.dispose();
     }
 
+    /**
+     * Marks picture of graph as invalid before every repaint of this panel.
+     * All changes of graph (marking, moving, editing) are followed by
+     * repaint of this panel. Repaints caused by animation panel do not come
+     * through this method, so they use the picture.
+     */
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+        graphLayerValid = false;
+        super.repaint(tm, x, y, width, height);
+    }
+
+    /**
+     * Paints graph from its picture. The picture is painted again when it is
+     * not valid or when visible part of this panel changed (scroll, resize).
+     *
+     * @param g2
+     */
+    private void paintGraphLayer(Graphics2D g2) {
+        Rectangle visible = getVisibleRect();
+        Rectangle clip = g2.getClipBounds();
+
+        // painting out of visible part (e.g. printing) goes without the picture
+        if (visible.isEmpty() || (clip != null && !visible.contains(clip))) {
+            graph.paint(g2);
+            return;
+        }
+
+        if (!graphLayerValid || graphLayer == null || !visible.equals(graphLayerBounds)) {
+            renderGraphLayer(visible);
+        }
+
+        g2.drawImage(graphLayer, visible.x, visible.y, null);
+    }
+
+    /**
+     * Paints graph in visible part of this panel to the picture.
+     *
+     * @param visible
+     */
+    private void renderGraphLayer(Rectangle visible) {
+        if (graphLayer == null || graphLayer.getWidth() != visible.width || graphLayer.getHeight() != visible.height) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            if (gc != null) {
+                // compatible image can be cached in video memory
+                graphLayer = gc.createCompatibleImage(visible.width, visible.height, Transparency.TRANSLUCENT);
+            } else {
+                graphLayer = new BufferedImage(visible.width, visible.height, BufferedImage.TYPE_INT_ARGB);
+            }
+        }
+
+        Graphics2D g2 = graphLayer.createGraphics();
+
+        // clear old picture
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fillRect(0, 0, visible.width, visible.height);
+        g2.setComposite(AlphaComposite.SrcOver);
+
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(getFont());
+        g2.setColor(getForeground());
+
+        g2.translate(-visible.x, -visible.y);
+        g2.setClip(visible);
+
+        graph.paint(g2);
+
+        g2.dispose();
+
+        graphLayerBounds = new Rectangle(visible);
+        graphLayerValid = true;
+    }
+
 // ====================  IMPLEMENTATION OF Observer ======================   
     /**
      * Reaction to notification from zoom manager
@@ -145,6 +225,8 @@ public final class DrawPanel extends DrawPanelOuterInterface implements
      */
     @Override
     public void update(Observable o, Object o1) {
+        // any change of zoom, graph, language or preferences changes picture of graph
+        graphLayerValid = false;
         
         switch ((ObserverUpdateEventType) o1) {
             case VIEW_DETAILS:
@@ -269,6 +351,9 @@ public final class DrawPanel extends DrawPanelOuterInterface implements
         Graph tmp = graph;
         graph = null;
 
+        graphLayer = null;
+        graphLayerValid = false;
+
         ImageFactorySingleton.getInstance().clearTextBuffers();
 
         undoManager.discardAllEdits();
@@ -284,6 +369,7 @@ public final class DrawPanel extends DrawPanelOuterInterface implements
 
         this.graph = graph;
         graph.addObserver(this);
+        graphLayerValid = false;
 
         // if graph is empty - new project is created
         if (graph.getAbstractHwComponentsCount() == 0) {
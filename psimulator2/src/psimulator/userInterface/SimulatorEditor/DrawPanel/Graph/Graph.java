@@ -31,6 +31,17 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
     private int widthDefault;
     private int heightDefault;
     //
+    private SpatialIndex<HwComponentGraphic> componentsIndex = new SpatialIndex<>();
+    private SpatialIndex<BundleOfCablesGraphic> bundlesIndex = new SpatialIndex<>();
+    /**
+     * Max extent of cable labels in actual zoom, painted area is extended by it when looking for bundles to paint.
+     */
+    private int cableLabelsExtent = 0;
+    /**
+     * Margin added to bounds of indexed items in default zoom (rounding and stroke width).
+     */
+    private static final int INDEX_MARGIN = 8;
+    //
     //private long lastEditTimestamp;
     //
     private CustomObservable customObservable = new CustomObservable();
@@ -52,6 +63,9 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         // init references
         setInitReferencesToComponents(dataLayer);
 
+        // components have sizes now, build spatial index
+        rebuildSpatialIndex();
+
         // update size of graph with all components
         updateSizeWithAllComponents();
 
@@ -130,6 +144,9 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
             boc.doUpdateImages();
         }
 
+        // sizes of texts changed
+        rebuildSpatialIndex();
+
         // update size by recalculate
         updateSizeByRecalculate();
     }
@@ -153,8 +170,22 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
                 RenderingHints.VALUE_ANTIALIAS_ON);
 
 
+        // paint only what is in the clip
+        Rectangle clip = g2.getClipBounds();
+        List<BundleOfCablesGraphic> bundlesToPaint;
+        List<HwComponentGraphic> componentsToPaint;
+        if (clip == null) {
+            bundlesToPaint = getBundlesOfCables();
+            componentsToPaint = new ArrayList<>(getHwComponents());
+        } else {
+            Rectangle labelsArea = new Rectangle(clip);
+            labelsArea.grow(cableLabelsExtent, cableLabelsExtent);
+            bundlesToPaint = getBundlesOfCablesInArea(labelsArea);
+            componentsToPaint = getHwComponentsInArea(clip);
+        }
+
         // DRAW cables
-        for (AbstractComponentGraphic c : getBundlesOfCables()) {
+        for (AbstractComponentGraphic c : bundlesToPaint) {
             if (!c.isMarked()) {
                 c.paint(g2);
             }
@@ -166,7 +197,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
          */
 
         // DRAW HWcomponents
-        for (AbstractComponentGraphic c : getHwComponents()) {
+        for (AbstractComponentGraphic c : componentsToPaint) {
             if (!c.isMarked()) {
                 c.paint(g2);
             }
@@ -239,6 +270,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
             bundlesOfCables.add(bundle);
             component1.addBundleOfCables(bundle);
             component2.addBundleOfCables(bundle);
+            bundlesIndex.put(bundle, getBoundsDefaultZoom(bundle));
         }
         return bundle;
     }
@@ -253,6 +285,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         bundleOfCables.getComponent2().removeBundleOfCables(bundleOfCables);
 
         bundlesOfCables.remove(bundleOfCables);
+        bundlesIndex.remove(bundleOfCables);
     }
     // END----- BUNDLE OF CABLES CABLE MANIPULATION -------------------------------
 
@@ -293,6 +326,8 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         // add cable to hash map
         cablesMap.put(cable.getId().intValue(), cable);
 
+        cableLabelsExtent = Math.max(cableLabelsExtent, cable.getLabelsExtent());
+
         if(propagateToNetwork){
             // set timestamp of edit
             editHappend();
@@ -347,6 +382,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
     public void addHwComponent(HwComponentGraphic component) {
         //components.add(component);
         componentsMap.put(component.getId().intValue(), component);
+        componentsIndex.put(component, getBoundsDefaultZoom(component));
         updateSizeAddComponent(component.getLowerRightCornerLocation());
 
         // add to network
@@ -364,6 +400,8 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
     public void addHwComponentWithoutGraphSizeChange(HwComponentGraphic component) {
         componentsMap.put(component.getId().intValue(), component);
 
+        // not initialized yet, spatial index is built in initialize
+
         // do not add to network
     }
 
@@ -379,6 +417,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         //components.remove(component);
         Collection<HwComponentGraphic> colection = componentsMap.values();
         colection.remove(component);
+        componentsIndex.remove(component);
 
         // remove from network
         networkFacade.removeHwComponent(component.getHwComponentModel());
@@ -395,6 +434,9 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         //components.removeAll(componentList);
         Collection<HwComponentGraphic> colection = componentsMap.values();
         colection.removeAll(componentList);
+        for (HwComponentGraphic component : componentList) {
+            componentsIndex.remove(component);
+        }
 
         // remove from network
         Iterator<HwComponentGraphic> it = componentList.iterator();
@@ -411,6 +453,96 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
     }
     // END ----- HW COMPONENT MANIPULATION-------------------------------
 
+    // ----- SPATIAL INDEX -----------------------------------------------
+    /**
+     * Returns components whose bounds (with texts) intersect the area. Components are in the same order as in
+     * getHwComponents(), use intersects for exact test.
+     *
+     * @param areaInActualZoom
+     * @return
+     */
+    @Override
+    public List<HwComponentGraphic> getHwComponentsInArea(Rectangle areaInActualZoom) {
+        return componentsIndex.query(toDefaultZoom(areaInActualZoom));
+    }
+
+    /**
+     * Returns bundles of cables, which can intersect the area. Bundles are in the same order as in
+     * getBundlesOfCables(), use intersects for exact test.
+     *
+     * @param areaInActualZoom
+     * @return
+     */
+    @Override
+    public List<BundleOfCablesGraphic> getBundlesOfCablesInArea(Rectangle areaInActualZoom) {
+        return bundlesIndex.query(toDefaultZoom(areaInActualZoom));
+    }
+
+    private Rectangle toDefaultZoom(Rectangle areaInActualZoom) {
+        return new Rectangle(ZoomManagerSingleton.getInstance().doScaleToDefault(areaInActualZoom.getLocation()),
+                ZoomManagerSingleton.getInstance().doScaleToDefault(areaInActualZoom.getSize()));
+    }
+
+    /**
+     * Updates position of component and its bundles of cables in spatial index. Call after component move or
+     * change of its texts.
+     *
+     * @param component
+     */
+    private void updateSpatialIndex(HwComponentGraphic component) {
+        componentsIndex.put(component, getBoundsDefaultZoom(component));
+        for (BundleOfCablesGraphic boc : component.getBundleOfCableses()) {
+            bundlesIndex.put(boc, getBoundsDefaultZoom(boc));
+        }
+    }
+
+    @Override
+    public void doUpdateComponentTexts(HwComponentGraphic component) {
+        // texts are painted under the image, their size is part of the bounds
+        component.doUpdateImages();
+        updateSpatialIndex(component);
+    }
+
+    /**
+     * Builds spatial index of all components and bundles again. Call when sizes of components changed.
+     */
+    private void rebuildSpatialIndex() {
+        componentsIndex.clear();
+        bundlesIndex.clear();
+        cableLabelsExtent = 0;
+
+        for (HwComponentGraphic component : componentsMap.values()) {
+            componentsIndex.put(component, getBoundsDefaultZoom(component));
+        }
+        for (BundleOfCablesGraphic boc : bundlesOfCables) {
+            bundlesIndex.put(boc, getBoundsDefaultZoom(boc));
+            for (CableGraphic cable : boc.getCables()) {
+                cableLabelsExtent = Math.max(cableLabelsExtent, cable.getLabelsExtent());
+            }
+        }
+    }
+
+    /**
+     * Bounds of component image and texts under it in default zoom.
+     */
+    private Rectangle getBoundsDefaultZoom(HwComponentGraphic component) {
+        int textOverlap = Math.max(0, component.getDefaultZoomTextWidth() - component.getDefaultZoomWidth()) / 2;
+
+        Rectangle r = new Rectangle(component.getDefaultZoomXPos() - textOverlap, component.getDefaultZoomYPos(),
+                component.getDefaultZoomWidth() + 2 * textOverlap,
+                component.getDefaultZoomHeight() + component.getDefaultZoomTextHeight());
+        r.grow(INDEX_MARGIN, INDEX_MARGIN);
+        return r;
+    }
+
+    /**
+     * Cables of bundle go between centers of its components, so the bundle lies in bounds of both components.
+     */
+    private Rectangle getBoundsDefaultZoom(BundleOfCablesGraphic boc) {
+        return getBoundsDefaultZoom(boc.getComponent1()).union(getBoundsDefaultZoom(boc.getComponent2()));
+    }
+    // END ----- SPATIAL INDEX -----------------------------------------------
+
     // ----- GRAPH SIZES -----------------------------------------------
     @Override
     public Point getUpperLeftBound(List<HwComponentGraphic> components) {
@@ -631,6 +763,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         Point oldPosition = component.getLowerRightCornerLocation();
         // change position
         component.doChangePosition(offsetInDefaultZoom, positive);
+        updateSpatialIndex(component);
         // get new position
         Point newPosition = component.getLowerRightCornerLocation();
         // update size of graph
@@ -649,6 +782,7 @@ public class Graph extends JComponent implements GraphOuterInterface, GraphBuild
         for (HwComponentGraphic component : components) {
             // change position of component
             component.doChangePosition(offsetInDefaultZoom, positive);
+            updateSpatialIndex(component);
         }
         // get new lowerRightCorner of all components
         Point newPosition = getLowerRightBound(components);
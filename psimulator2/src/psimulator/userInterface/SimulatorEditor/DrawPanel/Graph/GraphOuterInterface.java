@@ -2,6 +2,7 @@ package psimulator.userInterface.SimulatorEditor.DrawPanel.Graph;
 
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -155,6 +156,20 @@ public interface GraphOuterInterface {
      * @return 
      */
     public List<BundleOfCablesGraphic> getBundlesOfCables();
+    /**
+     * Gets HwComponentGraphics whose bounds intersect the area, found in spatial index. They are in the same order as
+     * in getHwComponents().
+     * @param areaInActualZoom
+     * @return 
+     */
+    public List<HwComponentGraphic> getHwComponentsInArea(Rectangle areaInActualZoom);
+    /**
+     * Gets BundleOfCablesGraphics that can intersect the area, found in spatial index. They are in the same order as
+     * in getBundlesOfCables().
+     * @param areaInActualZoom
+     * @return 
+     */
+    public List<BundleOfCablesGraphic> getBundlesOfCablesInArea(Rectangle areaInActualZoom);
     /**
      * Gets count of cables in graph
      * @return 
@@ -219,6 +234,13 @@ public interface GraphOuterInterface {
      */
     public void editHappend();
     
+    /**
+     * Updates texts under the component and its bounds in spatial index.
+     * Call when name or addresses of the component changed.
+     * @param component
+     */
+    public void doUpdateComponentTexts(HwComponentGraphic component);
+    
     /**
      * Adds observer to be notified with GRAPH_COMPONENT_CHANGED
      * @param obsrvr 
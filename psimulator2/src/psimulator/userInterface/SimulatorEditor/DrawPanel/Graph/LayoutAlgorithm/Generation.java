@@ -3,6 +3,10 @@ package psimulator.userInterface.SimulatorEditor.DrawPanel.Graph.LayoutAlgorithm
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -10,6 +14,15 @@ import java.util.List;
  */
 public class Generation {
     
+    /**
+     * Pool shared by all layouts, fitness of graphs in generation is evaluated in parallel.
+     */
+    private static final ForkJoinPool pool = new ForkJoinPool();
+    /**
+     * Graphs with less nodes and edges are evaluated serially, parallel evaluation would not pay off.
+     */
+    private static final int PARALLEL_THRESHOLD = 40;
+    
     private List<GeneticGraph> graphList;
     private GeneticGraph bestFitnessGraph;
     private double bestFitness;
@@ -30,8 +43,9 @@ public class Generation {
         bestFitnessGraph = null;
         bestFitness = Integer.MIN_VALUE;
         
+        evaluateAll();
+        
         for(GeneticGraph gg : graphList){
-            gg.evaluateFitness();
             //System.out.println("fitness "+gg.getFitness());
             if(bestFitnessGraph == null || gg.getFitness() > bestFitness){
                 bestFitness = gg.getFitness();
@@ -49,6 +63,43 @@ public class Generation {
         }
     }
     
+    /**
+     * Evaluates fitness of all graphs. Evaluation does not use random numbers and each graph writes only its own
+     * fitness, so the result is the same as of serial evaluation.
+     */
+    private void evaluateAll() {
+        if (graphList.size() < 2 || pool.getParallelism() < 2 || graphList.get(0).getSize() < PARALLEL_THRESHOLD) {
+            for (GeneticGraph gg : graphList) {
+                gg.evaluateFitness();
+            }
+            return;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(graphList.size());
+        for (final GeneticGraph gg : graphList) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    gg.evaluateFitness();
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            for (GeneticGraph gg : graphList) {  // generation has to be complete anyway
+                gg.evaluateFitness();
+            }
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+    
     public double getBestFitness(){
         return bestFitness;
     }
@@ -23,6 +23,14 @@ public class GeneticAutomaticLayout {
     public GeneticAutomaticLayout() {
     }
 
+    /**
+     * Layout with given seed, runs with the same seed and graph give the same result.
+     * @param seed 
+     */
+    public GeneticAutomaticLayout(long seed) {
+        random = new Random(seed);
+    }
+
     /**
      * Initalizes GA with graph.
      * @param graph
@@ -34,6 +42,9 @@ public class GeneticAutomaticLayout {
         generationCount = 0;
 
         GeneticGraph initialGeneticGraph = graph;
+        // graphs get their random generators from the initial one, so the run depends only on this.random
+        initialGeneticGraph.setSeed(random.nextLong());
+        initialGeneticGraph.placeNodesRandomly();
 
         oldGeneration = initPopulation(initialGeneticGraph);
         oldGeneration.evaluateFitness();
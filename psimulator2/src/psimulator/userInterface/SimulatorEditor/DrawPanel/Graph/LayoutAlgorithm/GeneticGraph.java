@@ -15,6 +15,7 @@ import psimulator.userInterface.SimulatorEditor.DrawPanel.Graph.Graph;
  */
 public class GeneticGraph implements Comparable<GeneticGraph> {
 
+    private static final double CELL_EPSILON = 1e-6;
     private Random random = new Random();
     /*
      * n | 1 | 2 | 3 | 4 |
@@ -78,7 +79,8 @@ public class GeneticGraph implements Comparable<GeneticGraph> {
         placeNodesRandomly();
     }
 
-    private GeneticGraph(int[][] nodesToCopy, int[][] edgesToCopy, int gridSize, int nodeWithMaxNeighbours) {
+    private GeneticGraph(int[][] nodesToCopy, int[][] edgesToCopy, int gridSize, int nodeWithMaxNeighbours, long seed) {
+        this.random = new Random(seed);
         this.gridSize = gridSize;
         this.nodeWithMaxNeighbours = nodeWithMaxNeighbours;
 
@@ -102,10 +104,27 @@ public class GeneticGraph implements Comparable<GeneticGraph> {
 
     @Override
     public GeneticGraph clone() {
-        GeneticGraph clone = new GeneticGraph(nodes, edges, gridSize, nodeWithMaxNeighbours);
+        GeneticGraph clone = new GeneticGraph(nodes, edges, gridSize, nodeWithMaxNeighbours, random.nextLong());
         return clone;
     }
 
+    /**
+     * Sets seed of random generator of this graph, clones get seeds from it, so the whole run of GA is given by the
+     * seed.
+     * @param seed 
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Returns number of nodes and edges, estimation of work needed for evaluation of fitness.
+     * @return 
+     */
+    public int getSize() {
+        return nodes.length + edges.length;
+    }
+
     public void evaluateFitness() {
         fitness = 0.0;
 
@@ -407,40 +426,73 @@ public class GeneticGraph implements Comparable<GeneticGraph> {
         return maxEdgeLength - minEdgeLength;
     }
 
+    /**
+     * Counts sum of distances of each node to its nearest neighbour and the smallest of these distances. Nodes are put
+     * into uniform grid of cells and the nearest neighbour is searched in rings of cells around the node, so only
+     * near nodes are compared.
+     * @return array {sum, minimum}
+     */
     private double[] getMinimumNodeDistanceSum() {
 
         double sum = 0;
         double minDistance = Integer.MAX_VALUE;
 
+        int cells = cellsPerSide(nodes.length);
+        double cellSize = (double) gridSize / cells;
+
+        // nodes sorted by cells: nodes of cell c are cellNodes[cellStart[c]] .. cellNodes[cellStart[c + 1] - 1]
+        int[] cellStart = new int[cells * cells + 1];
+        int[] nodeCell = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodeCell[i] = cellOf(nodes[i][1], cellSize, cells) * cells + cellOf(nodes[i][0], cellSize, cells);
+            cellStart[nodeCell[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = Arrays.copyOf(cellStart, cells * cells);
+        int[] cellNodes = new int[nodes.length];
         for (int i = 0; i < nodes.length; i++) {
-            double p1x = nodes[i][0];
-            double p1y = nodes[i][1];
-            double minDistanceActual = Integer.MAX_VALUE;
+            cellNodes[fill[nodeCell[i]]++] = i;
+        }
 
-            for (int j = 0; j < nodes.length; j++) {
-                if (i == j) {
-                    continue;
+        for (int i = 0; i < nodes.length; i++) {
+            int cx = nodeCell[i] % cells;
+            int cy = nodeCell[i] / cells;
+            long minSquare = Long.MAX_VALUE;
+
+            // ring r are cells with chebyshev distance r from the node's cell, nodes in ring r + 1 are at least
+            // r * cellSize far away
+            for (int r = 0; r < cells; r++) {
+                if (minSquare != Long.MAX_VALUE && Math.sqrt(minSquare) <= (r - 1) * cellSize) {
+                    break;
                 }
-                double p2x = nodes[j][0];
-                double p2y = nodes[j][1];
-
-                double diffX = Math.pow(p1x - p2x, 2.0);
-                double diffY = Math.pow(p1y - p2y, 2.0);
-
-                double distance = Math.sqrt(diffX + diffY);
-
-                /*
-                if (distance == 0.0) {
-                    System.out.println("distance = " + distance + ", diff x =" + diffX + ", diff y =" + diffY);
-                    System.out.println("I=" + i + ", J=" + j);
-                    System.out.println(this);
-                }*/
-
-                if (distance < minDistanceActual) {
-                    minDistanceActual = distance;
+                for (int y = Math.max(cy - r, 0); y <= Math.min(cy + r, cells - 1); y++) {
+                    boolean edgeRow = y == cy - r || y == cy + r;
+                    int step = edgeRow ? 1 : 2 * r;
+                    for (int x = cx - r; x <= cx + r; x += Math.max(step, 1)) {
+                        if (x < 0 || x >= cells) {
+                            continue;
+                        }
+                        int c = y * cells + x;
+                        for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                            int j = cellNodes[k];
+                            if (i == j) {
+                                continue;
+                            }
+                            long dx = nodes[i][0] - nodes[j][0];
+                            long dy = nodes[i][1] - nodes[j][1];
+                            long square = dx * dx + dy * dy;
+                            if (square < minSquare) {
+                                minSquare = square;
+                            }
+                        }
+                    }
                 }
             }
 
+            double minDistanceActual = minSquare == Long.MAX_VALUE ? Integer.MAX_VALUE : Math.sqrt(minSquare);
+
             sum += minDistanceActual;
 
             if (minDistanceActual < minDistance) {
@@ -453,35 +505,150 @@ public class GeneticGraph implements Comparable<GeneticGraph> {
         return array;
     }
 
+    /**
+     * Counts crossings of edges, edges with common end point are not counted. Edges are put into all cells of uniform
+     * grid they pass through (conservatively), only edges sharing some cell can cross.
+     * @return 
+     */
     private int getCrossingsCount() {
-        List<Line2D> lines = new ArrayList<Line2D>();
+        int cells = cellsPerSide(edges.length);
+        double cellSize = (double) gridSize / cells;
+
+        // two passes: first counts edges in cells, second fills them
+        int[] cellStart = new int[cells * cells + 1];
+        for (int i = 0; i < edges.length; i++) {
+            addEdgeToCells(i, cells, cellSize, cellStart, null);
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = Arrays.copyOf(cellStart, cells * cells);
+        int[] cellEdges = new int[cellStart[cells * cells]];
+        for (int i = 0; i < edges.length; i++) {
+            addEdgeToCells(i, cells, cellSize, fill, cellEdges);
+        }
 
+        // edges of zero length (both ends in one point) are compared with all edges, Line2D reports crossings of
+        // them even far from their point
+        int[] degenerate = new int[edges.length];
+        int degenerateCount = 0;
         for (int i = 0; i < edges.length; i++) {
-            Line2D line = new Line2D.Double(nodes[edges[i][0]][0], nodes[edges[i][0]][1], nodes[edges[i][1]][0], nodes[edges[i][1]][1]);
-            lines.add(line);
-            //System.out.println("Line: x="+line.getP1()+",="+line.getP2());
+            if (samePoint(nodes[edges[i][0]], nodes[edges[i][1]])) {
+                degenerate[degenerateCount++] = i;
+            }
         }
 
         int crossings = 0;
-        for (int i = 0; i < lines.size(); i++) {
-            for (int j = i + 1; j < lines.size(); j++) {
-                if (i == j) {
-                    continue;
+        int[] tested = new int[edges.length];   // tested[j] == i + 1, if pair i, j was already tested
+        for (int i = 0; i < edges.length; i++) {
+            if (degenerateCount > 0 && samePoint(nodes[edges[i][0]], nodes[edges[i][1]])) {
+                for (int j = i + 1; j < edges.length; j++) {
+                    crossings += crosses(i, j, tested);
                 }
-                if (lines.get(i).getP1().equals(lines.get(j).getP1())
-                        || lines.get(i).getP1().equals(lines.get(j).getP2())
-                        || lines.get(i).getP2().equals(lines.get(j).getP1())
-                        || lines.get(i).getP2().equals(lines.get(j).getP2())) {
-
-                    continue;
+                continue;
+            }
+            int[] range = edgeColumns(i, cellSize, cells);
+            for (int x = range[0]; x <= range[1]; x++) {
+                int[] rows = edgeRows(i, x, cellSize, cells);
+                for (int y = rows[0]; y <= rows[1]; y++) {
+                    int c = y * cells + x;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                        crossings += crosses(i, cellEdges[k], tested);
+                    }
                 }
+            }
+            for (int k = 0; k < degenerateCount; k++) {
+                crossings += crosses(i, degenerate[k], tested);
+            }
+        }
+        return crossings;
+    }
 
-                if (lines.get(i).intersectsLine(lines.get(j))) {
-                    crossings++;
+    /**
+     * Tests edges i and j > i, if they were not tested yet.
+     * @return 1 if they cross, 0 otherwise
+     */
+    private int crosses(int i, int j, int[] tested) {
+        if (j <= i || tested[j] == i + 1) {
+            return 0;
+        }
+        tested[j] = i + 1;
+        int[] a = nodes[edges[i][0]];
+        int[] b = nodes[edges[i][1]];
+        int[] p = nodes[edges[j][0]];
+        int[] q = nodes[edges[j][1]];
+        if (samePoint(a, p) || samePoint(a, q) || samePoint(b, p) || samePoint(b, q)) {
+            return 0;
+        }
+        return Line2D.linesIntersect(a[0], a[1], b[0], b[1], p[0], p[1], q[0], q[1]) ? 1 : 0;
+    }
+
+    /**
+     * Counts (target == null) or writes the edge into cells it passes through.
+     */
+    private void addEdgeToCells(int edge, int cells, double cellSize, int[] position, int[] target) {
+        int[] range = edgeColumns(edge, cellSize, cells);
+        for (int x = range[0]; x <= range[1]; x++) {
+            int[] rows = edgeRows(edge, x, cellSize, cells);
+            for (int y = rows[0]; y <= rows[1]; y++) {
+                if (target == null) {
+                    position[y * cells + x + 1]++;
+                } else {
+                    target[position[y * cells + x]++] = edge;
                 }
             }
         }
-        return crossings;
+    }
+
+    /**
+     * Returns first and last column of cells, which the edge passes through.
+     */
+    private int[] edgeColumns(int edge, double cellSize, int cells) {
+        int x1 = nodes[edges[edge][0]][0];
+        int x2 = nodes[edges[edge][1]][0];
+        int[] range = {cellOf(Math.min(x1, x2), cellSize, cells), cellOf(Math.max(x1, x2), cellSize, cells)};
+        return range;
+    }
+
+    /**
+     * Returns first and last row of cells, which the edge passes through in given column. Rows are widened by small
+     * epsilon to be sure that rounding does not lose any crossing.
+     */
+    private int[] edgeRows(int edge, int column, double cellSize, int cells) {
+        int[] a = nodes[edges[edge][0]];
+        int[] b = nodes[edges[edge][1]];
+        double yFrom;
+        double yTo;
+        if (a[0] == b[0]) {
+            yFrom = a[1];
+            yTo = b[1];
+        } else {
+            // border columns cover points outside the grid too (mutation can move a node behind the border)
+            double fromX = column == 0 ? Math.min(a[0], b[0]) : Math.max(Math.min(a[0], b[0]), column * cellSize);
+            double toX = column == cells - 1 ? Math.max(a[0], b[0]) : Math.min(Math.max(a[0], b[0]), (column + 1) * cellSize);
+            double slope = (double) (b[1] - a[1]) / (b[0] - a[0]);
+            yFrom = a[1] + (fromX - a[0]) * slope;
+            yTo = a[1] + (toX - a[0]) * slope;
+        }
+        int[] rows = {cellOf(Math.min(yFrom, yTo) - CELL_EPSILON, cellSize, cells),
+            cellOf(Math.max(yFrom, yTo) + CELL_EPSILON, cellSize, cells)};
+        return rows;
+    }
+
+    /**
+     * Number of cells on one side of the grid, so that there is about one object in one cell.
+     */
+    private int cellsPerSide(int objects) {
+        return Math.max(1, Math.min(gridSize, (int) Math.ceil(Math.sqrt(objects))));
+    }
+
+    private static int cellOf(double coordinate, double cellSize, int cells) {
+        int cell = (int) Math.floor(coordinate / cellSize);
+        return Math.max(0, Math.min(cell, cells - 1));
+    }
+
+    private static boolean samePoint(int[] a, int[] b) {
+        return a[0] == b[0] && a[1] == b[1];
     }
     
     private Point getRandomFreePoint(GeneticGraph graph){
@@ -0,0 +1,192 @@
+/*
+ * created 18.10.2026
+ */
+package psimulator.userInterface.SimulatorEditor.DrawPanel.Graph;
+
+import java.awt.Rectangle;
+import java.util.*;
+
+/**
+ * Uniform grid of items with bounds in default zoom. Used by Graph to find components and bundles of cables in the
+ * painted area or under the mouse without going through all of them.
+ *
+ * Items keep the order in which they were put into the index (moving does not change it), queries return them in
+ * this order, so painting and hit-testing work in the same order as over the lists of Graph.
+ *
+ * @param <T> type of items
+ */
+public class SpatialIndex<T> {
+
+    /**
+     * Size of one cell in default zoom.
+     */
+    private static final int CELL_SIZE = 256;
+    //
+    private final HashMap<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final IdentityHashMap<T, Entry<T>> entries = new IdentityHashMap<>();
+    private long nextOrder = 0;
+
+    private static class Entry<T> {
+
+        final T item;
+        final long order;
+        Rectangle bounds;
+
+        Entry(T item, long order, Rectangle bounds) {
+            this.item = item;
+            this.order = order;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * Puts item into index or updates its bounds, if it is already there.
+     *
+     * @param item
+     * @param boundsDefaultZoom
+     */
+    public void put(T item, Rectangle boundsDefaultZoom) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            entry = new Entry<>(item, nextOrder++, boundsDefaultZoom);
+            entries.put(item, entry);
+        } else {
+            if (sameCells(entry.bounds, boundsDefaultZoom)) {
+                entry.bounds = boundsDefaultZoom;
+                return;
+            }
+            removeFromCells(entry);
+            entry.bounds = boundsDefaultZoom;
+        }
+        addToCells(entry);
+    }
+
+    /**
+     * Removes item from index.
+     *
+     * @param item
+     */
+    public void remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry != null) {
+            removeFromCells(entry);
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+        entries.clear();
+        nextOrder = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns items whose bounds intersect (or touch) the area, in order of putting into index.
+     *
+     * @param areaDefaultZoom
+     * @return
+     */
+    public List<T> query(Rectangle areaDefaultZoom) {
+        List<Entry<T>> found = new ArrayList<>();
+        Set<Entry<T>> seen = Collections.newSetFromMap(new IdentityHashMap<Entry<T>, Boolean>());
+
+        int fromX = cell(areaDefaultZoom.x);
+        int toX = cell(areaDefaultZoom.x + areaDefaultZoom.width);
+        int fromY = cell(areaDefaultZoom.y);
+        int toY = cell(areaDefaultZoom.y + areaDefaultZoom.height);
+
+        if ((long) (toX - fromX + 1) * (toY - fromY + 1) > cells.size()) {
+            // area is bigger than the occupied part of the grid, go through occupied cells only
+            for (List<Entry<T>> list : cells.values()) {
+                collect(list, areaDefaultZoom, seen, found);
+            }
+        } else {
+            for (int cx = fromX; cx <= toX; cx++) {
+                for (int cy = fromY; cy <= toY; cy++) {
+                    List<Entry<T>> list = cells.get(key(cx, cy));
+                    if (list != null) {
+                        collect(list, areaDefaultZoom, seen, found);
+                    }
+                }
+            }
+        }
+
+        Collections.sort(found, new Comparator<Entry<T>>() {
+            @Override
+            public int compare(Entry<T> e1, Entry<T> e2) {
+                return Long.compare(e1.order, e2.order);
+            }
+        });
+
+        List<T> items = new ArrayList<>(found.size());
+        for (Entry<T> entry : found) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    private void collect(List<Entry<T>> list, Rectangle area, Set<Entry<T>> seen, List<Entry<T>> found) {
+        for (Entry<T> entry : list) {
+            if (overlaps(entry.bounds, area) && seen.add(entry)) {
+                found.add(entry);
+            }
+        }
+    }
+
+    private void addToCells(Entry<T> entry) {
+        Rectangle b = entry.bounds;
+        for (int cx = cell(b.x); cx <= cell(b.x + b.width); cx++) {
+            for (int cy = cell(b.y); cy <= cell(b.y + b.height); cy++) {
+                Long key = key(cx, cy);
+                List<Entry<T>> list = cells.get(key);
+                if (list == null) {
+                    list = new ArrayList<>(4);
+                    cells.put(key, list);
+                }
+                list.add(entry);
+            }
+        }
+    }
+
+    private void removeFromCells(Entry<T> entry) {
+        Rectangle b = entry.bounds;
+        for (int cx = cell(b.x); cx <= cell(b.x + b.width); cx++) {
+            for (int cy = cell(b.y); cy <= cell(b.y + b.height); cy++) {
+                Long key = key(cx, cy);
+                List<Entry<T>> list = cells.get(key);
+                if (list == null) {
+                    continue;
+                }
+                list.remove(entry);
+                if (list.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private static boolean sameCells(Rectangle r1, Rectangle r2) {
+        return cell(r1.x) == cell(r2.x) && cell(r1.y) == cell(r2.y)
+                && cell(r1.x + r1.width) == cell(r2.x + r2.width) && cell(r1.y + r1.height) == cell(r2.y + r2.height);
+    }
+
+    /**
+     * Like Rectangle.intersects, but touching and empty rectangles overlap too (area around point can have zero size
+     * after scaling to default zoom).
+     */
+    private static boolean overlaps(Rectangle r1, Rectangle r2) {
+        return r1.x <= r2.x + r2.width && r2.x <= r1.x + r1.width
+                && r1.y <= r2.y + r2.height && r2.y <= r1.y + r1.height;
+    }
+
+    private static int cell(int coordinate) {
+        return coordinate >= 0 ? coordinate / CELL_SIZE : -((-coordinate - 1) / CELL_SIZE) - 1;
+    }
+
+    private static Long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
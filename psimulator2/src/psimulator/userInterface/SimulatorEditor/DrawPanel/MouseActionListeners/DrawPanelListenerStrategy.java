@@ -2,6 +2,7 @@ package psimulator.userInterface.SimulatorEditor.DrawPanel.MouseActionListeners;
 
 import java.awt.Cursor;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
@@ -165,7 +166,7 @@ public abstract class DrawPanelListenerStrategy extends MouseInputAdapter implem
         // create small rectangle arround clicked point
         
         // search cables
-        for (BundleOfCablesGraphic boc : drawPanel.getGraphOuterInterface().getBundlesOfCables()) {
+        for (BundleOfCablesGraphic boc : drawPanel.getGraphOuterInterface().getBundlesOfCablesInArea(new Rectangle(point))) {
             clickedComponent = boc.getIntersectingCable(point);
             if(clickedComponent != null){
                return clickedComponent; 
@@ -184,7 +185,7 @@ public abstract class DrawPanelListenerStrategy extends MouseInputAdapter implem
         HwComponentGraphic clickedComponent = null;
 
         // search HwComponents
-        for (HwComponentGraphic c : drawPanel.getGraphOuterInterface().getHwComponents()) {
+        for (HwComponentGraphic c : drawPanel.getGraphOuterInterface().getHwComponentsInArea(new Rectangle(point))) {
             if (c.intersects(point)) {
                 clickedComponent = c;
                 break;
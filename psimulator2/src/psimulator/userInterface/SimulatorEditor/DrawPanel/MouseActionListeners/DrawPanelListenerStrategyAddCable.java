@@ -2,6 +2,7 @@ package psimulator.userInterface.SimulatorEditor.DrawPanel.MouseActionListeners;
 
 import java.awt.Cursor;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
@@ -73,7 +74,7 @@ public class DrawPanelListenerStrategyAddCable extends DrawPanelListenerStrategy
         }
 
         // if mouse over any HW component
-        for (HwComponentGraphic c : drawPanel.getGraphOuterInterface().getHwComponents()) {
+        for (HwComponentGraphic c : drawPanel.getGraphOuterInterface().getHwComponentsInArea(new Rectangle(e.getPoint()))) {
             if (c.intersects(e.getPoint())) {
                 // change cursor
                 drawPanel.setCursor(new Cursor(Cursor.CROSSHAIR_CURSOR));
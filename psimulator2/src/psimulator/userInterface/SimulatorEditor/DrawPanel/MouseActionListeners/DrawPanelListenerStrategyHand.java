@@ -223,7 +223,7 @@ public class DrawPanelListenerStrategyHand extends DrawPanelListenerStrategy {
         }
 
         // try if start dragging of some component
-        for (HwComponentGraphic c : graph.getHwComponents()) {
+        for (HwComponentGraphic c : graph.getHwComponentsInArea(new Rectangle(e.getPoint()))) {
             if (c.intersects(e.getPoint())) {
                 // if c is marked, we will drag all marked components
                 if (c.isMarked()) {
@@ -392,7 +392,7 @@ public class DrawPanelListenerStrategyHand extends DrawPanelListenerStrategy {
         
         GraphOuterInterface graph = drawPanel.getGraphOuterInterface();
         
-        for (HwComponentGraphic c : graph.getHwComponents()) {
+        for (HwComponentGraphic c : graph.getHwComponentsInArea(new Rectangle(e.getPoint()))) {
             if (c.intersects(e.getPoint())) {
                 drawPanel.setCursor(hndCursor);
                 return;
@@ -401,7 +401,7 @@ public class DrawPanelListenerStrategyHand extends DrawPanelListenerStrategy {
 
         //Rectangle r = new Rectangle(e.getX() - 1, e.getY() - 1, 3, 3);
 
-        for (BundleOfCablesGraphic boc : graph.getBundlesOfCables()) {
+        for (BundleOfCablesGraphic boc : graph.getBundlesOfCablesInArea(new Rectangle(e.getPoint()))) {
             if (boc.intersects(e.getPoint())) {
                 drawPanel.setCursor(hndCursor);
                 return;
@@ -501,7 +501,7 @@ public class DrawPanelListenerStrategyHand extends DrawPanelListenerStrategy {
         graph.doUnmarkAllComponents();
 
         // mark only the intersecting components
-        for (HwComponentGraphic component : graph.getHwComponents()) {
+        for (HwComponentGraphic component : graph.getHwComponentsInArea(rectangleInActualZoom)) {
             if (component.intersects(rectangleInActualZoom)) {
                 graph.doMarkComponentWithCables(component, true);
             }
@@ -509,7 +509,7 @@ public class DrawPanelListenerStrategyHand extends DrawPanelListenerStrategy {
 
         // if no abstract component marked, mark only cables in rectangle
         if (graph.getMarkedAbstractHWComponentsCount() == 0) {
-            for (BundleOfCablesGraphic bundle : graph.getBundlesOfCables()) {
+            for (BundleOfCablesGraphic bundle : graph.getBundlesOfCablesInArea(rectangleInActualZoom)) {
                 for (CableGraphic c : bundle.getCables()) {
                     if (c.intersects(rectangleInActualZoom)) {
                         graph.doMarkCable(c);
@@ -191,6 +191,9 @@ public final class HwComponentProperties extends AbstractPropertiesOkCancelDialo
         
         }
         
+        // name and addresses are painted under the component
+        drawPanel.getGraphOuterInterface().doUpdateComponentTexts(abstractHwComponent);
+
         // fire edit happend on graph
         drawPanel.getGraphOuterInterface().editHappend();
     }
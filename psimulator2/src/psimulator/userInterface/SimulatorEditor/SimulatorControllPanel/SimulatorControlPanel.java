@@ -965,9 +965,12 @@ public class SimulatorControlPanel extends JPanel implements Observer {
 
     private void updatePositionInListAccordingToModel() {
         if (simulatorManagerInterface.isInTheList() && simulatorManagerInterface.getListSize() > 0) {
+            // position can be on event the table was not notified about yet
+            simulatorManagerInterface.getEventTableModel().publishPendingRows();
+
             int row = simulatorManagerInterface.getCurrentPositionInList();
             // if some row selected
-            if (row >= 0) {
+            if (row >= 0 && row < jTableEventList.getRowCount()) {
                 jTableEventList.setRowSelectionInterval(row, row);
 
                 // need to do this in thread because without thread it does not repaint correctly during playing
@@ -92,6 +92,14 @@ public class Main {
 		Psimulator.getPsimulator().configModel = networkModel;
 		Psimulator.getPsimulator().lastConfigFile = configFileName;
 
+		// pri ukonceni se zastavi vlakna simulatoru
+		Runtime.getRuntime().addShutdownHook(new Thread("Psimulator shutdown") {
+			@Override
+			public void run() {
+				Psimulator.getPsimulator().shutdown();
+			}
+		});
+
 		// samotnej start systemu z ukladacich struktur
 		Loader loader = new Loader(networkModel, configFileName);	// vytvari se simulator loader
 		loader.loadFromModel();	// simulator se startuje z tech ukladacich struktur
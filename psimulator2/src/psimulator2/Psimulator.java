@@ -20,6 +20,7 @@ import shared.Serializer.AbstractNetworkSerializer;
 import shared.Serializer.NetworkModelSerializerXML;
 import shared.Serializer.SaveLoadException;
 import utils.Alarm;
+import utils.EventScheduler;
 
 /**
  * Instance of Psimulator.
@@ -38,12 +39,17 @@ public class Psimulator implements Loggable{
 	public NetworkModel configModel;
 	public String lastConfigFile;
 	public Alarm budik;
+	/**
+	 * Discrete-event engine for delivering packets through cables.
+	 */
+	public EventScheduler scheduler;
 	public SystemListener systemListener;
 	public EventServer eventServer;
         private String realInterface;
         
 	private Psimulator() {
 		budik = new Alarm();
+		scheduler = new EventScheduler();
 	}
 
 	/**
@@ -82,6 +88,16 @@ public class Psimulator implements Loggable{
 		return "Class Psimulator";
 	}
 
+	/**
+	 * Stops threads of the simulator, which would otherwise keep running (event scheduler, selector of event server).
+	 */
+	public void shutdown() {
+		scheduler.stop();
+		if (eventServer != null) {
+			eventServer.stop();
+		}
+	}
+
 	public Device getDeviceByName(String name){
 		for (Device d: devices){
 			if(d.getName().equals(name)){
@@ -0,0 +1,127 @@
+/*
+ * created 18.10.2026
+ */
+package shared.SimulatorEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import shared.NetworkObject;
+import shared.SimulatorEvents.SerializedComponents.EventType;
+import shared.SimulatorEvents.SerializedComponents.PacketType;
+import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
+
+/**
+ * Decoder of the binary event stream written by {@link BinaryEventEncoder}, one instance per connection.
+ */
+public class BinaryEventDecoder {
+
+    private static final PacketType[] packetTypes = PacketType.values();
+    private static final EventType[] eventTypes = EventType.values();
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    /**
+     * Reads length of the next frame. This is the only read, which waits for the server, so it is the right place for
+     * socket timeout.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public int readFrameLength(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length <= 0) {
+            throw new IOException("Wrong frame length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Reads rest of the frame and decodes objects in it.
+     *
+     * @param in
+     * @param length length returned by readFrameLength
+     * @return
+     * @throws IOException when the frame is damaged
+     * @throws ClassNotFoundException when serialized object in the frame is unknown
+     */
+    public List<NetworkObject> readFrame(DataInput in, int length) throws IOException, ClassNotFoundException {
+        byte[] data = new byte[length];
+        in.readFully(data);
+        DataInputStream frame = new DataInputStream(new ByteArrayInputStream(data));
+
+        List<NetworkObject> objects = new ArrayList<>();
+        byte kind = frame.readByte();
+        switch (kind) {
+            case BinaryEventEncoder.FRAME_EVENTS:
+                int count = frame.readInt();
+                for (int i = 0; i < count; i++) {
+                    objects.add(readEvent(frame));
+                }
+                break;
+            case BinaryEventEncoder.FRAME_OBJECT:
+                ObjectInputStream ois = new ObjectInputStream(frame);
+                objects.add((NetworkObject) ois.readObject());
+                break;
+            default:
+                throw new IOException("Unknown frame kind: " + kind);
+        }
+        return objects;
+    }
+
+    private SimulatorEvent readEvent(DataInput in) throws IOException {
+        long timeStamp = in.readLong();
+        int source = in.readInt();
+        int dest = in.readInt();
+        int cable = in.readInt();
+        PacketType packetType = decode(packetTypes, in.readByte());
+        EventType eventType = decode(eventTypes, in.readByte());
+        String details = readDetails(in);
+        return new SimulatorEvent(timeStamp, source, dest, cable, packetType, details, eventType);
+    }
+
+    private String readDetails(DataInput in) throws IOException {
+        int code = in.readInt();
+        switch (code) {
+            case BinaryEventEncoder.STRING_NULL:
+                return null;
+            case BinaryEventEncoder.STRING_LITERAL:
+                return readString(in);
+            case BinaryEventEncoder.STRING_NEW:
+                String text = readString(in);
+                dictionary.add(text);
+                return text;
+            default:
+                if (code < 0 || code >= dictionary.size()) {
+                    throw new IOException("Unknown dictionary code: " + code);
+                }
+                return dictionary.get(code);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Wrong string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T decode(T[] values, byte ordinal) throws IOException {
+        if (ordinal == -1) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("Unknown enum value: " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
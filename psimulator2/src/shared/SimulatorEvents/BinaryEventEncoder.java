@@ -0,0 +1,121 @@
+/*
+ * created 18.10.2026
+ */
+package shared.SimulatorEvents;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import shared.NetworkObject;
+import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
+
+/**
+ * Encoder of the binary event stream, one instance per client session.
+ *
+ * Stream consists of length-prefixed frames: int length of the rest of the frame, byte kind and data. Frame
+ * {@link #FRAME_EVENTS} holds int count and count of SimulatorEvents with fixed-width fields (long timeStamp, int
+ * source, int destination, int cable, byte packet type, byte event type) followed by dictionary-coded details text.
+ * Frame {@link #FRAME_OBJECT} holds any other NetworkObject serialized on its own, so that no handle table is kept
+ * between frames.
+ *
+ * Details text is written as int code: index into dictionary of the session, {@link #STRING_NEW} followed by string,
+ * which gets the next free index, {@link #STRING_LITERAL} followed by string, which is not stored, or
+ * {@link #STRING_NULL}. Dictionary has at most {@link #DICTIONARY_SIZE} entries on both sides.
+ *
+ * Not thread safe, it is used by one EventsListener thread.
+ */
+public class BinaryEventEncoder {
+
+    public static final int VERSION = 1;
+    public static final byte FRAME_EVENTS = 1;
+    public static final byte FRAME_OBJECT = 2;
+    public static final int STRING_NEW = -1;
+    public static final int STRING_LITERAL = -2;
+    public static final int STRING_NULL = -3;
+    public static final int DICTIONARY_SIZE = 4096;
+    /**
+     * Longer texts are sent always as literal, they are unlikely to repeat.
+     */
+    public static final int MAX_DICTIONARY_STRING = 256;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    /**
+     * Buffer for building one frame, reused.
+     */
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream(4096);
+    private final DataOutputStream frameOut = new DataOutputStream(frame);
+
+    /**
+     * Writes objects as frames. Consecutive events go into one frame. Does not flush the stream.
+     *
+     * @param objects
+     * @param out
+     * @throws IOException
+     */
+    public void write(List<? extends NetworkObject> objects, DataOutput out) throws IOException {
+        int i = 0;
+        while (i < objects.size()) {
+            frame.reset();
+            if (objects.get(i) instanceof SimulatorEvent) {
+                int end = i;
+                while (end < objects.size() && objects.get(end) instanceof SimulatorEvent) {
+                    end++;
+                }
+                frameOut.writeByte(FRAME_EVENTS);
+                frameOut.writeInt(end - i);
+                for (; i < end; i++) {
+                    writeEvent((SimulatorEvent) objects.get(i));
+                }
+            } else {
+                frameOut.writeByte(FRAME_OBJECT);
+                ObjectOutputStream oos = new ObjectOutputStream(frameOut);
+                oos.writeObject(objects.get(i));
+                oos.flush();
+                i++;
+            }
+            frameOut.flush();
+            out.writeInt(frame.size());
+            out.write(frame.toByteArray());
+        }
+    }
+
+    private void writeEvent(SimulatorEvent event) throws IOException {
+        frameOut.writeLong(event.getTimeStamp());
+        frameOut.writeInt(event.getSourcceId());
+        frameOut.writeInt(event.getDestId());
+        frameOut.writeInt(event.getCableId());
+        frameOut.writeByte(event.getPacketType() == null ? -1 : event.getPacketType().ordinal());
+        frameOut.writeByte(event.getEventType() == null ? -1 : event.getEventType().ordinal());
+        writeDetails(event.getDetailsText());
+    }
+
+    private void writeDetails(String text) throws IOException {
+        if (text == null) {
+            frameOut.writeInt(STRING_NULL);
+            return;
+        }
+        Integer code = dictionary.get(text);
+        if (code != null) {
+            frameOut.writeInt(code);
+        } else if (dictionary.size() < DICTIONARY_SIZE && text.length() <= MAX_DICTIONARY_STRING) {
+            dictionary.put(text, dictionary.size());
+            frameOut.writeInt(STRING_NEW);
+            writeString(frameOut, text);
+        } else {
+            frameOut.writeInt(STRING_LITERAL);
+            writeString(frameOut, text);
+        }
+    }
+
+    static void writeString(DataOutput out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * created 18.10.2026
+ */
+package shared.SimulatorEvents;
+
+import java.io.Serializable;
+import shared.NetworkObject;
+
+/**
+ * Negotiation of the binary event stream. Client sends it right after connecting. Server sends TelnetConfig at once
+ * without waiting for it; server which understands the request answers with the same object after TelnetConfig and
+ * then sends events in frames of {@link BinaryEventEncoder}. When the server does not answer (older server) or the
+ * client does not ask (older client), events are sent as serialized objects as before.
+ */
+public class EventStreamRequest implements Serializable, NetworkObject {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int version;
+
+    public EventStreamRequest() {
+        this.version = BinaryEventEncoder.VERSION;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
@@ -3,7 +3,8 @@
  */
 package utils;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
@@ -11,60 +12,96 @@ import logging.LoggingCategory;
 /**
  * Budik. Vzbudi zaregitrovanej Wakeable.
  *
+ * Implemented as hashed timing wheel: time is divided into ticks of tickLength ms, every tick has its bucket in the
+ * wheel (bucket = tick modulo wheelSize) and every registered wake is put into the bucket of the tick, in which it
+ * expires. Registration and cancellation are O(1), the alarm thread only walks through buckets tick after tick. Wakes
+ * further than one round of the wheel wait in their bucket for the right round. While nothing is registered, the
+ * alarm thread sleeps and does not tick.
+ *
+ * Wakeable is woken at the earliest in the time, for which it was registered, and at the latest one tick later.
+ *
  * @author Tomas Pitrinec
  */
-public class Alarm implements SmartRunnable, Loggable{
+public class Alarm implements SmartRunnable, Loggable {
+
+	/**
+	 * Length of one tick in ms.
+	 */
+	private static final long tickLength = 10;
+	/**
+	 * Number of buckets, must be power of two. One round of the wheel is 512 * 10 ms = 5.12 s.
+	 */
+	private static final int wheelSize = 512;
+	private static final int mask = wheelSize - 1;
 
 	/**
-	 * Prioritni fronta klientu a jejich casu. Neexistuje synchronizovana prioritni fronta, proto se do ni bude davat
-	 * specialnima matodama.
+	 * Zamek, pod kterym se dela vsechno s kolem.
 	 */
-	private final SynchronizedQueue clients;
+	private final Object lock = new Object();
+	private final Bucket[] wheel = new Bucket[wheelSize];
+	/**
+	 * Time of the beginning of tick 0.
+	 */
+	private final long startTime = System.currentTimeMillis();
+	/**
+	 * Next tick to be processed.
+	 */
+	private long tick = 0;
+	/**
+	 * Number of registered wakes, which were neither woken nor cancelled.
+	 */
+	private int pending = 0;
 	protected final WorkerThread worker;
 
 	public Alarm() {
-		clients =  new SynchronizedQueue();
-		this.worker = new WorkerThread(this);
+		for (int i = 0; i < wheelSize; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.worker = new WorkerThread(this, true);	// budik ceka v doMyWork, musi mit vlastni vlakno
 	}
 
+	/**
+	 * Never ends, alarm thread waits here for ticks or for new registration.
+	 */
 	@Override
 	public void doMyWork() {
+		List<Timer> expired = new ArrayList<>();
 
-		while (!clients.isEmpty()) {
-
-			long absNextTime = clients.peek().absTime;
-			long relativeTimeToSleep = absNextTime - System.currentTimeMillis();
-
-
-			if (relativeTimeToSleep <= 0) {	// kdyby budik zaspal, rovnou vzbudit
-				try {	// jednou mi to tu hodilo NullPointer, nevim proc, radsi to kontroluju (ale je to asi zbytecny, jen pro jistotu)
-					wakeObject(clients.poll());
-				} catch (NullPointerException ex) {
-					Logger.log(this,Logger.WARNING,LoggingCategory.ALARM,ex.getMessage(),ex);
-				}
-
-			} else { //nezaspal, jde spat:
-
-				// spani:
+		while (true) {
+			synchronized (lock) {
 				try {
-					Logger.log(this, Logger.DEBUG, LoggingCategory.ALARM, "Jdu spat.", null);
-					Thread.sleep(relativeTimeToSleep);
-					// po vyspani probudim objekt:
-					wakeObject(clients.poll());
-
-				} catch (InterruptedException ex) {	// pri spani me nekdo prerusil
-					// kdyz me neco vzbudi, musim znovu prepocitat dylku spanku - jdu na zacatek
+					if (pending == 0) {	// neni co hlidat, ceka se na registraci
+						Logger.log(this, Logger.DEBUG, LoggingCategory.ALARM, "Jdu spat.", null);
+						lock.wait();
+						continue;
+					}
+					long remaining = startTime + tick * tickLength - System.currentTimeMillis();
+					if (remaining > 0) {
+						lock.wait(remaining);
+						continue;
+					}
+				} catch (InterruptedException ex) {
+					continue;
 				}
+				wheel[(int) (tick & mask)].expire(tick, expired);	// kdyby budik zaspal, dozene to bez cekani
+				pending -= expired.size();
+				tick++;
+			}
+
+			// budi se az mimo zamek, aby se v nem nemohlo nic zaseknout:
+			for (Timer t : expired) {
+				wakeObject(t.client);
 			}
+			expired.clear();
 		}
 	}
 
-	private void wakeObject(WakeableItem item) {
-		if (item == null) {
-			Logger.log(this, Logger.WARNING, LoggingCategory.ALARM, "Ke vzbuzeni mam objekt null, prusvih.", null);
-		} else {
-			Logger.log(this, Logger.DEBUG, LoggingCategory.ALARM, "Jdu vzbudit objekt", item.obj);
-			item.obj.wake();
+	private void wakeObject(Wakeable client) {
+		Logger.log(this, Logger.DEBUG, LoggingCategory.ALARM, "Jdu vzbudit objekt", client);
+		try {
+			client.wake();
+		} catch (RuntimeException ex) {
+			Logger.log(this, Logger.WARNING, LoggingCategory.ALARM, ex.toString(), ex);
 		}
 	}
 
@@ -73,13 +110,26 @@ public class Alarm implements SmartRunnable, Loggable{
 	 *
 	 * @param client klient, kterej se ma vzbudit
 	 * @param relTime za jak dlouho se ma vzbudit (v milisekundach)
+	 * @return handle, which can cancel the wake, if it is no longer needed
 	 */
-	public void registerWake(Wakeable client, long relTime) {
-		long absTimeToWake = System.currentTimeMillis() + relTime;
-		clients.add(new WakeableItem(absTimeToWake, client));
-		Logger.log(this, Logger.DEBUG, LoggingCategory.ALARM, "Zaregistroval jsem objekt, mam ho vzbudit za "+relTime+" ms.", client);
-
-		worker.wake();
+	public Timer registerWake(Wakeable client, long relTime) {
+		long now = System.currentTimeMillis();
+		Timer t;
+		synchronized (lock) {
+			if (pending == 0) {	// kolo stalo, musi se posunout na aktualni cas
+				tick = Math.max(tick, (now - startTime) / tickLength);
+			}
+			long deadline = now + Math.max(0, relTime) - startTime;
+			long deadlineTick = Math.max(tick, (deadline + tickLength - 1) / tickLength);
+			t = new Timer(client, deadlineTick);
+			wheel[(int) (deadlineTick & mask)].add(t);
+			pending++;
+			if (pending == 1) {
+				lock.notifyAll();
+			}
+		}
+		Logger.logf(this, Logger.DEBUG, LoggingCategory.ALARM, "Zaregistroval jsem objekt, mam ho vzbudit za {} ms.", client, relTime);
+		return t;
 	}
 
 	@Override
@@ -87,54 +137,84 @@ public class Alarm implements SmartRunnable, Loggable{
 		return "System alarm";
 	}
 
-
-	private class SynchronizedQueue {
-
-		private final Queue<WakeableItem> fronta;
-
-		public SynchronizedQueue() {
-			fronta = new PriorityQueue<>();
-		}
-
-		private synchronized void add(WakeableItem item) {
-				fronta.add(item);
-		}
-
-		private synchronized WakeableItem peek() {
-			return fronta.peek();
-		}
-
-		private synchronized boolean isEmpty() {
-			return fronta.isEmpty();
+	/**
+	 * Handle of one registered wake.
+	 */
+	public class Timer {
+
+		private final Wakeable client;
+		private final long deadlineTick;
+		// zarazeni v kyblicku, null, kdyz uz v zadnym neni:
+		private Bucket bucket;
+		private Timer prev;
+		private Timer next;
+
+		private Timer(Wakeable client, long deadlineTick) {
+			this.client = client;
+			this.deadlineTick = deadlineTick;
 		}
 
-		private synchronized WakeableItem poll(){
-			return fronta.poll();
+		/**
+		 * Cancels the wake. Does nothing, if the client was already woken.
+		 *
+		 * @return true, if the wake was cancelled by this call
+		 */
+		public boolean cancel() {
+			synchronized (lock) {
+				if (bucket == null) {
+					return false;
+				}
+				bucket.remove(this);
+				pending--;
+				return true;
+			}
 		}
 	}
 
 	/**
-	 * Polozka fronty ke vzbuzeni.
+	 * Kyblicek kola - obousmerne zretezenej seznam, aby se dalo v O(1) rusit. Pouziva se jen pod zamkem.
 	 */
-	private class WakeableItem implements Comparable<WakeableItem> {
+	private static class Bucket {
 
-		public final long absTime;
-		public final Wakeable obj;
+		private Timer head;
 
-		public WakeableItem(long absTime, Wakeable obj) {
-			this.absTime = absTime;
-			this.obj = obj;
+		private void add(Timer t) {
+			t.bucket = this;
+			t.prev = null;
+			t.next = head;
+			if (head != null) {
+				head.prev = t;
+			}
+			head = t;
 		}
 
-		@Override
-		public int compareTo(WakeableItem o) {
-			return ((Long) absTime).compareTo(o.absTime);
+		private void remove(Timer t) {
+			if (t.prev != null) {
+				t.prev.next = t.next;
+			} else {
+				head = t.next;
+			}
+			if (t.next != null) {
+				t.next.prev = t.prev;
+			}
+			t.bucket = null;
+			t.prev = null;
+			t.next = null;
 		}
-	}
-
-
-
-
-
 
+		/**
+		 * Removes all timers, which expire in given tick or sooner, and adds them to the list.
+		 */
+		private void expire(long tick, List<Timer> expired) {
+			Timer t = head;
+			while (t != null) {
+				Timer next = t.next;
+				if (t.deadlineTick <= tick) {	// ostatni cekaji na nektery dalsi kolo
+					remove(t);
+					expired.add(t);
+				}
+				t = next;
+			}
+		}
+	}
 }
@@ -0,0 +1,70 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct byte buffers of the same size. Used for frames sent to real network, so that no buffer is allocated
+ * per frame. Buffers which are bigger than bufferSize are allocated and thrown away every time, they are rare.
+ *
+ * Thread safe.
+ */
+public class ByteBufferPool {
+
+	private final int bufferSize;
+	private final int maxPooled;
+	private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger(0);
+
+	/**
+	 * Constructor.
+	 *
+	 * @param bufferSize size of pooled buffers in bytes
+	 * @param maxPooled max number of free buffers kept in pool
+	 */
+	public ByteBufferPool(int bufferSize, int maxPooled) {
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+	}
+
+	/**
+	 * Returns cleared buffer with at least given capacity and limit set to the size.
+	 *
+	 * @param size
+	 * @return
+	 */
+	public ByteBuffer acquire(int size) {
+		if (size > bufferSize) {
+			return ByteBuffer.allocateDirect(size);
+		}
+		ByteBuffer buffer = free.poll();
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(bufferSize);
+		} else {
+			pooled.decrementAndGet();
+		}
+		buffer.clear();
+		buffer.limit(size);
+		return buffer;
+	}
+
+	/**
+	 * Returns the buffer to the pool. The buffer must not be used after that.
+	 *
+	 * @param buffer
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer.capacity() != bufferSize || !buffer.isDirect()) {
+			return;	// neni z poolu
+		}
+		if (pooled.incrementAndGet() > maxPooled) {
+			pooled.decrementAndGet();
+			return;
+		}
+		free.add(buffer);
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import logging.Loggable;
+import logging.Logger;
+import logging.LoggingCategory;
+
+/**
+ * Discrete-event engine. Keeps priority queue of actions with their simulation time (see SimulationClock) and runs
+ * them in order of time, actions with the same time in order of scheduling. Used for delivering packets through cables
+ * instead of sleeping in the sending thread.
+ *
+ * With scaled clock the scheduler waits for the time of the first action, with virtual clock it runs actions
+ * immediately one after another and moves the clock to their time.
+ *
+ * Actions are run in the thread of the scheduler, so they should be short (e.g. just put packet into buffer of the
+ * receiving switchport). The scheduler waits by Condition.awaitNanos, so it is not limited to milliseconds. It has to
+ * be stopped by stop() when the simulator shuts down.
+ */
+public class EventScheduler implements SmartRunnable, Loggable {
+
+	private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	/**
+	 * Signalled when there is new first action or the scheduler is stopped.
+	 */
+	private final Condition changed = lock.newCondition();
+	/**
+	 * Poradove cislo pro zachovani poradi akci se stejnym casem.
+	 */
+	private long sequence = 0;
+	private volatile boolean stopped = false;
+	protected final WorkerThread worker;
+
+	public EventScheduler() {
+		this.worker = new WorkerThread(this, true);	// ceka v doMyWork na cas akce, musi mit vlastni vlakno
+	}
+
+	/**
+	 * Schedules action to be run at given simulation time. If the time is already over, the action is run as soon as
+	 * possible.
+	 *
+	 * @param time absolute simulation time in nanoseconds
+	 * @param action
+	 */
+	public void schedule(long time, Runnable action) {
+		lock.lock();
+		try {
+			Entry e = new Entry(time, sequence++, action);
+			queue.add(e);
+			if (queue.peek() == e) {	// je to ted prvni akce, musi se prepocitat cekani
+				changed.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns number of scheduled actions.
+	 *
+	 * @return
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the scheduler, actions which were not run yet are forgotten.
+	 */
+	public void stop() {
+		stopped = true;
+		lock.lock();
+		try {
+			queue.clear();
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		worker.die();
+	}
+
+	@Override
+	public void doMyWork() {
+		while (!stopped) {
+			Entry e = next();
+			if (e == null) {
+				continue;
+			}
+			if (SimulationClock.isVirtual()) {
+				SimulationClock.advanceTo(e.time);
+			}
+			try {
+				e.action.run();
+			} catch (Exception ex) {	// jedna spatna akce nesmi zastavit cely planovac
+				Logger.log(this, Logger.WARNING, LoggingCategory.THREADS, "Scheduled action threw exception: " + ex.toString(), ex);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the first action, whose time has come, and removes it from the queue.
+	 *
+	 * @return null, if the waiting was interrupted (new first action, stop), caller should call it again
+	 */
+	private Entry next() {
+		lock.lock();
+		try {
+			if (stopped) {
+				return null;
+			}
+			Entry e = queue.peek();
+			if (e == null) {
+				changed.await();
+				return null;
+			}
+			if (!SimulationClock.isVirtual()) {
+				long remaining = e.time - SimulationClock.now();
+				if (remaining > 0) {
+					changed.awaitNanos(Math.max(1, SimulationClock.toRealNanos(remaining)));
+					return null;
+				}
+			}
+			return queue.poll();
+		} catch (InterruptedException ex) {
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "Event scheduler";
+	}
+
+	/**
+	 * Polozka fronty.
+	 */
+	private static class Entry implements Comparable<Entry> {
+
+		final long time;
+		final long sequence;
+		final Runnable action;
+
+		Entry(long time, long sequence, Runnable action) {
+			this.time = time;
+			this.sequence = sequence;
+			this.action = action;
+		}
+
+		@Override
+		public int compareTo(Entry o) {
+			if (time != o.time) {
+				return time < o.time ? -1 : 1;
+			}
+			return sequence < o.sequence ? -1 : (sequence == o.sequence ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hash map with primitive int keys, e.g. bits of IP addresses. Keys are not boxed and no entry object is allocated, so
+ * lookups on packet paths allocate nothing. Open addressing with linear probing, values must not be null.
+ *
+ * Neni thread safe.
+ */
+public final class IntMap<V> {
+
+	private int[] keys;
+	/**
+	 * Values, null means free slot.
+	 */
+	private Object[] values;
+	private int mask;
+	private int size = 0;
+
+	public IntMap() {
+		this(8);
+	}
+
+	/**
+	 * @param expectedSize expected number of entries, map is resized when needed
+	 */
+	public IntMap(int expectedSize) {
+		int capacity = 8;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Returns value for the key or null.
+	 *
+	 * @param key
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+			Object value = values[i];
+			if (value == null) {
+				return null;
+			}
+			if (keys[i] == key) {
+				return (V) value;
+			}
+		}
+	}
+
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Puts the value to the map.
+	 *
+	 * @param key
+	 * @param value not null
+	 * @return previous value or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new NullPointerException("IntMap does not support null values.");
+		}
+		if ((size + 1) * 2 > values.length) {
+			resize(values.length * 2);
+		}
+		int i = hash(key) & mask;
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		return null;
+	}
+
+	/**
+	 * Removes the key.
+	 *
+	 * @param key
+	 * @return removed value or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int i = hash(key) & mask;
+		while (values[i] != null && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		if (values[i] == null) {
+			return null;
+		}
+		V old = (V) values[i];
+
+		// posunuti nasledujicich zaznamu, aby v retezci nezustala dira
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (values[j] == null) {
+				break;
+			}
+			int home = hash(keys[j]) & mask;
+			boolean movable = (i <= j) ? (home <= i || home > j) : (home <= i && home > j);
+			if (movable) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		values[i] = null;
+		size--;
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns copy of values in no particular order.
+	 *
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public List<V> values() {
+		List<V> list = new ArrayList<>(size);
+		for (Object value : values) {
+			if (value != null) {
+				list.add((V) value);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns copy of keys in no particular order.
+	 *
+	 * @return
+	 */
+	public int[] keys() {
+		int[] list = new int[size];
+		int j = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				list[j++] = keys[i];
+			}
+		}
+		return list;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		size = 0;
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				put(oldKeys[i], (V) oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Spreads bits of the key, IP addresses of one network differ only in low bits.
+	 */
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
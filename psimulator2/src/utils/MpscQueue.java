@@ -0,0 +1,154 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer. Used as packet buffer of layers: any thread can add
+ * packets, but only the worker of the layer takes them out.
+ *
+ * Implemented as ring buffer, where every slot has its sequence number. Producers reserve slots by CAS on the tail
+ * counter, consumer needs no CAS at all. No node is allocated per element.
+ *
+ * Metody offer a size muze volat kdokoliv, metody poll, drainTo a isEmpty jen konzument (worker dane vrstvy).
+ */
+public final class MpscQueue<E> {
+
+	private final Object[] buffer;
+	/**
+	 * Sequence numbers of slots. Slot is free for producer with position p iff its sequence is p, it is full for
+	 * consumer with position p iff its sequence is p+1.
+	 */
+	private final AtomicLongArray sequences;
+	private final int mask;
+	/**
+	 * Next position for producers.
+	 */
+	private final AtomicLong tail = new AtomicLong(0);
+	/**
+	 * Next position for consumer. Written only by consumer, volatile kvuli size().
+	 */
+	private volatile long head = 0;
+
+	/**
+	 * Creates queue.
+	 *
+	 * @param capacity maximal number of elements, is rounded up to the power of two
+	 */
+	public MpscQueue(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		this.buffer = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Inserts element into queue. Can be called from any thread.
+	 *
+	 * @param e element, cannot be null
+	 * @return false, if queue is full and element was not inserted
+	 */
+	public boolean offer(E e) {
+		if (e == null) {
+			throw new NullPointerException();
+		}
+		long pos = tail.get();
+		int index;
+		while (true) {
+			index = (int) (pos & mask);
+			long dif = sequences.get(index) - pos;
+			if (dif == 0) {	// slot je volnej, zkusim si ho zarezervovat
+				if (tail.compareAndSet(pos, pos + 1)) {
+					break;
+				}
+				pos = tail.get();
+			} else if (dif < 0) {	// konzument jeste slot neuvolnil, fronta je plna
+				return false;
+			} else {	// nekdo jinej mi slot vyfouknul
+				pos = tail.get();
+			}
+		}
+		buffer[index] = e;
+		sequences.set(index, pos + 1);	// zverejneni prvku konzumentovi
+		return true;
+	}
+
+	/**
+	 * Removes the first element. Only for consumer.
+	 *
+	 * @return first element or null, if queue is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		long pos = head;
+		int index = (int) (pos & mask);
+		if (sequences.get(index) != pos + 1) {	// nic tam neni nebo to producent jeste nedopsal
+			return null;
+		}
+		E e = (E) buffer[index];
+		buffer[index] = null;
+		sequences.set(index, pos + buffer.length);	// uvolneni slotu pro dalsi kolo
+		head = pos + 1;
+		return e;
+	}
+
+	/**
+	 * Moves at most max elements from queue to the given collection. Only for consumer.
+	 *
+	 * @param target
+	 * @param max
+	 * @return number of moved elements
+	 */
+	public int drainTo(Collection<? super E> target, int max) {
+		int count = 0;
+		E e;
+		while (count < max && (e = poll()) != null) {
+			target.add(e);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns true, if there is no element ready for consumer. Only for consumer, for other threads it is only
+	 * estimate.
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		long pos = head;
+		return sequences.get((int) (pos & mask)) != pos + 1;
+	}
+
+	/**
+	 * Returns estimated number of elements in queue.
+	 *
+	 * @return
+	 */
+	public int size() {
+		long size = tail.get() - head;
+		return (int) Math.max(0, Math.min(size, buffer.length));
+	}
+
+	/**
+	 * Returns capacity of the queue.
+	 *
+	 * @return
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+/**
+ * Simulation time in nanoseconds, used by EventScheduler for timing of link deliveries.
+ *
+ * The clock has two modes set by system property psimulator2.clockScale:
+ * <ul>
+ * <li>scaled (default, scale 1.0 = real time): simulation time runs scale times faster than wall clock time,</li>
+ * <li>virtual (scale 0): time does not run by itself at all, it jumps to the time of the event, which is being
+ * processed. The simulation runs as fast as possible and link timing does not depend on speed of the computer.</li>
+ * </ul>
+ */
+public final class SimulationClock {
+
+	private static final double scale = parseScale(System.getProperty("psimulator2.clockScale"));
+	/**
+	 * Wall clock time of the simulation start.
+	 */
+	private static final long origin = System.nanoTime();
+	/**
+	 * Current time in virtual mode, posouva ho jen EventScheduler.
+	 */
+	private static volatile long virtualTime = 0;
+
+	private SimulationClock() {
+	}
+
+	/**
+	 * Returns current simulation time in nanoseconds from the start of simulation.
+	 *
+	 * @return
+	 */
+	public static long now() {
+		if (isVirtual()) {
+			return virtualTime;
+		}
+		return (long) ((System.nanoTime() - origin) * scale);
+	}
+
+	/**
+	 * Returns true, if the clock is virtual (it moves only with processed events).
+	 *
+	 * @return
+	 */
+	public static boolean isVirtual() {
+		return scale == 0;
+	}
+
+	/**
+	 * Converts interval of simulation time to wall clock time. Only for scaled mode.
+	 *
+	 * @param simulationNanos
+	 * @return nanoseconds of wall clock time
+	 */
+	static long toRealNanos(long simulationNanos) {
+		return (long) (simulationNanos / scale);
+	}
+
+	/**
+	 * Moves virtual time to given time. Time never goes back.
+	 *
+	 * @param time
+	 */
+	static synchronized void advanceTo(long time) {
+		if (time > virtualTime) {
+			virtualTime = time;
+		}
+	}
+
+	private static double parseScale(String value) {
+		if (value == null) {
+			return 1.0;
+		}
+		try {
+			double d = Double.parseDouble(value);
+			if (d >= 0 && !Double.isInfinite(d)) {
+				return d;
+			}
+		} catch (NumberFormatException ex) {
+			// spatna hodnota, pouzije se realnej cas
+		}
+		return 1.0;
+	}
+}
@@ -3,18 +3,61 @@
  */
 package utils;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import logging.Loggable;
 import logging.Logger;
 import logging.LoggingCategory;
 
 /**
  * Thread implements wake and run functions. It sleeps itselfs.
+ *
+ * Worker can run in two modes. In the default (dedicated) mode every worker has its own platform thread, which sleeps
+ * in wait() between wakes. In shared mode (system property psimulator2.sharedWorkers=true) the worker has no thread of
+ * its own, every wake() submits it to one shared ForkJoinPool sized by the number of cores. In both modes doMyWork()
+ * of one SmartRunnable is never run by two threads at once and the wake/die contract is the same.
+ *
  * @author Tomas Pitrinec
  * @author Stanislav Rehak
  */
 public final class WorkerThread implements Runnable, Loggable {
 
+	/**
+	 * Jestli se maji workery poustet ve sdilenym poolu misto vlastnich vlaken.
+	 */
+	private static final boolean sharedMode = Boolean.getBoolean("psimulator2.sharedWorkers");
+	/**
+	 * Shared pool for all workers in shared mode, created lazily.
+	 */
+	private static volatile ForkJoinPool sharedPool;
+
+	// stavy workeru ve sdilenym rezimu:
+	private static final int IDLE = 0;
+	private static final int SCHEDULED = 1;
+	private static final int RUNNING = 2;
+	/**
+	 * Worker bezi a mezitim byl znova vzbuzen, po dobehnuti doMyWork se musi pustit znova.
+	 */
+	private static final int RUNNING_AGAIN = 3;
+
     private Thread myThread;
+	/**
+	 * Name used instead of thread name in shared mode.
+	 */
+	private final String name;
+	/**
+	 * State of the worker in shared mode, in dedicated mode it is not used.
+	 */
+	private final AtomicInteger state = new AtomicInteger(IDLE);
+	/**
+	 * Task submitted to the shared pool.
+	 */
+	private final Runnable sharedTask = new Runnable() {
+		@Override
+		public void run() {
+			runShared();
+		}
+	};
 
 	/**
 	 * Ma-li vlakno spat v metode sleep. Na zacatku spi. Po umreni vlakna nespi, to uz je mrtvy.
@@ -25,19 +68,41 @@ public final class WorkerThread implements Runnable, Loggable {
 	/**
 	 * Jestli ma vlakno umrit.
 	 */
-	private boolean dieCalled = false;
+	private volatile boolean dieCalled = false;
 
     public WorkerThread(SmartRunnable smartRunnable) {
+		this(smartRunnable, false);
+    }
+
+	/**
+	 * Constructor.
+	 *
+	 * @param smartRunnable
+	 * @param ownThread true, if the worker must have its own thread even in shared mode (for runnables that block in
+	 * doMyWork, e.g. Alarm)
+	 */
+	public WorkerThread(SmartRunnable smartRunnable, boolean ownThread) {
 		assert smartRunnable != null;
 		this.smartRunnable = smartRunnable;
-        myThread = new Thread(this,smartRunnable.getDescription());
-        myThread.start();
-    }
+		this.name = smartRunnable.getDescription();
+		if (ownThread || !sharedMode) {
+			myThread = new Thread(this, name);
+			myThread.start();
+		}
+	}
 
 	/**
 	 * Wakes thread so it can work.
 	 */
-	public synchronized void wake() {
+	public void wake() {
+		if (myThread == null) {
+			wakeShared();
+		} else {
+			wakeDedicated();
+		}
+	}
+
+	private synchronized void wakeDedicated() {
 
 		// bylo-li uz narizeno umrit, nic se nedela
 		if (dieCalled) {
@@ -48,11 +113,6 @@ public final class WorkerThread implements Runnable, Loggable {
 		if (isSleeping) {	//kdyz nebezi tak se zapne
 			isSleeping = false;
 			this.notifyAll();
-
-		} else if (smartRunnable.getClass() == Alarm.class) {	// special function only for alarm !!! - specialni fce JEN PRO BUDIK !!!
-			if (myThread.getState() == Thread.State.TIMED_WAITING) {
-				myThread.interrupt();
-			}
 		}
 
 	}
@@ -62,6 +122,11 @@ public final class WorkerThread implements Runnable, Loggable {
 	 */
 	public synchronized void die() {
 
+		if (myThread == null) {	// ve sdilenym rezimu neni koho notifikovat, pripadne naplanovana uloha uz nic neudela
+			dieCalled = true;
+			return;
+		}
+
 		if (!dieCalled) {	// kdyz uz ho nekdo neusmrtil
 			this.dieCalled = true;
 
@@ -113,12 +178,85 @@ public final class WorkerThread implements Runnable, Loggable {
 		}
 	}
 
+// sdileny rezim: ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Wake in shared mode. Submits the worker to the pool, if it is not already scheduled. If it is running just now,
+	 * it only marks that doMyWork() has to be run once more.
+	 */
+	private void wakeShared() {
+		if (dieCalled) {
+			return;
+		}
+
+		while (true) {
+			int s = state.get();
+			if (s == IDLE) {
+				if (state.compareAndSet(IDLE, SCHEDULED)) {
+					getSharedPool().execute(sharedTask);
+					return;
+				}
+			} else if (s == RUNNING) {
+				if (state.compareAndSet(RUNNING, RUNNING_AGAIN)) {
+					return;
+				}
+			} else {	// SCHEDULED or RUNNING_AGAIN - doMyWork will run anyway
+				return;
+			}
+		}
+	}
+
+	/**
+	 * One run of the worker in the shared pool. Runs doMyWork() until nobody wakes the worker during its run.
+	 */
+	private void runShared() {
+		state.set(RUNNING);
+		while (!dieCalled) {
+			try {
+				smartRunnable.doMyWork();
+			} catch (Exception e) {
+				Logger.log(this, Logger.WARNING, LoggingCategory.THREADS, "Some exception occured: "+e.toString(), e);
+			}
+
+			if (state.compareAndSet(RUNNING, IDLE)) {	// nikdo me mezitim nevzbudil, koncim
+				return;
+			}
+			state.set(RUNNING);	// byl jsem vzbuzen behem prace, jdu znova
+		}
+		state.set(IDLE);
+		Logger.log(this, Logger.DEBUG, LoggingCategory.THREADS, "Worker ve sdilenym poolu definitivne konci.", null);
+	}
+
+	private static ForkJoinPool getSharedPool() {
+		if (sharedPool == null) {
+			synchronized (WorkerThread.class) {
+				if (sharedPool == null) {
+					sharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+							ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+				}
+			}
+		}
+		return sharedPool;
+	}
+
+	/**
+	 * Returns true, if workers run in the shared pool.
+	 *
+	 * @return
+	 */
+	public static boolean isSharedMode() {
+		return sharedMode;
+	}
+
 	@Override
 	public String getDescription() {
 		return "WorkerThread ("+getThreadName()+")";
 	}
 
 	public String getThreadName(){
+		if (myThread == null) {
+			return name;
+		}
 		return myThread.getName();
 	}
 }
@@ -0,0 +1,84 @@
+/*
+ * created 18.10.2026
+ */
+package applications.dns;
+
+import dataStructures.ipAddresses.IpAddress;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of DnsCache (positive and negative entries and their expiry in simulation time).
+ */
+public class DnsCacheTest {
+
+	private static final String NAME = "www.example.com.";
+	private static final IpAddress ADDRESS = new IpAddress("10.0.0.2");
+
+	DnsCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new DnsCache();
+	}
+
+	@Test
+	public void testMissThenHit() {
+		assertNull(cache.lookup(NAME, null));
+		cache.complete(NAME, ADDRESS, 60, true);
+
+		DnsCache.Entry entry = cache.lookup(NAME, null);
+		assertNotNull(entry);
+		assertEquals(ADDRESS, entry.address);
+		assertTrue(cache.getStatistics().contains("Cache Hits: 1"));
+	}
+
+	@Test
+	public void testNegativeEntry() {
+		assertNull(cache.lookup(NAME, null));
+		cache.complete(NAME, null, 60, true);
+
+		DnsCache.Entry entry = cache.lookup(NAME, null);
+		assertNotNull(entry);
+		assertNotSame(DnsCache.PENDING, entry);
+		assertNull(entry.address);
+		assertTrue(cache.getStatistics().contains("Negative Cache Hits: 1"));
+	}
+
+	@Test
+	public void testNotCacheable() {
+		assertNull(cache.lookup(NAME, null));
+		cache.complete(NAME, null, 60, false);
+		assertNull(cache.lookup(NAME, null));	// musi se resit znova
+	}
+
+	@Test
+	public void testZeroTtlExpiresAtOnce() {
+		assertNull(cache.lookup(NAME, null));
+		cache.complete(NAME, ADDRESS, 0, true);
+
+		assertNull(cache.lookup(NAME, null));
+		assertTrue(cache.getStatistics().contains("Expired Entries: 1"));
+	}
+
+	@Test
+	public void testEntryExpires() throws InterruptedException {
+		assertNull(cache.lookup(NAME, null));
+		cache.complete(NAME, ADDRESS, 1, true);
+		assertNotNull(cache.lookup(NAME, null));
+		assertEquals(1, cache.dump().size());
+
+		Thread.sleep(1100);	// simulacni cas bezi v testu jako realnej
+		assertTrue(cache.dump().isEmpty());
+		assertNull(cache.lookup(NAME, null));
+		assertTrue(cache.getStatistics().contains("Expired Entries: 1"));
+	}
+
+	@Test
+	public void testFlush() {
+		assertNull(cache.lookup(NAME, null));
+		cache.complete(NAME, ADDRESS, 60, true);
+		cache.flush();
+		assertNull(cache.lookup(NAME, null));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * created 18.10.2026
+ */
+package applications.dns;
+
+import dataStructures.packets.dns.DnsAnswer;
+import dataStructures.packets.dns.DnsPacket;
+import dataStructures.packets.dns.DnsQuestion;
+import dataStructures.packets.dns.DnsType;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of DnsZone (trie of labels).
+ */
+public class DnsZoneTest {
+
+	DnsZone zone;
+
+	@Before
+	public void setUp() {
+		zone = new DnsZone("example.com.");
+		zone.addRecord("example.com.", DnsType.NS, "ns.example.com.");
+		zone.addRecord("ns.example.com.", DnsType.A, "10.0.0.1");
+		zone.addRecord("www.example.com.", DnsType.A, "10.0.0.2");
+		zone.addRecord("www.example.com.", DnsType.A, "10.0.0.3");
+		zone.addRecord("www.example.com.", DnsType.A, "10.0.0.2");	// duplicitni zaznam
+		zone.addRecord("sub.example.com.", DnsType.NS, "ns.sub.example.com.");
+		zone.addRecord("ns.sub.example.com.", DnsType.A, "10.0.1.1");
+		zone.addRecord("nonglue.example.com.", DnsType.NS, "ns.elsewhere.org.");
+	}
+
+	private DnsPacket query(String name) {
+		return zone.resolveQuery(new DnsPacket(DnsPacket.DnsPacketType.QUERY, 1, new DnsQuestion(name)));
+	}
+
+	private static boolean contains(java.util.List<DnsAnswer> section, String name, DnsType type, String data) {
+		for (DnsAnswer answer : section) {
+			if (answer.aName.equals(name) && answer.aType == type && answer.aData.equals(data)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void testAddresses() {
+		DnsPacket p = query("www.example.com.");
+		assertEquals(2, p.answers.size());
+		assertTrue(contains(p.answers, "www.example.com.", DnsType.A, "10.0.0.2"));
+		assertTrue(contains(p.answers, "www.example.com.", DnsType.A, "10.0.0.3"));
+
+		// nameserver zony jde do authority, jeho adresa do additional
+		assertTrue(contains(p.authority, "example.com.", DnsType.NS, "ns.example.com."));
+		assertTrue(contains(p.additional, "ns.example.com.", DnsType.A, "10.0.0.1"));
+	}
+
+	@Test
+	public void testUnknownName() {
+		DnsPacket p = query("nothing.example.com.");
+		assertTrue(p.answers.isEmpty());
+		assertTrue(contains(p.authority, "example.com.", DnsType.NS, "ns.example.com."));
+	}
+
+	@Test
+	public void testDelegation() {
+		DnsPacket p = query("host.sub.example.com.");
+		assertTrue(p.answers.isEmpty());
+		// nejblizsi delegovana domena ma prednost pred zonou
+		assertTrue(contains(p.authority, "sub.example.com.", DnsType.NS, "ns.sub.example.com."));
+		assertTrue(contains(p.additional, "ns.sub.example.com.", DnsType.A, "10.0.1.1"));
+		assertFalse(contains(p.authority, "example.com.", DnsType.NS, "ns.example.com."));
+	}
+
+	@Test
+	public void testNameserverItself() {
+		// dotaz primo na nameserver: adresa v answer, sam sebe do authority nedava
+		DnsPacket p = query("ns.sub.example.com.");
+		assertTrue(contains(p.answers, "ns.sub.example.com.", DnsType.A, "10.0.1.1"));
+		assertFalse(contains(p.authority, "sub.example.com.", DnsType.NS, "ns.sub.example.com."));
+	}
+
+	@Test
+	public void testDelegationWithoutGlue() {
+		// nameserver mimo zonu nema adresu, delegace se nepouzije
+		DnsPacket p = query("a.nonglue.example.com.");
+		assertTrue(p.answers.isEmpty());
+		assertFalse(contains(p.authority, "nonglue.example.com.", DnsType.NS, "ns.elsewhere.org."));
+		assertTrue(contains(p.authority, "example.com.", DnsType.NS, "ns.example.com."));
+	}
+
+	@Test
+	public void testTtl() {
+		zone.setTtl(300);
+		DnsPacket p = query("www.example.com.");
+		for (DnsAnswer answer : p.answers) {
+			assertEquals(300, answer.ttl);
+		}
+	}
+
+	@Test
+	public void testOtherZone() {
+		DnsPacket p = query("www.example.org.");
+		assertTrue(p.answers.isEmpty());
+		assertTrue(p.authority.isEmpty());
+		assertTrue(p.additional.isEmpty());
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * created 18.10.2026
+ */
+package filesystem;
+
+import filesystem.dataStructures.NodesWrapper;
+import filesystem.dataStructures.jobs.InputFileJob;
+import filesystem.dataStructures.jobs.OutputFileJob;
+import filesystem.dataStructures.jobs.ParseFileJob;
+import filesystem.exceptions.FileNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of CachingFileSystem (views are parsed once and dropped when their file changes).
+ */
+public class CachingFileSystemTest {
+
+	MemoryFileSystem memory;
+	CachingFileSystem fs;
+	CountingJob job;
+
+	@Before
+	public void setUp() {
+		memory = new MemoryFileSystem();
+		fs = new CachingFileSystem(memory);
+		job = new CountingJob();
+		write("/etc/hosts", "127.0.0.1 localhost");
+		write("/etc/hostname", "pc1");
+	}
+
+	private void write(String path, final String content) {
+		fs.runOutputFileJob(path, new OutputFileJob() {
+			@Override
+			public int workOnFile(OutputStream output) throws Exception {
+				output.write(content.getBytes("UTF-8"));
+				return 0;
+			}
+		});
+	}
+
+	@Test
+	public void testParsedOnce() {
+		String first = fs.getParsed("/etc/hosts", job);
+		assertEquals("127.0.0.1 localhost", first);
+		assertSame(first, fs.getParsed("/etc/hosts", job));
+		assertSame(first, fs.getParsed("/etc//hosts", job));	// stejna cesta po normalizaci
+		assertEquals(1, job.count);
+	}
+
+	@Test
+	public void testOtherJobParsesAgain() {
+		fs.getParsed("/etc/hosts", job);
+		CountingJob other = new CountingJob();
+		assertEquals("127.0.0.1 localhost", fs.getParsed("/etc/hosts", other));
+		assertEquals(1, other.count);
+	}
+
+	@Test
+	public void testWriteInvalidates() {
+		fs.getParsed("/etc/hosts", job);
+		fs.getParsed("/etc/hostname", job);
+		write("/etc/hosts", "10.0.0.1 server");
+
+		assertEquals("10.0.0.1 server", fs.getParsed("/etc/hosts", job));
+		assertEquals("pc1", fs.getParsed("/etc/hostname", job));	// jinej soubor zustava
+		assertEquals(3, job.count);
+	}
+
+	@Test
+	public void testInvalidateDoesNotTouchPathsWithSamePrefix() {
+		fs.getParsed("/etc/hostname", job);
+		fs.invalidate("/etc/host");
+		fs.getParsed("/etc/hostname", job);
+		assertEquals(1, job.count);
+	}
+
+	@Test
+	public void testRemoveDirectoryInvalidatesFilesUnderIt() throws Exception {
+		fs.getParsed("/etc/hosts", job);
+		fs.getParsed("/etc/hostname", job);
+		fs.rm_r("/etc");
+
+		assertNull(fs.getParsed("/etc/hosts", job));
+		assertNull(fs.getParsed("/etc/hostname", job));
+	}
+
+	@Test
+	public void testMoveInvalidatesSourceAndTarget() throws Exception {
+		fs.getParsed("/etc/hosts", job);
+		fs.getParsed("/etc/hostname", job);
+		fs.mv("/etc/hostname", "/etc/hosts");
+
+		assertEquals("pc1", fs.getParsed("/etc/hosts", job));
+		assertNull(fs.getParsed("/etc/hostname", job));
+	}
+
+	@Test
+	public void testChangeOfUnderlyingFileNotSeen() {
+		fs.getParsed("/etc/hosts", job);
+		memory.files.put("/etc/hosts", "changed".getBytes());	// mimo cache, viz javadoc CachingFileSystem
+		assertEquals("127.0.0.1 localhost", fs.getParsed("/etc/hosts", job));
+
+		fs.invalidate("/etc/hosts");
+		assertEquals("changed", fs.getParsed("/etc/hosts", job));
+	}
+
+	/**
+	 * Parses the whole file into String and counts, how many times it was called.
+	 */
+	private static class CountingJob implements ParseFileJob<String> {
+
+		int count = 0;
+
+		@Override
+		public String parse(InputStream input) throws Exception {
+			count++;
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			byte[] buffer = new byte[256];
+			int read;
+			while ((read = input.read(buffer)) > 0) {
+				content.write(buffer, 0, read);
+			}
+			return content.toString("UTF-8");
+		}
+	}
+
+	/**
+	 * Filesystem with files only in memory, directories are just prefixes of the paths.
+	 */
+	private static class MemoryFileSystem implements FileSystem {
+
+		final Map<String, byte[]> files = new HashMap<>();
+
+		@Override
+		public String normalize(String path) {
+			String normalized = path.replaceAll("/+", "/");
+			return normalized.length() > 1 && normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized;
+		}
+
+		@Override
+		public boolean rm_r(String path) throws FileNotFoundException {
+			String key = normalize(path);
+			boolean removed = false;
+			for (Iterator<String> it = files.keySet().iterator(); it.hasNext();) {
+				String file = it.next();
+				if (file.equals(key) || file.startsWith(key + "/")) {
+					it.remove();
+					removed = true;
+				}
+			}
+			return removed;
+		}
+
+		@Override
+		public boolean cp_r(String source, String target) {
+			byte[] content = files.get(normalize(source));
+			if (content == null) {
+				return false;
+			}
+			files.put(normalize(target), content);
+			return true;
+		}
+
+		@Override
+		public boolean mv(String source, String target) {
+			byte[] content = files.remove(normalize(source));
+			if (content == null) {
+				return false;
+			}
+			files.put(normalize(target), content);
+			return true;
+		}
+
+		@Override
+		public boolean isFile(String path) {
+			return files.containsKey(normalize(path));
+		}
+
+		@Override
+		public boolean isDir(String path) {
+			return false;
+		}
+
+		@Override
+		public boolean exists(String path) {
+			return isFile(path);
+		}
+
+		@Override
+		public NodesWrapper listDir(String path) throws FileNotFoundException {
+			throw new FileNotFoundException();
+		}
+
+		@Override
+		public boolean createNewFile(String path) {
+			if (isFile(path)) {
+				return false;
+			}
+			files.put(normalize(path), new byte[0]);
+			return true;
+		}
+
+		@Override
+		public boolean createNewDir(String path) {
+			return true;
+		}
+
+		@Override
+		public int runInputFileJob(String path, InputFileJob job) throws FileNotFoundException {
+			byte[] content = files.get(normalize(path));
+			if (content == null) {
+				throw new FileNotFoundException();
+			}
+			try {
+				return job.workOnFile(new ByteArrayInputStream(content));
+			} catch (Exception ex) {
+				return -1;
+			}
+		}
+
+		@Override
+		public int runOutputFileJob(String path, OutputFileJob job) {
+			return runOutputFileJob(path, job, false);
+		}
+
+		@Override
+		public int runOutputFileJob(String path, OutputFileJob job, boolean append) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			try {
+				int result = job.workOnFile(output);
+				files.put(normalize(path), output.toByteArray());
+				return result;
+			} catch (Exception ex) {
+				return -1;
+			}
+		}
+
+		@Override
+		public void umount() {
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * created 18.10.2026
+ */
+package logging.networkEvents;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shared.SimulatorEvents.EventStreamRequest;
+import shared.telnetConfig.TelnetConfig;
+import static org.junit.Assert.*;
+
+/**
+ * Negotiation of event stream format between EventServer and clients.
+ */
+public class ClientSessionTest {
+
+	private EventServer server;
+	private Thread serverThread;
+	private int port;
+
+	@Before
+	public void setUp() throws IOException {
+		ServerSocket free = new ServerSocket(0);
+		port = free.getLocalPort();
+		free.close();
+		server = new EventServer(port);
+		serverThread = new Thread(server);
+		serverThread.start();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		server.stop();
+		server.getListener().quit();
+		serverThread.join(2000);
+	}
+
+	/**
+	 * Older client does not send EventStreamRequest and waits for TelnetConfig only 1 s.
+	 */
+	@Test
+	public void testClientWithoutRequestGetsTelnetConfig() throws Exception {
+		Socket socket = connect();
+		try {
+			new ObjectOutputStream(socket.getOutputStream()).flush();	// only stream header, as older client
+			socket.setSoTimeout(5000);
+			ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+			socket.setSoTimeout(1000);
+
+			assertTrue(input.readObject() instanceof TelnetConfig);
+		} finally {
+			socket.close();
+		}
+	}
+
+	@Test
+	public void testClientWithRequestSwitchesToBinary() throws Exception {
+		Socket socket = connect();
+		try {
+			ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+			output.writeObject(new EventStreamRequest());
+			output.flush();
+			socket.setSoTimeout(5000);
+			ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+			socket.setSoTimeout(1000);
+
+			assertTrue(input.readObject() instanceof TelnetConfig);
+			Object confirmation = input.readObject();
+			assertTrue(confirmation instanceof EventStreamRequest);
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Server socket is bound by the server thread, so first attempts can be refused.
+	 */
+	private Socket connect() throws Exception {
+		for (int i = 0;; i++) {
+			try {
+				return new Socket("127.0.0.1", port);
+			} catch (ConnectException ex) {
+				if (i == 50) {
+					throw ex;
+				}
+				Thread.sleep(50);
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * created 18.10.2026
+ */
+package networkModule.L2;
+
+import dataStructures.MacAddress;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of MacTable (learning, refreshing, aging and eviction).
+ */
+public class MacTableTest {
+
+	private static final int TIMEOUT = 10;	// [s]
+
+	MacTable table;
+	SwitchportSettings port1;
+	SwitchportSettings port2;
+
+	@Before
+	public void setUp() {
+		table = new MacTable(TIMEOUT, 1000);
+		port1 = new SwitchportSettings(1);
+		port2 = new SwitchportSettings(2);
+	}
+
+	private static MacAddress mac(long bits) {
+		return MacAddress.valueOf(bits);
+	}
+
+	@Test
+	public void testLearnAndLookup() {
+		table.learn(mac(1), port1, 0);
+		table.learn(mac(2), port2, 0);
+		assertSame(port1, table.lookup(mac(1), 0));
+		assertSame(port2, table.lookup(mac(2), 0));
+		assertNull(table.lookup(mac(3), 0));
+		assertEquals(2, table.size());
+	}
+
+	@Test
+	public void testRefreshInPlace() {
+		table.learn(mac(1), port1, 0);
+		table.learn(mac(1), port2, 1000);	// stanice se presunula
+		assertEquals(1, table.size());
+		assertSame(port2, table.lookup(mac(1), 1000));
+	}
+
+	@Test
+	public void testExpiredLookup() {
+		table.learn(mac(1), port1, 0);
+		assertSame(port1, table.lookup(mac(1), TIMEOUT * 1000));
+		assertNull(table.lookup(mac(1), TIMEOUT * 1000 + 1));
+	}
+
+	@Test
+	public void testAging() {
+		table.learn(mac(1), port1, 0);
+		table.learn(mac(2), port1, 0);
+		// dalsi uceni po vyprseni smaze stary zaznamy
+		table.learn(mac(3), port2, (TIMEOUT + 2) * 1000);
+		assertEquals(1, table.size());
+		assertNull(table.lookup(mac(1), (TIMEOUT + 2) * 1000));
+		assertSame(port2, table.lookup(mac(3), (TIMEOUT + 2) * 1000));
+	}
+
+	@Test
+	public void testRefreshedEntrySurvivesAging() {
+		table.learn(mac(1), port1, 0);
+		table.learn(mac(1), port1, 5000);
+		table.learn(mac(2), port2, (TIMEOUT + 2) * 1000);
+		assertEquals(2, table.size());
+		assertSame(port1, table.lookup(mac(1), (TIMEOUT + 2) * 1000));
+
+		// obnovenej zaznam vyprsi az podle posledniho obnoveni
+		table.learn(mac(2), port2, (TIMEOUT + 7) * 1000);
+		assertEquals(1, table.size());
+		assertNull(table.lookup(mac(1), (TIMEOUT + 7) * 1000));
+	}
+
+	@Test
+	public void testEvictionWhenFull() {
+		table = new MacTable(TIMEOUT, 3);
+		table.learn(mac(1), port1, 0);
+		table.learn(mac(2), port1, 1000);
+		table.learn(mac(3), port1, 2000);
+		table.learn(mac(4), port2, 3000);	// vyhodi se zaznam, kterej by vyprsel nejdriv
+		assertEquals(3, table.size());
+		assertNull(table.lookup(mac(1), 3000));
+		assertSame(port1, table.lookup(mac(2), 3000));
+		assertSame(port2, table.lookup(mac(4), 3000));
+	}
+
+	@Test
+	public void testManyEntries() {
+		for (int i = 0; i < 1000; i++) {
+			table.learn(mac(0x001122000000L + i), i % 2 == 0 ? port1 : port2, 0);
+		}
+		assertEquals(1000, table.size());
+		for (int i = 0; i < 1000; i++) {
+			assertSame(i % 2 == 0 ? port1 : port2, table.lookup(mac(0x001122000000L + i), 0));
+		}
+	}
+
+	@Test
+	public void testGetEntries() {
+		long now = System.currentTimeMillis();
+		table.learn(mac(1), port1, now);
+		table.learn(mac(2), port2, now);
+		assertEquals(2, table.getEntries().size());
+	}
+}
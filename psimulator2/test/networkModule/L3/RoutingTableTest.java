@@ -5,6 +5,7 @@ package networkModule.L3;
 
 import dataStructures.ipAddresses.IPwithNetmask;
 import dataStructures.ipAddresses.IpAddress;
+import java.util.Random;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -80,4 +81,43 @@ public class RoutingTableTest {
         System.out.println(rt.vypisSeLinuxove());
 
     }
+
+	/**
+	 * Hledani v trii musi vracet stejny zaznam jako puvodni linearni pruchod tabulkou (prvni odpovidajici zaznam na
+	 * nahozenym rozhrani).
+	 */
+	@Test
+	public void tretiTest() {
+		System.out.println("Treti test ------------------------------------------------------------------------");
+		Random random = new Random(42);
+
+		rt.addRecord(new IPwithNetmask("0.0.0.0", 0), eth0);
+		for (int i = 0; i < 2000; i++) {
+			int maska = random.nextInt(33);
+			IpAddress adr = IpAddress.createIpFromBits(random.nextInt() & 0xF0F0FFFF);
+			NetworkInterface iface = random.nextBoolean() ? eth0 : wlan0;
+			rt.addRecord(new IPwithNetmask(adr, maska).getNetworkNumber(), iface);
+		}
+		for (int i = 0; i < 300; i++) {
+			rt.deleteRecord(rt.getRecord(random.nextInt(rt.size())));
+		}
+
+		for (int i = 0; i < 20000; i++) {
+			if (i % 5000 == 0) {
+				wlan0.isUp = !wlan0.isUp;
+			}
+			IpAddress cil = IpAddress.createIpFromBits(random.nextInt() & 0xF0F0FFFF);
+			assertSame(findRouteLinearly(cil), rt.findRoute(cil));
+		}
+	}
+
+	private RoutingTable.Record findRouteLinearly(IpAddress cil) {
+		for (int i = 0; i < rt.size(); i++) {
+			RoutingTable.Record z = rt.getRecord(i);
+			if (z.adresat.isInMyNetwork(cil) && z.iface.isUp) {
+				return z;
+			}
+		}
+		return null;
+	}
 }
@@ -0,0 +1,114 @@
+/*
+ * created 18.10.2026
+ */
+package networkModule.L3.nat;
+
+import dataStructures.ipAddresses.IPwithNetmask;
+import dataStructures.ipAddresses.IpAddress;
+import dataStructures.packets.IpPacket;
+import dataStructures.packets.UdpPacket;
+import java.util.List;
+import networkModule.L3.NetworkInterface;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of dynamic records of NatTable (inside and outside index and expiry).
+ */
+public class NatTableTest {
+
+	private static final IpAddress PUBLIC = new IpAddress("1.1.1.1");
+	private static final IpAddress SERVER = new IpAddress("8.8.8.8");
+
+	NatTable nat;
+	NetworkInterface eth0;	// inside
+	NetworkInterface eth1;	// outside
+
+	@Before
+	public void setUp() {
+		nat = new NatTable(null);
+		eth0 = new NetworkInterface(1, "eth0", null);
+		eth1 = new NetworkInterface(2, "eth1", null);
+		nat.addInside(eth0);
+		nat.setOutside(eth1);
+		nat.lAccess.addAccessList(new IPwithNetmask("192.168.1.0", 24), 1);
+		nat.lPool.addPool(PUBLIC, PUBLIC, 24, "ovrld");
+		nat.lPoolAccess.addPoolAccess(1, "ovrld", true);
+	}
+
+	private IpPacket out(String src, int srcPort) {
+		IpPacket p = nat.translate(new IpPacket(new IpAddress(src), SERVER, 64, new UdpPacket(srcPort, 53, null)), eth0, eth1);
+		assertEquals(PUBLIC, p.src);
+		return p;
+	}
+
+	private IpPacket back(int dstPort) {
+		return nat.backwardTranslate(new IpPacket(SERVER, PUBLIC, 64, new UdpPacket(53, dstPort, null)), eth1);
+	}
+
+	@Test
+	public void testSameFlowReusesRecord() {
+		int port = out("192.168.1.2", 1000).data.getPortSrc();
+		assertEquals(port, out("192.168.1.2", 1000).data.getPortSrc());
+		assertEquals(1, nat.getDynamicRules().size());
+
+		assertTrue(port != out("192.168.1.2", 1001).data.getPortSrc());
+		assertTrue(port != out("192.168.1.3", 1000).data.getPortSrc());
+		assertEquals(3, nat.getDynamicRules().size());
+	}
+
+	@Test
+	public void testBackwardTranslation() {
+		int port1 = out("192.168.1.2", 1000).data.getPortSrc();
+		int port2 = out("192.168.1.3", 2000).data.getPortSrc();
+
+		IpPacket p = back(port2);
+		assertEquals(new IpAddress("192.168.1.3"), p.dst);
+		assertEquals(2000, p.data.getPortDst());
+		p = back(port1);
+		assertEquals(new IpAddress("192.168.1.2"), p.dst);
+		assertEquals(1000, p.data.getPortDst());
+
+		p = back(port1 + port2);	// takovej preklad neni
+		assertEquals(PUBLIC, p.dst);
+	}
+
+	@Test
+	public void testDynamicRulesSortedByOutside() {
+		for (int i = 0; i < 5; i++) {
+			out("192.168.1." + (10 - i), 1000);
+		}
+		List<NatTable.Record> rules = nat.getDynamicRules();
+		assertEquals(5, rules.size());
+		for (int i = 1; i < rules.size(); i++) {
+			assertTrue(rules.get(i - 1).out.port < rules.get(i).out.port);
+		}
+	}
+
+	@Test
+	public void testUnusedRecordExpires() throws InterruptedException {
+		nat.setNatRecordLife(50);
+		int port = out("192.168.1.2", 1000).data.getPortSrc();
+		Thread.sleep(100);
+
+		nat.deleteOldDynamicRecords();
+		assertTrue(nat.getDynamicRules().isEmpty());
+		assertEquals(PUBLIC, back(port).dst);	// zaznam uz neni, paket se neprelozi
+	}
+
+	@Test
+	public void testUsedRecordDoesNotExpire() throws InterruptedException {
+		nat.setNatRecordLife(300);
+		int port = out("192.168.1.2", 1000).data.getPortSrc();
+		out("192.168.1.3", 1000);
+		Thread.sleep(200);
+		out("192.168.1.2", 1000);	// prodlouzi zivot jen prvnimu zaznamu
+		Thread.sleep(200);
+
+		nat.deleteOldDynamicRecords();
+		List<NatTable.Record> rules = nat.getDynamicRules();
+		assertEquals(1, rules.size());
+		assertEquals(port, rules.get(0).out.port);
+		assertEquals(new IpAddress("192.168.1.2"), back(port).dst);
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * created 18.10.2026
+ */
+package physicalModule;
+
+import dataStructures.MacAddress;
+import dataStructures.ipAddresses.IpAddress;
+import dataStructures.packets.DhcpPacket;
+import dataStructures.packets.EthernetPacket;
+import dataStructures.packets.IcmpPacket;
+import dataStructures.packets.IpPacket;
+import dataStructures.packets.L2Packet;
+import dataStructures.packets.L3Packet;
+import dataStructures.packets.RawData;
+import dataStructures.packets.UdpPacket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of FrameEncoder and FrameDecoder, packets are encoded and decoded back.
+ */
+public class FrameCodecTest {
+
+	private static final MacAddress MAC_SRC = MacAddress.valueOf(0x0a0000000001L);
+	private static final MacAddress MAC_DST = MacAddress.valueOf(0x0a0000000002L);
+	private static final IpAddress IP_SRC = new IpAddress("192.168.1.10");
+	private static final IpAddress IP_DST = new IpAddress("10.0.0.1");
+
+	FrameEncoder encoder;
+	FrameDecoder decoder;
+
+	@Before
+	public void setUp() {
+		encoder = new FrameEncoder();
+		decoder = new FrameDecoder();
+	}
+
+	private static EthernetPacket frame(IpPacket ip) {
+		return new EthernetPacket(MAC_SRC, MAC_DST, L3Packet.L3PacketType.IPv4, ip);
+	}
+
+	private ByteBuffer encode(L2Packet packet) {
+		ByteBuffer buffer = ByteBuffer.allocate(encoder.frameSize(packet));
+		assertTrue(encoder.encode(packet, buffer));
+		assertEquals(0, buffer.remaining());
+		buffer.flip();
+		return buffer;
+	}
+
+	@Test
+	public void testUdpRoundTrip() {
+		byte[] payload = {1, 2, 3, 4, 5};	// lichej pocet bajtu
+		UdpPacket udp = new UdpPacket(5353, 53, new RawData(payload));
+		EthernetPacket packet = frame(new IpPacket(IP_SRC, IP_DST, 64, udp));
+		assertEquals(FrameEncoder.ETHERNET_HEADER + FrameEncoder.IP_HEADER + FrameEncoder.UDP_HEADER + payload.length,
+				encoder.frameSize(packet));
+
+		ByteBuffer buffer = encode(packet);
+		assertEquals(0x11, buffer.get(FrameEncoder.ETHERNET_HEADER + 9));
+		assertEquals(FrameEncoder.UDP_HEADER + payload.length, buffer.getShort(FrameEncoder.ETHERNET_HEADER + FrameEncoder.IP_HEADER + 4));
+
+		EthernetPacket decoded = (EthernetPacket) decoder.decode(buffer);
+		assertNotNull(decoder.lastError, decoded);
+		assertEquals(MAC_SRC, decoded.src);
+		assertEquals(MAC_DST, decoded.dst);
+		IpPacket ip = (IpPacket) decoded.data;
+		assertEquals(IP_SRC, ip.src);
+		assertEquals(IP_DST, ip.dst);
+		assertEquals(64, ip.ttl);
+		UdpPacket decodedUdp = (UdpPacket) ip.data;
+		assertEquals(5353, decodedUdp.srcPort);
+		assertEquals(53, decodedUdp.dstPort);
+		assertArrayEquals(payload, ((RawData) decodedUdp.getData()).getBytes());
+	}
+
+	@Test
+	public void testUdpChecksum() {
+		byte[] payload = {0x12, 0x34, 0x56};
+		ByteBuffer frame = encode(frame(new IpPacket(IP_SRC, IP_DST, 64, new UdpPacket(1024, 2048, new RawData(payload)))));
+		int udpStart = FrameEncoder.ETHERNET_HEADER + FrameEncoder.IP_HEADER;
+		int udpLength = FrameEncoder.UDP_HEADER + payload.length;
+
+		// pseudohlavicka a UDP segment dohromady musi dat nulovej checksum
+		ByteBuffer check = ByteBuffer.allocate(12 + udpLength);
+		check.putInt(IP_SRC.getBits()).putInt(IP_DST.getBits());
+		check.put((byte) 0).put((byte) 0x11).putShort((short) udpLength);
+		for (int i = 0; i < udpLength; i++) {
+			check.put(frame.get(udpStart + i));
+		}
+		assertEquals(0, FrameEncoder.checksum(check, 0, check.capacity()));
+		assertEquals(0, FrameEncoder.checksum(frame, FrameEncoder.ETHERNET_HEADER, udpStart));
+	}
+
+	@Test
+	public void testUdpWithoutData() {
+		ByteBuffer buffer = encode(frame(new IpPacket(IP_SRC, IP_DST, 64, new UdpPacket(1, 2, null))));
+		UdpPacket udp = (UdpPacket) ((IpPacket) ((EthernetPacket) decoder.decode(buffer)).data).data;
+		assertEquals(0, ((RawData) udp.getData()).getSize());
+	}
+
+	@Test
+	public void testSimulatedUdpDataNotTranslated() {
+		DhcpPacket dhcp = new DhcpPacket(DhcpPacket.DhcpType.DISCOVER, 1, null, null, null, null, MAC_SRC);
+		EthernetPacket packet = frame(new IpPacket(IP_SRC, IP_DST, 64, new UdpPacket(68, 67, dhcp)));
+		assertEquals(-1, encoder.frameSize(packet));
+		assertFalse(encoder.encode(packet, ByteBuffer.allocate(1500)));
+	}
+
+	@Test
+	public void testIcmpEchoRoundTrip() {
+		byte[] payload = new byte[56];
+		Arrays.fill(payload, (byte) 7);
+		IcmpPacket icmp = new IcmpPacket(IcmpPacket.Type.REQUEST, IcmpPacket.Code.ZERO, 11, 3, payload.length, payload);
+		ByteBuffer buffer = encode(frame(new IpPacket(IP_SRC, IP_DST, 32, icmp)));
+
+		IpPacket ip = (IpPacket) ((EthernetPacket) decoder.decode(buffer)).data;
+		IcmpPacket decoded = (IcmpPacket) ip.data;
+		assertEquals(IcmpPacket.Type.REQUEST, decoded.type);
+		assertEquals(11, decoded.id);
+		assertEquals(3, decoded.seq);
+		assertArrayEquals(payload, decoded.payload);
+	}
+
+	@Test
+	public void testUnknownTransportProtocolDropped() {
+		ByteBuffer buffer = encode(frame(new IpPacket(IP_SRC, IP_DST, 64, new UdpPacket(1, 2, null))));
+		buffer.put(FrameEncoder.ETHERNET_HEADER + 9, (byte) 6);	// TCP
+		assertNull(decoder.decode(buffer));
+		assertNotNull(decoder.lastError);
+	}
+}
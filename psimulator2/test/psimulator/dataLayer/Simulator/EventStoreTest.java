@@ -0,0 +1,167 @@
+/*
+ * created 18.10.2026
+ */
+package psimulator.dataLayer.Simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import psimulator.dataLayer.SimulatorEvents.SimulatorEventWithDetails;
+import shared.SimulatorEvents.SerializedComponents.EventType;
+import shared.SimulatorEvents.SerializedComponents.PacketType;
+import shared.SimulatorEvents.SerializedComponents.SimulatorEvent;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of EventStore (chunks, spilling to disk, snapshots).
+ */
+public class EventStoreTest {
+
+    private static final PacketType[] PACKET_TYPES = PacketType.values();
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    /**
+     * Event number i, every fifth has no details text.
+     */
+    private static SimulatorEventWithDetails event(int i) {
+        SimulatorEvent simulatorEvent = new SimulatorEvent(i * 10L, i, i + 1, i % 7, PACKET_TYPES[i % PACKET_TYPES.length],
+                i % 5 == 0 ? null : "details " + i, EVENT_TYPES[i % EVENT_TYPES.length]);
+        return new SimulatorEventWithDetails(simulatorEvent, "pc" + (i % 3), i % 4 == 0 ? null : "router" + (i % 2),
+                null, null, null, null);
+    }
+
+    private static void assertEvent(int i, SimulatorEventWithDetails event) {
+        assertNotNull(event);
+        assertEquals(i * 10L, event.getTimeStamp());
+        assertEquals(i, event.getSourcceId());
+        assertEquals(i + 1, event.getDestId());
+        assertEquals(i % 7, event.getCableId());
+        assertEquals(PACKET_TYPES[i % PACKET_TYPES.length], event.getPacketType());
+        assertEquals(EVENT_TYPES[i % EVENT_TYPES.length], event.getEventType());
+        assertEquals(i % 5 == 0 ? null : "details " + i, event.getSimulatorEvent().getDetailsText());
+        assertEquals("pc" + (i % 3), event.getFrom());
+        assertEquals(i % 4 == 0 ? null : "router" + (i % 2), event.getTo());
+    }
+
+    @Test
+    public void testAddAndGet() {
+        EventStore store = new EventStore(0);
+        assertEquals(0, store.size());
+        assertNull(store.get(0));
+
+        for (int i = 0; i < 100; i++) {
+            store.add(event(i));
+        }
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertEvent(i, store.get(i));
+        }
+        assertNull(store.get(100));
+        assertNull(store.get(-1));
+    }
+
+    @Test
+    public void testChunkBoundaries() {
+        EventStore store = new EventStore(0);
+        int n = 2 * EventStore.CHUNK_SIZE + 1;
+        for (int i = 0; i < n; i++) {
+            store.add(event(i));
+        }
+        assertEquals(n, store.size());
+        int[] indexes = {0, EventStore.CHUNK_SIZE - 1, EventStore.CHUNK_SIZE, EventStore.CHUNK_SIZE + 1,
+            2 * EventStore.CHUNK_SIZE - 1, 2 * EventStore.CHUNK_SIZE};
+        for (int i : indexes) {
+            assertEvent(i, store.get(i));
+        }
+    }
+
+    @Test
+    public void testSpillAndReadBack() {
+        // v pameti zustane jen jeden plny chunk, ostatni jdou na disk
+        EventStore store = new EventStore(1);
+        int n = 4 * EventStore.CHUNK_SIZE + 123;
+        for (int i = 0; i < n; i++) {
+            store.add(event(i));
+        }
+        assertEquals(n, store.size());
+        for (int i = 0; i < n; i++) {
+            assertEvent(i, store.get(i));
+        }
+
+        List<SimulatorEvent> copy = store.getSimulatorEventsCopy();
+        assertEquals(n, copy.size());
+        for (int i = 0; i < n; i += 997) {
+            assertEquals(i * 10L, copy.get(i).getTimeStamp());
+        }
+        store.clear();
+    }
+
+    @Test
+    public void testAddAll() {
+        EventStore store = new EventStore(0);
+        List<SimulatorEventWithDetails> events = new ArrayList<>();
+        for (int i = 0; i < EventStore.CHUNK_SIZE + 10; i++) {
+            events.add(event(i));
+        }
+        store.addAll(events);
+        assertEquals(events.size(), store.size());
+        assertEvent(EventStore.CHUNK_SIZE + 9, store.get(EventStore.CHUNK_SIZE + 9));
+    }
+
+    @Test
+    public void testSnapshotDoesNotGrow() {
+        EventStore store = new EventStore(0);
+        for (int i = 0; i < 10; i++) {
+            store.add(event(i));
+        }
+        EventStore.Snapshot snapshot = store.snapshot();
+        store.add(event(10));
+
+        assertEquals(10, snapshot.size());
+        assertNull(snapshot.get(10));
+        assertEquals(11, store.size());
+        assertEquals(9 * 10L, snapshot.getSimulatorEvent(9).getTimeStamp());
+    }
+
+    @Test
+    public void testClearKeepsOldSnapshot() {
+        EventStore store = new EventStore(0);
+        int n = EventStore.CHUNK_SIZE + 10;
+        for (int i = 0; i < n; i++) {
+            store.add(event(i));
+        }
+        EventStore.Snapshot snapshot = store.snapshot();
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertNull(store.get(0));
+
+        // snapshot pred smazanim cte dal udalosti stary generace
+        assertEquals(n, snapshot.size());
+        assertEvent(0, snapshot.get(0));
+        assertEvent(n - 1, snapshot.get(n - 1));
+
+        // nove udalosti zacinaji od nuly a starej snapshot neovlivni
+        store.add(event(1000));
+        assertEquals(1, store.size());
+        assertEvent(1000, store.get(0));
+        assertEvent(0, snapshot.get(0));
+    }
+
+    @Test
+    public void testClearDeletesSpilledEvents() {
+        EventStore store = new EventStore(1);
+        int n = 3 * EventStore.CHUNK_SIZE;
+        for (int i = 0; i < n; i++) {
+            store.add(event(i));
+        }
+        EventStore.Snapshot snapshot = store.snapshot();
+
+        store.clear();
+
+        // soubor s odlozenymi chunky je smazany, z pameti se cte dal
+        assertNull(snapshot.get(0));
+        assertNull(snapshot.getSimulatorEvent(0));
+        assertEvent(n - 1, snapshot.get(n - 1));
+    }
+}
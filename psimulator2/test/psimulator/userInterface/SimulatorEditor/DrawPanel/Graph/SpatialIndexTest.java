@@ -0,0 +1,115 @@
+/*
+ * created 18.10.2026
+ */
+package psimulator.userInterface.SimulatorEditor.DrawPanel.Graph;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of SpatialIndex.
+ */
+public class SpatialIndexTest {
+
+    SpatialIndex<String> index;
+
+    @Before
+    public void setUp() {
+        index = new SpatialIndex<>();
+    }
+
+    @Test
+    public void testQuery() {
+        index.put("a", new Rectangle(10, 10, 20, 20));
+        index.put("b", new Rectangle(1000, 1000, 20, 20));
+        index.put("c", new Rectangle(-500, -500, 20, 20));
+        assertEquals(3, index.size());
+
+        assertEquals(Arrays.asList("a"), index.query(new Rectangle(0, 0, 100, 100)));
+        assertEquals(Arrays.asList("c"), index.query(new Rectangle(-490, -490, 1, 1)));
+        assertTrue(index.query(new Rectangle(500, 500, 10, 10)).isEmpty());
+        assertEquals(Arrays.asList("a", "b", "c"), index.query(new Rectangle(-10000, -10000, 20000, 20000)));
+    }
+
+    @Test
+    public void testTouchingAndEmptyArea() {
+        index.put("a", new Rectangle(10, 10, 20, 20));
+        // dotyk hranou se pocita
+        assertEquals(Arrays.asList("a"), index.query(new Rectangle(30, 30, 5, 5)));
+        // prazdna oblast kolem bodu
+        assertEquals(Arrays.asList("a"), index.query(new Rectangle(15, 15, 0, 0)));
+    }
+
+    @Test
+    public void testOrderOfPutting() {
+        index.put("first", new Rectangle(0, 0, 10, 10));
+        index.put("second", new Rectangle(300, 0, 10, 10));    // jina bunka
+        index.put("third", new Rectangle(5, 5, 10, 10));
+        // posunuti poradi nemeni
+        index.put("first", new Rectangle(600, 0, 10, 10));
+
+        assertEquals(Arrays.asList("first", "second", "third"), index.query(new Rectangle(0, 0, 1000, 20)));
+    }
+
+    @Test
+    public void testMoveAndRemove() {
+        index.put("a", new Rectangle(0, 0, 10, 10));
+        index.put("a", new Rectangle(2000, 2000, 10, 10));
+        assertEquals(1, index.size());
+        assertTrue(index.query(new Rectangle(0, 0, 20, 20)).isEmpty());
+        assertEquals(Arrays.asList("a"), index.query(new Rectangle(2000, 2000, 1, 1)));
+
+        // posunuti v ramci stejnych bunek
+        index.put("a", new Rectangle(2010, 2010, 10, 10));
+        assertTrue(index.query(new Rectangle(2000, 2000, 5, 5)).isEmpty());
+        assertEquals(Arrays.asList("a"), index.query(new Rectangle(2015, 2015, 1, 1)));
+
+        index.remove("a");
+        index.remove("a");
+        assertEquals(0, index.size());
+        assertTrue(index.query(new Rectangle(-10000, -10000, 20000, 20000)).isEmpty());
+    }
+
+    @Test
+    public void testItemOverManyCells() {
+        index.put("cable", new Rectangle(-300, -300, 1000, 1000));
+        assertEquals(Arrays.asList("cable"), index.query(new Rectangle(600, 600, 1, 1)));
+        assertEquals(Arrays.asList("cable"), index.query(new Rectangle(-300, -300, 2000, 2000)));    // jen jednou
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.query(new Rectangle(0, 0, 1, 1)).isEmpty());
+    }
+
+    /**
+     * Nahodny polozky porovnavane s prochazenim vsech.
+     */
+    @Test
+    public void testRandomAgainstLinearScan() {
+        Random random = new Random(7);
+        List<Rectangle> bounds = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Rectangle r = new Rectangle(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000,
+                    random.nextInt(300), random.nextInt(300));
+            bounds.add(r);
+            index.put(String.valueOf(i), r);
+        }
+        for (int q = 0; q < 200; q++) {
+            Rectangle area = new Rectangle(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000,
+                    random.nextInt(1000), random.nextInt(1000));
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < bounds.size(); i++) {
+                Rectangle r = bounds.get(i);
+                if (r.x <= area.x + area.width && area.x <= r.x + r.width
+                        && r.y <= area.y + area.height && area.y <= r.y + r.height) {
+                    expected.add(String.valueOf(i));
+                }
+            }
+            assertEquals(expected, index.query(area));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of Alarm (hashed timing wheel).
+ */
+public class AlarmTest {
+
+	private static Alarm alarm;
+
+	@BeforeClass
+	public static void setUpClass() {
+		alarm = new Alarm();
+	}
+
+	/**
+	 * Klient, kterej si pamatuje, kdy byl vzbuzen.
+	 */
+	private static class Client implements Wakeable {
+
+		final CountDownLatch woken = new CountDownLatch(1);
+		final AtomicInteger count = new AtomicInteger();
+		volatile long wokenAt;
+
+		@Override
+		public void wake() {
+			wokenAt = System.currentTimeMillis();
+			count.incrementAndGet();
+			woken.countDown();
+		}
+	}
+
+	@Test
+	public void testWakeNotBeforeTime() throws InterruptedException {
+		Client client = new Client();
+		long registered = System.currentTimeMillis();
+		alarm.registerWake(client, 100);
+
+		assertTrue(client.woken.await(2, TimeUnit.SECONDS));
+		assertTrue(client.wokenAt - registered >= 100);
+		assertEquals(1, client.count.get());
+	}
+
+	@Test
+	public void testZeroTime() throws InterruptedException {
+		Client client = new Client();
+		alarm.registerWake(client, 0);
+		assertTrue(client.woken.await(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testCancel() throws InterruptedException {
+		Client cancelled = new Client();
+		Client other = new Client();
+		Alarm.Timer timer = alarm.registerWake(cancelled, 50);
+		alarm.registerWake(other, 50);	// stejnej kyblicek
+
+		assertTrue(timer.cancel());
+		assertFalse(timer.cancel());	// podruhy uz neni co rusit
+
+		assertTrue(other.woken.await(2, TimeUnit.SECONDS));
+		Thread.sleep(50);
+		assertEquals(0, cancelled.count.get());
+	}
+
+	@Test
+	public void testCancelAfterWake() throws InterruptedException {
+		Client client = new Client();
+		Alarm.Timer timer = alarm.registerWake(client, 10);
+		assertTrue(client.woken.await(1, TimeUnit.SECONDS));
+		assertFalse(timer.cancel());
+	}
+
+	@Test
+	public void testOrderOfWakes() throws InterruptedException {
+		Client later = new Client();
+		Client sooner = new Client();
+		alarm.registerWake(later, 200);
+		alarm.registerWake(sooner, 50);
+
+		assertTrue(later.woken.await(2, TimeUnit.SECONDS));
+		assertTrue(sooner.woken.await(0, TimeUnit.SECONDS));
+		assertTrue(sooner.wokenAt <= later.wokenAt);
+	}
+
+	@Test
+	public void testManyWakes() throws InterruptedException {
+		final int n = 1000;
+		final CountDownLatch all = new CountDownLatch(n);
+		Wakeable client = new Wakeable() {
+			@Override
+			public void wake() {
+				all.countDown();
+			}
+		};
+		for (int i = 0; i < n; i++) {
+			alarm.registerWake(client, i % 100);
+		}
+		assertTrue(all.await(2, TimeUnit.SECONDS));
+	}
+}
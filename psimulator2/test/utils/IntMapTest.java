@@ -0,0 +1,113 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of IntMap.
+ */
+public class IntMapTest {
+
+	@Test
+	public void testPutGetRemove() {
+		IntMap<String> map = new IntMap<>();
+		assertTrue(map.isEmpty());
+		assertNull(map.put(1, "a"));
+		assertNull(map.put(-1, "b"));
+		assertNull(map.put(0, "c"));
+		assertEquals("a", map.put(1, "d"));	// prepsani
+		assertEquals(3, map.size());
+
+		assertEquals("d", map.get(1));
+		assertEquals("b", map.get(-1));
+		assertEquals("c", map.get(0));
+		assertNull(map.get(2));
+		assertTrue(map.containsKey(0));
+		assertFalse(map.containsKey(2));
+
+		assertEquals("b", map.remove(-1));
+		assertNull(map.remove(-1));
+		assertEquals(2, map.size());
+		assertNull(map.get(-1));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullValue() {
+		new IntMap<String>().put(1, null);
+	}
+
+	@Test
+	public void testKeysAndValues() {
+		IntMap<Integer> map = new IntMap<>(2);
+		for (int i = 0; i < 100; i++) {
+			map.put(i * 7, i);
+		}
+		int[] keys = map.keys();
+		Arrays.sort(keys);
+		assertEquals(100, keys.length);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i * 7, keys[i]);
+		}
+		assertEquals(100, map.values().size());
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertNull(map.get(7));
+		assertEquals(0, map.keys().length);
+	}
+
+	/**
+	 * Adresy jedny site se lisi jen v nizkych bitech, po odebrani nesmi v retezci zustat dira.
+	 */
+	@Test
+	public void testRemoveInCollisionChains() {
+		IntMap<Integer> map = new IntMap<>();
+		int base = 0xC0A80000;	// 192.168.0.0
+		for (int i = 0; i < 256; i++) {
+			map.put(base + i, i);
+		}
+		for (int i = 0; i < 256; i += 2) {
+			assertEquals(Integer.valueOf(i), map.remove(base + i));
+		}
+		for (int i = 0; i < 256; i++) {
+			if (i % 2 == 0) {
+				assertNull(map.get(base + i));
+			} else {
+				assertEquals(Integer.valueOf(i), map.get(base + i));
+			}
+		}
+		assertEquals(128, map.size());
+	}
+
+	/**
+	 * Nahodny operace porovnavane s HashMap.
+	 */
+	@Test
+	public void testRandomAgainstHashMap() {
+		Random random = new Random(42);
+		IntMap<Integer> map = new IntMap<>();
+		Map<Integer, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 100000; i++) {
+			int key = random.nextInt(2000) - 1000;
+			switch (random.nextInt(3)) {
+				case 0:
+				case 1:
+					assertEquals(expected.put(key, i), map.put(key, i));
+					break;
+				default:
+					assertEquals(expected.remove(key), map.remove(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (int key = -1000; key < 1000; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+	}
+}
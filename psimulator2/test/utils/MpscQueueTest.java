@@ -0,0 +1,128 @@
+/*
+ * created 18.10.2026
+ */
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of MpscQueue.
+ */
+public class MpscQueueTest {
+
+	@Test
+	public void testCapacityIsPowerOfTwo() {
+		assertEquals(1, new MpscQueue<Integer>(1).capacity());
+		assertEquals(8, new MpscQueue<Integer>(5).capacity());
+		assertEquals(16, new MpscQueue<Integer>(16).capacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroCapacity() {
+		new MpscQueue<Integer>(0);
+	}
+
+	@Test
+	public void testFifoAndFull() {
+		MpscQueue<Integer> q = new MpscQueue<>(4);
+		assertTrue(q.isEmpty());
+		assertNull(q.poll());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(q.offer(i));
+		}
+		assertFalse(q.offer(4));	// plna fronta
+		assertEquals(4, q.size());
+
+		assertEquals(Integer.valueOf(0), q.poll());
+		assertTrue(q.offer(4));	// uvolnenej slot se pouzije v dalsim kole
+		for (int i = 1; i <= 4; i++) {
+			assertEquals(Integer.valueOf(i), q.poll());
+		}
+		assertTrue(q.isEmpty());
+		assertEquals(0, q.size());
+	}
+
+	@Test
+	public void testWrapAround() {
+		MpscQueue<Integer> q = new MpscQueue<>(4);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(q.offer(i));
+			assertTrue(q.offer(-i));
+			assertEquals(Integer.valueOf(i), q.poll());
+			assertEquals(Integer.valueOf(-i), q.poll());
+		}
+		assertTrue(q.isEmpty());
+	}
+
+	@Test
+	public void testDrainTo() {
+		MpscQueue<Integer> q = new MpscQueue<>(16);
+		for (int i = 0; i < 10; i++) {
+			q.offer(i);
+		}
+		List<Integer> target = new ArrayList<>();
+		assertEquals(4, q.drainTo(target, 4));
+		assertEquals(6, q.drainTo(target, 100));
+		assertEquals(0, q.drainTo(target, 100));
+		for (int i = 0; i < 10; i++) {
+			assertEquals(Integer.valueOf(i), target.get(i));
+		}
+	}
+
+	/**
+	 * Vic producentu najednou, konzument musi dostat vsechno a od kazdyho producenta ve spravnym poradi.
+	 */
+	@Test
+	public void testManyProducers() throws InterruptedException {
+		final int producers = 4;
+		final int perProducer = 100000;
+		final MpscQueue<long[]> q = new MpscQueue<>(1024);
+		final CountDownLatch start = new CountDownLatch(1);
+
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			final int id = p;
+			Thread t = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException ex) {
+						return;
+					}
+					for (int i = 0; i < perProducer; i++) {
+						long[] e = {id, i};
+						while (!q.offer(e)) {
+							Thread.yield();
+						}
+					}
+				}
+			};
+			t.start();
+			threads.add(t);
+		}
+
+		start.countDown();
+		long[] next = new long[producers];
+		int received = 0;
+		while (received < producers * perProducer) {
+			long[] e = q.poll();
+			if (e == null) {
+				Thread.yield();
+				continue;
+			}
+			assertEquals(next[(int) e[0]], e[1]);
+			next[(int) e[0]]++;
+			received++;
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertTrue(q.isEmpty());
+	}
+}